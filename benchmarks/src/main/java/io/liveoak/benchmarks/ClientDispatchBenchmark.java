@@ -0,0 +1,88 @@
+/*
+ * Copyright 2014 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package io.liveoak.benchmarks;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import io.liveoak.container.LiveOakFactory;
+import io.liveoak.container.LiveOakSystem;
+import io.liveoak.container.service.ClientConnectorService;
+import io.liveoak.container.tenancy.InternalApplication;
+import io.liveoak.spi.RequestContext;
+import io.liveoak.spi.client.Client;
+import io.liveoak.spi.client.ClientResourceResponse;
+import io.liveoak.spi.resource.async.DefaultRootResource;
+import io.liveoak.testtools.MockExtension;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reads a resource through the in-VM client, either over the local channel or dispatched directly into the container.
+ *
+ * <p>Build with <code>mvn package -Dbenchmarks</code> and run with <code>java -jar benchmarks/target/benchmarks.jar</code>.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClientDispatchBenchmark {
+
+    /**
+     * How the client hands requests to the container: over the local channel, or directly.
+     */
+    @Param({"channel", "direct"})
+    public String dispatch;
+
+    @Setup
+    public void setUp() throws Exception {
+        if ("direct".equals(this.dispatch)) {
+            System.setProperty(ClientConnectorService.DISPATCH_PROPERTY, "direct");
+        } else {
+            System.clearProperty(ClientConnectorService.DISPATCH_PROPERTY);
+        }
+
+        this.system = LiveOakFactory.create();
+        this.system.awaitStability();
+
+        InternalApplication application = this.system.applicationRegistry().createApplication("testApp", "Test Application");
+        this.system.extensionInstaller().load("db", new MockExtension(DefaultRootResource.class));
+        application.extend("db");
+        this.system.awaitStability();
+
+        this.client = this.system.client();
+        this.requestContext = new RequestContext.Builder().build();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        this.system.stop();
+        System.clearProperty(ClientConnectorService.DISPATCH_PROPERTY);
+    }
+
+    @Benchmark
+    public ClientResourceResponse read() throws Exception {
+        CompletableFuture<ClientResourceResponse> future = new CompletableFuture<>();
+        this.client.read(this.requestContext, "/testApp/db", future::complete);
+        return future.get();
+    }
+
+    private LiveOakSystem system;
+    private Client client;
+    private RequestContext requestContext;
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2014 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package io.liveoak.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.liveoak.common.DefaultSecurityContext;
+import io.liveoak.common.security.AuthzDecision;
+import io.liveoak.security.policy.drools.impl.DroolsPolicy;
+import io.liveoak.security.policy.drools.impl.DroolsPolicyConfigurator;
+import io.liveoak.security.policy.drools.integration.DroolsPolicyConfig;
+import io.liveoak.security.policy.drools.integration.DroolsPolicyConfigRule;
+import io.liveoak.spi.RequestContext;
+import io.liveoak.spi.RequestType;
+import io.liveoak.spi.ResourceParams;
+import io.liveoak.spi.ResourcePath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Authorization checks against a Drools policy from several threads, which compete for the pooled sessions.
+ *
+ * <p>Build with <code>mvn package -Dbenchmarks</code> and run with <code>java -jar benchmarks/target/benchmarks.jar</code>.
+ * The number of threads can be changed with <code>-t</code>.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class DroolsPolicyBenchmark {
+
+    @Setup
+    public void setUp() {
+        List<DroolsPolicyConfigRule> rules = new ArrayList<>();
+        rules.add(rule(10, "/droolsTest/{ $securityContext.subject }", null, "$securityContext.subject"));
+        rules.add(rule(20, "/droolsTest/*", "\"evilRole\"", null));
+
+        DroolsPolicyConfig config = new DroolsPolicyConfig();
+        config.setRules(rules);
+        this.policy = new DroolsPolicy();
+        new DroolsPolicyConfigurator().configure(this.policy, config);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.policy.getSessionPool().close();
+    }
+
+    /**
+     * Requests of a single subject, one for its own resource and one for a resource of someone else.
+     */
+    @State(Scope.Thread)
+    public static class Subject {
+
+        private static final AtomicInteger COUNTER = new AtomicInteger();
+
+        @Setup
+        public void setUp() {
+            String subject = "user" + COUNTER.getAndIncrement();
+            DefaultSecurityContext securityContext = new DefaultSecurityContext();
+            securityContext.setRealm("myRealm");
+            securityContext.setSubject(subject);
+            securityContext.setRoles(new HashSet<>(Arrays.asList("role1")));
+            this.own = new RequestContext.Builder().requestType(RequestType.READ)
+                    .resourcePath(new ResourcePath("/droolsTest/" + subject)).resourceParams(ResourceParams.NONE).securityContext(securityContext);
+            this.foreign = new RequestContext.Builder().requestType(RequestType.READ)
+                    .resourcePath(new ResourcePath("/droolsTest/someoneElse")).resourceParams(ResourceParams.NONE).securityContext(securityContext);
+        }
+
+        private RequestContext own;
+        private RequestContext foreign;
+    }
+
+    @Benchmark
+    public AuthzDecision accepted(Subject subject) {
+        return this.policy.isAuthorized(subject.own);
+    }
+
+    @Benchmark
+    public AuthzDecision ignored(Subject subject) {
+        return this.policy.isAuthorized(subject.foreign);
+    }
+
+    private static DroolsPolicyConfigRule rule(int priority, String uriPattern, String deniedRoles, String allowedUsers) {
+        DroolsPolicyConfigRule rule = new DroolsPolicyConfigRule();
+        rule.setPriority(priority);
+        rule.setUriPattern(uriPattern);
+        rule.setRequestType("*");
+        rule.setDeniedRoles(deniedRoles);
+        rule.setAllowedUsers(allowedUsers);
+        return rule;
+    }
+
+    private DroolsPolicy policy;
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2014 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package io.liveoak.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.liveoak.common.DefaultResourceRequest;
+import io.liveoak.container.interceptor.InterceptorDispatchTable;
+import io.liveoak.container.interceptor.extension.InterceptorConfigEntry;
+import io.liveoak.container.interceptor.extension.InterceptorsConfig;
+import io.liveoak.spi.RequestType;
+import io.liveoak.spi.ResourcePath;
+import io.liveoak.spi.ResourceRequest;
+import io.liveoak.spi.container.interceptor.DefaultInterceptor;
+import io.liveoak.spi.container.interceptor.Interceptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Looks up the interceptors that apply to a request, for a growing number of configured interceptors.
+ *
+ * <p>Build with <code>mvn package -Dbenchmarks</code> and run with <code>java -jar benchmarks/target/benchmarks.jar</code>.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InterceptorDispatchBenchmark {
+
+    /**
+     * Number of configured interceptors. A third of them apply to every path, the others to one of five
+     * storage resources, and half of them to reads only.
+     */
+    @Param({"1", "10", "50"})
+    public int count;
+
+    @Setup
+    public void setUp() {
+        Map<String, Interceptor> interceptors = new HashMap<>();
+        List<InterceptorConfigEntry> entries = new ArrayList<>();
+        for (int i = 0; i < this.count; ++i) {
+            String name = "interceptor-" + i;
+            interceptors.put(name, new DefaultInterceptor());
+            InterceptorConfigEntry entry = new InterceptorConfigEntry();
+            entry.setInterceptorName(name);
+            entry.setResourcePathMapping((i % 3 == 0) ? null : "/app" + (i % 5) + "/storage");
+            entry.setRequestType((i % 2 == 0) ? "*" : "READ");
+            entries.add(entry);
+        }
+        InterceptorsConfig config = new InterceptorsConfig();
+        config.addChainConfig("http", entries);
+
+        this.table = InterceptorDispatchTable.compile(config, interceptors);
+        this.request = new DefaultResourceRequest.Builder(RequestType.READ, new ResourcePath("/app1/storage/todos/1")).build();
+    }
+
+    @Benchmark
+    public List<Interceptor> lookup() {
+        return this.table.interceptors("http", this.request);
+    }
+
+    private InterceptorDispatchTable table;
+    private ResourceRequest request;
+}
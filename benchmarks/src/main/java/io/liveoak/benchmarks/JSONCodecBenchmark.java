@@ -0,0 +1,154 @@
+/*
+ * Copyright 2014 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package io.liveoak.benchmarks;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.liveoak.common.DefaultResourceParams;
+import io.liveoak.common.codec.DefaultResourceState;
+import io.liveoak.common.codec.ResourceCodec;
+import io.liveoak.common.codec.json.JSONDecoder;
+import io.liveoak.common.codec.json.JSONEncoder;
+import io.liveoak.spi.RequestContext;
+import io.liveoak.spi.state.ResourceState;
+import io.netty.buffer.ByteBuf;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Encodes and decodes resource states the way responses and request bodies are.
+ *
+ * <p>Build with <code>mvn package -Dbenchmarks</code> and run with <code>java -jar benchmarks/target/benchmarks.jar</code>.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JSONCodecBenchmark {
+
+    /**
+     * Shape of the state: a single flat object, an object with nested objects and lists, or a collection of
+     * 100 of the latter as members.
+     */
+    @Param({"flat", "nested", "collection"})
+    public String shape;
+
+    @Setup
+    public void setUp() throws Exception {
+        this.state = state(this.shape);
+        this.codec = new ResourceCodec(JSONEncoder.class, new JSONDecoder());
+        this.compact = new RequestContext.Builder().build();
+        this.pretty = new RequestContext.Builder()
+                .resourceParams(DefaultResourceParams.instance(Collections.singletonMap(JSONEncoder.PRETTY_PARAM, Collections.singletonList("true"))))
+                .build();
+        this.encoded = this.codec.encode(this.compact, this.state);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.encoded.release();
+    }
+
+    @Benchmark
+    public int encode() throws Exception {
+        return release(this.codec.encode(this.compact, this.state));
+    }
+
+    @Benchmark
+    public int encodePretty() throws Exception {
+        return release(this.codec.encode(this.pretty, this.state));
+    }
+
+    @Benchmark
+    public ResourceState decode() throws Exception {
+        return this.codec.decode(this.encoded.duplicate());
+    }
+
+    private static int release(ByteBuf buffer) {
+        int size = buffer.readableBytes();
+        buffer.release();
+        return size;
+    }
+
+    static ResourceState state(String shape) throws Exception {
+        switch (shape) {
+            case "flat":
+                return flat("bob");
+            case "nested":
+                return nested("bob");
+            case "collection":
+                DefaultResourceState collection = new DefaultResourceState("people");
+                collection.uri(new URI("/testApp/storage/people"));
+                for (int i = 0; i < 100; ++i) {
+                    collection.addMember(nested("person-" + i));
+                }
+                return collection;
+            default:
+                throw new IllegalArgumentException("Unknown shape: " + shape);
+        }
+    }
+
+    private static DefaultResourceState flat(String id) throws Exception {
+        DefaultResourceState state = new DefaultResourceState(id);
+        state.uri(new URI("/testApp/storage/people/" + id));
+        state.putProperty("name", "Bob McWhirter");
+        state.putProperty("email", "bob@example.com");
+        state.putProperty("age", 42);
+        state.putProperty("score", 97.5);
+        state.putProperty("active", true);
+        state.putProperty("created", new Date(1400000000000L));
+        return state;
+    }
+
+    private static DefaultResourceState nested(String id) throws Exception {
+        DefaultResourceState state = flat(id);
+
+        DefaultResourceState address = new DefaultResourceState();
+        address.putProperty("street", "100 East Davie Street");
+        address.putProperty("city", "Raleigh");
+        address.putProperty("zip", "27601");
+        state.putProperty("address", address);
+
+        List<Object> tags = new ArrayList<>();
+        tags.add("admin");
+        tags.add("developer");
+        tags.add("reviewer");
+        state.putProperty("tags", tags);
+
+        List<Object> dogs = new ArrayList<>();
+        for (String name : new String[]{"Moses", "Stanley", "Toby"}) {
+            DefaultResourceState dog = new DefaultResourceState();
+            dog.putProperty("name", name);
+            dog.putProperty("breed", "German Shepherd");
+            dogs.add(dog);
+        }
+        state.putProperty("dogs", dogs);
+        return state;
+    }
+
+    private ResourceState state;
+    private ResourceCodec codec;
+    private RequestContext compact;
+    private RequestContext pretty;
+    private ByteBuf encoded;
+}
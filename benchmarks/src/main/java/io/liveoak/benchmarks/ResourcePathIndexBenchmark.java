@@ -0,0 +1,73 @@
+/*
+ * Copyright 2014 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package io.liveoak.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import io.liveoak.common.util.ResourcePathIndex;
+import io.liveoak.spi.ResourcePath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Matches a resource path against an index of patterns, the way subscriptions and URI policy rules are looked up.
+ *
+ * <p>Build with <code>mvn package -Dbenchmarks</code> and run with <code>java -jar benchmarks/target/benchmarks.jar</code>.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResourcePathIndexBenchmark {
+
+    /**
+     * Number of collections. Each has a pattern for the collection, one for all its members and one for a single member.
+     */
+    @Param({"10", "100", "1000"})
+    public int collections;
+
+    @Setup
+    public void setUp() {
+        this.index = new ResourcePathIndex<>();
+        for (int i = 0; i < this.collections; ++i) {
+            String collection = "/testApp/storage/collection" + i;
+            this.index.addObject(collection, new ResourcePath(collection));
+            this.index.addObject(collection + "/*", new ResourcePath(collection + "/*"));
+            this.index.addObject(collection + "/member", new ResourcePath(collection + "/member"));
+        }
+        this.deepIndex = new ResourcePathIndex<>();
+        this.index.objects().forEach((pattern) -> this.deepIndex.addObject(pattern, new ResourcePath(pattern)));
+        this.deepIndex.addObject("/testApp/**", new ResourcePath("/testApp/**"));
+
+        this.path = new ResourcePath("/testApp/storage/collection" + (this.collections / 2) + "/member");
+    }
+
+    @Benchmark
+    public void match(Blackhole blackhole) {
+        this.index.forEachMatch(this.path, blackhole::consume);
+    }
+
+    @Benchmark
+    public void matchWithDeepWildcard(Blackhole blackhole) {
+        this.deepIndex.forEachMatch(this.path, blackhole::consume);
+    }
+
+    private ResourcePathIndex<String> index;
+    private ResourcePathIndex<String> deepIndex;
+    private ResourcePath path;
+}
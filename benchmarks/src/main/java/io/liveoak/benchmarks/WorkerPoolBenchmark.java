@@ -0,0 +1,79 @@
+/*
+ * Copyright 2014 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package io.liveoak.benchmarks;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import io.liveoak.container.WorkerPoolImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runs a burst of tasks which block for a few millis, like a read against Mongo, on the worker pool
+ * with platform or virtual threads. Each invocation submits all tasks of the burst and waits for them to complete.
+ *
+ * <p>Build with <code>mvn package -Dbenchmarks</code> and run with <code>java -jar benchmarks/target/benchmarks.jar</code>.
+ * Add <code>-prof gc</code> to compare the memory used by both modes. Virtual threads need a Java 21 runtime,
+ * on older runtimes both modes use platform threads.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorkerPoolBenchmark {
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    public WorkerPoolImpl.Mode mode;
+
+    /**
+     * Number of tasks in a burst, all of them are accepted by the pool.
+     */
+    @Param({"1000", "10000"})
+    public int concurrency;
+
+    @Setup
+    public void setUp() {
+        this.pool = new WorkerPoolImpl(this.mode, WorkerPoolImpl.DEFAULT_MAX_SIZE, this.concurrency, 1000, 0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.pool.shutdown();
+    }
+
+    @Benchmark
+    public void burst() throws Exception {
+        CountDownLatch done = new CountDownLatch(this.concurrency);
+        for (int i = 0; i < this.concurrency; ++i) {
+            this.pool.execute("app", () -> {
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                done.countDown();
+            });
+        }
+        if (!done.await(60, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Tasks didn't complete");
+        }
+    }
+
+    private WorkerPoolImpl pool;
+}
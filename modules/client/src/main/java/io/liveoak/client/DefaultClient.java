@@ -3,6 +3,8 @@ package io.liveoak.client;
 import java.net.SocketAddress;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 
 import io.liveoak.common.DefaultResourceRequest;
@@ -22,7 +24,8 @@ import io.liveoak.spi.UpdateNotSupportedException;
 import io.liveoak.spi.client.Client;
 import io.liveoak.spi.client.ClientResourceResponse;
 import io.liveoak.spi.state.ResourceState;
-import io.netty.channel.local.LocalAddress;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.EventExecutor;
 import org.jboss.logging.Logger;
 
 /**
@@ -30,36 +33,49 @@ import org.jboss.logging.Logger;
  */
 public class DefaultClient implements Client {
 
+    public static final String SYNC_CONNECTIONS_PROPERTY = "io.liveoak.client.sync-connections";
+    public static final String SYNC_TIMEOUT_PROPERTY = "io.liveoak.client.sync-timeout-ms";
+
+    public static final long DEFAULT_SYNC_TIMEOUT = 30000;
+
     public DefaultClient() {
 
     }
 
     //@Override
     public void connect(SocketAddress address) throws Exception {
-        log.debug("connect local client");
-        this.connection = new LocalConnection(this);
-        this.connection.connect(address);
+        connect(address, new LocalConnection(this));
     }
 
-    //@Override
-    public void close() {
-        this.connection.close();
+    /**
+     * Connect using the supplied connection for asynchronous calls. Synchronous calls
+     * are always made over local connections to the address.
+     */
+    public void connect(SocketAddress address, Connection connection) throws Exception {
+        connect(address, connection, null);
     }
 
     /**
-     * Creates a new client to be used with synchronous calls.
-     *
-     * Note: A new client is required for synchronous calls since since
-     * if a synchronous call occurs within an asynchronous one it will block.
-     *
-     * @return A new client for performing synchronous calls
-     * @throws Exception
+     * Connect using the supplied connection for asynchronous calls, to a server running on
+     * <code>serverGroup</code>. Synchronous calls made from the threads of that group are refused,
+     * since the server may need the blocked thread to deliver the response.
      */
-    private DefaultClient createSyncClient() throws Exception {
-        DefaultClient syncClient = new DefaultClient();
-        syncClient.connect(new LocalAddress("liveoak"));
+    public void connect(SocketAddress address, Connection connection, EventLoopGroup serverGroup) throws Exception {
+        log.debug("connect local client");
+        this.connection = connection;
+        this.connection.connect(address);
+        this.eventLoopGroup = serverGroup;
 
-        return syncClient;
+        // synchronous calls get connections of their own, since a synchronous call made
+        // from within an asynchronous handler would otherwise block its own response.
+        this.syncConnections = new LocalConnectionPool(this, Integer.getInteger(SYNC_CONNECTIONS_PROPERTY, Runtime.getRuntime().availableProcessors()));
+        this.syncConnections.connect(address);
+    }
+
+    //@Override
+    public void close() {
+        this.connection.close();
+        this.syncConnections.close();
     }
 
     /**
@@ -92,28 +108,11 @@ public class DefaultClient implements Client {
      */
     @Override
     public ResourceState create(RequestContext context, String path, ResourceState state) throws Exception {
-        CompletableFuture<ResourceState> future = new CompletableFuture<>();
-
-        DefaultClient syncClient = createSyncClient();
-        syncClient.create(context, path, state, (response) -> {
-            if (response.responseType() == ClientResourceResponse.ResponseType.OK) {
-                future.complete(response.state());
-            } else {
-                handleError(response, future);
-            }
-        });
-
-        try {
-            ResourceState resourceState = future.get();
-            syncClient.close();
-            return resourceState;
-        } catch (ExecutionException e) {
-            e.getCause().fillInStackTrace();
-            if (e.getCause() instanceof ResourceException) {
-                throw (ResourceException) e.getCause();
-            }
-            throw e;
-        }
+        ResourceRequest request = new DefaultResourceRequest.Builder(RequestType.CREATE, new ResourcePath(path))
+                .resourceState(state)
+                .requestContext(context)
+                .build();
+        return execute(request);
     }
 
     /**
@@ -143,30 +142,10 @@ public class DefaultClient implements Client {
      */
     @Override
     public ResourceState read(RequestContext context, String path) throws Exception {
-        CompletableFuture<ResourceState> future = new CompletableFuture<>();
-
-        DefaultClient syncClient = createSyncClient();
-        syncClient.read(context, path, (response) -> {
-            if (response.responseType() == ClientResourceResponse.ResponseType.OK) {
-                future.complete(response.state());
-            } else {
-                handleError(response, future);
-            }
-        });
-
-        try {
-            ResourceState resourceState = future.get();
-            syncClient.close();
-            return resourceState;
-        } catch (ExecutionException e) {
-            if (e.getCause() != null) {
-                e.getCause().fillInStackTrace();
-            }
-            if (e.getCause() instanceof ResourceException) {
-                throw (ResourceException) e.getCause();
-            }
-            throw e;
-        }
+        ResourceRequest request = new DefaultResourceRequest.Builder(RequestType.READ, new ResourcePath(path))
+                .requestContext(context)
+                .build();
+        return execute(request);
     }
 
     /**
@@ -209,28 +188,54 @@ public class DefaultClient implements Client {
      */
     @Override
     public ResourceState update(RequestContext context, String path, ResourceState state) throws Exception {
-        CompletableFuture<ResourceState> future = new CompletableFuture<>();
+        ResourceRequest request = new DefaultResourceRequest.Builder(RequestType.UPDATE, new ResourcePath(path))
+                .resourceState(state)
+                .requestContext(context)
+                .build();
+        return execute(request);
+    }
 
-        DefaultClient syncClient = createSyncClient();
-        syncClient.update(context, path, state, (response) -> {
-            if (response.responseType() == ClientResourceResponse.ResponseType.OK) {
-                future.complete(response.state());
-            } else {
-                handleError(response, future);
-            }
-        });
+    /**
+     * Perform an asynchronous PATCH action.
+     * <p>
+     * <p>PATCH merges the inbound state into the existing resource,
+     * unlike UPDATE it doesn't create a missing resource.</p>
+     *
+     * @param context The request context.
+     * @param path    The path portion of the resource's URI.
+     * @param state   The merge patch to apply.
+     * @param handler Asynchronously result handler.
+     */
+    @Override
+    public void patch(RequestContext context, String path, ResourceState state, Consumer<ClientResourceResponse> handler) {
+        ResourceRequest request = new DefaultResourceRequest.Builder(RequestType.PATCH, new ResourcePath(path))
+                .resourceState(state)
+                .requestContext(context)
+                .build();
+        this.connection.write(new ClientRequest(request, handler));
+    }
 
-        try {
-            ResourceState resourceState = future.get();
-            syncClient.close();
-            return resourceState;
-        } catch (ExecutionException e) {
-            e.getCause().fillInStackTrace();
-            if (e.getCause() instanceof ResourceException) {
-                throw (ResourceException) e.getCause();
-            }
-            throw e;
-        }
+    /**
+     * Perform a synchronous PATCH action.
+     * <p>
+     * <p>PATCH merges the inbound state into the existing resource,
+     * unlike UPDATE it doesn't create a missing resource.</p>
+     *
+     * @param context The request context.
+     * @param path    The path portion of the resource's URI.
+     * @param state   The merge patch to apply.
+     * @return The resulting state of the request.
+     * @throws ResourceException
+     * @throws ExecutionException
+     * @throws InterruptedException
+     */
+    @Override
+    public ResourceState patch(RequestContext context, String path, ResourceState state) throws Exception {
+        ResourceRequest request = new DefaultResourceRequest.Builder(RequestType.PATCH, new ResourcePath(path))
+                .resourceState(state)
+                .requestContext(context)
+                .build();
+        return execute(request);
     }
 
     /**
@@ -260,23 +265,45 @@ public class DefaultClient implements Client {
      */
     @Override
     public ResourceState delete(RequestContext context, String path) throws Exception {
+        ResourceRequest request = new DefaultResourceRequest.Builder(RequestType.DELETE, new ResourcePath(path))
+                .requestContext(context)
+                .build();
+        return execute(request);
+    }
+
+    /**
+     * Perform a request over one of the synchronous connections and wait for its outcome.
+     *
+     * @param request The request to perform.
+     * @return The resulting state of the request.
+     * @throws ResourceException If the request failed or timed out.
+     */
+    protected ResourceState execute(ResourceRequest request) throws Exception {
+        if (inEventLoop()) {
+            // the response would have to be delivered by the very thread about to block on it
+            throw new IllegalStateException("Synchronous client calls cannot be made from an I/O thread");
+        }
+
         CompletableFuture<ResourceState> future = new CompletableFuture<>();
 
-        DefaultClient syncClient = createSyncClient();
-        syncClient.delete(context, path, (response) -> {
+        LocalConnection connection = this.syncConnections.next();
+        connection.write(new ClientRequest(request, (response) -> {
             if (response.responseType() == ClientResourceResponse.ResponseType.OK) {
                 future.complete(response.state());
             } else {
                 handleError(response, future);
             }
-        });
+        }));
 
         try {
-            ResourceState resourceState = future.get();
-            syncClient.close();
-            return resourceState;
+            return future.get(this.syncTimeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            connection.abandon(request.requestId());
+            throw new ResourceException(request.resourcePath().toString(), "No response within " + this.syncTimeout + "ms", e);
         } catch (ExecutionException e) {
-            e.getCause().fillInStackTrace();
+            if (e.getCause() != null) {
+                e.getCause().fillInStackTrace();
+            }
             if (e.getCause() instanceof ResourceException) {
                 throw (ResourceException) e.getCause();
             }
@@ -284,6 +311,20 @@ public class DefaultClient implements Client {
         }
     }
 
+    private boolean inEventLoop() {
+        if (this.syncConnections.inEventLoop()) {
+            return true;
+        }
+        if (this.eventLoopGroup != null) {
+            for (EventExecutor executor : this.eventLoopGroup) {
+                if (executor.inEventLoop()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     void handleError(ClientResourceResponse response, CompletableFuture<?> future) {
         switch (response.responseType()) {
             case NOT_AUTHORIZED:
@@ -310,13 +351,19 @@ public class DefaultClient implements Client {
             case DELETE_NOT_SUPPORTED:
                 future.completeExceptionally(new DeleteNotSupportedException(response.path()));
                 break;
+            case SERVICE_UNAVAILABLE:
+                future.completeExceptionally(new ResourceException(response.path(), response.message() != null ? response.message() : "service unavailable"));
+                break;
             case INTERNAL_ERROR:
-                future.completeExceptionally(new ResourceException("internal error"));
+                future.completeExceptionally(new ResourceException(response.path(), response.message() != null ? response.message() : "internal error"));
                 break;
         }
     }
 
     private Connection connection;
+    private LocalConnectionPool syncConnections;
+    private EventLoopGroup eventLoopGroup;
+    private final long syncTimeout = Long.getLong(SYNC_TIMEOUT_PROPERTY, DEFAULT_SYNC_TIMEOUT);
 
     private static final Logger log = Logger.getLogger(DefaultClient.class);
 }
@@ -1,6 +1,7 @@
 package io.liveoak.client;
 
 import java.net.SocketAddress;
+import java.util.UUID;
 
 import io.liveoak.client.protocol.LocalResponseHandler;
 import io.netty.bootstrap.Bootstrap;
@@ -18,8 +19,20 @@ import io.netty.channel.nio.NioEventLoopGroup;
 public class LocalConnection implements Connection {
 
     public LocalConnection(DefaultClient client) {
+        this(client, new NioEventLoopGroup(), true);
+    }
+
+    /**
+     * Create a connection on a group owned by someone else, which is left running on close.
+     */
+    public LocalConnection(DefaultClient client, EventLoopGroup group) {
+        this(client, group, false);
+    }
+
+    private LocalConnection(DefaultClient client, EventLoopGroup group, boolean ownsGroup) {
         this.client = client;
-        this.group = new NioEventLoopGroup();
+        this.group = group;
+        this.ownsGroup = ownsGroup;
     }
 
     @Override
@@ -37,7 +50,11 @@ public class LocalConnection implements Connection {
 
     @Override
     public void close() {
-        this.group.shutdownGracefully();
+        if (this.ownsGroup) {
+            this.group.shutdownGracefully();
+        } else if (this.channel != null) {
+            this.channel.close();
+        }
     }
 
     @Override
@@ -45,16 +62,25 @@ public class LocalConnection implements Connection {
         this.channel.writeAndFlush(request);
     }
 
+    /**
+     * Stop waiting for the response to a request, ie. once the caller has given up on it.
+     */
+    public void abandon(UUID requestId) {
+        this.responseHandler.abandon(requestId);
+    }
+
     protected ChannelHandler createHandler() {
         return new ChannelInitializer<LocalChannel>() {
             protected void initChannel(LocalChannel ch) throws Exception {
                 //ch.pipeline().addLast(new DebugHandler( "local-client-head" ) );
-                ch.pipeline().addLast(new LocalResponseHandler());
+                ch.pipeline().addLast(responseHandler);
             }
         };
     }
 
     private DefaultClient client;
-    private EventLoopGroup group;
+    private final EventLoopGroup group;
+    private final boolean ownsGroup;
+    private final LocalResponseHandler responseHandler = new LocalResponseHandler();
     private Channel channel;
 }
@@ -0,0 +1,61 @@
+package io.liveoak.client;
+
+import java.net.SocketAddress;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.EventExecutor;
+
+/**
+ * Fixed set of long-lived local connections sharing one small event-loop group.
+ *
+ * <p>Requests are multiplexed over the connections by request id, so any number of
+ * callers may share them. Responses are delivered on the pool's own threads, so that
+ * callers blocking on them don't hold up their delivery.</p>
+ */
+public class LocalConnectionPool {
+
+    public LocalConnectionPool(DefaultClient client, int size) {
+        this.group = new NioEventLoopGroup(size, new DefaultThreadFactory("liveoak-client-sync", true));
+        this.connections = new LocalConnection[size];
+        for (int i = 0; i < size; ++i) {
+            this.connections[i] = new LocalConnection(client, this.group);
+        }
+    }
+
+    public void connect(SocketAddress address) throws Exception {
+        for (LocalConnection connection : this.connections) {
+            connection.connect(address);
+        }
+    }
+
+    public void close() {
+        for (LocalConnection connection : this.connections) {
+            connection.close();
+        }
+        this.group.shutdownGracefully();
+    }
+
+    public LocalConnection next() {
+        int index = (this.counter.getAndIncrement() & Integer.MAX_VALUE) % this.connections.length;
+        return this.connections[index];
+    }
+
+    /**
+     * @return true if the calling thread is one of the pool's I/O threads.
+     */
+    public boolean inEventLoop() {
+        for (EventExecutor executor : this.group) {
+            if (executor.inEventLoop()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private final EventLoopGroup group;
+    private final LocalConnection[] connections;
+    private final AtomicInteger counter = new AtomicInteger();
+}
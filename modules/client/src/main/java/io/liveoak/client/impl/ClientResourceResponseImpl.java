@@ -10,10 +10,15 @@ import io.liveoak.spi.state.ResourceState;
 public class ClientResourceResponseImpl implements ClientResourceResponse {
 
     public ClientResourceResponseImpl(ResourceRequest inReplyTo, ResponseType responseType, String path, ResourceState state) {
+        this(inReplyTo, responseType, path, state, null);
+    }
+
+    public ClientResourceResponseImpl(ResourceRequest inReplyTo, ResponseType responseType, String path, ResourceState state, String message) {
         this.inReplyTo = inReplyTo;
         this.responseType = responseType;
         this.path = path;
         this.state = state;
+        this.message = message;
     }
 
     public ResourceRequest inReplyTo() {
@@ -35,6 +40,11 @@ public class ClientResourceResponseImpl implements ClientResourceResponse {
         return this.state;
     }
 
+    @Override
+    public String message() {
+        return this.message;
+    }
+
     public String toString() {
         return "[ClientResourceResponseImpl: type=" + this.responseType + "; state=" + this.state + "]";
     }
@@ -43,4 +53,5 @@ public class ClientResourceResponseImpl implements ClientResourceResponse {
     private ResponseType responseType;
     private String path;
     private ResourceState state;
+    private String message;
 }
@@ -46,5 +46,9 @@ public class LocalResponseHandler extends ChannelDuplexHandler {
         }
     }
 
+    public void abandon(UUID requestId) {
+        this.handlers.remove(requestId);
+    }
+
     private Map<UUID, Consumer<ClientResourceResponse>> handlers = new ConcurrentHashMap<>();
 }
@@ -9,6 +9,7 @@ import io.liveoak.spi.Application;
 import io.liveoak.spi.Pagination;
 import io.liveoak.spi.RequestAttributes;
 import io.liveoak.spi.RequestContext;
+import io.liveoak.spi.RequestTrace;
 import io.liveoak.spi.RequestType;
 import io.liveoak.spi.ResourceParams;
 import io.liveoak.spi.ResourcePath;
@@ -35,6 +36,7 @@ public class DefaultRequestContext implements RequestContext {
     private RequestAttributes requestAttributes;
     private Sorting sorting;
     private List<Runnable> disposeTasks;
+    private final RequestTrace trace = RequestTrace.start();
 
     public DefaultRequestContext(SecurityContext securityContext, Pagination pagination, ReturnFields returnFields, ResourceParams resourceParams,
                                  ResourcePath resourcePath, RequestType requestType, RequestAttributes requestAttributes, Sorting sorting) {
@@ -113,6 +115,11 @@ public class DefaultRequestContext implements RequestContext {
         return sorting;
     }
 
+    @Override
+    public RequestTrace trace() {
+        return trace;
+    }
+
     @Override
     public void dispose() {
         if (disposeTasks != null) {
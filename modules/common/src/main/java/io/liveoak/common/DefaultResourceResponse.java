@@ -65,6 +65,18 @@ public class DefaultResourceResponse implements ResourceResponse {
         return this.resource;
     }
 
+    /**
+     * @return true if the state holds the properties of the resource only, and its members are to be streamed
+     * while the response is written out.
+     */
+    public boolean streamMembers() {
+        return this.streamMembers;
+    }
+
+    public void streamMembers(boolean streamMembers) {
+        this.streamMembers = streamMembers;
+    }
+
     public String toString() {
         return "[DefaultResourceResponse: type=" + this.responseType + "; object=" + this.resource + "]";
     }
@@ -73,4 +85,5 @@ public class DefaultResourceResponse implements ResourceResponse {
     private ResponseType responseType;
     private ResourceState state;
     private Resource resource;
+    private boolean streamMembers;
 }
@@ -5,6 +5,7 @@
  */
 package io.liveoak.common.codec;
 
+import io.liveoak.spi.RequestContext;
 import io.netty.buffer.ByteBuf;
 
 import java.util.Date;
@@ -17,8 +18,21 @@ public interface Encoder<Obj> extends AutoCloseable {
 
     void initialize(ByteBuf buffer) throws Exception;
 
+    /**
+     * Initialize the encoder for the response to a request, whose parameters may select output options.
+     */
+    default void initialize(ByteBuf buffer, RequestContext ctx) throws Exception {
+        initialize(buffer);
+    }
+
     void close() throws Exception;
 
+    /**
+     * Write out anything buffered by the encoder, so that the buffer it was initialized with is up to date.
+     */
+    default void flush() throws Exception {
+    }
+
     void startResource(Obj resource) throws Exception;
 
     void endResource(Obj resource) throws Exception;
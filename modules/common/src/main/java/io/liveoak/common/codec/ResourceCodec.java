@@ -32,14 +32,18 @@ public class ResourceCodec {
 
     public ByteBuf encode(RequestContext ctx, ResourceState resourceState) throws Exception {
         ByteBuf buffer = Unpooled.buffer();
-        StateEncoder encoder = this.encoderClass.newInstance();
-        encoder.initialize(buffer);
+        StateEncoder encoder = createEncoder();
+        encoder.initialize(buffer, ctx);
         StateEncodingDriver driver = new StateEncodingDriver(ctx, encoder, resourceState);
         driver.encode();
         driver.close();
         return buffer;
     }
 
+    public StateEncoder createEncoder() throws Exception {
+        return this.encoderClass.newInstance();
+    }
+
     public ResourceState decode(ByteBuf resource) throws Exception {
         return this.decoder.decode(resource);
     }
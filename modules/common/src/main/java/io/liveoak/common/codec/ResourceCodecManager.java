@@ -29,8 +29,9 @@ import io.netty.buffer.Unpooled;
  */
 public class ResourceCodecManager {
 
-    public void registerResourceCodec(MediaType mediaType, ResourceCodec codec) {
+    public synchronized void registerResourceCodec(MediaType mediaType, ResourceCodec codec) {
         this.codecs.add(new CodecRegistration(mediaType, codec));
+        this.mediaTypes = Collections.unmodifiableList(this.codecs.stream().map(e -> e.mediaType).collect(Collectors.toList()));
     }
 
     public ResourceState decode(MediaType mediaType, ByteBuf buf) throws Exception {
@@ -60,9 +61,18 @@ public class ResourceCodecManager {
             }
         }
 
-        MediaType bestMatch = mediaTypeMatcher.findBestMatch(this.codecs.stream().map((e) -> {
-            return e.mediaType;
-        }).collect(Collectors.toList()));
+        MediaType bestMatch = findEncodingMediaType(mediaTypeMatcher, response);
+        return new EncodingResult(bestMatch, getResourceCodec(bestMatch).encode(ctx, response.state()));
+    }
+
+    /**
+     * Find the media type to encode a non-binary response with.
+     *
+     * @return A media type of a registered codec that has an encoder.
+     * @throws UnsupportedMediaTypeException If no codec that has an encoder matches.
+     */
+    public MediaType findEncodingMediaType(MediaTypeMatcher mediaTypeMatcher, ResourceResponse response) throws UnsupportedMediaTypeException {
+        MediaType bestMatch = mediaTypeMatcher.findBestMatch(this.mediaTypes);
 
         // if we don't have a match and the response isn't already an error response, then return a error response
         if (bestMatch == null && !(response instanceof ResourceErrorResponse)) {
@@ -79,12 +89,11 @@ public class ResourceCodecManager {
         if (!codec.hasEncoder()) {
             throw new UnsupportedMediaTypeException(mediaTypeMatcher);
         }
-
-        return new EncodingResult(bestMatch, codec.encode(ctx, response.state()));
+        return bestMatch;
     }
 
     public List<MediaType> mediaTypes() {
-        return this.codecs.stream().map(e->  e.mediaType ).collect(Collectors.toList());
+        return this.mediaTypes;
     }
 
     public ResourceCodec getResourceCodec(MediaType mediaType) {
@@ -104,14 +113,14 @@ public class ResourceCodecManager {
 
         MediaTypeMatcher matcher = new DefaultMediaTypeMatcher(acceptMediaTypes, extension);
 
-        MediaType match = matcher.findBestMatch(this.codecs.stream().map((e) -> {
-            return e.mediaType;
-        }).collect(Collectors.toList()));
+        MediaType match = matcher.findBestMatch(this.mediaTypes);
 
         return match;
     }
 
     private List<CodecRegistration> codecs = new CopyOnWriteArrayList<>();
+    // Rebuilt on registration, rather than for every response
+    private volatile List<MediaType> mediaTypes = Collections.emptyList();
 
     private static class CodecRegistration {
 
@@ -29,10 +29,16 @@ public class ResourceEncodingDriver extends AbstractEncodingDriver {
     public void encode() throws Exception {
         encoder().startResource(resource());
         addChildDriver(new PropertiesEncodingDriver(this, resource(), returnFields()));
-        addChildDriver(new MembersEncodingDriver(this, resource(), returnFields()));
+        if (encodeMembers()) {
+            addChildDriver(new MembersEncodingDriver(this, resource(), returnFields()));
+        }
         encodeNext();
     }
 
+    protected boolean encodeMembers() {
+        return true;
+    }
+
     @Override
     public void close() throws Exception {
         encoder().endResource(resource());
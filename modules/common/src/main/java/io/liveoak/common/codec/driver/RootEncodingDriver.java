@@ -15,9 +15,17 @@ import io.liveoak.spi.resource.async.Resource;
 public class RootEncodingDriver extends ResourceEncodingDriver {
 
     public RootEncodingDriver(RequestContext requestContext, ResourceEncoder encoder, Resource resource, Runnable completionHandler) {
+        this(requestContext, encoder, resource, true, completionHandler);
+    }
+
+    /**
+     * @param withMembers Whether to encode the members of the resource, or only its properties.
+     */
+    public RootEncodingDriver(RequestContext requestContext, ResourceEncoder encoder, Resource resource, boolean withMembers, Runnable completionHandler) {
         super(resource, requestContext.returnFields());
         this.requestContext = requestContext;
         this.encoder = encoder;
+        this.withMembers = withMembers;
         this.completionHandler = completionHandler;
     }
 
@@ -31,6 +39,11 @@ public class RootEncodingDriver extends ResourceEncodingDriver {
         return this.requestContext;
     }
 
+    @Override
+    protected boolean encodeMembers() {
+        return this.withMembers;
+    }
+
     @Override
     public void close() throws Exception {
         encoder.close();
@@ -41,6 +54,7 @@ public class RootEncodingDriver extends ResourceEncodingDriver {
 
     private RequestContext requestContext;
     private ResourceEncoder encoder;
+    private boolean withMembers;
     private Runnable completionHandler;
 
 }
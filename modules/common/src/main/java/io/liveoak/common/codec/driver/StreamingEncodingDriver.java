@@ -0,0 +1,314 @@
+/*
+ * Copyright 2014 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package io.liveoak.common.codec.driver;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+import io.liveoak.common.codec.DefaultResourceState;
+import io.liveoak.common.codec.StateEncoder;
+import io.liveoak.common.codec.state.ResourceStateEncoder;
+import io.liveoak.spi.RequestContext;
+import io.liveoak.spi.ReturnFields;
+import io.liveoak.spi.resource.async.Resource;
+import io.liveoak.spi.resource.async.ResourceSink;
+import io.liveoak.spi.state.ResourceState;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Encodes a resource and hands the output out in chunks while the resource's members are being read,
+ * instead of collecting all members into the state first.
+ *
+ * <p>The properties are taken from the state, which holds no members. Each member is turned into a state
+ * and encoded as soon as the resource delivers it, so only one member is held at a time as long as
+ * members encode synchronously. Members arriving while another one is still being encoded are queued.</p>
+ *
+ * <p>The output is handed to the chunk consumer after the properties, so that the client gets a first
+ * chunk right away, and then whenever it reaches the chunk size. The consumer owns the chunks. It's never
+ * called while the driver is locked, so it may block to hold back the encoding. Chunks are handed out by one
+ * thread at a time, in order, and the completion handler runs after the last one.</p>
+ *
+ * <p>Once the encoding failed, for instance because the consumer threw as the client went away, members
+ * handed to the sink are refused with an exception, so that the resource stops reading them.</p>
+ */
+public class StreamingEncodingDriver extends StateEncodingDriver {
+
+    public StreamingEncodingDriver(RequestContext ctx, StateEncoder encoder, ResourceState state, Resource resource, int chunkSize,
+                                   Consumer<ByteBuf> chunkConsumer, Runnable completionHandler, Consumer<Throwable> errorHandler) {
+        super(ctx, encoder, state);
+        this.requestContext = ctx;
+        this.resource = resource;
+        this.chunkSize = Math.max(chunkSize, 1);
+        this.chunkConsumer = chunkConsumer;
+        this.completionHandler = completionHandler;
+        this.errorHandler = errorHandler;
+    }
+
+    @Override
+    public RequestContext requestContext() {
+        return this.requestContext;
+    }
+
+    /**
+     * Start encoding. Failures are passed to the error handler, after which no more chunks are handed out.
+     */
+    @Override
+    public void encode() {
+        try {
+            synchronized (this) {
+                this.buffer = Unpooled.buffer(this.chunkSize);
+                encoder().initialize(this.buffer, this.requestContext);
+                encoder().startResource(state());
+                encodeProperties(state());
+                encoder().flush();
+                writeChunk();
+            }
+            handOut();
+
+            if (returnFields().included("members")) {
+                this.resource.readMembers(this.requestContext, new MemberSink());
+            } else {
+                synchronized (this) {
+                    this.closed = true;
+                    drain();
+                }
+                handOut();
+            }
+        } catch (Throwable t) {
+            synchronized (this) {
+                fail(t);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (this.hasMembers) {
+            encoder().endMembers();
+        }
+        encoder().endResource(state());
+        encoder().close();
+        writeChunk();
+        releaseBuffer();
+        this.completed = true;
+    }
+
+    // Only called while holding the lock
+    private void drain() {
+        if (this.draining || this.failed || this.finished) {
+            return;
+        }
+        this.draining = true;
+        try {
+            while (!this.encoding && !this.pending.isEmpty() && !this.failed) {
+                this.encoding = true;
+                encodeMember(this.pending.removeFirst());
+            }
+            if (!this.encoding && this.pending.isEmpty() && this.closed && !this.failed) {
+                this.finished = true;
+                close();
+            }
+        } catch (Throwable t) {
+            fail(t);
+        } finally {
+            this.draining = false;
+        }
+    }
+
+    private void encodeMember(Resource member) throws Exception {
+        ReturnFields memberFields = returnFields().child("members");
+        if (memberFields.isEmpty()) {
+            DefaultResourceState link = new DefaultResourceState(member.id());
+            link.uri(member.uri());
+            memberEncoded(link);
+        } else {
+            new MemberEncodingDriver(member, memberFields).encode();
+        }
+    }
+
+    private void memberEncoded(ResourceState memberState) {
+        synchronized (this) {
+            if (this.failed) {
+                return;
+            }
+            try {
+                encodeValue(memberState);
+                encoder().flush();
+                if (this.buffer.readableBytes() >= this.chunkSize) {
+                    writeChunk();
+                }
+            } catch (Throwable t) {
+                fail(t);
+                return;
+            }
+            this.encoding = false;
+            drain();
+        }
+        handOut();
+    }
+
+    // Only called while holding the lock
+    private void writeChunk() {
+        if (this.buffer != null && this.buffer.isReadable()) {
+            ByteBuf chunk = this.buffer.copy();
+            this.buffer.clear();
+            this.chunks.add(chunk);
+        }
+    }
+
+    /**
+     * Hand the chunks written so far to the consumer, unless another thread is already doing so or the
+     * calling thread holds the lock, in which case it hands them out once it released it.
+     */
+    private void handOut() {
+        if (Thread.holdsLock(this)) {
+            return;
+        }
+        synchronized (this) {
+            if (this.handingOut) {
+                return;
+            }
+            this.handingOut = true;
+        }
+        while (true) {
+            ByteBuf chunk;
+            synchronized (this) {
+                chunk = this.chunks.pollFirst();
+                if (chunk == null) {
+                    this.handingOut = false;
+                    if (!this.completed || this.failed || this.completionHandled) {
+                        return;
+                    }
+                    this.completionHandled = true;
+                }
+            }
+            if (chunk == null) {
+                if (this.completionHandler != null) {
+                    this.completionHandler.run();
+                }
+                return;
+            }
+            try {
+                this.chunkConsumer.accept(chunk);
+            } catch (Throwable t) {
+                synchronized (this) {
+                    this.handingOut = false;
+                    fail(t);
+                }
+                return;
+            }
+        }
+    }
+
+    private void fail(Throwable t) {
+        if (this.failed) {
+            return;
+        }
+        this.failed = true;
+        this.failure = t;
+        this.pending.clear();
+        this.chunks.forEach(ByteBuf::release);
+        this.chunks.clear();
+        releaseBuffer();
+        this.errorHandler.accept(t);
+    }
+
+    private void releaseBuffer() {
+        if (this.buffer != null) {
+            this.buffer.release();
+            this.buffer = null;
+        }
+    }
+
+    private class MemberSink implements ResourceSink {
+
+        @Override
+        public void accept(Resource member) {
+            synchronized (StreamingEncodingDriver.this) {
+                if (failed) {
+                    throw new IllegalStateException("Encoding the members failed", failure);
+                }
+                if (!hasMembers) {
+                    try {
+                        encoder().startMembers();
+                    } catch (Exception e) {
+                        fail(e);
+                        return;
+                    }
+                    hasMembers = true;
+                }
+                pending.add(member);
+                drain();
+            }
+            handOut();
+        }
+
+        @Override
+        public void close() {
+            synchronized (StreamingEncodingDriver.this) {
+                closed = true;
+                drain();
+            }
+            handOut();
+        }
+    }
+
+    /**
+     * Encodes a single expanded member into a state of its own.
+     */
+    private class MemberEncodingDriver extends AbstractEncodingDriver {
+
+        MemberEncodingDriver(Resource member, ReturnFields returnFields) {
+            super(member, returnFields);
+        }
+
+        @Override
+        public ResourceStateEncoder encoder() {
+            return this.encoder;
+        }
+
+        @Override
+        public RequestContext requestContext() {
+            return StreamingEncodingDriver.this.requestContext;
+        }
+
+        @Override
+        public void encode() throws Exception {
+            addChildDriver(new ResourceEncodingDriver(this, (Resource) object(), returnFields()));
+            encodeNext();
+        }
+
+        @Override
+        public void close() throws Exception {
+            memberEncoded(this.encoder.root());
+        }
+
+        private final ResourceStateEncoder encoder = new ResourceStateEncoder();
+    }
+
+    private final RequestContext requestContext;
+    private final Resource resource;
+    private final int chunkSize;
+    private final Consumer<ByteBuf> chunkConsumer;
+    private final Runnable completionHandler;
+    private final Consumer<Throwable> errorHandler;
+
+    private final Deque<Resource> pending = new ArrayDeque<>();
+    private final Deque<ByteBuf> chunks = new ArrayDeque<>();
+    private ByteBuf buffer;
+    private boolean hasMembers;
+    private boolean encoding;
+    private boolean draining;
+    private boolean closed;
+    private boolean failed;
+    private Throwable failure;
+    private boolean finished;
+    private boolean handingOut;
+    private boolean completed;
+    private boolean completionHandled;
+}
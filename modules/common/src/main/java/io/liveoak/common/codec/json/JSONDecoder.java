@@ -36,17 +36,18 @@ public class JSONDecoder implements ResourceDecoder {
 
     @Override
     public ResourceState decode(ByteBuf resource) throws IOException {
-        return decode(() -> factory().createParser(new ByteBufInputStream(resource)));
+        return decode(() -> FACTORY.createParser(new ByteBufInputStream(resource)));
     }
 
     public ResourceState decode(File resource) throws IOException {
-        return decode(() -> factory().configure(JsonParser.Feature.ALLOW_COMMENTS, true).createParser(resource));
+        return decode(() -> FILE_FACTORY.createParser(resource));
     }
 
-    private JsonFactory factory() {
+    private static JsonFactory factory(boolean allowComments) {
         JsonFactory factory = new JsonFactory();
         factory.configure(JsonParser.Feature.ALLOW_SINGLE_QUOTES, true);
         factory.configure(JsonParser.Feature.ALLOW_UNQUOTED_FIELD_NAMES, true);
+        factory.configure(JsonParser.Feature.ALLOW_COMMENTS, allowComments);
         return factory;
     }
 
@@ -58,15 +59,20 @@ public class JSONDecoder implements ResourceDecoder {
             throw new IOException(e);
         }
 
-        parser.nextToken();
+        // closing the parser hands its buffers back for the next parser on this thread
+        try {
+            parser.nextToken();
 
-        ResourceState result = decode(parser);
+            ResourceState result = decode(parser);
 
-        if (result == null) {
-            result = new DefaultResourceState();
-        }
+            if (result == null) {
+                result = new DefaultResourceState();
+            }
 
-        return result;
+            return result;
+        } finally {
+            parser.close();
+        }
     }
 
     protected ResourceState decode(JsonParser parser) throws IOException {
@@ -188,4 +194,8 @@ public class JSONDecoder implements ResourceDecoder {
     }
 
     private boolean replaceProperties = false;
+
+    // Factories are thread-safe once configured, and expensive enough to not create one per request
+    private static final JsonFactory FACTORY = factory(false);
+    private static final JsonFactory FILE_FACTORY = factory(true);
 }
@@ -14,15 +14,20 @@ import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
 import io.liveoak.common.codec.NonEncodableValueException;
 import io.liveoak.common.codec.StateEncoder;
+import io.liveoak.spi.RequestContext;
 import io.liveoak.spi.state.ResourceState;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufOutputStream;
 
 /**
+ * Encodes JSON, compact unless pretty printing is asked for with the {@link #PRETTY_PARAM} request parameter.
+ *
  * @author Bob McWhirter
  */
 public class JSONEncoder implements StateEncoder {
 
+    public static final String PRETTY_PARAM = "pretty";
+
     public JSONEncoder() {
     }
 
@@ -30,12 +35,26 @@ public class JSONEncoder implements StateEncoder {
         this.inhibitIds = inhibitIds;
     }
 
+    public JSONEncoder(boolean inhibitIds, boolean pretty) {
+        this.inhibitIds = inhibitIds;
+        this.pretty = pretty;
+    }
+
     @Override
     public void initialize(ByteBuf buffer) throws Exception {
-        JsonFactory factory = new JsonFactory();
         ByteBufOutputStream out = new ByteBufOutputStream(buffer);
-        this.generator = factory.createGenerator(out);
-        this.generator.setPrettyPrinter(new DefaultPrettyPrinter("\\n"));
+        this.generator = FACTORY.createGenerator(out);
+        if (this.pretty) {
+            this.generator.setPrettyPrinter(new DefaultPrettyPrinter("\\n"));
+        }
+    }
+
+    @Override
+    public void initialize(ByteBuf buffer, RequestContext ctx) throws Exception {
+        if (ctx != null && ctx.resourceParams() != null) {
+            this.pretty |= Boolean.parseBoolean(ctx.resourceParams().value(PRETTY_PARAM));
+        }
+        initialize(buffer);
     }
 
     @Override
@@ -44,6 +63,11 @@ public class JSONEncoder implements StateEncoder {
         this.generator.close();
     }
 
+    @Override
+    public void flush() throws Exception {
+        this.generator.flush();
+    }
+
     // ----------------------------------------
 
     @Override
@@ -189,5 +213,9 @@ public class JSONEncoder implements StateEncoder {
     }
 
     private boolean inhibitIds = false;
+    private boolean pretty = false;
     private JsonGenerator generator;
+
+    // Shared by all encoders, generators recycle their buffers per thread once closed
+    private static final JsonFactory FACTORY = new JsonFactory();
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2014 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package io.liveoak.common.security;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import io.liveoak.spi.RequestAttributes;
+import io.liveoak.spi.RequestContext;
+import io.liveoak.spi.resource.async.PropertySink;
+import io.liveoak.spi.state.ResourceState;
+import org.jboss.logging.Logger;
+
+/**
+ * Lists exchanged when many requests are authorized at once, in the order of {@link AuthzConstants#ATTR_REQUEST_CONTEXTS}.
+ *
+ * <p>Lists read from attributes or states which don't hold what is expected are reported as missing, so that callers
+ * deny the requests rather than fail on a cast.</p>
+ */
+public final class AuthzBatch {
+
+    private static final Logger log = Logger.getLogger(AuthzBatch.class);
+
+    /**
+     * Policy deciding all the requests of a batch in one go.
+     */
+    @FunctionalInterface
+    public interface Policy {
+
+        /**
+         * @param respResourceStates states of the resources to authorize, in the order of the requests. Null if not known.
+         * @return a decision for every request, in the same order
+         */
+        List<AuthzDecision> isAuthorized(List<RequestContext> reqCtxsToAuthorize, List<ResourceState> respResourceStates) throws Exception;
+    }
+
+    private AuthzBatch() {
+    }
+
+    /**
+     * @return the requests to authorize at once, or null if the check is about a single request
+     */
+    public static List<RequestContext> requestContexts(RequestContext ctx) {
+        return attribute(ctx, AuthzConstants.ATTR_REQUEST_CONTEXTS, RequestContext.class);
+    }
+
+    /**
+     * @return the states of the resources to authorize at once, or null if they aren't known
+     */
+    public static List<ResourceState> responseStates(RequestContext ctx) {
+        return attribute(ctx, AuthzConstants.ATTR_RESPONSE_RESOURCE_STATES, ResourceState.class);
+    }
+
+    /**
+     * Write the decisions of the policy about the requests of a batch as {@link AuthzConstants#ATTR_AUTHZ_POLICY_RESULTS}.
+     * All the requests are ignored if there is no policy, and rejected if the policy fails.
+     */
+    public static void writePolicyResults(RequestContext ctx, List<RequestContext> reqCtxsToAuthorize, Policy policy, PropertySink sink) throws Exception {
+        List<AuthzDecision> decisions;
+        try {
+            if (policy == null) {
+                decisions = Collections.nCopies(reqCtxsToAuthorize.size(), AuthzDecision.IGNORE);
+            } else {
+                decisions = policy.isAuthorized(reqCtxsToAuthorize, responseStates(ctx));
+                if (decisions == null || decisions.size() != reqCtxsToAuthorize.size()) {
+                    log.errorf("Policy returned %s decisions for %d requests, rejecting all of them",
+                            decisions != null ? decisions.size() : "no", reqCtxsToAuthorize.size());
+                    decisions = Collections.nCopies(reqCtxsToAuthorize.size(), AuthzDecision.REJECT);
+                }
+            }
+        } catch (Throwable t) {
+            log.error("Error during authz check", t);
+            decisions = Collections.nCopies(reqCtxsToAuthorize.size(), AuthzDecision.REJECT);
+        }
+
+        List<String> results = new ArrayList<>(decisions.size());
+        for (AuthzDecision decision : decisions) {
+            results.add(decision.toString());
+        }
+        sink.accept(AuthzConstants.ATTR_AUTHZ_POLICY_RESULTS, results);
+        sink.close();
+    }
+
+    /**
+     * @return the decisions of a policy held by the state, or null unless it holds exactly the expected number of them
+     */
+    public static List<AuthzDecision> policyResults(ResourceState state, int expected) {
+        List<String> values = property(state, AuthzConstants.ATTR_AUTHZ_POLICY_RESULTS, String.class, expected);
+        if (values == null) {
+            return null;
+        }
+        List<AuthzDecision> decisions = new ArrayList<>(values.size());
+        for (String value : values) {
+            try {
+                decisions.add(AuthzDecision.valueOf(value));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        return decisions;
+    }
+
+    /**
+     * @return the results of the authorization service held by the state, or null unless it holds exactly the expected
+     * number of them
+     */
+    public static List<Boolean> authzResults(ResourceState state, int expected) {
+        return property(state, AuthzConstants.ATTR_AUTHZ_RESULTS, Boolean.class, expected);
+    }
+
+    private static <T> List<T> attribute(RequestContext ctx, String name, Class<T> elementType) {
+        RequestAttributes attributes = ctx.requestAttributes();
+        return attributes != null ? checked(attributes.getAttribute(name), elementType, true) : null;
+    }
+
+    private static <T> List<T> property(ResourceState state, String name, Class<T> elementType, int expected) {
+        List<T> list = state != null ? checked(state.getProperty(name), elementType, false) : null;
+        return list != null && list.size() == expected ? list : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> checked(Object value, Class<T> elementType, boolean allowNulls) {
+        if (!(value instanceof List)) {
+            return null;
+        }
+        for (Object element : (List<?>) value) {
+            if (element == null ? !allowNulls : !elementType.isInstance(element)) {
+                return null;
+            }
+        }
+        return (List<T>) value;
+    }
+}
@@ -22,6 +22,16 @@ public class AuthzConstants {
     // Attribute where authzDecision of policy response will be saved
     public static final String ATTR_AUTHZ_POLICY_RESULT = "ATTR_AUTHZ_POLICY_RESULT";
 
+    // Attributes where list of requestContexts and list of response resourceStates are saved when more resources are authorized at once
+    public static final String ATTR_REQUEST_CONTEXTS = "ATTR_REQUEST_CONTEXTS";
+    public static final String ATTR_RESPONSE_RESOURCE_STATES = "ATTR_RESPONSE_RESOURCE_STATES";
+
+    // Attribute where list of boolean decisions of authzService response will be saved (same order as ATTR_REQUEST_CONTEXTS)
+    public static final String ATTR_AUTHZ_RESULTS = "ATTR_AUTHZ_RESULTS";
+    // Attribute where list of authzDecisions of policy response will be saved (same order as ATTR_REQUEST_CONTEXTS)
+    public static final String ATTR_AUTHZ_POLICY_RESULTS = "ATTR_AUTHZ_POLICY_RESULTS";
+
     public static final String AUTHZ_CHECK_RESOURCE_ID = "authzCheck";
+    public static final String AUTHZ_CACHE_RESOURCE_ID = "decisionCache";
 
 }
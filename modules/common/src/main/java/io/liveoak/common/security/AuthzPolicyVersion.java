@@ -0,0 +1,56 @@
+/*
+ * Copyright 2014 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package io.liveoak.common.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counter of changes to anything which may influence the authorization decisions of an application.
+ *
+ * Every application has a version of its own, installed as the {@code LiveOak.authzPolicyVersion(appId)}
+ * service along with the application, and removed with it. Policies should call {@link #bump()} on the
+ * version of their application whenever their rules or entries change, so that cached decisions made under
+ * the previous state are no longer used. Changes in one application leave the cached decisions of the
+ * others alone.
+ *
+ * Changes which only concern the requests to a single resource path, such as an entry added for a resource
+ * which was just created, should call {@link #bump(String)} instead. Decisions about other paths are then
+ * kept, apart from the few which share a stripe of versions with the path.
+ */
+public class AuthzPolicyVersion {
+
+    public long current() {
+        return version.get();
+    }
+
+    public long bump() {
+        return version.incrementAndGet();
+    }
+
+    /**
+     * @return the version of the decisions about requests to the resource path, which moves on with
+     * {@link #bump()} as well as with {@link #bump(String)} for the path.
+     */
+    public long current(String resourcePath) {
+        return version.get() + paths.get(stripe(resourcePath));
+    }
+
+    public long bump(String resourcePath) {
+        paths.incrementAndGet(stripe(resourcePath));
+        return current(resourcePath);
+    }
+
+    private static int stripe(String resourcePath) {
+        int hash = resourcePath.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    private static final int STRIPES = 64;
+
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLongArray paths = new AtomicLongArray(STRIPES);
+}
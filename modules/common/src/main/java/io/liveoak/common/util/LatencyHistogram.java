@@ -0,0 +1,167 @@
+/*
+ * Copyright 2014 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package io.liveoak.common.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free, fixed-size histogram of durations recorded in nanoseconds.
+ *
+ * <p>Buckets are log-linear: every power of two is split into eight equal
+ * sub-buckets, so any reported value is within 12.5% of the recorded one
+ * while the whole range of <code>long</code> fits in a few hundred counters.</p>
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_COUNT;
+
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        this.buckets.incrementAndGet(indexOf(nanos));
+        this.count.incrementAndGet();
+        this.total.addAndGet(nanos);
+
+        long currentMax = this.max.get();
+        while (nanos > currentMax && !this.max.compareAndSet(currentMax, nanos)) {
+            currentMax = this.max.get();
+        }
+    }
+
+    /**
+     * Record the time elapsed since a {@link System#nanoTime()} reading.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public long count() {
+        return this.count.get();
+    }
+
+    public long totalNanos() {
+        return this.total.get();
+    }
+
+    public long maxNanos() {
+        return this.max.get();
+    }
+
+    public long meanNanos() {
+        long count = this.count.get();
+        if (count == 0) {
+            return 0;
+        }
+        return this.total.get() / count;
+    }
+
+    /**
+     * @param quantile between 0.0 and 1.0
+     * @return approximate value at the quantile, in nanoseconds
+     */
+    public long percentileNanos(double quantile) {
+        long count = this.count.get();
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; ++i) {
+            seen += this.buckets.get(i);
+            if (seen >= target) {
+                return Math.min(highestEquivalent(i), this.max.get());
+            }
+        }
+        return this.max.get();
+    }
+
+    /**
+     * @return the number of recordings in each bucket along with the bucket's upper bound
+     *         in nanoseconds; empty buckets are skipped.
+     */
+    public long[][] buckets() {
+        int nonEmpty = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; ++i) {
+            snapshot[i] = this.buckets.get(i);
+            if (snapshot[i] != 0) {
+                ++nonEmpty;
+            }
+        }
+        long[][] result = new long[nonEmpty][];
+        int j = 0;
+        for (int i = 0; i < BUCKETS; ++i) {
+            if (snapshot[i] != 0) {
+                result[j++] = new long[]{highestEquivalent(i), snapshot[i]};
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return count along with the mean, median, 99th percentile and max in milliseconds,
+     *         suitable for exposing as resource properties.
+     */
+    public Map<String, Object> summary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", count());
+        summary.put("mean-ms", toMillis(meanNanos()));
+        summary.put("p50-ms", toMillis(percentileNanos(0.50)));
+        summary.put("p99-ms", toMillis(percentileNanos(0.99)));
+        summary.put("max-ms", toMillis(maxNanos()));
+        return summary;
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; ++i) {
+            this.buckets.set(i, 0);
+        }
+        this.count.set(0);
+        this.total.set(0);
+        this.max.set(0);
+    }
+
+    public static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    static int indexOf(long value) {
+        int magnitude = 63 - Long.numberOfLeadingZeros(value | 1);
+        if (magnitude < SUB_BITS) {
+            return (int) value;
+        }
+        int sub = (int) ((value >>> (magnitude - SUB_BITS)) & (SUB_COUNT - 1));
+        return (magnitude - SUB_BITS + 1) * SUB_COUNT + sub;
+    }
+
+    static long lowestEquivalent(int index) {
+        if (index < SUB_COUNT) {
+            return index;
+        }
+        int magnitude = index / SUB_COUNT + SUB_BITS - 1;
+        int sub = index % SUB_COUNT;
+        return ((long) (SUB_COUNT + sub)) << (magnitude - SUB_BITS);
+    }
+
+    static long highestEquivalent(int index) {
+        if (index + 1 >= BUCKETS) {
+            return Long.MAX_VALUE;
+        }
+        return lowestEquivalent(index + 1) - 1;
+    }
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+}
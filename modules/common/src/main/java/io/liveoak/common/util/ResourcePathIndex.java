@@ -0,0 +1,252 @@
+/*
+ * Copyright 2014 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package io.liveoak.common.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import io.liveoak.spi.ResourcePath;
+
+/**
+ * Thread-safe index of objects registered against {@link ResourcePath} patterns.
+ *
+ * <p>Pattern segments may be:</p>
+ * <ul>
+ * <li>a literal name, matching exactly that segment</li>
+ * <li><code>*</code> in the middle of a pattern, matching exactly one segment</li>
+ * <li><code>*</code> at the end of a pattern, matching one or more trailing segments</li>
+ * <li><code>**</code> anywhere, matching zero or more segments</li>
+ * </ul>
+ *
+ * <p>Matches are reported most specific first: deeper literal matches come before
+ * wildcard matches registered closer to the root.</p>
+ *
+ * <p>Writers are serialized and publish copy-on-write arrays, so lookups take no
+ * locks and, unless a <code>**</code> pattern is involved, allocate nothing.</p>
+ */
+public class ResourcePathIndex<T> {
+
+    public static final String WILDCARD = "*";
+    public static final String DEEP_WILDCARD = "**";
+
+    public synchronized void addObject(T object, ResourcePath pattern) {
+        Node<T> node = this.root;
+        for (ResourcePath.Segment segment : pattern.segments()) {
+            node = node.childFor(segment.name());
+        }
+        node.add(object);
+    }
+
+    public synchronized void removeObject(T object, ResourcePath pattern) {
+        Node<T> node = this.root;
+        for (ResourcePath.Segment segment : pattern.segments()) {
+            node = node.existingChild(segment.name());
+            if (node == null) {
+                return;
+            }
+        }
+        node.remove(object);
+    }
+
+    /**
+     * Invoke the consumer with every object whose pattern matches the path.
+     */
+    public void forEachMatch(ResourcePath path, Consumer<? super T> consumer) {
+        match(this.root, path.segments(), 0, consumer);
+    }
+
+    /**
+     * @return every object whose pattern matches the path.
+     */
+    public Stream<T> objects(ResourcePath path) {
+        List<T> result = new ArrayList<>();
+        forEachMatch(path, result::add);
+        return result.stream();
+    }
+
+    /**
+     * @return every object whose pattern starts with the given prefix, compared literally.
+     */
+    public Stream<T> objectsUnder(ResourcePath prefix) {
+        Node<T> node = this.root;
+        for (ResourcePath.Segment segment : prefix.segments()) {
+            node = node.existingChild(segment.name());
+            if (node == null) {
+                List<T> empty = Collections.emptyList();
+                return empty.stream();
+            }
+        }
+        List<T> result = new ArrayList<>();
+        node.collect(result);
+        return result.stream();
+    }
+
+    /**
+     * @return every object in the index.
+     */
+    public Stream<T> objects() {
+        return objectsUnder(new ResourcePath());
+    }
+
+    private static <T> void match(Node<T> node, List<ResourcePath.Segment> segments, int i, Consumer<? super T> consumer) {
+        int length = segments.size();
+
+        if (i == length) {
+            if (!node.wildcard) {
+                node.emit(consumer);
+            }
+            Node<T> deep = node.deep;
+            if (deep != null) {
+                match(deep, segments, i, consumer);
+            }
+            return;
+        }
+
+        Node<T> child = node.children.get(segments.get(i).name());
+        if (child != null) {
+            match(child, segments, i + 1, consumer);
+        }
+
+        Node<T> star = node.star;
+        if (star != null) {
+            if (!star.isLeaf()) {
+                match(star, segments, i + 1, consumer);
+            }
+            // a trailing '*' covers everything below this level
+            star.emit(consumer);
+        }
+
+        Node<T> deep = node.deep;
+        if (deep != null) {
+            if (deep.isLeaf()) {
+                deep.emit(consumer);
+            } else {
+                // '**' may swallow any number of segments; the same object
+                // can be reached more than once, so report each only once
+                Consumer<T> unique = new UniqueConsumer<T>(consumer);
+                for (int k = i; k <= length; ++k) {
+                    match(deep, segments, k, unique);
+                }
+            }
+        }
+    }
+
+    private static class UniqueConsumer<T> implements Consumer<T> {
+
+        UniqueConsumer(Consumer<? super T> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void accept(T t) {
+            if (this.seen.put(t, Boolean.TRUE) == null) {
+                this.delegate.accept(t);
+            }
+        }
+
+        private final Consumer<? super T> delegate;
+        private final Map<T, Boolean> seen = new IdentityHashMap<>();
+    }
+
+    private static class Node<T> {
+
+        Node(boolean wildcard) {
+            this.wildcard = wildcard;
+        }
+
+        Node<T> childFor(String name) {
+            Node<T> child = existingChild(name);
+            if (child != null) {
+                return child;
+            }
+            if (WILDCARD.equals(name)) {
+                this.star = child = new Node<>(true);
+            } else if (DEEP_WILDCARD.equals(name)) {
+                this.deep = child = new Node<>(false);
+            } else {
+                child = new Node<>(false);
+                this.children.put(name, child);
+            }
+            return child;
+        }
+
+        Node<T> existingChild(String name) {
+            if (WILDCARD.equals(name)) {
+                return this.star;
+            }
+            if (DEEP_WILDCARD.equals(name)) {
+                return this.deep;
+            }
+            return this.children.get(name);
+        }
+
+        boolean isLeaf() {
+            return this.children.isEmpty() && this.star == null && this.deep == null;
+        }
+
+        @SuppressWarnings("unchecked")
+        void emit(Consumer<? super T> consumer) {
+            Object[] current = this.objects;
+            for (int i = 0; i < current.length; ++i) {
+                consumer.accept((T) current[i]);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        void collect(List<T> result) {
+            for (Object each : this.objects) {
+                result.add((T) each);
+            }
+            for (Node<T> child : this.children.values()) {
+                child.collect(result);
+            }
+            if (this.star != null) {
+                this.star.collect(result);
+            }
+            if (this.deep != null) {
+                this.deep.collect(result);
+            }
+        }
+
+        // writers are serialized by the owning index
+        void add(Object object) {
+            Object[] current = this.objects;
+            Object[] updated = new Object[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, current.length);
+            updated[current.length] = object;
+            this.objects = updated;
+        }
+
+        void remove(Object object) {
+            Object[] current = this.objects;
+            for (int i = 0; i < current.length; ++i) {
+                if (current[i].equals(object)) {
+                    Object[] updated = new Object[current.length - 1];
+                    System.arraycopy(current, 0, updated, 0, i);
+                    System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                    this.objects = updated;
+                    return;
+                }
+            }
+        }
+
+        final boolean wildcard;
+        final Map<String, Node<T>> children = new ConcurrentHashMap<>();
+        volatile Node<T> star;
+        volatile Node<T> deep;
+        volatile Object[] objects = EMPTY;
+    }
+
+    private static final Object[] EMPTY = new Object[0];
+
+    private final Node<T> root = new Node<>(false);
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2014 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package io.liveoak.common.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.liveoak.spi.RequestContext;
+import io.liveoak.spi.RequestTrace;
+
+/**
+ * The slowest traced requests, kept in a fixed number of slots.
+ *
+ * <p>A finished trace replaces the fastest retained one if it's slower. Traces faster than all retained
+ * ones are rejected by a single volatile read, so finishing a request takes the lock only while the
+ * buffer is filling up or when the request is among the slowest.</p>
+ *
+ * <p>The container installs the log it records requests to as the
+ * {@link io.liveoak.spi.LiveOak#SLOW_REQUEST_LOG} service.</p>
+ */
+public class SlowRequestLog {
+
+    public static final String SIZE_PROPERTY = "io.liveoak.trace.slowest";
+    public static final int DEFAULT_SIZE = 20;
+
+    public SlowRequestLog() {
+        this(Integer.getInteger(SIZE_PROPERTY, DEFAULT_SIZE));
+    }
+
+    public SlowRequestLog(int size) {
+        this.entries = new Entry[Math.max(size, 1)];
+    }
+
+    /**
+     * Finish the trace of the request and keep it if it's among the slowest.
+     */
+    public void complete(RequestContext requestContext) {
+        RequestTrace trace = requestContext.trace();
+        if (!trace.finish()) {
+            return;
+        }
+        long duration = trace.durationNanos();
+        if (duration <= this.threshold) {
+            return;
+        }
+        synchronized (this) {
+            int slot = 0;
+            for (int i = 0; i < this.entries.length; ++i) {
+                if (this.entries[i] == null) {
+                    slot = i;
+                    break;
+                }
+                if (this.entries[i].duration < this.entries[slot].duration) {
+                    slot = i;
+                }
+            }
+            if (this.entries[slot] != null && this.entries[slot].duration >= duration) {
+                return;
+            }
+            this.entries[slot] = new Entry(requestContext, trace, duration);
+
+            long fastest = Long.MAX_VALUE;
+            for (Entry entry : this.entries) {
+                if (entry == null) {
+                    fastest = 0;
+                    break;
+                }
+                fastest = Math.min(fastest, entry.duration);
+            }
+            this.threshold = fastest;
+        }
+    }
+
+    /**
+     * @return retained traces, slowest first, suitable for exposing as resource properties.
+     */
+    public List<Map<String, Object>> slowest() {
+        Entry[] snapshot;
+        synchronized (this) {
+            snapshot = Arrays.copyOf(this.entries, this.entries.length);
+        }
+        List<Map<String, Object>> result = new ArrayList<>();
+        Arrays.stream(snapshot)
+                .filter((entry) -> entry != null)
+                .sorted(Comparator.comparingLong((Entry entry) -> entry.duration).reversed())
+                .forEach((entry) -> result.add(entry.summary()));
+        return result;
+    }
+
+    public synchronized void reset() {
+        Arrays.fill(this.entries, null);
+        this.threshold = 0;
+    }
+
+    private static class Entry {
+
+        Entry(RequestContext requestContext, RequestTrace trace, long duration) {
+            this.requestType = String.valueOf(requestContext.requestType());
+            this.resourcePath = String.valueOf(requestContext.resourcePath());
+            this.stages = trace.stages();
+            this.duration = duration;
+        }
+
+        Map<String, Object> summary() {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("request-type", this.requestType);
+            summary.put("resource-path", this.resourcePath);
+            summary.put("duration-ms", LatencyHistogram.toMillis(this.duration));
+            List<Map<String, Object>> stages = new ArrayList<>();
+            for (RequestTrace.Stage stage : this.stages) {
+                Map<String, Object> map = new LinkedHashMap<>();
+                map.put("stage", stage.name());
+                map.put("start-ms", LatencyHistogram.toMillis(stage.offsetNanos()));
+                map.put("duration-ms", LatencyHistogram.toMillis(stage.durationNanos()));
+                stages.add(map);
+            }
+            summary.put("stages", stages);
+            return summary;
+        }
+
+        final String requestType;
+        final String resourcePath;
+        final List<RequestTrace.Stage> stages;
+        final long duration;
+    }
+
+    private final Entry[] entries;
+    private volatile long threshold;
+}
@@ -1,8 +1,15 @@
 package io.liveoak.container;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import io.liveoak.common.codec.driver.RootEncodingDriver;
+import io.liveoak.common.codec.state.ResourceStateEncoder;
+import io.liveoak.spi.RequestContext;
 import io.liveoak.spi.ResourceResponse;
 import io.liveoak.spi.container.SubscriptionManager;
 import io.liveoak.spi.resource.async.Notifier;
+import org.jboss.logging.Logger;
 
 /**
  * @author Bob McWhirter
@@ -15,18 +22,67 @@ public class NotifierImpl implements Notifier {
 
     @Override
     public void resourceCreated(ResourceResponse resourceResponse) {
-        this.subscriptionManager.resourceCreated(resourceResponse);
+        if (encodeState(resourceResponse)) {
+            this.subscriptionManager.resourceCreated(resourceResponse);
+        }
     }
 
     @Override
     public void resourceDeleted(ResourceResponse resourceResponse) {
-        this.subscriptionManager.resourceDeleted(resourceResponse);
+        if (encodeState(resourceResponse)) {
+            this.subscriptionManager.resourceDeleted(resourceResponse);
+        }
     }
 
     @Override
     public void resourceUpdated(ResourceResponse resourceResponse) {
-        this.subscriptionManager.resourceUpdated(resourceResponse);
+        if (encodeState(resourceResponse)) {
+            this.subscriptionManager.resourceUpdated(resourceResponse);
+        }
+    }
+
+    @Override
+    public void resourcesChanged(List<ResourceResponse> resourceResponses) {
+        // encode everything first, so the notifications go out back to back
+        List<ResourceResponse> encoded = new ArrayList<>(resourceResponses.size());
+        for (ResourceResponse each : resourceResponses) {
+            if (encodeState(each)) {
+                encoded.add(each);
+            }
+        }
+        Notifier.super.resourcesChanged(encoded);
+    }
+
+    /**
+     * Responses built by resources don't go through the response pipeline, which is where the state of a
+     * response is normally encoded from its resource.
+     *
+     * @return Whether the response has a state to notify subscribers with.
+     */
+    protected boolean encodeState(ResourceResponse resourceResponse) {
+        if (resourceResponse.state() != null) {
+            return true;
+        }
+        if (resourceResponse.resource() == null) {
+            return false;
+        }
+
+        RequestContext requestContext = resourceResponse.inReplyTo() != null ? resourceResponse.inReplyTo().requestContext() : new RequestContext.Builder().build();
+        ResourceStateEncoder encoder = new ResourceStateEncoder();
+        RootEncodingDriver driver = new RootEncodingDriver(requestContext, encoder, resourceResponse.resource(), () -> {
+            resourceResponse.setState(encoder.root());
+        });
+        try {
+            driver.encode();
+        } catch (Exception e) {
+            log.error("Could not encode the state of " + resourceResponse.resource(), e);
+            return false;
+        }
+        // resources which complete their state asynchronously aren't waited for
+        return resourceResponse.state() != null;
     }
 
     private SubscriptionManager subscriptionManager;
+
+    private static final Logger log = Logger.getLogger(NotifierImpl.class);
 }
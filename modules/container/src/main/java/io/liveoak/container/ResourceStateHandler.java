@@ -8,20 +8,27 @@ package io.liveoak.container;
 
 import io.liveoak.client.impl.ClientResourceResponseImpl;
 import io.liveoak.common.DefaultResourceErrorResponse;
+import io.liveoak.common.DefaultResourceResponse;
 import io.liveoak.common.codec.driver.RootEncodingDriver;
 import io.liveoak.common.codec.state.ResourceStateEncoder;
 import io.liveoak.container.protocols.RequestCompleteEvent;
+import io.liveoak.spi.RequestTrace;
+import io.liveoak.spi.RequestType;
 import io.liveoak.spi.ResourceErrorResponse;
+import io.liveoak.spi.ResourceRequest;
 import io.liveoak.spi.ResourceResponse;
 import io.liveoak.spi.client.ClientResourceResponse;
+import io.liveoak.spi.container.WorkerPool;
 import io.liveoak.spi.resource.BlockingResource;
+import io.liveoak.spi.resource.async.BinaryResource;
 import io.liveoak.spi.state.ResourceState;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelOutboundHandlerAdapter;
 import io.netty.channel.ChannelPromise;
 import org.jboss.logging.Logger;
 
-import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Predicate;
 
 /**
  * @author Bob McWhirter
@@ -31,22 +38,41 @@ public class ResourceStateHandler extends ChannelOutboundHandlerAdapter {
 
     private static final Logger log = Logger.getLogger(ResourceStateHandler.class);
 
-    private Executor workerPool;
+    private WorkerPool workerPool;
+    private Predicate<ResourceRequest> streamMembers;
 
-    public ResourceStateHandler(Executor workerPool) {
+    public ResourceStateHandler(WorkerPool workerPool) {
+        this(workerPool, (request) -> false);
+    }
+
+    /**
+     * @param streamMembers Whether the members of the resource read by a request may be streamed after the
+     *                      state has been written, rather than being encoded into the state.
+     */
+    public ResourceStateHandler(WorkerPool workerPool, Predicate<ResourceRequest> streamMembers) {
         this.workerPool = workerPool;
+        this.streamMembers = streamMembers;
     }
 
     @Override
     public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
         if (msg instanceof ResourceResponse && !(msg instanceof ResourceErrorResponse)) {
             ResourceResponse response = (ResourceResponse) msg;
+            RequestTrace trace = response.inReplyTo().requestContext().trace();
             Runnable action = () -> {
+                trace.mark("state-encoding");
                 encode(ctx, response, promise);
             };
 
             if (response.resource() instanceof BlockingResource) {
-                this.workerPool.execute(action);
+                trace.mark("queued state-encoding");
+                try {
+                    this.workerPool.execute(response.inReplyTo(), action);
+                } catch (RejectedExecutionException e) {
+                    log.debug(e.getMessage());
+                    ctx.writeAndFlush(new DefaultResourceErrorResponse(response.inReplyTo(), ResourceErrorResponse.ErrorType.SERVICE_UNAVAILABLE, e.getMessage()));
+                    ctx.fireUserEventTriggered(new RequestCompleteEvent(response.inReplyTo()));
+                }
             } else {
                 action.run();
             }
@@ -67,15 +93,19 @@ public class ResourceStateHandler extends ChannelOutboundHandlerAdapter {
         final ClientResourceResponse.ResponseType responseType = ClientResourceResponse.ResponseType.OK;
         if (response.resource() == null) {
             ctx.writeAndFlush(new ClientResourceResponseImpl(response.inReplyTo(), responseType, response.inReplyTo().resourcePath().toString(), null));
-            ctx.fireUserEventTriggered(new RequestCompleteEvent(response.requestId()));
+            ctx.fireUserEventTriggered(new RequestCompleteEvent(response.inReplyTo()));
             return;
         }
 
         final ResourceStateEncoder encoder = new ResourceStateEncoder();
+        boolean streamMembers = streamMembers(response);
 
-        RootEncodingDriver driver = new RootEncodingDriver(response.inReplyTo().requestContext(), encoder, response.resource(), () -> {
+        RootEncodingDriver driver = new RootEncodingDriver(response.inReplyTo().requestContext(), encoder, response.resource(), !streamMembers, () -> {
             ResourceState state = encoder.root();
             response.setState(state);
+            if (streamMembers) {
+                ((DefaultResourceResponse) response).streamMembers(true);
+            }
             ctx.writeAndFlush(response, promise);
         });
 
@@ -84,8 +114,18 @@ public class ResourceStateHandler extends ChannelOutboundHandlerAdapter {
         } catch (Exception e) {
             log.error(ResourceErrorResponse.ErrorType.NOT_ACCEPTABLE, e);
             ctx.writeAndFlush( new DefaultResourceErrorResponse( response.inReplyTo(), ResourceErrorResponse.ErrorType.NOT_ACCEPTABLE, e.getMessage(), e ) );
-            ctx.fireUserEventTriggered(new RequestCompleteEvent(response.requestId()));
+            ctx.fireUserEventTriggered(new RequestCompleteEvent(response.inReplyTo()));
         }
 
     }
+
+    protected boolean streamMembers(ResourceResponse response) {
+        ResourceRequest request = response.inReplyTo();
+        return response instanceof DefaultResourceResponse
+                && response.responseType() == ResourceResponse.ResponseType.READ
+                && request.requestType() == RequestType.READ
+                && !(response.resource() instanceof BinaryResource)
+                && request.requestContext().returnFields().included("members")
+                && this.streamMembers.test(request);
+    }
 }
@@ -0,0 +1,273 @@
+/*
+ * Copyright 2014 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package io.liveoak.container;
+
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.liveoak.common.util.LatencyHistogram;
+import io.liveoak.spi.container.WorkerPool;
+import org.jboss.logging.Logger;
+
+/**
+ * Worker pool with a bounded number of threads and a bounded queue.
+ *
+ * <p>Threads are started up to the max size before tasks are queued, and stop once idle for the keep-alive
+ * time. A {@link ThreadPoolExecutor} only starts threads above its core size once its queue is full, so the
+ * core size is the max size and core threads are allowed to time out. Tasks which find both the threads and
+ * the queue exhausted, or whose bulkhead is full, are rejected with {@link RejectedExecutionException},
+ * which the container turns into a 503 response.</p>
+ *
+ * <p>In {@link Mode#VIRTUAL} mode every task gets its own virtual thread, so tasks blocking on I/O don't hold
+ * platform threads. The number of tasks in flight is then limited to the max size plus the queue size.
+ * Virtual threads need a Java 21 runtime; on older runtimes the pool falls back to platform threads.</p>
+ */
+public class WorkerPoolImpl implements WorkerPool {
+
+    public static final String MAX_SIZE_PROPERTY = "io.liveoak.worker-pool.max-size";
+    public static final String QUEUE_SIZE_PROPERTY = "io.liveoak.worker-pool.queue-size";
+    public static final String KEEP_ALIVE_PROPERTY = "io.liveoak.worker-pool.keep-alive-ms";
+    public static final String BULKHEAD_SIZE_PROPERTY = "io.liveoak.worker-pool.bulkhead-size";
+    public static final String MODE_PROPERTY = "io.liveoak.worker-pool.mode";
+
+    public static final int DEFAULT_MAX_SIZE = 200;
+    public static final int DEFAULT_QUEUE_SIZE = 1000;
+    public static final long DEFAULT_KEEP_ALIVE = 60000;
+    // by default a bulkhead takes up to this fraction of the max size, so that one application can't take the whole pool
+    public static final int DEFAULT_BULKHEAD_DIVISOR = 4;
+
+    public enum Mode {
+        PLATFORM,
+        VIRTUAL
+    }
+
+    private static final Logger log = Logger.getLogger(WorkerPoolImpl.class);
+
+    public WorkerPoolImpl() {
+        this(Mode.valueOf(System.getProperty(MODE_PROPERTY, Mode.PLATFORM.name()).toUpperCase(Locale.ENGLISH)),
+                Integer.getInteger(MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE),
+                Integer.getInteger(QUEUE_SIZE_PROPERTY, DEFAULT_QUEUE_SIZE),
+                Long.getLong(KEEP_ALIVE_PROPERTY, DEFAULT_KEEP_ALIVE),
+                Integer.getInteger(BULKHEAD_SIZE_PROPERTY, defaultBulkheadSize(Integer.getInteger(MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE))));
+    }
+
+    /**
+     * @return the bulkhead size used unless it's configured, a quarter of the max size.
+     */
+    public static int defaultBulkheadSize(int maxSize) {
+        return Math.max(maxSize / DEFAULT_BULKHEAD_DIVISOR, 1);
+    }
+
+    /**
+     * @param bulkheadSize Maximum number of running and queued tasks of a single bulkhead, not limited if it's not positive.
+     */
+    public WorkerPoolImpl(int maxSize, int queueSize, long keepAliveMillis, int bulkheadSize) {
+        this(Mode.PLATFORM, maxSize, queueSize, keepAliveMillis, bulkheadSize);
+    }
+
+    public WorkerPoolImpl(Mode mode, int maxSize, int queueSize, long keepAliveMillis, int bulkheadSize) {
+        int max = Math.max(maxSize, 1);
+        this.queueSize = Math.max(queueSize, 1);
+        this.bulkheadSize = bulkheadSize;
+
+        ExecutorService virtual = (mode == Mode.VIRTUAL) ? newVirtualThreadExecutor() : null;
+        if (virtual != null) {
+            this.mode = Mode.VIRTUAL;
+            this.executor = virtual;
+            this.platform = null;
+            this.capacity = max + this.queueSize;
+            return;
+        }
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.mode = Mode.PLATFORM;
+        this.platform = new ThreadPoolExecutor(max, max, keepAliveMillis, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(this.queueSize),
+                (r) -> {
+                    Thread thread = new Thread(r, "liveoak-worker-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        if (keepAliveMillis > 0) {
+            this.platform.allowCoreThreadTimeOut(true);
+        }
+        this.executor = this.platform;
+        this.capacity = 0;
+    }
+
+    public Mode mode() {
+        return this.mode;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        execute((String) null, task);
+    }
+
+    @Override
+    public void execute(String bulkheadName, Runnable task) {
+        Bulkhead bulkhead = bulkhead(bulkheadName);
+        if (bulkhead != null && !bulkhead.tryAcquire()) {
+            this.rejected.incrementAndGet();
+            throw new RejectedExecutionException("Too many pending tasks for '" + bulkheadName + "'");
+        }
+
+        if (this.capacity > 0 && this.inFlight.incrementAndGet() > this.capacity) {
+            this.inFlight.decrementAndGet();
+            rejected(bulkhead);
+            throw new RejectedExecutionException("Worker pool is exhausted");
+        }
+
+        long submitted = System.nanoTime();
+        try {
+            this.executor.execute(() -> {
+                this.queueWait.recordSince(submitted);
+                try {
+                    task.run();
+                } finally {
+                    if (this.capacity > 0) {
+                        this.inFlight.decrementAndGet();
+                    }
+                    if (bulkhead != null) {
+                        bulkhead.release();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            if (this.capacity > 0) {
+                this.inFlight.decrementAndGet();
+            }
+            rejected(bulkhead);
+            throw new RejectedExecutionException("Worker pool is exhausted", e);
+        }
+    }
+
+    // the pool itself is exhausted, as opposed to the bulkhead being full
+    private void rejected(Bulkhead bulkhead) {
+        if (bulkhead != null) {
+            bulkhead.release();
+            bulkhead.poolRejected.incrementAndGet();
+        }
+        this.poolRejected.incrementAndGet();
+        this.rejected.incrementAndGet();
+    }
+
+    @Override
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("mode", this.mode.name().toLowerCase(Locale.ENGLISH));
+        if (this.platform != null) {
+            metrics.put("pool-size", this.platform.getPoolSize());
+            metrics.put("max-size", this.platform.getMaximumPoolSize());
+            metrics.put("largest-pool-size", this.platform.getLargestPoolSize());
+            metrics.put("active", this.platform.getActiveCount());
+            metrics.put("queued", this.platform.getQueue().size());
+            metrics.put("queue-size", this.queueSize);
+            metrics.put("completed", this.platform.getCompletedTaskCount());
+        } else {
+            metrics.put("active", this.inFlight.get());
+            metrics.put("capacity", this.capacity);
+            metrics.put("completed", this.queueWait.count());
+        }
+        metrics.put("rejected", this.rejected.get());
+        metrics.put("pool-rejected", this.poolRejected.get());
+        metrics.put("queue-wait", this.queueWait.summary());
+
+        Map<String, Object> bulkheads = new LinkedHashMap<>();
+        this.bulkheads.forEach((name, bulkhead) -> {
+            Map<String, Object> state = new LinkedHashMap<>();
+            state.put("in-flight", bulkhead.inFlight.get());
+            state.put("rejected", bulkhead.rejected.get());
+            state.put("pool-rejected", bulkhead.poolRejected.get());
+            bulkheads.put(name, state);
+        });
+        metrics.put("bulkhead-size", this.bulkheadSize);
+        metrics.put("bulkheads", bulkheads);
+        return metrics;
+    }
+
+    public void shutdown() {
+        this.executor.shutdown();
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            // Looked up reflectively, as the container is built for Java 8
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (NoSuchMethodException e) {
+            log.warn("Virtual threads need Java 21 or newer, using platform threads for the worker pool");
+        } catch (Exception e) {
+            log.warn("Could not create virtual thread executor, using platform threads for the worker pool", e);
+        }
+        return null;
+    }
+
+    private Bulkhead bulkhead(String name) {
+        if (name == null || this.bulkheadSize <= 0) {
+            return null;
+        }
+        Bulkhead bulkhead = this.bulkheads.get(name);
+        if (bulkhead == null) {
+            bulkhead = this.bulkheads.computeIfAbsent(name, (n) -> new Bulkhead(this.bulkheadSize));
+        }
+        return bulkhead;
+    }
+
+    private static class Bulkhead {
+
+        Bulkhead(int limit) {
+            this.limit = limit;
+        }
+
+        boolean tryAcquire() {
+            while (true) {
+                int current = this.inFlight.get();
+                if (current >= this.limit) {
+                    this.rejected.incrementAndGet();
+                    return false;
+                }
+                if (this.inFlight.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        void release() {
+            this.inFlight.decrementAndGet();
+        }
+
+        final int limit;
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicLong rejected = new AtomicLong();
+        final AtomicLong poolRejected = new AtomicLong();
+    }
+
+    private final Mode mode;
+    private final ExecutorService executor;
+    private final ThreadPoolExecutor platform;
+    private final int queueSize;
+    // Limit of tasks in flight, only used with virtual threads
+    private final int capacity;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final int bulkheadSize;
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong poolRejected = new AtomicLong();
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+}
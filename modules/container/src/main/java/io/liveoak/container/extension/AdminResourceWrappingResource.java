@@ -52,6 +52,12 @@ public class AdminResourceWrappingResource extends DelegatingRootResource {
         }
     }
 
+    @Override
+    public void patchProperties(RequestContext ctx, ResourceState state, Responder responder) throws Exception {
+        // configuration is persisted whole, through updateProperties
+        responder.updateNotSupported(this);
+    }
+
     @Override
     public void delete(RequestContext ctx, Responder responder) throws Exception {
         this.extension.remove();
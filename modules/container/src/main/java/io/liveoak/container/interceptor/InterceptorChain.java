@@ -1,14 +1,16 @@
 package io.liveoak.container.interceptor;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
+import io.liveoak.spi.RequestTrace;
 import io.liveoak.spi.ResourceRequest;
 import io.liveoak.spi.ResourceResponse;
 import io.liveoak.spi.container.interceptor.InboundInterceptorContext;
 import io.liveoak.spi.container.interceptor.Interceptor;
 import io.liveoak.spi.container.interceptor.OutboundInterceptorContext;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.concurrent.EventExecutor;
 import org.jboss.logging.Logger;
 
 /**
@@ -23,15 +25,36 @@ public class InterceptorChain {
     }
 
     public InterceptorChain(ChannelHandlerContext ctx, List<Interceptor> interceptors, ResourceRequest request) {
-        this.ctx = ctx;
-        this.interceptors = new ArrayList(interceptors);
+        this(ctx.executor(), ctx::fireChannelRead, ctx::writeAndFlush, interceptors, request);
+    }
+
+    public InterceptorChain(ChannelHandlerContext ctx, List<Interceptor> interceptors, ResourceResponse response) {
+        this(ctx.executor(), ctx::fireChannelRead, ctx::writeAndFlush, interceptors, response);
+    }
+
+    /**
+     * Chain which is not bound to a channel.
+     *
+     * @param executor         Thread the chain continues on, or null to continue on whichever thread forwards.
+     * @param inboundTerminal  Receives the request once it passed every interceptor.
+     * @param outboundTerminal Receives the response once it passed every interceptor.
+     */
+    public InterceptorChain(EventExecutor executor, Consumer<ResourceRequest> inboundTerminal, Consumer<ResourceResponse> outboundTerminal,
+                            List<Interceptor> interceptors, ResourceRequest request) {
+        this.executor = executor;
+        this.inboundTerminal = inboundTerminal;
+        this.outboundTerminal = outboundTerminal;
+        this.interceptors = interceptors;
         this.request = request;
         this.direction = Direction.INBOUND;
     }
 
-    public InterceptorChain(ChannelHandlerContext ctx, List<Interceptor> interceptors, ResourceResponse response) {
-        this.ctx = ctx;
-        this.interceptors = new ArrayList(interceptors);
+    public InterceptorChain(EventExecutor executor, Consumer<ResourceRequest> inboundTerminal, Consumer<ResourceResponse> outboundTerminal,
+                            List<Interceptor> interceptors, ResourceResponse response) {
+        this.executor = executor;
+        this.inboundTerminal = inboundTerminal;
+        this.outboundTerminal = outboundTerminal;
+        this.interceptors = interceptors;
         this.response = response;
         this.direction = Direction.OUTBOUND;
     }
@@ -61,12 +84,13 @@ public class InterceptorChain {
 
     private void fireCurrentInbound() {
         if (this.current > (this.interceptors.size() - 1)) {
-            this.ctx.fireChannelRead(this.request);
+            this.inboundTerminal.accept(this.request);
             return;
         }
 
         InboundInterceptorContext context = new InboundInterceptorContextImpl(this);
         Interceptor interceptor = this.interceptors.get(this.current);
+        mark("inbound ", interceptor);
         try {
             interceptor.onInbound(context);
         } catch (Exception e) {
@@ -76,12 +100,14 @@ public class InterceptorChain {
 
     private void fireCurrentOutbound() {
         if (this.current < 0) {
-            this.ctx.writeAndFlush(this.response);
+            request().requestContext().trace().mark("response-encoding");
+            this.outboundTerminal.accept(this.response);
             return;
         }
 
         OutboundInterceptorContext context = new OutboundInterceptorContextImpl(this);
         Interceptor interceptor = this.interceptors.get(this.current);
+        mark("outbound ", interceptor);
         try {
             interceptor.onOutbound(context);
         } catch (Exception e) {
@@ -89,7 +115,19 @@ public class InterceptorChain {
         }
     }
 
+    private void mark(String direction, Interceptor interceptor) {
+        RequestTrace trace = request().requestContext().trace();
+        if (trace.isEnabled()) {
+            trace.mark(direction + interceptor.getClass().getSimpleName());
+        }
+    }
+
     public void forward() {
+        if (this.executor != null && !this.executor.inEventLoop()) {
+            // interceptors may complete asynchronously; always continue on the channel's own thread
+            this.executor.execute(this::forward);
+            return;
+        }
         if (this.direction == Direction.INBOUND) {
             ++this.current;
             fireCurrentInbound();
@@ -118,8 +156,10 @@ public class InterceptorChain {
     private ResourceRequest request;
     private ResourceResponse response;
 
-    private final ChannelHandlerContext ctx;
-    private final ArrayList<Interceptor> interceptors;
+    private final EventExecutor executor;
+    private final Consumer<ResourceRequest> inboundTerminal;
+    private final Consumer<ResourceResponse> outboundTerminal;
+    private final List<Interceptor> interceptors;
     private int current = 0;
     private Direction direction;
 
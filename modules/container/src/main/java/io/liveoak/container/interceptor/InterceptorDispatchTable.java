@@ -0,0 +1,203 @@
+package io.liveoak.container.interceptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringTokenizer;
+
+import io.liveoak.container.interceptor.extension.InterceptorConfigEntry;
+import io.liveoak.container.interceptor.extension.InterceptorsConfig;
+import io.liveoak.spi.RequestType;
+import io.liveoak.spi.ResourcePath;
+import io.liveoak.spi.ResourceRequest;
+import io.liveoak.spi.container.interceptor.Interceptor;
+import org.jboss.logging.Logger;
+
+/**
+ * Interceptor configuration compiled for lookup of the interceptors that apply to a request.
+ *
+ * <p>Every chain is a trie of resource path segments. Each node holds, per request type, the final
+ * list of interceptors for requests whose path ends at or below it, in configuration order.
+ * A lookup walks the trie along the request path and returns a precomputed list, without allocating.</p>
+ *
+ * <p>The table is immutable. It is rebuilt whenever the configuration or the set of registered interceptors changes.</p>
+ */
+public class InterceptorDispatchTable {
+
+    private static final Logger log = Logger.getLogger(InterceptorDispatchTable.class);
+
+    private static final RequestType[] REQUEST_TYPES = RequestType.values();
+    private static final int ALL_TYPES = (1 << REQUEST_TYPES.length) - 1;
+
+    public static final InterceptorDispatchTable EMPTY = new InterceptorDispatchTable(Collections.emptyMap());
+
+    public static InterceptorDispatchTable compile(InterceptorsConfig config, Map<String, Interceptor> interceptors) {
+        Map<String, Node> chains = new HashMap<>();
+        for (String chainName : config.getChainNames()) {
+            List<Entry> entries = new ArrayList<>();
+            List<String> missing = new ArrayList<>();
+            for (InterceptorConfigEntry configEntry : config.getChainConfig(chainName)) {
+                String interceptorName = configEntry.getInterceptorName();
+                Interceptor interceptor = interceptors.get(interceptorName);
+                if (interceptor == null) {
+                    // May be registered later, which rebuilds the table
+                    missing.add(interceptorName);
+                    continue;
+                }
+                entries.add(new Entry(interceptor, segments(configEntry.getResourcePathMapping()), typeMask(configEntry.getRequestTypeMapping())));
+            }
+            Node root = Node.build(entries, new String[0]);
+            List<Interceptor> all = new ArrayList<>();
+            entries.forEach((entry) -> all.add(entry.interceptor));
+            root.all = Collections.unmodifiableList(all);
+            root.missing = missing.toArray(new String[missing.size()]);
+            chains.put(chainName, root);
+        }
+        return new InterceptorDispatchTable(chains);
+    }
+
+    private InterceptorDispatchTable(Map<String, Node> chains) {
+        this.chains = chains;
+    }
+
+    /**
+     * @param request Request to match, or null for all interceptors of the chain.
+     * @return Immutable list of interceptors, in the configured order.
+     */
+    public List<Interceptor> interceptors(String chainName, ResourceRequest request) {
+        Node node = this.chains.get(chainName);
+        if (node == null) {
+            return Collections.emptyList();
+        }
+        for (int i = 0; i < node.missing.length; ++i) {
+            log.warnf("No interceptor under key '%s'", node.missing[i]);
+        }
+        if (request == null) {
+            return node.all;
+        }
+
+        List<ResourcePath.Segment> segments = request.resourcePath().segments();
+        for (int i = 0; i < segments.size(); ++i) {
+            Node child = node.children.get(segments.get(i).name());
+            if (child == null) {
+                break;
+            }
+            node = child;
+        }
+        return node.byType[request.requestType().ordinal()];
+    }
+
+    private static String[] segments(String resourcePathMapping) {
+        if (resourcePathMapping == null) {
+            return new String[0];
+        }
+        List<String> segments = new ArrayList<>();
+        StringTokenizer tokens = new StringTokenizer(resourcePathMapping, "/");
+        while (tokens.hasMoreTokens()) {
+            // matrix parameters don't take part in matching
+            segments.add(new ResourcePath.Segment(tokens.nextToken()).name());
+        }
+        return segments.toArray(new String[segments.size()]);
+    }
+
+    private static int typeMask(String requestTypeMapping) {
+        if (requestTypeMapping == null) {
+            return ALL_TYPES;
+        }
+        int mask = 0;
+        for (RequestType type : REQUEST_TYPES) {
+            if (type.matches(requestTypeMapping)) {
+                mask |= 1 << type.ordinal();
+            }
+        }
+        return mask;
+    }
+
+    private static class Entry {
+
+        Entry(Interceptor interceptor, String[] path, int typeMask) {
+            this.interceptor = interceptor;
+            this.path = path;
+            this.typeMask = typeMask;
+        }
+
+        boolean extendsPath(String[] nodePath) {
+            if (this.path.length <= nodePath.length) {
+                return false;
+            }
+            for (int i = 0; i < nodePath.length; ++i) {
+                if (!this.path[i].equals(nodePath[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean appliesTo(String[] nodePath) {
+            if (this.path.length > nodePath.length) {
+                return false;
+            }
+            for (int i = 0; i < this.path.length; ++i) {
+                if (!this.path[i].equals(nodePath[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        final Interceptor interceptor;
+        final String[] path;
+        final int typeMask;
+    }
+
+    private static class Node {
+
+        @SuppressWarnings("unchecked")
+        static Node build(List<Entry> entries, String[] nodePath) {
+            Node node = new Node();
+
+            List<Interceptor>[] byType = new List[REQUEST_TYPES.length];
+            for (int t = 0; t < byType.length; ++t) {
+                byType[t] = new ArrayList<>();
+            }
+            for (Entry entry : entries) {
+                if (entry.appliesTo(nodePath)) {
+                    for (int t = 0; t < byType.length; ++t) {
+                        if ((entry.typeMask & (1 << t)) != 0) {
+                            byType[t].add(entry.interceptor);
+                        }
+                    }
+                }
+            }
+            node.byType = byType;
+            for (int t = 0; t < byType.length; ++t) {
+                byType[t] = Collections.unmodifiableList(byType[t]);
+            }
+
+            // Only paths which some entry is mapped to need a node, deeper paths resolve to the deepest existing one
+            int depth = nodePath.length;
+            Map<String, Node> children = new HashMap<>();
+            for (Entry entry : entries) {
+                if (entry.extendsPath(nodePath) && !children.containsKey(entry.path[depth])) {
+                    String[] childPath = Arrays.copyOf(nodePath, depth + 1);
+                    childPath[depth] = entry.path[depth];
+                    children.put(entry.path[depth], build(entries, childPath));
+                }
+            }
+            node.children = children;
+            return node;
+        }
+
+        // Only set on root nodes
+        List<Interceptor> all;
+        String[] missing;
+
+        List<Interceptor>[] byType;
+        Map<String, Node> children;
+    }
+
+    private final Map<String, Node> chains;
+}
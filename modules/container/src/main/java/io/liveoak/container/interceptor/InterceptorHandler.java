@@ -1,5 +1,6 @@
 package io.liveoak.container.interceptor;
 
+import io.liveoak.common.util.SlowRequestLog;
 import io.liveoak.container.protocols.RequestCompleteEvent;
 import io.liveoak.spi.ResourceRequest;
 import io.liveoak.spi.ResourceResponse;
@@ -12,9 +13,10 @@ import io.netty.channel.ChannelPromise;
  */
 public class InterceptorHandler extends ChannelDuplexHandler {
 
-    public InterceptorHandler(String chainName, InterceptorManagerImpl manager) {
+    public InterceptorHandler(String chainName, InterceptorManagerImpl manager, SlowRequestLog slowRequestLog) {
         this.chainName = chainName;
         this.manager = manager;
+        this.slowRequestLog = slowRequestLog;
     }
 
     @Override
@@ -38,12 +40,15 @@ public class InterceptorHandler extends ChannelDuplexHandler {
     @Override
     public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
         if (evt instanceof RequestCompleteEvent) {
-            this.manager.fireComplete(chainName, ((RequestCompleteEvent) evt).requestId());
+            RequestCompleteEvent complete = (RequestCompleteEvent) evt;
+            this.slowRequestLog.complete(complete.request().requestContext());
+            this.manager.fireComplete(chainName, complete.request());
         }
         super.userEventTriggered(ctx, evt);
     }
 
     private final InterceptorManagerImpl manager;
     private final String chainName;
+    private final SlowRequestLog slowRequestLog;
 
 }
@@ -1,16 +1,16 @@
 package io.liveoak.container.interceptor;
 
 import java.io.IOException;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
-import io.liveoak.container.interceptor.extension.InterceptorConfigEntry;
+import io.liveoak.common.DefaultRequestAttributes;
 import io.liveoak.container.interceptor.extension.InterceptorsConfig;
-import io.liveoak.spi.ResourcePath;
+import io.liveoak.spi.RequestAttributes;
+import io.liveoak.spi.RequestContext;
 import io.liveoak.spi.ResourceRequest;
 import io.liveoak.spi.ResourceResponse;
 import io.liveoak.spi.container.interceptor.Interceptor;
@@ -29,6 +29,7 @@ public class InterceptorManagerImpl implements InterceptorManager {
     @Override
     public synchronized void register(String interceptorName, Interceptor interceptor) {
         this.interceptors.put(interceptorName, interceptor);
+        compile();
     }
 
     @Override
@@ -39,12 +40,16 @@ public class InterceptorManagerImpl implements InterceptorManager {
                 break;
             }
         }
+        compile();
     }
 
     @Override
     public void setInterceptorsConfig(ResourceState resourceState) throws IOException {
         InterceptorsConfig result = InterceptorsConfig.createConfigFromResourceState(resourceState);
-        this.interceptorsConfig.set(result);
+        synchronized (this) {
+            this.interceptorsConfig.set(result);
+            compile();
+        }
         if (log.isDebugEnabled()) {
             log.debugf("Interceptors configuration updated: %s", interceptorsConfig);
         }
@@ -58,6 +63,7 @@ public class InterceptorManagerImpl implements InterceptorManager {
 
     @Override
     public void fireInbound(String chainName, ChannelHandlerContext ctx, ResourceRequest request) {
+        chainName(request, chainName);
         List<Interceptor> interceptors = getInterceptors(chainName, request);
         InterceptorChain chain = new InterceptorChain(ctx, interceptors, request);
         chain.fireInbound();
@@ -71,47 +77,65 @@ public class InterceptorManagerImpl implements InterceptorManager {
     }
 
     @Override
-    public void fireComplete(String chainName, UUID requestId) {
-        List<Interceptor> interceptors = getInterceptors(chainName, null);
-        for (Interceptor each : interceptors) {
-            each.onComplete(requestId);
-        }
+    public void fireInbound(String chainName, ResourceRequest request, Consumer<ResourceRequest> onForward, Consumer<ResourceResponse> onReply) {
+        chainName(request, chainName);
+        List<Interceptor> interceptors = getInterceptors(chainName, request);
+        InterceptorChain chain = new InterceptorChain(null, onForward, onReply, interceptors, request);
+        chain.fireInbound();
     }
 
-    private List<Interceptor> getInterceptors(String chainName, ResourceRequest request) {
-        List<Interceptor> result = new LinkedList<>();
-
-        List<InterceptorConfigEntry> chainConfigEntries = interceptorsConfig.get().getChainConfig(chainName);
-        for (InterceptorConfigEntry configEntry : chainConfigEntries) {
+    @Override
+    public void fireOutbound(String chainName, ResourceResponse response, Consumer<ResourceResponse> onForward) {
+        List<Interceptor> interceptors = getInterceptors(chainName, response.inReplyTo());
+        InterceptorChain chain = new InterceptorChain(null, null, onForward, interceptors, response);
+        chain.fireOutbound();
+    }
 
-            String interceptorName = configEntry.getInterceptorName();
-            Interceptor interceptor = interceptors.get(interceptorName);
-            if (interceptor == null) {
-                log.warnf("No interceptor under key '%s'", interceptorName);
-                continue;
-            }
+    private void chainName(ResourceRequest request, String chainName) {
+        // lets resources run requests they derive from this one through the same chain
+        RequestContext requestContext = request.requestContext();
+        RequestAttributes attributes = requestContext.requestAttributes();
+        if (attributes == null && requestContext instanceof RequestContext.Builder) {
+            // contexts built by clients often come without attributes
+            attributes = new DefaultRequestAttributes();
+            ((RequestContext.Builder) requestContext).requestAttributes(attributes);
+        }
+        if (attributes != null) {
+            attributes.setAttribute(ATTR_CHAIN_NAME, chainName);
+        }
+    }
 
-            // Verify resourcePath matches
-            if (configEntry.getResourcePathMapping() != null && request != null) {
-                ResourcePath interceptorResPath = new ResourcePath(configEntry.getResourcePathMapping());
-                if (!interceptorResPath.isParentOf(request.resourcePath())) {
-                    continue;
-                }
-            }
+    @Override
+    public void fireComplete(String chainName, ResourceRequest request) {
+        List<Interceptor> interceptors = getInterceptors(chainName, null);
+        for (Interceptor each : interceptors) {
+            each.onComplete(request);
+        }
+    }
 
-            // Verify requestType matches
-            if (configEntry.getRequestTypeMapping() != null && request != null) {
-                if (!request.requestType().matches(configEntry.getRequestTypeMapping())) {
-                    continue;
-                }
+    /**
+     * @return true if every interceptor the request passes through supports responses with streamed members.
+     */
+    public boolean supportsStreamedMembers(String chainName, ResourceRequest request) {
+        List<Interceptor> interceptors = getInterceptors(chainName, request);
+        for (int i = 0; i < interceptors.size(); ++i) {
+            if (!interceptors.get(i).supportsStreamedMembers(request)) {
+                return false;
             }
-
-            result.add(interceptor);
         }
+        return true;
+    }
+
+    private List<Interceptor> getInterceptors(String chainName, ResourceRequest request) {
+        return this.dispatchTable.interceptors(chainName, request);
+    }
 
-        return result;
+    // Must be called while holding the lock of this manager
+    private void compile() {
+        this.dispatchTable = InterceptorDispatchTable.compile(this.interceptorsConfig.get(), this.interceptors);
     }
 
     private AtomicReference<InterceptorsConfig> interceptorsConfig = new AtomicReference<>(new InterceptorsConfig());
     private Map<String, Interceptor> interceptors = new ConcurrentHashMap<>();
+    private volatile InterceptorDispatchTable dispatchTable = InterceptorDispatchTable.EMPTY;
 }
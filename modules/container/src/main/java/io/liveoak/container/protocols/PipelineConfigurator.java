@@ -5,9 +5,8 @@
  */
 package io.liveoak.container.protocols;
 
-import java.util.concurrent.Executor;
-
 import io.liveoak.common.codec.ResourceCodecManager;
+import io.liveoak.common.util.SlowRequestLog;
 import io.liveoak.container.ErrorHandler;
 import io.liveoak.container.RequestContextDisposerHandler;
 import io.liveoak.container.ResourceHandler;
@@ -20,14 +19,17 @@ import io.liveoak.container.protocols.http.CORSPreflightOptionsHandler;
 import io.liveoak.container.protocols.http.HttpRequestBodyHandler;
 import io.liveoak.container.protocols.http.HttpResourceRequestDecoder;
 import io.liveoak.container.protocols.http.HttpResourceResponseEncoder;
+import io.liveoak.container.protocols.local.DirectConnection;
 import io.liveoak.container.protocols.local.LocalResourceResponseEncoder;
 import io.liveoak.container.protocols.websocket.WebSocketHandshakerHandler;
 import io.liveoak.container.protocols.websocket.WebSocketStompFrameDecoder;
 import io.liveoak.container.protocols.websocket.WebSocketStompFrameEncoder;
 import io.liveoak.container.subscriptions.SubscriptionWatcher;
 import io.liveoak.container.tenancy.GlobalContext;
+import io.liveoak.spi.ResourceRequest;
 import io.liveoak.spi.client.Client;
 import io.liveoak.spi.container.SubscriptionManager;
+import io.liveoak.spi.container.WorkerPool;
 import io.liveoak.stomp.common.StompFrameDecoder;
 import io.liveoak.stomp.common.StompFrameEncoder;
 import io.liveoak.stomp.common.StompMessageDecoder;
@@ -85,11 +87,11 @@ public class PipelineConfigurator {
         return this.subscriptionManager;
     }
 
-    public void workerPool(Executor workerPool) {
+    public void workerPool(WorkerPool workerPool) {
         this.workerPool = workerPool;
     }
 
-    public Executor workerPool() {
+    public WorkerPool workerPool() {
         return this.workerPool;
     }
 
@@ -101,6 +103,21 @@ public class PipelineConfigurator {
         return this.interceptorManager;
     }
 
+    public void slowRequestLog(SlowRequestLog slowRequestLog) {
+        this.slowRequestLog = slowRequestLog;
+    }
+
+    public SlowRequestLog slowRequestLog() {
+        return this.slowRequestLog;
+    }
+
+    /**
+     * @return a client connection which dispatches into the {@link GlobalContext} without a channel.
+     */
+    public DirectConnection directConnection() {
+        return new DirectConnection(this.globalContext, this.interceptorManager, this.subscriptionManager, this.workerPool, this.slowRequestLog);
+    }
+
     public String tempDir() {
         return System.getProperty("java.io.tmpdir");
     }
@@ -179,9 +196,9 @@ public class PipelineConfigurator {
         pipeline.addLast("cors-preflight-handler", new CORSPreflightOptionsHandler());
         //pipeline.addLast( new DebugHandler( "server-post-cors" ) );
         pipeline.addLast("http-resource-decoder", new HttpResourceRequestDecoder(this.codecManager));
-        pipeline.addLast("http-resource-encoder", new HttpResourceResponseEncoder(this.codecManager));
+        pipeline.addLast("http-resource-encoder", new HttpResourceResponseEncoder(this.codecManager, this.workerPool));
         pipeline.addLast("http-request-body-handler", new HttpRequestBodyHandler());
-        pipeline.addLast("interceptor", new InterceptorHandler("http", this.interceptorManager));
+        pipeline.addLast("interceptor", new InterceptorHandler("http", this.interceptorManager, this.slowRequestLog));
         pipeline.addLast("request-context-disposer", new RequestContextDisposerHandler());
 
         //pipeline.addLast("auth-handler", new AuthHandler(this.client));
@@ -189,7 +206,7 @@ public class PipelineConfigurator {
 
         pipeline.addLast("subscription-watcher", new SubscriptionWatcher(this.subscriptionManager));
         //pipeline.addLast( new DebugHandler( "server-debug" ) );
-        pipeline.addLast("resource-state-handler", new ResourceStateHandler(this.workerPool));
+        pipeline.addLast("resource-state-handler", new ResourceStateHandler(this.workerPool, this::streamMembers));
         pipeline.addLast("object-handler", new ResourceHandler(this.globalContext, this.workerPool));
         pipeline.addLast("error-handler", new ErrorHandler());
     }
@@ -197,7 +214,7 @@ public class PipelineConfigurator {
     public void setupLocal(ChannelPipeline pipeline) {
         //pipeline.addLast( new DebugHandler( "local-head" ) );
         pipeline.addLast(new LocalResourceResponseEncoder(this.workerPool));
-        pipeline.addLast("interceptor", new InterceptorHandler("local", this.interceptorManager));
+        pipeline.addLast("interceptor", new InterceptorHandler("local", this.interceptorManager, this.slowRequestLog));
         pipeline.addLast("request-context-disposer", new RequestContextDisposerHandler());
         pipeline.addLast(new SubscriptionWatcher(this.subscriptionManager));
         pipeline.addLast(new ResourceStateHandler(this.workerPool));
@@ -205,11 +222,18 @@ public class PipelineConfigurator {
         //pipeline.addLast( new DebugHandler( "local-tail" ) );
     }
 
+    private boolean streamMembers(ResourceRequest request) {
+        return STREAM_MEMBERS && this.interceptorManager.supportsStreamedMembers("http", request);
+    }
+
+    private static final boolean STREAM_MEMBERS = Boolean.getBoolean(HttpResourceResponseEncoder.STREAMING_PROPERTY);
+
     private Client client;
     private GlobalContext globalContext;
     private ResourceCodecManager codecManager;
     private SubscriptionManager subscriptionManager;
     private InterceptorManagerImpl interceptorManager;
-    private Executor workerPool;
+    private WorkerPool workerPool;
+    private SlowRequestLog slowRequestLog;
 
 }
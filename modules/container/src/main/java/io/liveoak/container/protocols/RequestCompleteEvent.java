@@ -2,18 +2,24 @@ package io.liveoak.container.protocols;
 
 import java.util.UUID;
 
+import io.liveoak.spi.ResourceRequest;
+
 /**
  * @author Bob McWhirter
  */
 public class RequestCompleteEvent {
 
-    public RequestCompleteEvent(UUID requestId) {
-        this.requestId = requestId;
+    public RequestCompleteEvent(ResourceRequest request) {
+        this.request = request;
     }
 
     public UUID requestId() {
-        return this.requestId;
+        return this.request.requestId();
+    }
+
+    public ResourceRequest request() {
+        return this.request;
     }
 
-    private UUID requestId;
+    private ResourceRequest request;
 }
@@ -63,7 +63,7 @@ public class HttpRequestBodyHandler extends MessageToMessageDecoder<Object> {
 
             ByteBuf content = ((HttpContent) msg).content();
             if (fileUpload != null) {
-                // if it's a PUT or a POST
+                // if it's a PUT, a PATCH or a POST
                 fileUpload.addContent(content.retain(), true);
 
                 // TODO - not sure this is ever necessary - defensive coding
@@ -108,8 +108,9 @@ public class HttpRequestBodyHandler extends MessageToMessageDecoder<Object> {
             fileUpload = null;
 
             ResourceRequest request = (ResourceRequest) msg;
-            if (request.requestType() != RequestType.CREATE && request.requestType() != RequestType.UPDATE) {
-                // not POST or PUT
+            if (request.requestType() != RequestType.CREATE && request.requestType() != RequestType.UPDATE
+                    && request.requestType() != RequestType.PATCH) {
+                // not POST, PUT or PATCH
                 out.add(request);
                 ctx.pipeline().firstContext().read();
                 return;
@@ -157,6 +158,7 @@ public class HttpRequestBodyHandler extends MessageToMessageDecoder<Object> {
                 // body is fully available we should continue processing the request
                 invocation.run();
             } else {
+                request.requestContext().trace().mark("body-wait");
                 completion = invocation;
             }
         } else {
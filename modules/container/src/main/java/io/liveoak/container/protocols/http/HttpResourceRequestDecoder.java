@@ -130,6 +130,20 @@ public class HttpResourceRequestDecoder extends MessageToMessageDecoder<DefaultH
                     .requestAttribute(HTTP_REQUEST, msg)
                     .resourceState(new DefaultLazyResourceState(codecManager, contentType, content))
                     .build());
+        } else if (msg.getMethod().equals(HttpMethod.PATCH)) {
+            String contentTypeHeader = msg.headers().get(HttpHeaders.Names.CONTENT_TYPE);
+            MediaType contentType = new MediaType(contentTypeHeader);
+            if (MediaType.JSON_MERGE_PATCH.equals(contentType)) {
+                contentType = MediaType.JSON;
+            }
+            out.add(new DefaultResourceRequest.Builder(RequestType.PATCH, new ResourcePath(path))
+                    .resourceParams(params)
+                    .mediaTypeMatcher(mediaTypeMatcher)
+                    .requestAttribute(HttpHeaders.Names.AUTHORIZATION, msg.headers().get(HttpHeaders.Names.AUTHORIZATION))
+                    .requestAttribute(HttpHeaders.Names.CONTENT_TYPE, contentType)
+                    .requestAttribute(HTTP_REQUEST, msg)
+                    .resourceState(new DefaultLazyResourceState(codecManager, contentType, content))
+                    .build());
         } else if (msg.getMethod().equals(HttpMethod.DELETE)) {
             out.add(new DefaultResourceRequest.Builder(RequestType.DELETE, new ResourcePath(path))
                     .resourceParams(params)
@@ -162,6 +176,8 @@ public class HttpResourceRequestDecoder extends MessageToMessageDecoder<DefaultH
 
         int offset = limit(intValue(params.value("offset"), 0), 0, Integer.MAX_VALUE);
         int limit = limit(intValue(params.value("limit"), Pagination.DEFAULT_LIMIT), 0, Pagination.MAX_LIMIT);
+        String afterValue = params.value("after");
+        String after = (afterValue == null || afterValue.isEmpty()) ? null : afterValue;
 
         return new Pagination() {
             public int offset() {
@@ -171,6 +187,10 @@ public class HttpResourceRequestDecoder extends MessageToMessageDecoder<DefaultH
             public int limit() {
                 return limit;
             }
+
+            public String after() {
+                return after;
+            }
         };
     }
 
@@ -10,7 +10,9 @@ import io.liveoak.common.DefaultResourceRequest;
 import io.liveoak.common.DefaultResourceResponse;
 import io.liveoak.common.codec.EncodingResult;
 import io.liveoak.common.codec.IncompatibleMediaTypeException;
+import io.liveoak.common.codec.ResourceCodec;
 import io.liveoak.common.codec.ResourceCodecManager;
+import io.liveoak.common.codec.driver.StreamingEncodingDriver;
 import io.liveoak.container.protocols.RequestCompleteEvent;
 import io.liveoak.container.tenancy.ApplicationContext;
 import io.liveoak.container.tenancy.InternalApplication;
@@ -22,32 +24,58 @@ import io.liveoak.spi.ResourceErrorResponse;
 import io.liveoak.spi.ResourcePath;
 import io.liveoak.spi.ResourceRequest;
 import io.liveoak.spi.ResourceResponse;
+import io.liveoak.spi.container.WorkerPool;
+import io.liveoak.spi.resource.BlockingResource;
 import io.liveoak.spi.resource.async.BinaryContentSink;
 import io.liveoak.spi.resource.async.BinaryResource;
 import io.liveoak.spi.resource.async.Resource;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToMessageEncoder;
 import io.netty.handler.codec.http.DefaultFullHttpResponse;
 import io.netty.handler.codec.http.DefaultHttpContent;
 import io.netty.handler.codec.http.DefaultHttpResponse;
 import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.FullHttpResponse;
 import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
 import org.jboss.logging.Logger;
 
+import java.io.UncheckedIOException;
+import java.nio.channels.ClosedChannelException;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 
 /**
  * @author Bob McWhirter
  */
 public class HttpResourceResponseEncoder extends MessageToMessageEncoder<DefaultResourceResponse> {
 
+    /**
+     * Whether to stream the members of collections read over HTTP, where the interceptors allow it.
+     */
+    public static final String STREAMING_PROPERTY = "io.liveoak.http.streaming";
+    public static final String CHUNK_SIZE_PROPERTY = "io.liveoak.http.chunk-size";
+
+    public static final int DEFAULT_CHUNK_SIZE = 8192;
+
     public HttpResourceResponseEncoder(ResourceCodecManager codecManager) {
+        this(codecManager, null);
+    }
+
+    /**
+     * @param workerPool Pool to stream members of blocking resources on.
+     */
+    public HttpResourceResponseEncoder(ResourceCodecManager codecManager, WorkerPool workerPool) {
         this.codecManager = codecManager;
+        this.workerPool = workerPool;
+        this.chunkSize = Integer.getInteger(CHUNK_SIZE_PROPERTY, DEFAULT_CHUNK_SIZE);
     }
 
     @Override
@@ -118,6 +146,10 @@ public class HttpResourceResponseEncoder extends MessageToMessageEncoder<Default
                             responseStatusCode = HttpResponseStatus.METHOD_NOT_ALLOWED.code();
                             responseMessage = "Delete not supported";
                             break;
+                        case SERVICE_UNAVAILABLE:
+                            responseStatusCode = HttpResponseStatus.SERVICE_UNAVAILABLE.code();
+                            responseMessage = HttpResponseStatus.SERVICE_UNAVAILABLE.reasonPhrase();
+                            break;
                         case INTERNAL_ERROR:
                             responseStatusCode = HttpResponseStatus.INTERNAL_SERVER_ERROR.code();
                             responseMessage = HttpResponseStatus.INTERNAL_SERVER_ERROR.reasonPhrase();
@@ -154,6 +186,10 @@ public class HttpResourceResponseEncoder extends MessageToMessageEncoder<Default
             }
 
             try {
+                if (msg.streamMembers() && msg.resource() != null) {
+                    streamState(ctx, matcher, msg, new HttpResponseStatus(responseStatusCode, responseMessage), out);
+                    return;
+                }
                 encodingResult = encodeState(msg.inReplyTo().requestContext(), matcher, msg);
             } catch (IncompatibleMediaTypeException e) {
                 log.error("Incompatible media type", e);
@@ -196,7 +232,7 @@ public class HttpResourceResponseEncoder extends MessageToMessageEncoder<Default
                         @Override
                         public void close() {
                             ctx.writeAndFlush(new DefaultLastHttpContent(Unpooled.EMPTY_BUFFER));
-                            ctx.fireUserEventTriggered(new RequestCompleteEvent(msg.requestId()));
+                            ctx.fireUserEventTriggered(new RequestCompleteEvent(msg.inReplyTo()));
                         }
 
                         @Override
@@ -224,7 +260,59 @@ public class HttpResourceResponseEncoder extends MessageToMessageEncoder<Default
         }
 
         out.add(response);
-        ctx.fireUserEventTriggered(new RequestCompleteEvent(msg.requestId()));
+        ctx.fireUserEventTriggered(new RequestCompleteEvent(msg.inReplyTo()));
+    }
+
+    /**
+     * Write the response with chunked transfer encoding, encoding the members of the resource as they're read.
+     *
+     * <p>Members of a {@link BlockingResource} are encoded on the worker pool, which waits for a slow client
+     * to catch up, so the memory held by the response stays bounded. Other resources are encoded on the event
+     * loop, which can't wait. Their chunks are queued in the channel as fast as the members are read, which
+     * saves collecting the state first but doesn't bound the memory.</p>
+     */
+    protected void streamState(ChannelHandlerContext ctx, MediaTypeMatcher matcher, DefaultResourceResponse msg, HttpResponseStatus responseStatus, List<Object> out) throws Exception {
+        MediaType mediaType = this.codecManager.findEncodingMediaType(matcher, msg);
+        ResourceCodec codec = this.codecManager.getResourceCodec(mediaType);
+
+        HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, responseStatus);
+        HttpHeaders.setTransferEncodingChunked(response);
+        response.headers().add(HttpHeaders.Names.LOCATION, msg.resource().uri().toString());
+        response.headers().add(HttpHeaders.Names.CONTENT_TYPE, mediaType);
+
+        StreamingEncodingDriver driver = new StreamingEncodingDriver(msg.inReplyTo().requestContext(), codec.createEncoder(), msg.state(), msg.resource(), this.chunkSize,
+                new ChunkWriter(ctx),
+                () -> {
+                    ctx.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
+                    ctx.fireUserEventTriggered(new RequestCompleteEvent(msg.inReplyTo()));
+                },
+                (failure) -> {
+                    // the status has been sent already, all that's left is to cut the response short
+                    if (failure instanceof UncheckedIOException && failure.getCause() instanceof ClosedChannelException) {
+                        log.debug("Client went away while streaming " + msg.resource().uri());
+                    } else {
+                        log.error("Could not stream HTTP response", failure);
+                    }
+                    ctx.close();
+                    ctx.fireUserEventTriggered(new RequestCompleteEvent(msg.inReplyTo()));
+                });
+
+        // The head is written once this method returns, so encoding must not start before.
+        if (this.workerPool != null && msg.resource() instanceof BlockingResource) {
+            try {
+                this.workerPool.execute(msg.inReplyTo(), driver::encode);
+            } catch (RejectedExecutionException e) {
+                log.debug(e.getMessage());
+                FullHttpResponse unavailable = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.SERVICE_UNAVAILABLE);
+                unavailable.headers().add(HttpHeaders.Names.CONTENT_LENGTH, 0);
+                out.add(unavailable);
+                ctx.fireUserEventTriggered(new RequestCompleteEvent(msg.inReplyTo()));
+                return;
+            }
+        } else {
+            ctx.executor().execute(driver::encode);
+        }
+        out.add(response);
     }
 
     protected EncodingResult encodeState(RequestContext ctx, MediaTypeMatcher mediaTypeMatcher, ResourceResponse response) throws Exception {
@@ -242,7 +330,37 @@ public class HttpResourceResponseEncoder extends MessageToMessageEncoder<Default
         return null;
     }
 
+    /**
+     * Writes chunks as they're encoded. When called off the event loop, it waits for the previous chunk to be
+     * written while the channel isn't writable, so that a slow client holds back the encoding. On the event
+     * loop it never waits, as that would keep the chunk from ever being written. Once the client is gone it
+     * throws, so that the encoding stops instead of reading the remaining members.
+     */
+    private static class ChunkWriter implements Consumer<ByteBuf> {
+
+        ChunkWriter(ChannelHandlerContext ctx) {
+            this.ctx = ctx;
+        }
+
+        @Override
+        public void accept(ByteBuf chunk) {
+            if (!this.ctx.channel().isActive()) {
+                chunk.release();
+                throw new UncheckedIOException(new ClosedChannelException());
+            }
+            if (this.previous != null && !this.ctx.channel().isWritable() && !this.ctx.executor().inEventLoop()) {
+                this.previous.awaitUninterruptibly();
+            }
+            this.previous = this.ctx.writeAndFlush(new DefaultHttpContent(chunk));
+        }
+
+        private final ChannelHandlerContext ctx;
+        private ChannelFuture previous;
+    }
+
     private ResourceCodecManager codecManager;
+    private final WorkerPool workerPool;
+    private final int chunkSize;
 
     private static final Logger log = Logger.getLogger(HttpResourceResponseEncoder.class);
 }
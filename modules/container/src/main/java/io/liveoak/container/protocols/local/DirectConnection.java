@@ -0,0 +1,177 @@
+/*
+ * Copyright 2014 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package io.liveoak.container.protocols.local;
+
+import java.net.SocketAddress;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+import io.liveoak.client.ClientRequest;
+import io.liveoak.client.Connection;
+import io.liveoak.client.impl.ClientResourceResponseImpl;
+import io.liveoak.common.DefaultResourceErrorResponse;
+import io.liveoak.common.DefaultResourceResponse;
+import io.liveoak.common.codec.driver.RootEncodingDriver;
+import io.liveoak.common.codec.state.ResourceStateEncoder;
+import io.liveoak.common.util.SlowRequestLog;
+import io.liveoak.container.interceptor.InterceptorManagerImpl;
+import io.liveoak.container.tenancy.GlobalContext;
+import io.liveoak.container.traversal.TraversingResponder;
+import io.liveoak.spi.RequestTrace;
+import io.liveoak.spi.ResourceErrorResponse;
+import io.liveoak.spi.ResourceRequest;
+import io.liveoak.spi.ResourceResponse;
+import io.liveoak.spi.client.ClientResourceResponse;
+import io.liveoak.spi.container.SubscriptionManager;
+import io.liveoak.spi.container.WorkerPool;
+import io.liveoak.spi.resource.BlockingResource;
+import org.jboss.logging.Logger;
+
+/**
+ * Client connection which hands requests straight to the {@link GlobalContext}.
+ *
+ * <p>Requests take the same route as they would through the local pipeline: the
+ * <code>local</code> interceptor chain, traversal, state encoding, subscription
+ * notification and the outbound chain. They are however processed on the calling
+ * thread and never touch a channel, and the encoded {@link io.liveoak.spi.state.ResourceState}
+ * is handed to the caller as-is.</p>
+ *
+ * <p>Handlers may be invoked before the call to {@link #write(ClientRequest)} returns.</p>
+ */
+public class DirectConnection implements Connection {
+
+    private static final String CHAIN_NAME = "local";
+
+    public DirectConnection(GlobalContext globalContext, InterceptorManagerImpl interceptorManager, SubscriptionManager subscriptionManager, WorkerPool workerPool, SlowRequestLog slowRequestLog) {
+        this.globalContext = globalContext;
+        this.interceptorManager = interceptorManager;
+        this.subscriptionManager = subscriptionManager;
+        this.workerPool = workerPool;
+        this.slowRequestLog = slowRequestLog;
+    }
+
+    @Override
+    public void connect(SocketAddress address) throws Exception {
+        // nothing to connect
+    }
+
+    @Override
+    public void close() {
+        // nothing to close
+    }
+
+    @Override
+    public void write(ClientRequest clientRequest) {
+        Consumer<ClientResourceResponse> handler = clientRequest.handler();
+        this.interceptorManager.fireInbound(CHAIN_NAME, clientRequest.resourceRequest(),
+                (request) -> dispatch(request, handler),
+                (response) -> deliver(response, handler));
+    }
+
+    protected void dispatch(ResourceRequest request, Consumer<ClientResourceResponse> handler) {
+        new TraversingResponder(this.workerPool, this.globalContext, request, null) {
+            @Override
+            protected void respond(ResourceResponse response) {
+                responded(response, handler);
+            }
+
+            @Override
+            protected boolean canContinue() {
+                return false;
+            }
+
+            @Override
+            protected void resumeRead() {
+                // no channel to resume
+            }
+        }.resourceRead(this.globalContext);
+    }
+
+    protected void responded(ResourceResponse response, Consumer<ClientResourceResponse> handler) {
+        if (response instanceof ResourceErrorResponse) {
+            completed(response, handler);
+            return;
+        }
+        if (response.resource() == null) {
+            // nothing to encode, same as the local pipeline
+            deliver(response, handler);
+            return;
+        }
+
+        RequestTrace trace = response.inReplyTo().requestContext().trace();
+        Runnable action = () -> {
+            trace.mark("state-encoding");
+            encode(response, handler);
+        };
+        if (response.resource() instanceof BlockingResource) {
+            trace.mark("queued state-encoding");
+            try {
+                this.workerPool.execute(response.inReplyTo(), action);
+            } catch (RejectedExecutionException e) {
+                deliver(new DefaultResourceErrorResponse(response.inReplyTo(), ResourceErrorResponse.ErrorType.SERVICE_UNAVAILABLE, e.getMessage()), handler);
+            }
+        } else {
+            action.run();
+        }
+    }
+
+    protected void encode(ResourceResponse response, Consumer<ClientResourceResponse> handler) {
+        final ResourceStateEncoder encoder = new ResourceStateEncoder();
+
+        RootEncodingDriver driver = new RootEncodingDriver(response.inReplyTo().requestContext(), encoder, response.resource(), () -> {
+            response.setState(encoder.root());
+            completed(response, handler);
+        });
+
+        try {
+            driver.encode();
+        } catch (Exception e) {
+            log.error(ResourceErrorResponse.ErrorType.NOT_ACCEPTABLE, e);
+            deliver(new DefaultResourceErrorResponse(response.inReplyTo(), ResourceErrorResponse.ErrorType.NOT_ACCEPTABLE, e.getMessage(), e), handler);
+        }
+    }
+
+    protected void completed(ResourceResponse response, Consumer<ClientResourceResponse> handler) {
+        if (response instanceof DefaultResourceResponse && !(response instanceof ResourceErrorResponse)) {
+            switch (response.responseType()) {
+                case CREATED:
+                    this.subscriptionManager.resourceCreated(response);
+                    break;
+                case UPDATED:
+                    this.subscriptionManager.resourceUpdated(response);
+                    break;
+                case DELETED:
+                    this.subscriptionManager.resourceDeleted(response);
+                    break;
+            }
+        }
+        response.inReplyTo().requestContext().dispose();
+
+        this.interceptorManager.fireOutbound(CHAIN_NAME, response, (outbound) -> deliver(outbound, handler));
+    }
+
+    protected void deliver(ResourceResponse response, Consumer<ClientResourceResponse> handler) {
+        ResourceRequest inReplyTo = response.inReplyTo();
+        String path = inReplyTo.resourcePath().toString();
+        if (response instanceof ResourceErrorResponse) {
+            ResourceErrorResponse error = (ResourceErrorResponse) response;
+            ClientResourceResponse.ResponseType responseType = LocalResourceResponseEncoder.decodeResponseType(error.errorType());
+            handler.accept(new ClientResourceResponseImpl(inReplyTo, responseType, path, null, error.message()));
+        } else {
+            handler.accept(new ClientResourceResponseImpl(inReplyTo, ClientResourceResponse.ResponseType.OK, path, response.state()));
+        }
+        this.slowRequestLog.complete(inReplyTo.requestContext());
+        this.interceptorManager.fireComplete(CHAIN_NAME, inReplyTo);
+    }
+
+    private final GlobalContext globalContext;
+    private final InterceptorManagerImpl interceptorManager;
+    private final SubscriptionManager subscriptionManager;
+    private final WorkerPool workerPool;
+    private final SlowRequestLog slowRequestLog;
+
+    private static final Logger log = Logger.getLogger(DirectConnection.class);
+}
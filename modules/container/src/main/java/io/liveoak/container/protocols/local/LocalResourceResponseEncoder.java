@@ -25,8 +25,9 @@ public class LocalResourceResponseEncoder extends ChannelOutboundHandlerAdapter
         if (msg instanceof ResourceResponse) {
             ResourceResponse response = (ResourceResponse) msg;
             if (msg instanceof ResourceErrorResponse) {
-                ClientResourceResponse.ResponseType responseType = decodeResponseType(((ResourceErrorResponse) msg).errorType());
-                ctx.writeAndFlush(new ClientResourceResponseImpl(response.inReplyTo(), responseType, response.inReplyTo().resourcePath().toString(), null));
+                ResourceErrorResponse error = (ResourceErrorResponse) msg;
+                ClientResourceResponse.ResponseType responseType = decodeResponseType(error.errorType());
+                ctx.writeAndFlush(new ClientResourceResponseImpl(response.inReplyTo(), responseType, response.inReplyTo().resourcePath().toString(), null, error.message()));
             } else {
                 encode(ctx, response);
             }
@@ -35,7 +36,7 @@ public class LocalResourceResponseEncoder extends ChannelOutboundHandlerAdapter
         }
     }
 
-    private ClientResourceResponse.ResponseType decodeResponseType(ResourceErrorResponse.ErrorType errorType) {
+    static ClientResourceResponse.ResponseType decodeResponseType(ResourceErrorResponse.ErrorType errorType) {
         switch (errorType) {
             case NOT_AUTHORIZED:
                 return ClientResourceResponse.ResponseType.NOT_AUTHORIZED;
@@ -53,6 +54,8 @@ public class LocalResourceResponseEncoder extends ChannelOutboundHandlerAdapter
                 return ClientResourceResponse.ResponseType.UPDATE_NOT_SUPPORTED;
             case DELETE_NOT_SUPPORTED:
                 return ClientResourceResponse.ResponseType.DELETE_NOT_SUPPORTED;
+            case SERVICE_UNAVAILABLE:
+                return ClientResourceResponse.ResponseType.SERVICE_UNAVAILABLE;
             case INTERNAL_ERROR:
                 return ClientResourceResponse.ResponseType.INTERNAL_ERROR;
         }
@@ -71,12 +74,12 @@ public class LocalResourceResponseEncoder extends ChannelOutboundHandlerAdapter
         final ClientResourceResponse.ResponseType responseType = ClientResourceResponse.ResponseType.OK;
         if (response.resource() == null) {
             ctx.writeAndFlush(new ClientResourceResponseImpl(response.inReplyTo(), responseType, response.inReplyTo().resourcePath().toString(), null));
-            ctx.fireUserEventTriggered(new RequestCompleteEvent(response.requestId()));
+            ctx.fireUserEventTriggered(new RequestCompleteEvent(response.inReplyTo()));
             return;
         }
 
         ctx.writeAndFlush(new ClientResourceResponseImpl(response.inReplyTo(), responseType, response.inReplyTo().resourcePath().toString(), response.state()));
-        ctx.fireUserEventTriggered(new RequestCompleteEvent(response.requestId()));
+        ctx.fireUserEventTriggered(new RequestCompleteEvent(response.inReplyTo()));
 
     }
 
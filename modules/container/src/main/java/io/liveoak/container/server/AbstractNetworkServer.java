@@ -12,8 +12,6 @@ import java.net.SocketAddress;
 import io.liveoak.spi.container.NetworkServer;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.ServerChannel;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
 
 /**
  * Base networkServer capable of connecting a container to a network ports.
@@ -23,17 +21,21 @@ import io.netty.channel.socket.nio.NioServerSocketChannel;
 public abstract class AbstractNetworkServer extends AbstractServer implements NetworkServer {
 
     public AbstractNetworkServer() {
-        this.group = new NioEventLoopGroup();
     }
 
     @Override
-    protected EventLoopGroup eventLoopGroup() {
-        return this.group;
+    protected EventLoopGroup parentGroup() {
+        return eventLoops().bossGroup();
+    }
+
+    @Override
+    protected EventLoopGroup childGroup() {
+        return eventLoops().workerGroup();
     }
 
     @Override
     protected Class<? extends ServerChannel> channelClass() {
-        return NioServerSocketChannel.class;
+        return eventLoops().serverChannelClass();
     }
 
     @Override
@@ -63,5 +65,4 @@ public abstract class AbstractNetworkServer extends AbstractServer implements Ne
 
     private int port;
     private InetAddress host;
-    private EventLoopGroup group;
 }
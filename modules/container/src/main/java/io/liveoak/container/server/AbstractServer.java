@@ -8,11 +8,12 @@ package io.liveoak.container.server;
 import io.liveoak.spi.container.Server;
 import io.liveoak.container.protocols.PipelineConfigurator;
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.ServerChannel;
-import io.netty.util.concurrent.Future;
 
 import java.net.SocketAddress;
 
@@ -26,10 +27,19 @@ public abstract class AbstractServer implements Server {
     public AbstractServer() {
     }
 
-    protected abstract EventLoopGroup eventLoopGroup();
+    protected abstract EventLoopGroup parentGroup();
+    protected abstract EventLoopGroup childGroup();
     protected abstract Class<? extends ServerChannel> channelClass();
     public abstract SocketAddress localAddress();
 
+    public void eventLoops(EventLoops eventLoops) {
+        this.eventLoops = eventLoops;
+    }
+
+    public EventLoops eventLoops() {
+        return this.eventLoops;
+    }
+
     public void pipelineConfigurator(PipelineConfigurator pipelineConfigurator) {
         this.pipelineConfigurator = pipelineConfigurator;
     }
@@ -47,22 +57,29 @@ public abstract class AbstractServer implements Server {
         ServerBootstrap serverBootstrap = new ServerBootstrap();
         serverBootstrap
                 .channel(channelClass())
-                .group(eventLoopGroup())
+                .group(parentGroup(), childGroup())
                 .localAddress(localAddress())
+                .option(ChannelOption.ALLOCATOR, this.eventLoops.allocator())
+                .childOption(ChannelOption.ALLOCATOR, this.eventLoops.allocator())
                 //.handler( new DebugHandler( "server-handler" ) )
                 .childHandler(createChildHandler());
         ChannelFuture future = serverBootstrap.bind();
         future.sync();
+        this.channel = future.channel();
     }
 
     /**
      * Synchronously stop the network listener.
      *
+     * <p>The event loops are shared with other servers and are left running.</p>
+     *
      * @throws InterruptedException If interrupted before completely stopping.
      */
     public void stop() throws InterruptedException {
-        Future<?> future = eventLoopGroup().shutdownGracefully();
-        future.sync();
+        if (this.channel != null) {
+            this.channel.close().sync();
+            this.channel = null;
+        }
     }
 
     protected PipelineConfigurator getPipelineConfigurator() {
@@ -80,5 +97,7 @@ public abstract class AbstractServer implements Server {
     protected abstract ChannelHandler createChildHandler();
 
     private PipelineConfigurator pipelineConfigurator;
+    private EventLoops eventLoops;
+    private Channel channel;
 
 }
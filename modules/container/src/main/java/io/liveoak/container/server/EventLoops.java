@@ -0,0 +1,139 @@
+/*
+ * Copyright 2014 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package io.liveoak.container.server;
+
+import java.util.Locale;
+
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.Future;
+import org.jboss.logging.Logger;
+
+/**
+ * Event loops shared by all servers of the container.
+ *
+ * <p>Network servers accept connections on the boss group and handle them on the worker group.
+ * Local channels, which only exist in-process, are handled on the worker group as well.</p>
+ *
+ * <p>With {@link #NATIVE_PROPERTY} set, the epoll transport is used on Linux. It falls back to NIO when
+ * the native library can't be loaded. It is off by default, as the epoll transport of this version of
+ * netty may keep a worker busy on a half-read connection while the group shuts down.</p>
+ */
+public class EventLoops {
+
+    public static final String BOSS_THREADS_PROPERTY = "io.liveoak.event-loop.boss-threads";
+    public static final String WORKER_THREADS_PROPERTY = "io.liveoak.event-loop.worker-threads";
+    public static final String NATIVE_PROPERTY = "io.liveoak.event-loop.native";
+    public static final String ALLOCATOR_PROPERTY = "io.liveoak.event-loop.allocator";
+    public static final String PREFER_DIRECT_PROPERTY = "io.liveoak.event-loop.prefer-direct";
+
+    public static final int DEFAULT_BOSS_THREADS = 1;
+    // netty's default, twice the number of cores
+    public static final int DEFAULT_WORKER_THREADS = 0;
+
+    public EventLoops() {
+        this(Integer.getInteger(BOSS_THREADS_PROPERTY, DEFAULT_BOSS_THREADS),
+                Integer.getInteger(WORKER_THREADS_PROPERTY, DEFAULT_WORKER_THREADS),
+                Boolean.getBoolean(NATIVE_PROPERTY),
+                allocator(System.getProperty(ALLOCATOR_PROPERTY, "pooled"),
+                        Boolean.parseBoolean(System.getProperty(PREFER_DIRECT_PROPERTY, "true"))));
+    }
+
+    /**
+     * @param workerThreads Number of worker threads, netty's default if it's not positive.
+     * @param useNative Whether to use the epoll transport if it's available.
+     */
+    public EventLoops(int bossThreads, int workerThreads, boolean useNative, ByteBufAllocator allocator) {
+        this.allocator = allocator;
+        int boss = Math.max(bossThreads, 1);
+        int worker = Math.max(workerThreads, 0);
+
+        EventLoopGroup bossGroup = null;
+        EventLoopGroup workerGroup = null;
+        if (useNative && Epoll.isAvailable()) {
+            try {
+                bossGroup = new EpollEventLoopGroup(boss, new DefaultThreadFactory("liveoak-boss", true));
+                workerGroup = new EpollEventLoopGroup(worker, new DefaultThreadFactory("liveoak-io", true));
+            } catch (Throwable t) {
+                log.warn("Could not use the epoll transport, using NIO", t);
+                if (bossGroup != null) {
+                    bossGroup.shutdownGracefully();
+                }
+                bossGroup = null;
+                workerGroup = null;
+            }
+        } else if (useNative) {
+            log.warn("The epoll transport is not available, using NIO");
+        }
+
+        if (workerGroup != null) {
+            this.serverChannelClass = EpollServerSocketChannel.class;
+            this.nativeTransport = true;
+        } else {
+            bossGroup = new NioEventLoopGroup(boss, new DefaultThreadFactory("liveoak-boss", true));
+            workerGroup = new NioEventLoopGroup(worker, new DefaultThreadFactory("liveoak-io", true));
+            this.serverChannelClass = NioServerSocketChannel.class;
+            this.nativeTransport = false;
+        }
+        this.bossGroup = bossGroup;
+        this.workerGroup = workerGroup;
+    }
+
+    public EventLoopGroup bossGroup() {
+        return this.bossGroup;
+    }
+
+    public EventLoopGroup workerGroup() {
+        return this.workerGroup;
+    }
+
+    public Class<? extends ServerChannel> serverChannelClass() {
+        return this.serverChannelClass;
+    }
+
+    public boolean isNative() {
+        return this.nativeTransport;
+    }
+
+    public ByteBufAllocator allocator() {
+        return this.allocator;
+    }
+
+    public void shutdown() throws InterruptedException {
+        Future<?> boss = this.bossGroup.shutdownGracefully();
+        Future<?> worker = this.workerGroup.shutdownGracefully();
+        boss.sync();
+        worker.sync();
+    }
+
+    static ByteBufAllocator allocator(String type, boolean preferDirect) {
+        switch (type.toLowerCase(Locale.ENGLISH)) {
+            case "pooled":
+                return new PooledByteBufAllocator(preferDirect);
+            case "unpooled":
+                return new UnpooledByteBufAllocator(preferDirect);
+            default:
+                throw new IllegalArgumentException("Unknown allocator '" + type + "', expected 'pooled' or 'unpooled'");
+        }
+    }
+
+    private final EventLoopGroup bossGroup;
+    private final EventLoopGroup workerGroup;
+    private final Class<? extends ServerChannel> serverChannelClass;
+    private final boolean nativeTransport;
+    private final ByteBufAllocator allocator;
+
+    private static final Logger log = Logger.getLogger(EventLoops.class);
+}
@@ -9,7 +9,6 @@ import io.netty.channel.ServerChannel;
 import io.netty.channel.local.LocalAddress;
 import io.netty.channel.local.LocalChannel;
 import io.netty.channel.local.LocalServerChannel;
-import io.netty.channel.nio.NioEventLoopGroup;
 
 /**
  * @author Bob McWhirter
@@ -17,12 +16,16 @@ import io.netty.channel.nio.NioEventLoopGroup;
 public class LocalServer extends AbstractServer {
 
     public LocalServer() {
-        this.group = new NioEventLoopGroup();
     }
 
     @Override
-    protected EventLoopGroup eventLoopGroup() {
-        return this.group;
+    protected EventLoopGroup parentGroup() {
+        return eventLoops().workerGroup();
+    }
+
+    @Override
+    protected EventLoopGroup childGroup() {
+        return eventLoops().workerGroup();
     }
 
     @Override
@@ -43,6 +46,4 @@ public class LocalServer extends AbstractServer {
             }
         };
     }
-
-    private EventLoopGroup group;
 }
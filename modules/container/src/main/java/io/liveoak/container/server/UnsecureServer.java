@@ -8,7 +8,7 @@ package io.liveoak.container.server;
 import io.liveoak.container.protocols.ProtocolDetector;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelInitializer;
-import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.channel.socket.SocketChannel;
 
 public class UnsecureServer extends AbstractNetworkServer {
 
@@ -17,8 +17,8 @@ public class UnsecureServer extends AbstractNetworkServer {
     }
 
     protected ChannelHandler createChildHandler() {
-        return new ChannelInitializer<NioSocketChannel>() {
-            protected void initChannel(NioSocketChannel ch) throws Exception {
+        return new ChannelInitializer<SocketChannel>() {
+            protected void initChannel(SocketChannel ch) throws Exception {
                 ch.pipeline().addLast("protocol-detector", new ProtocolDetector(getPipelineConfigurator()));
             }
         };
@@ -4,6 +4,7 @@ import java.net.InetSocketAddress;
 
 import io.liveoak.container.protocols.PipelineConfigurator;
 import io.liveoak.container.server.AbstractNetworkServer;
+import io.liveoak.container.server.EventLoops;
 import io.liveoak.spi.container.NetworkServer;
 import org.jboss.logging.Logger;
 import org.jboss.msc.inject.Injector;
@@ -30,6 +31,7 @@ public abstract class AbstractNetworkServerService implements Service<NetworkSer
             this.server.host(this.bindingInjector.getValue().getAddress());
             this.server.port(this.bindingInjector.getValue().getPort());
             this.server.pipelineConfigurator(this.pipelineConfiguratorInjector.getValue());
+            this.server.eventLoops(this.eventLoopsInjector.getValue());
             this.server.start();
         } catch (Exception e) {
             context.failed(new StartException(e));
@@ -58,10 +60,15 @@ public abstract class AbstractNetworkServerService implements Service<NetworkSer
         return this.pipelineConfiguratorInjector;
     }
 
+    public Injector<EventLoops> eventLoopsInjector() {
+        return this.eventLoopsInjector;
+    }
+
     private AbstractNetworkServer server;
 
     private InjectedValue<InetSocketAddress> bindingInjector = new InjectedValue<>();
     private InjectedValue<PipelineConfigurator> pipelineConfiguratorInjector = new InjectedValue<>();
+    private InjectedValue<EventLoops> eventLoopsInjector = new InjectedValue<>();
 
     private static final Logger log = Logger.getLogger(AbstractNetworkServerService.class);
 }
@@ -1,6 +1,10 @@
 package io.liveoak.container.service;
 
 import io.liveoak.client.DefaultClient;
+import io.liveoak.client.LocalConnection;
+import io.liveoak.container.protocols.PipelineConfigurator;
+import io.liveoak.container.server.EventLoops;
+import io.netty.channel.EventLoopGroup;
 import io.netty.channel.local.LocalAddress;
 import org.jboss.logging.Logger;
 import org.jboss.msc.inject.Injector;
@@ -15,11 +19,25 @@ import org.jboss.msc.value.InjectedValue;
  */
 public class ClientConnectorService implements Service<Void> {
 
+    /**
+     * Set to <code>direct</code> to hand the client's asynchronous requests straight to the container,
+     * instead of sending them over a local channel.
+     */
+    public static final String DISPATCH_PROPERTY = "io.liveoak.client.dispatch";
+
     @Override
     public void start(StartContext context) throws StartException {
         log.debug("connect client");
         try {
-            this.clientInjector.getValue().connect(new LocalAddress("liveoak"));
+            LocalAddress address = new LocalAddress("liveoak");
+            DefaultClient client = this.clientInjector.getValue();
+            EventLoopGroup serverGroup = this.eventLoopsInjector.getValue().workerGroup();
+            if ("direct".equals(System.getProperty(DISPATCH_PROPERTY))) {
+                client.connect(address, this.pipelineConfiguratorInjector.getValue().directConnection(), serverGroup);
+            } else {
+                // a group of its own, as handlers may make synchronous calls which the server threads must stay free to serve
+                client.connect(address, new LocalConnection(client), serverGroup);
+            }
         } catch (Exception e) {
             throw new StartException(e);
         }
@@ -39,7 +57,17 @@ public class ClientConnectorService implements Service<Void> {
         return this.clientInjector;
     }
 
+    public Injector<PipelineConfigurator> pipelineConfiguratorInjector() {
+        return this.pipelineConfiguratorInjector;
+    }
+
+    public Injector<EventLoops> eventLoopsInjector() {
+        return this.eventLoopsInjector;
+    }
+
     private InjectedValue<DefaultClient> clientInjector = new InjectedValue<>();
+    private InjectedValue<EventLoops> eventLoopsInjector = new InjectedValue<>();
+    private InjectedValue<PipelineConfigurator> pipelineConfiguratorInjector = new InjectedValue<>();
 
     private static final Logger log = Logger.getLogger(ClientConnectorService.class);
 }
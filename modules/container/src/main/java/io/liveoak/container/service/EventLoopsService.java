@@ -0,0 +1,40 @@
+package io.liveoak.container.service;
+
+import io.liveoak.container.server.EventLoops;
+import org.jboss.logging.Logger;
+import org.jboss.msc.service.Service;
+import org.jboss.msc.service.StartContext;
+import org.jboss.msc.service.StartException;
+import org.jboss.msc.service.StopContext;
+
+public class EventLoopsService implements Service<EventLoops> {
+
+    @Override
+    public void start(StartContext context) throws StartException {
+        try {
+            this.eventLoops = new EventLoops();
+        } catch (IllegalArgumentException e) {
+            throw new StartException(e);
+        }
+        log.debug("event loops started, native: " + this.eventLoops.isNative());
+    }
+
+    @Override
+    public void stop(StopContext context) {
+        try {
+            this.eventLoops.shutdown();
+        } catch (InterruptedException e) {
+            log.error("", e);
+        }
+        this.eventLoops = null;
+    }
+
+    @Override
+    public EventLoops getValue() throws IllegalStateException, IllegalArgumentException {
+        return this.eventLoops;
+    }
+
+    private EventLoops eventLoops;
+
+    private static final Logger log = Logger.getLogger(EventLoopsService.class);
+}
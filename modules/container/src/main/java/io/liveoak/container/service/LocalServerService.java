@@ -1,6 +1,7 @@
 package io.liveoak.container.service;
 
 import io.liveoak.container.protocols.PipelineConfigurator;
+import io.liveoak.container.server.EventLoops;
 import io.liveoak.container.server.LocalServer;
 import org.jboss.logging.Logger;
 import org.jboss.msc.inject.Injector;
@@ -20,6 +21,7 @@ public class LocalServerService implements Service<LocalServer> {
         log.debug("start local server: " + context.getController().getName());
         this.server = new LocalServer();
         this.server.pipelineConfigurator(this.pipelineConfiguratorInjector.getValue());
+        this.server.eventLoops(this.eventLoopsInjector.getValue());
         try {
             this.server.start();
         } catch (InterruptedException e) {
@@ -47,7 +49,12 @@ public class LocalServerService implements Service<LocalServer> {
         return this.pipelineConfiguratorInjector;
     }
 
+    public Injector<EventLoops> eventLoopsInjector() {
+        return this.eventLoopsInjector;
+    }
+
     private InjectedValue<PipelineConfigurator> pipelineConfiguratorInjector = new InjectedValue<>();
+    private InjectedValue<EventLoops> eventLoopsInjector = new InjectedValue<>();
 
     private LocalServer server;
 
@@ -1,13 +1,13 @@
 package io.liveoak.container.service;
 
-import java.util.concurrent.Executor;
-
 import io.liveoak.common.codec.ResourceCodecManager;
+import io.liveoak.common.util.SlowRequestLog;
 import io.liveoak.container.interceptor.InterceptorManagerImpl;
 import io.liveoak.container.protocols.PipelineConfigurator;
 import io.liveoak.container.tenancy.GlobalContext;
 import io.liveoak.spi.client.Client;
 import io.liveoak.spi.container.SubscriptionManager;
+import io.liveoak.spi.container.WorkerPool;
 import org.jboss.msc.inject.Injector;
 import org.jboss.msc.service.Service;
 import org.jboss.msc.service.StartContext;
@@ -26,6 +26,7 @@ public class PipelineConfiguratorService implements Service<PipelineConfigurator
         this.pipelineConfigurator.codecManager(this.codecManagerInjector.getValue());
         this.pipelineConfigurator.subscriptionManager(this.subscriptionManagerInjector.getValue());
         this.pipelineConfigurator.workerPool(this.workerPoolInjector.getValue());
+        this.pipelineConfigurator.slowRequestLog(this.slowRequestLogInjector.getValue());
         this.pipelineConfigurator.interceptorManager(this.interceptorManagerInjector.getValue());
         this.pipelineConfigurator.client(this.clientInjector.getValue());
     }
@@ -48,10 +49,14 @@ public class PipelineConfiguratorService implements Service<PipelineConfigurator
         return this.subscriptionManagerInjector;
     }
 
-    public Injector<Executor> workerPoolInjector() {
+    public Injector<WorkerPool> workerPoolInjector() {
         return this.workerPoolInjector;
     }
 
+    public Injector<SlowRequestLog> slowRequestLogInjector() {
+        return this.slowRequestLogInjector;
+    }
+
     public Injector<InterceptorManagerImpl> interceptorManagerInjector() {
         return this.interceptorManagerInjector;
     }
@@ -69,7 +74,8 @@ public class PipelineConfiguratorService implements Service<PipelineConfigurator
     private InjectedValue<GlobalContext> globalContextInjector = new InjectedValue<>();
     private InjectedValue<ResourceCodecManager> codecManagerInjector = new InjectedValue<>();
     private InjectedValue<SubscriptionManager> subscriptionManagerInjector = new InjectedValue<>();
-    private InjectedValue<Executor> workerPoolInjector = new InjectedValue<>();
+    private InjectedValue<WorkerPool> workerPoolInjector = new InjectedValue<>();
+    private InjectedValue<SlowRequestLog> slowRequestLogInjector = new InjectedValue<>();
     private InjectedValue<InterceptorManagerImpl> interceptorManagerInjector = new InjectedValue<>();
     private InjectedValue<Client> clientInjector = new InjectedValue<>();
 
@@ -1,8 +1,13 @@
 package io.liveoak.container.service;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import io.liveoak.container.subscriptions.DefaultSubscriptionManager;
+import io.liveoak.container.subscriptions.NotificationDispatcher;
 import io.liveoak.container.subscriptions.SecuredSubscriptionManager;
 import io.liveoak.spi.client.Client;
+import io.netty.util.concurrent.DefaultThreadFactory;
 import org.jboss.msc.inject.Injector;
 import org.jboss.msc.service.Service;
 import org.jboss.msc.service.StartContext;
@@ -16,11 +21,24 @@ import org.jboss.msc.value.InjectedValue;
 public class SubscriptionManagerService implements Service<DefaultSubscriptionManager> {
     @Override
     public void start(StartContext context) throws StartException {
-        this.subscriptionManager = new SecuredSubscriptionManager(clientInjector.getValue());
+        int threads = Integer.getInteger(NotificationDispatcher.THREADS_PROPERTY, Runtime.getRuntime().availableProcessors());
+        int queueSize = Integer.getInteger(NotificationDispatcher.QUEUE_SIZE_PROPERTY, NotificationDispatcher.DEFAULT_QUEUE_SIZE);
+        NotificationDispatcher.OverflowPolicy overflowPolicy;
+        try {
+            overflowPolicy = NotificationDispatcher.OverflowPolicy.of(System.getProperty(NotificationDispatcher.OVERFLOW_POLICY_PROPERTY, "drop-oldest"));
+        } catch (IllegalArgumentException e) {
+            throw new StartException("Unknown subscription overflow policy: " + System.getProperty(NotificationDispatcher.OVERFLOW_POLICY_PROPERTY), e);
+        }
+
+        this.dispatchPool = Executors.newFixedThreadPool(threads, new DefaultThreadFactory("liveoak-notifications", true));
+        NotificationDispatcher dispatcher = new NotificationDispatcher(this.dispatchPool, queueSize, overflowPolicy);
+        this.subscriptionManager = new SecuredSubscriptionManager(clientInjector.getValue(), dispatcher);
     }
 
     @Override
     public void stop(StopContext context) {
+        this.dispatchPool.shutdown();
+        this.dispatchPool = null;
         this.subscriptionManager = null;
     }
 
@@ -34,6 +52,7 @@ public class SubscriptionManagerService implements Service<DefaultSubscriptionMa
     }
 
     private DefaultSubscriptionManager subscriptionManager;
+    private ExecutorService dispatchPool;
     private InjectedValue<Client> clientInjector = new InjectedValue<>();
 
 }
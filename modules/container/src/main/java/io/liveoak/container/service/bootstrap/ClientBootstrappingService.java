@@ -1,6 +1,8 @@
 package io.liveoak.container.service.bootstrap;
 
 import io.liveoak.client.DefaultClient;
+import io.liveoak.container.protocols.PipelineConfigurator;
+import io.liveoak.container.server.EventLoops;
 import io.liveoak.container.service.ClientConnectorService;
 import io.liveoak.container.service.ClientService;
 import org.jboss.logging.Logger;
@@ -13,6 +15,8 @@ import org.jboss.msc.service.StartException;
 import org.jboss.msc.service.StopContext;
 
 import static io.liveoak.spi.LiveOak.CLIENT;
+import static io.liveoak.spi.LiveOak.EVENT_LOOPS;
+import static io.liveoak.spi.LiveOak.PIPELINE_CONFIGURATOR;
 import static io.liveoak.spi.LiveOak.server;
 
 /**
@@ -39,6 +43,8 @@ public class ClientBootstrappingService implements Service<Void> {
         ClientConnectorService clientConnector = new ClientConnectorService();
         target.addService(CLIENT.append("connect"), clientConnector)
                 .addDependency(CLIENT, DefaultClient.class, clientConnector.clientInjector())
+                .addDependency(PIPELINE_CONFIGURATOR, PipelineConfigurator.class, clientConnector.pipelineConfiguratorInjector())
+                .addDependency(EVENT_LOOPS, EventLoops.class, clientConnector.eventLoopsInjector())
                 .addDependency(server("local", false))
                 .install();
 
@@ -1,11 +1,13 @@
 package io.liveoak.container.service.bootstrap;
 
 import java.net.InetSocketAddress;
-import java.util.concurrent.Executor;
 
 import io.liveoak.common.codec.ResourceCodecManager;
+import io.liveoak.common.util.SlowRequestLog;
 import io.liveoak.container.interceptor.InterceptorManagerImpl;
 import io.liveoak.container.protocols.PipelineConfigurator;
+import io.liveoak.container.server.EventLoops;
+import io.liveoak.container.service.EventLoopsService;
 import io.liveoak.container.service.LocalServerService;
 import io.liveoak.container.service.NotifierService;
 import io.liveoak.container.service.PipelineConfiguratorService;
@@ -15,6 +17,7 @@ import io.liveoak.container.service.WorkerPoolService;
 import io.liveoak.container.tenancy.GlobalContext;
 import io.liveoak.spi.client.Client;
 import io.liveoak.spi.container.SubscriptionManager;
+import io.liveoak.spi.container.WorkerPool;
 import org.jboss.msc.service.Service;
 import org.jboss.msc.service.ServiceBuilder;
 import org.jboss.msc.service.ServiceTarget;
@@ -26,10 +29,12 @@ import org.jboss.msc.value.ImmediateValue;
 
 import static io.liveoak.spi.LiveOak.CLIENT;
 import static io.liveoak.spi.LiveOak.CODEC_MANAGER;
+import static io.liveoak.spi.LiveOak.EVENT_LOOPS;
 import static io.liveoak.spi.LiveOak.GLOBAL_CONTEXT;
 import static io.liveoak.spi.LiveOak.INTERCEPTOR_MANAGER;
 import static io.liveoak.spi.LiveOak.NOTIFIER;
 import static io.liveoak.spi.LiveOak.PIPELINE_CONFIGURATOR;
+import static io.liveoak.spi.LiveOak.SLOW_REQUEST_LOG;
 import static io.liveoak.spi.LiveOak.SOCKET_BINDING;
 import static io.liveoak.spi.LiveOak.SUBSCRIPTION_MANAGER;
 import static io.liveoak.spi.LiveOak.WORKER_POOL;
@@ -47,15 +52,21 @@ public class ServersBootstrappingService implements Service<Void> {
     public void start(StartContext context) throws StartException {
         ServiceTarget target = context.getChildTarget();
 
+        EventLoopsService eventLoops = new EventLoopsService();
+        target.addService(EVENT_LOOPS, eventLoops)
+                .install();
+
         UnsecureServerService unsecureServer = new UnsecureServerService();
         target.addService(server("unsecure", true), unsecureServer)
                 .addDependency(PIPELINE_CONFIGURATOR, PipelineConfigurator.class, unsecureServer.pipelineConfiguratorInjector())
                 .addDependency(SOCKET_BINDING, InetSocketAddress.class, unsecureServer.bindingInjector())
+                .addDependency(EVENT_LOOPS, EventLoops.class, unsecureServer.eventLoopsInjector())
                 .install();
 
         LocalServerService localServer = new LocalServerService();
         target.addService(server("local", false), localServer)
                 .addDependency(PIPELINE_CONFIGURATOR, PipelineConfigurator.class, localServer.pipelineConfiguratorInjector())
+                .addDependency(EVENT_LOOPS, EventLoops.class, localServer.eventLoopsInjector())
                 .install();
 
 
@@ -73,6 +84,10 @@ public class ServersBootstrappingService implements Service<Void> {
         target.addService(WORKER_POOL, workerPool)
                 .install();
 
+        ValueService<SlowRequestLog> slowRequestLog = new ValueService<>(new ImmediateValue<SlowRequestLog>(new SlowRequestLog()));
+        target.addService(SLOW_REQUEST_LOG, slowRequestLog)
+                .install();
+
         PipelineConfiguratorService pipelineConfigurator = new PipelineConfiguratorService();
         ServiceBuilder<PipelineConfigurator> pipelineBuilder = target.addService(PIPELINE_CONFIGURATOR, pipelineConfigurator)
                 .addDependency(SUBSCRIPTION_MANAGER, SubscriptionManager.class, pipelineConfigurator.subscriptionManagerInjector())
@@ -80,7 +95,8 @@ public class ServersBootstrappingService implements Service<Void> {
                 .addDependency(CODEC_MANAGER, ResourceCodecManager.class, pipelineConfigurator.codecManagerInjector())
                 .addDependency(CLIENT, Client.class, pipelineConfigurator.clientInjector())
                 .addDependency(GLOBAL_CONTEXT, GlobalContext.class, pipelineConfigurator.globalContextInjector())
-                .addDependency(WORKER_POOL, Executor.class, pipelineConfigurator.workerPoolInjector());
+                .addDependency(WORKER_POOL, WorkerPool.class, pipelineConfigurator.workerPoolInjector())
+                .addDependency(SLOW_REQUEST_LOG, SlowRequestLog.class, pipelineConfigurator.slowRequestLogInjector());
 
         pipelineBuilder.install();
 
@@ -1,11 +1,17 @@
 package io.liveoak.container.subscriptions;
 
-import io.liveoak.common.util.ObjectsTree;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import io.liveoak.common.util.ResourcePathIndex;
 import io.liveoak.spi.ResourcePath;
 import io.liveoak.spi.ResourceResponse;
 import io.liveoak.spi.container.Subscription;
 import io.liveoak.spi.container.SubscriptionManager;
 import io.liveoak.spi.resource.async.Resource;
+import io.liveoak.stomp.server.StompConnection;
 import org.jboss.logging.Logger;
 
 /**
@@ -14,25 +20,38 @@ import org.jboss.logging.Logger;
 public class DefaultSubscriptionManager implements SubscriptionManager {
 
     public DefaultSubscriptionManager() {
+        this(null);
+    }
 
+    public DefaultSubscriptionManager(NotificationDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+        if (this.dispatcher != null) {
+            this.dispatcher.onDisconnect(this::disconnect);
+        }
     }
 
     @Override
     public void addSubscription(Subscription subscription) {
-        this.subscriptionsTree.addObject(subscription, subscription.resourcePath());
+        this.subscriptions.addObject(subscription, subscription.resourcePath());
     }
 
     @Override
     public void removeSubscription(Subscription subscription) {
-        this.subscriptionsTree.removeObject(subscription, subscription.resourcePath());
+        this.subscriptions.removeObject(subscription, subscription.resourcePath());
     }
 
     @Override
     public void resourceCreated(ResourceResponse resourceResponse) {
         ResourcePath path = resourcePathOf(resourceResponse.resource());
-        this.subscriptionsTree.objects(path).forEach((subscription) -> {
-            subscribeResourceCreated(path, subscription, resourceResponse);
-        });
+        SubscriptionNotification notification = notificationFor(resourceResponse);
+        notification.retain();
+        try {
+            this.subscriptions.forEachMatch(path, (subscription) -> {
+                dispatch(subscription, notification, () -> subscribeResourceCreated(path, subscription, notification));
+            });
+        } finally {
+            notification.release();
+        }
     }
 
     protected void subscribeResourceCreated(ResourcePath path, Subscription subscription, ResourceResponse resourceResponse) {
@@ -46,9 +65,15 @@ public class DefaultSubscriptionManager implements SubscriptionManager {
     @Override
     public void resourceUpdated(ResourceResponse resourceResponse) {
         ResourcePath path = resourcePathOf(resourceResponse.resource());
-        this.subscriptionsTree.objects(path).forEach((subscription) -> {
-            subscribeResourceUpdated(path, subscription, resourceResponse);
-        });
+        SubscriptionNotification notification = notificationFor(resourceResponse);
+        notification.retain();
+        try {
+            this.subscriptions.forEachMatch(path, (subscription) -> {
+                dispatch(subscription, notification, () -> subscribeResourceUpdated(path, subscription, notification));
+            });
+        } finally {
+            notification.release();
+        }
     }
 
     protected void subscribeResourceUpdated(ResourcePath path, Subscription subscription, ResourceResponse resourceResponse) {
@@ -62,9 +87,15 @@ public class DefaultSubscriptionManager implements SubscriptionManager {
     @Override
     public void resourceDeleted(ResourceResponse resourceResponse) {
         ResourcePath path = resourcePathOf(resourceResponse.resource());
-        this.subscriptionsTree.objects(path).forEach((subscription) -> {
-            subscribeResourceDeleted(path, subscription, resourceResponse);
-        });
+        SubscriptionNotification notification = notificationFor(resourceResponse);
+        notification.retain();
+        try {
+            this.subscriptions.forEachMatch(path, (subscription) -> {
+                dispatch(subscription, notification, () -> subscribeResourceDeleted(path, subscription, notification));
+            });
+        } finally {
+            notification.release();
+        }
     }
 
     protected void subscribeResourceDeleted(ResourcePath path, Subscription subscription, ResourceResponse resourceResponse) {
@@ -75,6 +106,100 @@ public class DefaultSubscriptionManager implements SubscriptionManager {
         }
     }
 
+    protected void dispatch(Subscription subscription, SubscriptionNotification notification, Runnable delivery) {
+        notification.retain();
+        Runnable held = () -> {
+            try {
+                delivery.run();
+            } finally {
+                notification.release();
+            }
+        };
+        if (this.dispatcher == null) {
+            held.run();
+            return;
+        }
+        Resource resource = notification.resource();
+        String resourceKey = resource.uri() == null ? null : resource.uri().toString();
+        this.dispatcher.dispatch(queueKey(subscription), resourceKey, outlet(subscription), held, notification::release);
+    }
+
+    /**
+     * Hold a notification while its delivery continues asynchronously.
+     *
+     * @return Releases the notification, to be run once the delivery is done.
+     */
+    protected Runnable hold(ResourceResponse resourceResponse) {
+        if (!(resourceResponse instanceof SubscriptionNotification)) {
+            return () -> {
+            };
+        }
+        SubscriptionNotification notification = (SubscriptionNotification) resourceResponse;
+        notification.retain();
+        return notification::release;
+    }
+
+    /**
+     * Deliveries to STOMP connections wait while their outbound buffer is full.
+     */
+    protected NotificationDispatcher.Outlet outlet(Subscription subscription) {
+        if (!(subscription instanceof StompSubscription)) {
+            return null;
+        }
+        StompConnection connection = ((StompSubscription) subscription).connection();
+        return new NotificationDispatcher.Outlet() {
+            @Override
+            public boolean isWritable() {
+                return connection.isWritable();
+            }
+
+            @Override
+            public void onWritable(Runnable action) {
+                connection.onWritable(action);
+            }
+        };
+    }
+
+    /**
+     * Subscriptions sharing a connection share an outbound queue.
+     */
+    protected String queueKey(Subscription subscription) {
+        if (subscription instanceof StompSubscription) {
+            return "stomp:" + ((StompSubscription) subscription).connection().getConnectionId();
+        }
+        return subscription.id();
+    }
+
+    protected void disconnect(String queueKey) {
+        List<Subscription> subscriptions = this.subscriptions.objects()
+                .filter((e) -> queueKey.equals(queueKey(e)))
+                .collect(Collectors.toList());
+
+        log.warn("Subscriber " + queueKey + " is too slow, disconnecting " + subscriptions.size() + " subscription(s)");
+
+        for (Subscription each : subscriptions) {
+            removeSubscription(each);
+            if (each instanceof StompSubscription) {
+                ((StompSubscription) each).connection().close();
+            }
+        }
+    }
+
+    public NotificationDispatcher dispatcher() {
+        return this.dispatcher;
+    }
+
+    protected SubscriptionNotification notificationFor(ResourceResponse resourceResponse) {
+        if (resourceResponse instanceof SubscriptionNotification) {
+            return (SubscriptionNotification) resourceResponse;
+        }
+        return new SubscriptionNotification(resourceResponse, this.encodingStats);
+    }
+
+    public EncodingStats encodingStats() {
+        return this.encodingStats;
+    }
+
     protected ResourcePath resourcePathOf(Resource resource) {
         ResourcePath path = new ResourcePath();
 
@@ -90,10 +215,41 @@ public class DefaultSubscriptionManager implements SubscriptionManager {
         return path;
     }
 
-    public ObjectsTree<Subscription> treeFor(ResourcePath path) {
-        return this.subscriptionsTree.findLeaf(path);
+    /**
+     * @return every subscription whose path starts with the given prefix.
+     */
+    public Stream<Subscription> subscriptions(ResourcePath prefix) {
+        return this.subscriptions.objectsUnder(prefix);
+    }
+
+    /**
+     * Counts how many notification payloads were actually encoded, and how many
+     * subscribers were served from an encoding shared with an earlier subscriber.
+     */
+    public static class EncodingStats {
+
+        void encoded() {
+            this.encodes.incrementAndGet();
+        }
+
+        void reused() {
+            this.encodesSaved.incrementAndGet();
+        }
+
+        public long encodes() {
+            return this.encodes.get();
+        }
+
+        public long encodesSaved() {
+            return this.encodesSaved.get();
+        }
+
+        private final AtomicLong encodes = new AtomicLong();
+        private final AtomicLong encodesSaved = new AtomicLong();
     }
 
-    private ObjectsTree<Subscription> subscriptionsTree = new ObjectsTree<Subscription>();
+    private final NotificationDispatcher dispatcher;
+    private final EncodingStats encodingStats = new EncodingStats();
+    private final ResourcePathIndex<Subscription> subscriptions = new ResourcePathIndex<>();
     private static final Logger log = Logger.getLogger(DefaultSubscriptionManager.class);
 }
@@ -84,8 +84,7 @@ public class HttpSubscription implements Subscription {
 
         request.setChunked(true);
 
-        RequestContext requestContext = new RequestContext.Builder().build();
-        ByteBuf encoded = codec.encode(requestContext, resourceResponse.state());
+        ByteBuf encoded = encode(resourceResponse);
         request.write(new Buffer(encoded));
         request.end();
     }
@@ -98,12 +97,19 @@ public class HttpSubscription implements Subscription {
 
         request.setChunked(true);
 
-        RequestContext requestContext = new RequestContext.Builder().build();
-        ByteBuf encoded = codec.encode(requestContext, resourceResponse.state());
+        ByteBuf encoded = encode(resourceResponse);
         request.write(new Buffer(encoded));
         request.end();
     }
 
+    protected ByteBuf encode(ResourceResponse resourceResponse) throws Exception {
+        if (resourceResponse instanceof SubscriptionNotification) {
+            return ((SubscriptionNotification) resourceResponse).encode(this.codec);
+        }
+        RequestContext requestContext = new RequestContext.Builder().build();
+        return this.codec.encode(requestContext, resourceResponse.state());
+    }
+
     protected URI destinationUri(Resource resource) {
         URI uri = this.destination.resolve(resource.id());
         return uri;
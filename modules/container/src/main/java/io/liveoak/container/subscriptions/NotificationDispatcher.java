@@ -0,0 +1,355 @@
+/*
+ * Copyright 2014 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package io.liveoak.container.subscriptions;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.jboss.logging.Logger;
+
+/**
+ * Delivers subscription notifications away from the thread that produced them.
+ *
+ * <p>Each subscriber connection gets its own bounded FIFO queue, drained by one
+ * executor thread at a time so deliveries to a single connection stay ordered.
+ * When a queue is full the configured {@link OverflowPolicy} decides what happens.</p>
+ *
+ * <p>Deliveries to an {@link Outlet} which isn't writable wait in the queue until it is,
+ * so slow subscribers fill their queue rather than the outbound buffers of their connection.</p>
+ */
+public class NotificationDispatcher {
+
+    public static final String THREADS_PROPERTY = "io.liveoak.subscriptions.dispatch-threads";
+    public static final String QUEUE_SIZE_PROPERTY = "io.liveoak.subscriptions.queue-size";
+    public static final String OVERFLOW_POLICY_PROPERTY = "io.liveoak.subscriptions.overflow-policy";
+
+    public static final int DEFAULT_QUEUE_SIZE = 1000;
+
+    /**
+     * Maximum deliveries made for one queue before yielding the thread to other queues.
+     */
+    private static final int DRAIN_BATCH = 64;
+
+    public enum OverflowPolicy {
+        /**
+         * Discard the oldest pending notification to make room.
+         */
+        DROP_OLDEST,
+        /**
+         * Replace a pending notification for the same resource, otherwise discard the oldest.
+         */
+        COALESCE,
+        /**
+         * Discard everything pending and disconnect the subscriber.
+         */
+        DISCONNECT;
+
+        public static OverflowPolicy of(String name) {
+            return valueOf(name.trim().toUpperCase().replace('-', '_'));
+        }
+    }
+
+    /**
+     * Where the deliveries of a queue go.
+     */
+    public interface Outlet {
+
+        /**
+         * Whether a delivery made now goes out without piling up.
+         */
+        boolean isWritable();
+
+        /**
+         * Run an action once, as soon as the outlet is writable.
+         */
+        void onWritable(Runnable action);
+    }
+
+    public NotificationDispatcher(Executor executor, int queueSize, OverflowPolicy overflowPolicy) {
+        this.executor = executor;
+        this.queueSize = queueSize;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * Called with the key of a queue which overflowed under {@link OverflowPolicy#DISCONNECT}.
+     */
+    public void onDisconnect(Consumer<String> handler) {
+        this.disconnectHandler = handler;
+    }
+
+    /**
+     * Queue a delivery.
+     *
+     * @param queueKey    Identifies the subscriber connection.
+     * @param resourceKey Identifies the resource being notified about, used for coalescing.
+     * @param delivery    The delivery itself.
+     */
+    public void dispatch(String queueKey, String resourceKey, Runnable delivery) {
+        dispatch(queueKey, resourceKey, null, delivery);
+    }
+
+    /**
+     * Queue a delivery to an outlet.
+     *
+     * @param queueKey    Identifies the subscriber connection.
+     * @param resourceKey Identifies the resource being notified about, used for coalescing.
+     * @param outlet      Where the delivery goes, deliveries wait while it isn't writable. May be null.
+     * @param delivery    The delivery itself.
+     */
+    public void dispatch(String queueKey, String resourceKey, Outlet outlet, Runnable delivery) {
+        dispatch(queueKey, resourceKey, outlet, delivery, null);
+    }
+
+    /**
+     * Queue a delivery to an outlet.
+     *
+     * @param queueKey    Identifies the subscriber connection.
+     * @param resourceKey Identifies the resource being notified about, used for coalescing.
+     * @param outlet      Where the delivery goes, deliveries wait while it isn't writable. May be null.
+     * @param delivery    The delivery itself.
+     * @param discarded   Run instead of the delivery if it's discarded. May be null.
+     */
+    public void dispatch(String queueKey, String resourceKey, Outlet outlet, Runnable delivery, Runnable discarded) {
+        Delivery entry = new Delivery(resourceKey, delivery, discarded);
+
+        while (true) {
+            OutboundQueue queue = this.queues.computeIfAbsent(queueKey, OutboundQueue::new);
+            boolean disconnect = false;
+            boolean schedule = false;
+            synchronized (queue) {
+                if (queue.closed) {
+                    // queue was retired concurrently, pick up a fresh one
+                    continue;
+                }
+                if (outlet != null) {
+                    queue.outlet = outlet;
+                }
+                if (queue.pending.size() >= this.queueSize) {
+                    disconnect = overflow(queue, entry);
+                } else {
+                    queue.pending.add(entry);
+                    this.queued.incrementAndGet();
+                }
+                if (!disconnect && !queue.scheduled) {
+                    queue.scheduled = true;
+                    schedule = true;
+                }
+            }
+
+            if (disconnect) {
+                if (this.disconnectHandler != null) {
+                    this.disconnectHandler.accept(queueKey);
+                }
+            } else if (schedule) {
+                schedule(queue);
+            }
+            return;
+        }
+    }
+
+    private boolean overflow(OutboundQueue queue, Delivery entry) {
+        switch (this.overflowPolicy) {
+            case COALESCE:
+                Iterator<Delivery> iter = queue.pending.iterator();
+                while (iter.hasNext()) {
+                    Delivery each = iter.next();
+                    if (each.resourceKey != null && each.resourceKey.equals(entry.resourceKey)) {
+                        iter.remove();
+                        each.discard();
+                        queue.pending.add(entry);
+                        this.coalesced.incrementAndGet();
+                        return false;
+                    }
+                }
+                // nothing to coalesce with
+                discardOldest(queue);
+                queue.pending.add(entry);
+                this.dropped.incrementAndGet();
+                return false;
+            case DISCONNECT:
+                this.queued.addAndGet(-queue.pending.size());
+                this.dropped.addAndGet(queue.pending.size() + 1);
+                this.disconnected.incrementAndGet();
+                discardPending(queue);
+                entry.discard();
+                retire(queue);
+                return true;
+            case DROP_OLDEST:
+            default:
+                discardOldest(queue);
+                queue.pending.add(entry);
+                this.dropped.incrementAndGet();
+                return false;
+        }
+    }
+
+    private void schedule(OutboundQueue queue) {
+        try {
+            this.executor.execute(() -> drain(queue));
+        } catch (RejectedExecutionException e) {
+            log.warn("notification dispatcher rejected work, discarding pending notifications for " + queue.key);
+            synchronized (queue) {
+                this.queued.addAndGet(-queue.pending.size());
+                this.dropped.addAndGet(queue.pending.size());
+                discardPending(queue);
+                retire(queue);
+            }
+        }
+    }
+
+    private void drain(OutboundQueue queue) {
+        for (int i = 0; i < DRAIN_BATCH; ++i) {
+            Delivery next;
+            Outlet outlet;
+            synchronized (queue) {
+                outlet = queue.outlet;
+            }
+            if (outlet != null && !outlet.isWritable()) {
+                // stays scheduled, so nothing else drains it before the outlet is writable again
+                outlet.onWritable(() -> schedule(queue));
+                return;
+            }
+            synchronized (queue) {
+                next = queue.pending.poll();
+                if (next == null) {
+                    retire(queue);
+                    return;
+                }
+            }
+            this.queued.decrementAndGet();
+            try {
+                next.delivery.run();
+            } catch (Throwable t) {
+                log.error("", t);
+            }
+        }
+
+        // more work may be pending; give other queues a turn before continuing
+        schedule(queue);
+    }
+
+    private void discardOldest(OutboundQueue queue) {
+        // called while holding the queue lock
+        Delivery oldest = queue.pending.poll();
+        if (oldest != null) {
+            oldest.discard();
+        }
+    }
+
+    private void discardPending(OutboundQueue queue) {
+        // called while holding the queue lock
+        Delivery each;
+        while ((each = queue.pending.poll()) != null) {
+            each.discard();
+        }
+    }
+
+    private void retire(OutboundQueue queue) {
+        // called while holding the queue lock
+        queue.scheduled = false;
+        queue.closed = true;
+        this.queues.remove(queue.key, queue);
+    }
+
+    // ----------------------------------------------------------------------
+    // metrics
+    // ----------------------------------------------------------------------
+
+    public OverflowPolicy overflowPolicy() {
+        return this.overflowPolicy;
+    }
+
+    public int queueSize() {
+        return this.queueSize;
+    }
+
+    public int activeQueues() {
+        return this.queues.size();
+    }
+
+    public long queued() {
+        return this.queued.get();
+    }
+
+    public int maxQueueDepth() {
+        int max = 0;
+        for (OutboundQueue each : this.queues.values()) {
+            synchronized (each) {
+                max = Math.max(max, each.pending.size());
+            }
+        }
+        return max;
+    }
+
+    public long dropped() {
+        return this.dropped.get();
+    }
+
+    public long coalesced() {
+        return this.coalesced.get();
+    }
+
+    public long disconnected() {
+        return this.disconnected.get();
+    }
+
+    private static class Delivery {
+
+        Delivery(String resourceKey, Runnable delivery, Runnable discarded) {
+            this.resourceKey = resourceKey;
+            this.delivery = delivery;
+            this.discarded = discarded;
+        }
+
+        void discard() {
+            if (this.discarded == null) {
+                return;
+            }
+            try {
+                this.discarded.run();
+            } catch (Throwable t) {
+                log.error("", t);
+            }
+        }
+
+        final String resourceKey;
+        final Runnable delivery;
+        final Runnable discarded;
+    }
+
+    private static class OutboundQueue {
+
+        OutboundQueue(String key) {
+            this.key = key;
+        }
+
+        final String key;
+        final ArrayDeque<Delivery> pending = new ArrayDeque<>();
+        Outlet outlet;
+        boolean scheduled;
+        boolean closed;
+    }
+
+    private static final Logger log = Logger.getLogger(NotificationDispatcher.class);
+
+    private final Executor executor;
+    private final int queueSize;
+    private final OverflowPolicy overflowPolicy;
+    private final Map<String, OutboundQueue> queues = new ConcurrentHashMap<>();
+    private Consumer<String> disconnectHandler;
+
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong disconnected = new AtomicLong();
+}
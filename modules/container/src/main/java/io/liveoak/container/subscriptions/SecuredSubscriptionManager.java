@@ -29,6 +29,11 @@ public class SecuredSubscriptionManager extends DefaultSubscriptionManager {
     private static final Logger log = Logger.getLogger(SecuredSubscriptionManager.class);
 
     public SecuredSubscriptionManager(Client client) {
+        this(client, null);
+    }
+
+    public SecuredSubscriptionManager(Client client, NotificationDispatcher dispatcher) {
+        super(dispatcher);
         this.client = client;
     }
 
@@ -61,6 +66,9 @@ public class SecuredSubscriptionManager extends DefaultSubscriptionManager {
             return;
         }
 
+        // the delivery continues once authorized, the notification stays encodable until then
+        Runnable release = hold(origResourceResponse);
+        boolean checking = false;
         try {
             if (path.segments().size() < 0) {
                 sendError(subscription, HttpResponseStatus.INTERNAL_SERVER_ERROR, origResourceResponse);
@@ -78,14 +86,13 @@ public class SecuredSubscriptionManager extends DefaultSubscriptionManager {
             RequestContext authzRequest = new RequestContext.Builder().requestAttributes(attribs).build();
 
             client.read(authzRequest, applicationPrefix + "/authz/authzCheck", (ClientResourceResponse resourceResponse) -> {
-
-                // Authorize automatically if Authz service is not available
-                if (resourceResponse.responseType() == ClientResourceResponse.ResponseType.NO_SUCH_RESOURCE) {
-                    callback.run();
-                    return;
-                }
-
                 try {
+                    // Authorize automatically if Authz service is not available
+                    if (resourceResponse.responseType() == ClientResourceResponse.ResponseType.NO_SUCH_RESOURCE) {
+                        callback.run();
+                        return;
+                    }
+
                     ResourceState state = resourceResponse.state();
                     boolean authorized = (Boolean) state.getProperty(AuthzConstants.ATTR_AUTHZ_RESULT);
 
@@ -98,10 +105,17 @@ public class SecuredSubscriptionManager extends DefaultSubscriptionManager {
                     }
                 } catch (Throwable t) {
                     log.error("Error occurred during authorization of subscription", t);
+                } finally {
+                    release.run();
                 }
             });
+            checking = true;
         } catch (Throwable t) {
             log.error("Error occurred during authorization of subscription", t);
+        } finally {
+            if (!checking) {
+                release.run();
+            }
         }
     }
 
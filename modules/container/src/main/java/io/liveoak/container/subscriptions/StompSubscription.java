@@ -18,6 +18,7 @@ import io.liveoak.stomp.Headers;
 import io.liveoak.stomp.StompMessage;
 import io.liveoak.stomp.common.DefaultStompMessage;
 import io.liveoak.stomp.server.StompConnection;
+import io.netty.buffer.ByteBuf;
 
 /**
  * @author Bob McWhirter
@@ -39,6 +40,10 @@ public class StompSubscription implements Subscription {
         return this.connection.getConnectionId() + "-" + subscriptionId;
     }
 
+    public StompConnection connection() {
+        return this.connection;
+    }
+
     // ----------------------------------------------------------------------
     // ----------------------------------------------------------------------
 
@@ -93,13 +98,18 @@ public class StompSubscription implements Subscription {
         message.headers().put("action", action);
         message.headers().put("status", "" + status);
         message.headers().put("location", resource.uri().toString());
-        RequestContext requestContext = new RequestContext.Builder().build();
-
-
-        message.content(this.codec.encode(requestContext, resourceResponse.state()));
+        message.content(encode(resourceResponse));
         return message;
     }
 
+    protected ByteBuf encode(ResourceResponse resourceResponse) throws Exception {
+        if (resourceResponse instanceof SubscriptionNotification) {
+            return ((SubscriptionNotification) resourceResponse).encode(this.codec);
+        }
+        RequestContext requestContext = new RequestContext.Builder().build();
+        return this.codec.encode(requestContext, resourceResponse.state());
+    }
+
     private StompConnection connection;
     private String destination;
     private String subscriptionId;
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2014 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package io.liveoak.container.subscriptions;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import io.liveoak.common.codec.ResourceCodec;
+import io.liveoak.spi.RequestContext;
+import io.liveoak.spi.ResourceRequest;
+import io.liveoak.spi.ResourceResponse;
+import io.liveoak.spi.resource.async.Resource;
+import io.liveoak.spi.state.ResourceState;
+import io.netty.buffer.ByteBuf;
+
+/**
+ * A single resource event being fanned out to every matching subscription.
+ *
+ * <p>The state is encoded at most once per codec, no matter how many subscribers
+ * share that codec. Each caller of {@link #encode(ResourceCodec)} receives its own
+ * duplicate of the shared buffer, holding one reference which is released by
+ * whoever writes it.</p>
+ *
+ * <p>The shared buffers are released once nothing holds the notification anymore.
+ * The fan-out and every delivery hold it from {@link #retain()} until {@link #release()},
+ * whether the delivery is made or discarded.</p>
+ *
+ * <p>The state is captured when the notification is created, so outbound
+ * interceptors replacing the response state afterwards do not affect
+ * deliveries which are still queued.</p>
+ */
+public class SubscriptionNotification implements ResourceResponse {
+
+    public SubscriptionNotification(ResourceResponse delegate, DefaultSubscriptionManager.EncodingStats stats) {
+        this.delegate = delegate;
+        this.state = delegate.state();
+        this.stats = stats;
+    }
+
+    public ByteBuf encode(ResourceCodec codec) throws Exception {
+        ByteBuf encoded;
+        synchronized (this.encoded) {
+            encoded = this.encoded.get(codec);
+            if (encoded == null) {
+                RequestContext requestContext = new RequestContext.Builder().build();
+                encoded = codec.encode(requestContext, state());
+                this.stats.encoded();
+                if (this.holders == 0) {
+                    // nobody left to share it with
+                    return encoded;
+                }
+                this.encoded.put(codec, encoded);
+            } else {
+                this.stats.reused();
+            }
+        }
+        return encoded.duplicate().retain();
+    }
+
+    /**
+     * Hold the notification, keeping what it encodes for further deliveries.
+     */
+    public void retain() {
+        synchronized (this.encoded) {
+            ++this.holders;
+        }
+    }
+
+    /**
+     * Stop holding the notification, releasing what it encoded once nothing holds it.
+     */
+    public void release() {
+        synchronized (this.encoded) {
+            if (--this.holders > 0) {
+                return;
+            }
+            for (ByteBuf each : this.encoded.values()) {
+                each.release();
+            }
+            this.encoded.clear();
+        }
+    }
+
+    @Override
+    public ResponseType responseType() {
+        return this.delegate.responseType();
+    }
+
+    @Override
+    public Resource resource() {
+        return this.delegate.resource();
+    }
+
+    @Override
+    public ResourceState state() {
+        return this.state;
+    }
+
+    @Override
+    public void setState(ResourceState state) {
+        throw new UnsupportedOperationException("notification state is shared between subscribers");
+    }
+
+    @Override
+    public ResourceRequest inReplyTo() {
+        return this.delegate.inReplyTo();
+    }
+
+    @Override
+    public UUID requestId() {
+        return this.delegate.requestId();
+    }
+
+    public String toString() {
+        return "[SubscriptionNotification: delegate=" + this.delegate + "; encoded=" + this.encoded.keySet() + "]";
+    }
+
+    private final ResourceResponse delegate;
+    private final ResourceState state;
+    private final DefaultSubscriptionManager.EncodingStats stats;
+    private final Map<ResourceCodec, ByteBuf> encoded = new HashMap<>();
+    private int holders;
+}
@@ -1,9 +1,11 @@
 package io.liveoak.container.subscriptions.resource;
 
+import io.liveoak.common.codec.DefaultResourceState;
 import io.liveoak.common.codec.ResourceCodec;
 import io.liveoak.common.codec.ResourceCodecManager;
 import io.liveoak.container.subscriptions.DefaultSubscriptionManager;
 import io.liveoak.container.subscriptions.HttpSubscription;
+import io.liveoak.container.subscriptions.NotificationDispatcher;
 import io.liveoak.container.subscriptions.StompSubscription;
 import io.liveoak.spi.MediaType;
 import io.liveoak.spi.RequestContext;
@@ -85,9 +87,30 @@ public class ApplicationSubscriptionsResource implements SynchronousResource, Ro
         }
     }
 
+    @Override
+    public ResourceState properties() throws Exception {
+        DefaultSubscriptionManager.EncodingStats stats = this.subscriptionManager.encodingStats();
+        ResourceState result = new DefaultResourceState();
+        result.putProperty("notification-encodes", stats.encodes());
+        result.putProperty("notification-encodes-saved", stats.encodesSaved());
+
+        NotificationDispatcher dispatcher = this.subscriptionManager.dispatcher();
+        if (dispatcher != null) {
+            result.putProperty("dispatch-overflow-policy", dispatcher.overflowPolicy().name());
+            result.putProperty("dispatch-queue-size", dispatcher.queueSize());
+            result.putProperty("dispatch-active-queues", dispatcher.activeQueues());
+            result.putProperty("dispatch-queued", dispatcher.queued());
+            result.putProperty("dispatch-max-queue-depth", dispatcher.maxQueueDepth());
+            result.putProperty("dispatch-dropped", dispatcher.dropped());
+            result.putProperty("dispatch-coalesced", dispatcher.coalesced());
+            result.putProperty("dispatch-disconnected", dispatcher.disconnected());
+        }
+        return result;
+    }
+
     @Override
     public Collection<? extends Resource> members() {
-        Stream<Subscription> subscriptionStream = subscriptionManager.treeFor(applicationResourcePath()).objects();
+        Stream<Subscription> subscriptionStream = subscriptionManager.subscriptions(applicationResourcePath());
         return subscriptionStream.map((e) -> {
             if (e instanceof StompSubscription) {
                 return new StompSubscriptionResource(this, (StompSubscription) e);
@@ -103,8 +126,7 @@ public class ApplicationSubscriptionsResource implements SynchronousResource, Ro
 
     @Override
     public Resource member(String id) {
-        Optional<Subscription> result = subscriptionManager.treeFor(applicationResourcePath())
-                .objects()
+        Optional<Subscription> result = subscriptionManager.subscriptions(applicationResourcePath())
                 .filter(e -> e.id().equals(id))
                 .findFirst();
 
@@ -10,6 +10,7 @@ import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.liveoak.common.codec.json.JSONDecoder;
+import io.liveoak.common.security.AuthzPolicyVersion;
 import io.liveoak.common.util.ConversionUtils;
 import io.liveoak.common.util.ObjectMapperFactory;
 import io.liveoak.container.extension.MediaTypeMountService;
@@ -32,6 +33,8 @@ import org.jboss.msc.service.ServiceTarget;
 import org.jboss.msc.service.StartContext;
 import org.jboss.msc.service.StartException;
 import org.jboss.msc.service.StopContext;
+import org.jboss.msc.service.ValueService;
+import org.jboss.msc.value.ImmediateValue;
 import org.jboss.msc.value.InjectedValue;
 
 /**
@@ -141,6 +144,10 @@ public class ApplicationService implements Service<InternalApplication> {
         target.addService(configManagerName, configManager)
                 .install();
 
+        // version of the authorization policies, shared by the policies and the decision cache of the application
+        target.addService(LiveOak.authzPolicyVersion(this.id), new ValueService<>(new ImmediateValue<>(new AuthzPolicyVersion())))
+                .install();
+
         // context resource
 
         ServiceName appContextName = LiveOak.applicationContext(this.id);
@@ -10,6 +10,7 @@ import io.liveoak.common.DefaultResourceResponse;
 import io.liveoak.container.protocols.http.HttpRequestBodyHandler;
 import io.liveoak.spi.ResourceErrorResponse;
 import io.liveoak.spi.ResourceRequest;
+import io.liveoak.spi.ResourceResponse;
 import io.liveoak.spi.resource.async.Resource;
 import io.liveoak.spi.resource.async.Responder;
 import io.netty.channel.ChannelHandlerContext;
@@ -39,99 +40,116 @@ public class BaseResponder implements Responder {
 
     @Override
     public void resourceRead(Resource resource) {
-        this.ctx.writeAndFlush(new DefaultResourceResponse(this.inReplyTo, DefaultResourceResponse.ResponseType.READ, resource));
+        respond(new DefaultResourceResponse(this.inReplyTo, DefaultResourceResponse.ResponseType.READ, resource));
         resumeRead();
     }
 
     @Override
     public void resourceCreated(Resource resource) {
-        this.ctx.writeAndFlush(new DefaultResourceResponse(this.inReplyTo, DefaultResourceResponse.ResponseType.CREATED, resource));
+        respond(new DefaultResourceResponse(this.inReplyTo, DefaultResourceResponse.ResponseType.CREATED, resource));
         resumeRead();
     }
 
     @Override
     public void resourceDeleted(Resource resource) {
-        this.ctx.writeAndFlush(new DefaultResourceResponse(this.inReplyTo, DefaultResourceResponse.ResponseType.DELETED, resource));
+        respond(new DefaultResourceResponse(this.inReplyTo, DefaultResourceResponse.ResponseType.DELETED, resource));
         resumeRead();
     }
 
     @Override
     public void resourceUpdated(Resource resource) {
-        this.ctx.writeAndFlush(new DefaultResourceResponse(this.inReplyTo, DefaultResourceResponse.ResponseType.UPDATED, resource));
+        respond(new DefaultResourceResponse(this.inReplyTo, DefaultResourceResponse.ResponseType.UPDATED, resource));
         resumeRead();
     }
 
     @Override
     public void createNotSupported(Resource resource) {
-        this.ctx.writeAndFlush(new DefaultResourceErrorResponse(this.inReplyTo, DefaultResourceErrorResponse.ErrorType.CREATE_NOT_SUPPORTED));
+        respond(new DefaultResourceErrorResponse(this.inReplyTo, DefaultResourceErrorResponse.ErrorType.CREATE_NOT_SUPPORTED));
         resumeRead();
     }
 
     @Override
     public void readNotSupported(Resource resource) {
-        this.ctx.writeAndFlush(new DefaultResourceErrorResponse(this.inReplyTo, DefaultResourceErrorResponse.ErrorType.READ_NOT_SUPPORTED));
+        respond(new DefaultResourceErrorResponse(this.inReplyTo, DefaultResourceErrorResponse.ErrorType.READ_NOT_SUPPORTED));
         resumeRead();
     }
 
     @Override
     public void updateNotSupported(Resource resource) {
-        this.ctx.writeAndFlush(new DefaultResourceErrorResponse(this.inReplyTo, DefaultResourceErrorResponse.ErrorType.UPDATE_NOT_SUPPORTED));
+        respond(new DefaultResourceErrorResponse(this.inReplyTo, DefaultResourceErrorResponse.ErrorType.UPDATE_NOT_SUPPORTED));
         resumeRead();
     }
 
     @Override
     public void deleteNotSupported(Resource resource) {
-        this.ctx.writeAndFlush(new DefaultResourceErrorResponse(this.inReplyTo, DefaultResourceErrorResponse.ErrorType.DELETE_NOT_SUPPORTED));
+        respond(new DefaultResourceErrorResponse(this.inReplyTo, DefaultResourceErrorResponse.ErrorType.DELETE_NOT_SUPPORTED));
         resumeRead();
     }
 
     @Override
     public void noSuchResource(String id) {
-        this.ctx.writeAndFlush(new DefaultResourceErrorResponse(this.inReplyTo, DefaultResourceErrorResponse.ErrorType.NO_SUCH_RESOURCE));
+        respond(new DefaultResourceErrorResponse(this.inReplyTo, DefaultResourceErrorResponse.ErrorType.NO_SUCH_RESOURCE));
         resumeRead();
     }
 
     @Override
     public void resourceAlreadyExists(String id) {
-        this.ctx.writeAndFlush(new DefaultResourceErrorResponse(this.inReplyTo, DefaultResourceErrorResponse.ErrorType.RESOURCE_ALREADY_EXISTS));
+        respond(new DefaultResourceErrorResponse(this.inReplyTo, DefaultResourceErrorResponse.ErrorType.RESOURCE_ALREADY_EXISTS));
         resumeRead();
     }
 
     @Override
     public void internalError(String message) {
         log.error(message, new RuntimeException("Stack trace: "));
-        this.ctx.writeAndFlush(new DefaultResourceErrorResponse(this.inReplyTo, DefaultResourceErrorResponse.ErrorType.INTERNAL_ERROR, message));
+        respond(new DefaultResourceErrorResponse(this.inReplyTo, DefaultResourceErrorResponse.ErrorType.INTERNAL_ERROR, message));
         resumeRead();
     }
 
     @Override
     public void internalError(Throwable cause) {
         log.error("Internal error: ", cause);
-        this.ctx.writeAndFlush(new DefaultResourceErrorResponse(this.inReplyTo, DefaultResourceErrorResponse.ErrorType.INTERNAL_ERROR, cause));
+        respond(new DefaultResourceErrorResponse(this.inReplyTo, DefaultResourceErrorResponse.ErrorType.INTERNAL_ERROR, cause));
         resumeRead();
     }
 
     @Override
     public void invalidRequest(String message) {
         log.debug(message, new RuntimeException("Stack trace: "));
-        this.ctx.writeAndFlush(new DefaultResourceErrorResponse(this.inReplyTo, ResourceErrorResponse.ErrorType.NOT_ACCEPTABLE, message));
+        respond(new DefaultResourceErrorResponse(this.inReplyTo, ResourceErrorResponse.ErrorType.NOT_ACCEPTABLE, message));
         resumeRead();
     }
 
     @Override
     public void invalidRequest(Throwable cause) {
         log.debug("Invalid request: ", cause);
-        this.ctx.writeAndFlush(new DefaultResourceErrorResponse(this.inReplyTo, ResourceErrorResponse.ErrorType.NOT_ACCEPTABLE, cause));
+        respond(new DefaultResourceErrorResponse(this.inReplyTo, ResourceErrorResponse.ErrorType.NOT_ACCEPTABLE, cause));
         resumeRead();
     }
 
     @Override
     public void invalidRequest(String message, Throwable cause) {
         log.debug(message, cause);
-        this.ctx.writeAndFlush(new DefaultResourceErrorResponse(this.inReplyTo, ResourceErrorResponse.ErrorType.NOT_ACCEPTABLE, cause));
+        respond(new DefaultResourceErrorResponse(this.inReplyTo, ResourceErrorResponse.ErrorType.NOT_ACCEPTABLE, cause));
         resumeRead();
     }
 
+    /**
+     * The worker pool couldn't take the work needed to handle the request.
+     */
+    @Override
+    public void serviceUnavailable(String message) {
+        log.debug(message);
+        respond(new DefaultResourceErrorResponse(this.inReplyTo, ResourceErrorResponse.ErrorType.SERVICE_UNAVAILABLE, message));
+        resumeRead();
+    }
+
+    /**
+     * Hand the response back towards the client.
+     */
+    protected void respond(ResourceResponse response) {
+        this.ctx.writeAndFlush(response);
+    }
+
     protected boolean canContinue() {
         ChannelHandlerContext context = this.ctx.pipeline().context(RESOURCE_READ_DECODER);
         return context != null;
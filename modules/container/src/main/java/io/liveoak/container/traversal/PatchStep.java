@@ -0,0 +1,31 @@
+package io.liveoak.container.traversal;
+
+import io.liveoak.spi.resource.async.Resource;
+import io.liveoak.spi.resource.async.Responder;
+
+public class PatchStep implements TraversalPlan.Step {
+
+    private boolean complete;
+
+    @Override
+    public void execute(TraversalPlan.StepContext context, Resource resource) throws Exception {
+        if (complete || !arrangeCompletion(context)) {
+            resource.patchProperties(context.requestContext(), context.state(), context.responder());
+        }
+    }
+
+    protected boolean arrangeCompletion(TraversalPlan.StepContext context) {
+        Responder responder = context.responder();
+        if (responder instanceof TraversingResponder == false) {
+            throw new IllegalStateException("Patch operation only works within the context of TraversingResponder!");
+        }
+        TraversingResponder tr = (TraversingResponder) responder;
+        if (tr.canContinue()) {
+            complete = true;
+            tr.dispatchInvocation(context.invocation());
+            return true;
+        }
+
+        return false;
+    }
+}
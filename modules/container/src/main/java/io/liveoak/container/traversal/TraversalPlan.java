@@ -37,6 +37,9 @@ public class TraversalPlan {
             case DELETE:
                 this.steps.add(new DeleteStep());
                 break;
+            case PATCH:
+                this.steps.add(new PatchStep());
+                break;
         }
     }
 
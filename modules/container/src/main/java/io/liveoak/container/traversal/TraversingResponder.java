@@ -5,12 +5,14 @@
  */
 package io.liveoak.container.traversal;
 
-import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicReference;
 
 import io.liveoak.container.tenancy.GlobalContext;
 import io.liveoak.spi.RequestContext;
+import io.liveoak.spi.RequestTrace;
 import io.liveoak.spi.ResourceRequest;
+import io.liveoak.spi.container.WorkerPool;
 import io.liveoak.spi.resource.BlockingResource;
 import io.liveoak.spi.resource.async.Resource;
 import io.liveoak.spi.resource.async.Responder;
@@ -22,7 +24,7 @@ import io.netty.channel.ChannelHandlerContext;
  */
 public class TraversingResponder extends BaseResponder {
 
-    public TraversingResponder(Executor executor, GlobalContext globalContext, ResourceRequest inReplyTo, ChannelHandlerContext ctx) {
+    public TraversingResponder(WorkerPool executor, GlobalContext globalContext, ResourceRequest inReplyTo, ChannelHandlerContext ctx) {
         super(inReplyTo, ctx);
         this.executor = executor;
         this.currentResource = globalContext;
@@ -72,16 +74,27 @@ public class TraversingResponder extends BaseResponder {
             }
         };
 
+        RequestTrace trace = inReplyTo().requestContext().trace();
+        String stage = trace.isEnabled() ? step.getClass().getSimpleName() + " " + resource.id() : null;
+        String queuedStage = trace.isEnabled() ? "queued " + stage : null;
+
         Runnable stepRunner = () -> {
             if (resource instanceof BlockingResource) {
-                this.executor.execute(() -> {
-                    try {
-                        step.execute(stepContext, resource);
-                    } catch (Throwable t) {
-                        internalError(t);
-                    }
-                });
+                trace.mark(queuedStage);
+                try {
+                    this.executor.execute(inReplyTo(), () -> {
+                        trace.mark(stage);
+                        try {
+                            step.execute(stepContext, resource);
+                        } catch (Throwable t) {
+                            internalError(t);
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    serviceUnavailable(e.getMessage());
+                }
             } else {
+                trace.mark(stage);
                 try {
                     step.execute(stepContext, resource);
                 } catch (Throwable t) {
@@ -145,7 +158,7 @@ public class TraversingResponder extends BaseResponder {
     private TraversalPlan plan;
     private int stepNumber = -1;
 
-    private Executor executor;
+    private WorkerPool executor;
 
     private Resource currentResource;
 }
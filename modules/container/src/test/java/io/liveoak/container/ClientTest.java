@@ -30,7 +30,7 @@ import static org.fest.assertions.Fail.fail;
  */
 public class ClientTest {
 
-    private LiveOakSystem system;
+    protected LiveOakSystem system;
     private Client client;
     private InternalApplication application;
 
@@ -0,0 +1,26 @@
+/*
+ * Copyright 2014 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package io.liveoak.container;
+
+import io.liveoak.container.service.ClientConnectorService;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+
+/**
+ * Runs the client tests with asynchronous calls dispatched directly into the container.
+ */
+public class DirectClientTest extends ClientTest {
+
+    @BeforeClass
+    public static void enableDirectDispatch() {
+        System.setProperty(ClientConnectorService.DISPATCH_PROPERTY, "direct");
+    }
+
+    @AfterClass
+    public static void disableDirectDispatch() {
+        System.clearProperty(ClientConnectorService.DISPATCH_PROPERTY);
+    }
+}
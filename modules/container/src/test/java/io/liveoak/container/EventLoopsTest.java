@@ -0,0 +1,54 @@
+package io.liveoak.container;
+
+import io.liveoak.container.server.EventLoops;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.MultithreadEventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class EventLoopsTest {
+
+    @Test
+    public void testGroups() throws Exception {
+        EventLoops eventLoops = new EventLoops(1, 3, false, UnpooledByteBufAllocator.DEFAULT);
+        try {
+            assertThat(eventLoops.isNative()).isFalse();
+            assertThat(eventLoops.serverChannelClass()).isEqualTo(NioServerSocketChannel.class);
+            assertThat((Object) eventLoops.bossGroup()).isNotSameAs(eventLoops.workerGroup());
+            assertThat(((MultithreadEventLoopGroup) eventLoops.workerGroup()).executorCount()).isEqualTo(3);
+            assertThat(eventLoops.allocator()).isSameAs(UnpooledByteBufAllocator.DEFAULT);
+        } finally {
+            eventLoops.shutdown();
+        }
+        assertThat(eventLoops.workerGroup().isShutdown()).isTrue();
+    }
+
+    @Test
+    public void testNative() throws Exception {
+        EventLoops eventLoops = new EventLoops(1, 2, true, UnpooledByteBufAllocator.DEFAULT);
+        try {
+            // NIO remains the fallback where the native library can't be loaded
+            assertThat(eventLoops.isNative()).isEqualTo(Epoll.isAvailable());
+            assertThat(eventLoops.serverChannelClass()).isEqualTo(
+                    Epoll.isAvailable() ? EpollServerSocketChannel.class : NioServerSocketChannel.class);
+            assertThat(((MultithreadEventLoopGroup) eventLoops.workerGroup()).executorCount()).isEqualTo(2);
+        } finally {
+            eventLoops.shutdown();
+        }
+    }
+
+    @Test
+    public void testDefaults() throws Exception {
+        EventLoops eventLoops = new EventLoops();
+        try {
+            assertThat(eventLoops.allocator()).isInstanceOf(PooledByteBufAllocator.class);
+        } finally {
+            eventLoops.shutdown();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package io.liveoak.container;
+
+import io.liveoak.common.util.LatencyHistogram;
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertThat(histogram.count()).isEqualTo(0);
+        assertThat(histogram.meanNanos()).isEqualTo(0);
+        assertThat(histogram.percentileNanos(0.99)).isEqualTo(0);
+        assertThat(histogram.buckets()).isEmpty();
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; ++i) {
+            histogram.record(i * 1000L);
+        }
+
+        assertThat(histogram.count()).isEqualTo(1000);
+        assertThat(histogram.maxNanos()).isEqualTo(1000 * 1000L);
+        assertThat(histogram.meanNanos()).isEqualTo(500500L);
+
+        // buckets are accurate to within 12.5%
+        assertThat(histogram.percentileNanos(0.50)).isGreaterThanOrEqualTo(500 * 1000L).isLessThanOrEqualTo(563 * 1000L);
+        assertThat(histogram.percentileNanos(0.99)).isGreaterThanOrEqualTo(990 * 1000L).isLessThanOrEqualTo(1000 * 1000L);
+        assertThat(histogram.percentileNanos(1.0)).isEqualTo(1000 * 1000L);
+    }
+
+    @Test
+    public void testReset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(5);
+        histogram.record(-1);
+        assertThat(histogram.count()).isEqualTo(2);
+        assertThat(histogram.buckets().length).isEqualTo(2);
+
+        histogram.reset();
+        assertThat(histogram.count()).isEqualTo(0);
+        assertThat(histogram.maxNanos()).isEqualTo(0);
+    }
+}
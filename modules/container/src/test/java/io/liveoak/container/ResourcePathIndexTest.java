@@ -0,0 +1,71 @@
+package io.liveoak.container;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import io.liveoak.common.util.ResourcePathIndex;
+import io.liveoak.spi.ResourcePath;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ResourcePathIndexTest {
+
+    private ResourcePathIndex<String> index;
+
+    @Before
+    public void setUp() {
+        this.index = new ResourcePathIndex<>();
+        add("/app/storage/todos");
+        add("/app/storage/todos/*");
+        add("/app/storage/todos/1");
+        add("/app/*/todos/1");
+        add("/app/**");
+        add("/app/**/comments");
+        add("/other/*");
+    }
+
+    private void add(String pattern) {
+        this.index.addObject(pattern, new ResourcePath(pattern));
+    }
+
+    private List<String> match(String path) {
+        return this.index.objects(new ResourcePath(path)).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testLiteralAndTrailingWildcard() {
+        assertThat(match("/app/storage/todos")).containsExactly("/app/storage/todos", "/app/**");
+        assertThat(match("/app/storage/todos/2")).containsExactly("/app/storage/todos/*", "/app/**");
+        assertThat(match("/other")).isEmpty();
+        assertThat(match("/other/a/b")).containsExactly("/other/*");
+    }
+
+    @Test
+    public void testMostSpecificFirst() {
+        assertThat(match("/app/storage/todos/1")).containsExactly(
+                "/app/storage/todos/1", "/app/storage/todos/*", "/app/*/todos/1", "/app/**");
+    }
+
+    @Test
+    public void testDeepWildcard() {
+        assertThat(match("/app")).containsExactly("/app/**");
+        assertThat(match("/app/comments")).containsExactly("/app/**/comments", "/app/**");
+        assertThat(match("/app/a/b/c/comments")).containsExactly("/app/**/comments", "/app/**");
+        assertThat(match("/elsewhere/comments")).isEmpty();
+    }
+
+    @Test
+    public void testRemoveAndPrefix() {
+        assertThat(this.index.objectsUnder(new ResourcePath("/app/storage")).collect(Collectors.toList()))
+                .containsOnly("/app/storage/todos", "/app/storage/todos/*", "/app/storage/todos/1");
+
+        this.index.removeObject("/app/storage/todos/*", new ResourcePath("/app/storage/todos/*"));
+        this.index.removeObject("/app/**", new ResourcePath("/app/**"));
+
+        assertThat(match("/app/storage/todos/2")).isEmpty();
+        assertThat(this.index.objects().collect(Collectors.toList())).hasSize(5);
+    }
+
+}
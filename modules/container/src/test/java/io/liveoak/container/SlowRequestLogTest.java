@@ -0,0 +1,74 @@
+package io.liveoak.container;
+
+import java.util.List;
+import java.util.Map;
+
+import io.liveoak.common.util.SlowRequestLog;
+import io.liveoak.spi.RequestContext;
+import io.liveoak.spi.RequestTrace;
+import io.liveoak.spi.RequestType;
+import io.liveoak.spi.ResourcePath;
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class SlowRequestLogTest {
+
+    @Test
+    public void testStages() throws Exception {
+        RequestTrace trace = new RequestTrace(true) {
+        };
+        trace.mark("first");
+        Thread.sleep(5);
+        trace.mark("second");
+        assertThat(trace.finish()).isTrue();
+        assertThat(trace.finish()).isFalse();
+
+        // marks after finishing are ignored
+        trace.mark("late");
+
+        List<RequestTrace.Stage> stages = trace.stages();
+        assertThat(stages).hasSize(2);
+        assertThat(stages.get(0).name()).isEqualTo("first");
+        assertThat(stages.get(0).durationNanos()).isGreaterThanOrEqualTo(5_000_000L);
+        assertThat(stages.get(1).name()).isEqualTo("second");
+        assertThat(stages.get(1).offsetNanos()).isGreaterThanOrEqualTo(stages.get(0).durationNanos());
+        assertThat(stages.get(1).offsetNanos() + stages.get(1).durationNanos()).isEqualTo(trace.durationNanos());
+
+        assertThat(RequestTrace.NONE.isEnabled()).isFalse();
+        assertThat(RequestTrace.NONE.finish()).isFalse();
+    }
+
+    @Test
+    public void testSlowest() throws Exception {
+        SlowRequestLog log = new SlowRequestLog(2);
+        log.complete(traced("/fast", 1));
+        log.complete(traced("/slowest", 40));
+        log.complete(traced("/medium", 5));
+        log.complete(traced("/slow", 20));
+        // not traced
+        log.complete(new RequestContext.Builder().requestType(RequestType.READ).resourcePath(new ResourcePath("/untraced")));
+
+        List<Map<String, Object>> slowest = log.slowest();
+        assertThat(slowest).hasSize(2);
+        assertThat(slowest.get(0).get("resource-path")).isEqualTo("/slowest");
+        assertThat(slowest.get(1).get("resource-path")).isEqualTo("/slow");
+        assertThat((List<?>) slowest.get(0).get("stages")).hasSize(1);
+
+        log.reset();
+        assertThat(log.slowest()).isEmpty();
+    }
+
+    private RequestContext traced(String path, long millis) throws Exception {
+        RequestTrace trace = new RequestTrace(true) {
+        };
+        trace.mark("read");
+        Thread.sleep(millis);
+        return new RequestContext.Builder() {
+            @Override
+            public RequestTrace trace() {
+                return trace;
+            }
+        }.requestType(RequestType.READ).resourcePath(new ResourcePath(path));
+    }
+}
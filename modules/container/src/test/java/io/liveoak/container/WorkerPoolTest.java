@@ -0,0 +1,196 @@
+package io.liveoak.container;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.fest.assertions.Fail.fail;
+
+public class WorkerPoolTest {
+
+    @Test
+    public void testBulkhead() throws Exception {
+        WorkerPoolImpl pool = new WorkerPoolImpl(4, 10, 1000, 2);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(3);
+        try {
+            pool.execute("slow", () -> await(release, done));
+            pool.execute("slow", () -> await(release, done));
+            try {
+                pool.execute("slow", () -> await(release, done));
+                fail("Bulkhead should be full");
+            } catch (RejectedExecutionException e) {
+                // expected
+            }
+
+            // other bulkheads are not affected
+            pool.execute("fast", () -> await(release, done));
+
+            release.countDown();
+            assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // slots are given back once tasks complete
+            long deadline = System.currentTimeMillis() + 5000;
+            while (inFlight(pool, "slow") > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            CountDownLatch again = new CountDownLatch(1);
+            pool.execute("slow", again::countDown);
+            assertThat(again.await(5, TimeUnit.SECONDS)).isTrue();
+
+            Map<String, Object> metrics = pool.metrics();
+            assertThat(metrics.get("rejected")).isEqualTo(1L);
+            assertThat(((Map<?, ?>) metrics.get("bulkheads")).keySet()).containsOnly("slow", "fast");
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testSaturatedBulkheadDoesNotStarveOthers() throws Exception {
+        WorkerPoolImpl pool = new WorkerPoolImpl(8, 10, 1000, WorkerPoolImpl.defaultBulkheadSize(8));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(WorkerPoolImpl.defaultBulkheadSize(8));
+        try {
+            int accepted = 0;
+            try {
+                while (accepted < 8) {
+                    pool.execute("busy", () -> await(release, done));
+                    ++accepted;
+                }
+                fail("Bulkhead should be full");
+            } catch (RejectedExecutionException e) {
+                // expected
+            }
+            assertThat(accepted).isEqualTo(2);
+
+            // the blocked application holds a quarter of the threads, the other one still runs right away
+            CountDownLatch started = new CountDownLatch(2);
+            pool.execute("other", started::countDown);
+            pool.execute("other", started::countDown);
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            release.countDown();
+            assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testPoolRejectionsAreCountedApart() throws Exception {
+        WorkerPoolImpl pool = new WorkerPoolImpl(1, 1, 1000, 5);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(2);
+        try {
+            pool.execute("app", () -> await(release, done));
+            pool.execute("app", () -> await(release, done));
+            try {
+                pool.execute("app", () -> await(release, done));
+                fail("Pool should be exhausted");
+            } catch (RejectedExecutionException e) {
+                // expected
+            }
+            release.countDown();
+            assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+
+            Map<String, Object> metrics = pool.metrics();
+            assertThat(metrics.get("rejected")).isEqualTo(1L);
+            assertThat(metrics.get("pool-rejected")).isEqualTo(1L);
+            Map<?, ?> bulkhead = (Map<?, ?>) ((Map<?, ?>) metrics.get("bulkheads")).get("app");
+            assertThat(bulkhead.get("rejected")).isEqualTo(0L);
+            assertThat(bulkhead.get("pool-rejected")).isEqualTo(1L);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testGrowsBeforeQueueing() throws Exception {
+        WorkerPoolImpl pool = new WorkerPoolImpl(4, 10, 1000, 0);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(4);
+        CountDownLatch done = new CountDownLatch(4);
+        try {
+            for (int i = 0; i < 4; ++i) {
+                pool.execute(() -> {
+                    started.countDown();
+                    await(release, done);
+                });
+            }
+            // every task got a thread, none waits in the queue
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(pool.metrics().get("pool-size")).isEqualTo(4);
+            assertThat(pool.metrics().get("queued")).isEqualTo(0);
+            release.countDown();
+            assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testExhausted() throws Exception {
+        WorkerPoolImpl pool = new WorkerPoolImpl(1, 1, 1000, 0);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(2);
+        try {
+            // one running, one queued
+            pool.execute(() -> await(release, done));
+            pool.execute(() -> await(release, done));
+            try {
+                pool.execute(() -> await(release, done));
+                fail("Pool should be exhausted");
+            } catch (RejectedExecutionException e) {
+                // expected
+            }
+            release.countDown();
+            assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(pool.metrics().get("rejected")).isEqualTo(1L);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testVirtualExhausted() throws Exception {
+        WorkerPoolImpl pool = new WorkerPoolImpl(WorkerPoolImpl.Mode.VIRTUAL, 1, 1, 1000, 0);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(2);
+        try {
+            // falls back to platform threads where virtual threads aren't available, the limits are the same
+            pool.execute(() -> await(release, done));
+            pool.execute(() -> await(release, done));
+            try {
+                pool.execute(() -> await(release, done));
+                fail("Pool should be exhausted");
+            } catch (RejectedExecutionException e) {
+                // expected
+            }
+            release.countDown();
+            assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(pool.metrics().get("rejected")).isEqualTo(1L);
+            assertThat(pool.metrics().get("mode")).isEqualTo(pool.mode().name().toLowerCase());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static int inFlight(WorkerPoolImpl pool, String bulkhead) {
+        Map<?, ?> bulkheads = (Map<?, ?>) pool.metrics().get("bulkheads");
+        return (Integer) ((Map<?, ?>) bulkheads.get(bulkhead)).get("in-flight");
+    }
+
+    private static void await(CountDownLatch release, CountDownLatch done) {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        done.countDown();
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2014 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package io.liveoak.container.codec;
+
+import java.io.UncheckedIOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.liveoak.common.DefaultReturnFields;
+import io.liveoak.common.codec.DefaultResourceState;
+import io.liveoak.common.codec.driver.StreamingEncodingDriver;
+import io.liveoak.common.codec.json.JSONEncoder;
+import io.liveoak.container.InMemoryCollectionResource;
+import io.liveoak.container.InMemoryObjectResource;
+import io.liveoak.spi.RequestContext;
+import io.liveoak.spi.resource.async.Resource;
+import io.liveoak.spi.resource.async.ResourceSink;
+import io.netty.buffer.ByteBuf;
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class StreamingEncodingDriverTest {
+
+    private final List<ByteBuf> chunks = new ArrayList<>();
+    private final AtomicBoolean completed = new AtomicBoolean();
+    private final AtomicReference<Throwable> error = new AtomicReference<>();
+    private final AtomicBoolean handedOutLocked = new AtomicBoolean();
+    private StreamingEncodingDriver driver;
+
+    protected Map<String, Object> encode(InMemoryCollectionResource collection, RequestContext ctx, int chunkSize) throws Exception {
+        DefaultResourceState state = new DefaultResourceState(collection.id());
+        state.uri(collection.uri());
+        state.putProperty("name", "people");
+
+        this.driver = new StreamingEncodingDriver(ctx, new JSONEncoder(), state, collection, chunkSize,
+                (chunk) -> {
+                    // the consumer may block, which it must not do while the driver is locked
+                    this.handedOutLocked.compareAndSet(false, Thread.holdsLock(this.driver));
+                    this.chunks.add(chunk);
+                },
+                () -> this.completed.set(true), this.error::set);
+        this.driver.encode();
+
+        assertThat(this.error.get()).isNull();
+        assertThat(this.completed.get()).isTrue();
+        assertThat(this.handedOutLocked.get()).isFalse();
+
+        StringBuilder encoded = new StringBuilder();
+        for (ByteBuf chunk : this.chunks) {
+            encoded.append(chunk.toString(Charset.forName("UTF-8")));
+            chunk.release();
+        }
+        return new ObjectMapper().readValue(encoded.toString(), Map.class);
+    }
+
+    protected InMemoryCollectionResource collection(int size) {
+        InMemoryCollectionResource collection = new InMemoryCollectionResource(null, "people");
+        for (int i = 0; i < size; ++i) {
+            DefaultResourceState memberState = new DefaultResourceState();
+            memberState.putProperty("name", "person " + i);
+            collection.addMember(new InMemoryObjectResource(collection, "p" + i, memberState));
+        }
+        return collection;
+    }
+
+    @Test
+    public void testMemberLinks() throws Exception {
+        Map<String, Object> root = encode(collection(3), new RequestContext.Builder().build(), 8192);
+
+        assertThat(root.get("id")).isEqualTo("people");
+        assertThat(root.get("name")).isEqualTo("people");
+
+        List<Map<String, Object>> members = (List<Map<String, Object>>) root.get("_members");
+        assertThat(members).hasSize(3);
+        assertThat(members.get(0).get("id")).isEqualTo("p0");
+        assertThat(((Map) members.get(0).get("self")).get("href")).isEqualTo("/people/p0");
+        assertThat(members.get(0).get("name")).isNull();
+
+        // properties first, then everything else
+        assertThat(this.chunks).hasSize(2);
+    }
+
+    @Test
+    public void testExpandedMembers() throws Exception {
+        RequestContext ctx = new RequestContext.Builder().returnFields(new DefaultReturnFields("*(*)")).build();
+        Map<String, Object> root = encode(collection(50), ctx, 64);
+
+        List<Map<String, Object>> members = (List<Map<String, Object>>) root.get("_members");
+        assertThat(members).hasSize(50);
+        for (int i = 0; i < 50; ++i) {
+            assertThat(members.get(i).get("id")).isEqualTo("p" + i);
+            assertThat(members.get(i).get("name")).isEqualTo("person " + i);
+        }
+
+        // chunks are handed out while members are being read
+        assertThat(this.chunks.size()).isGreaterThan(10);
+    }
+
+    @Test
+    public void testNoMembers() throws Exception {
+        Map<String, Object> root = encode(collection(0), new RequestContext.Builder().build(), 8192);
+
+        assertThat(root.get("id")).isEqualTo("people");
+        assertThat(root.containsKey("_members")).isFalse();
+    }
+
+    @Test
+    public void testConsumerFailureStopsReading() throws Exception {
+        InMemoryCollectionResource collection = collection(50);
+        AtomicInteger read = new AtomicInteger();
+        InMemoryCollectionResource counting = new InMemoryCollectionResource(null, "people") {
+            @Override
+            public void readMembers(RequestContext ctx, ResourceSink sink) {
+                collection.readMembers(ctx, new ResourceSink() {
+                    @Override
+                    public void accept(Resource member) {
+                        read.incrementAndGet();
+                        sink.accept(member);
+                    }
+
+                    @Override
+                    public void close() {
+                        sink.close();
+                    }
+                });
+            }
+        };
+
+        AtomicInteger written = new AtomicInteger();
+        RequestContext ctx = new RequestContext.Builder().returnFields(new DefaultReturnFields("*(*)")).build();
+        StreamingEncodingDriver driver = new StreamingEncodingDriver(ctx, new JSONEncoder(), new DefaultResourceState("people"), counting, 64,
+                (chunk) -> {
+                    chunk.release();
+                    // the client goes away after the properties
+                    if (written.incrementAndGet() > 1) {
+                        throw new UncheckedIOException(new ClosedChannelException());
+                    }
+                },
+                () -> this.completed.set(true), this.error::set);
+        driver.encode();
+
+        assertThat(this.error.get()).isInstanceOf(UncheckedIOException.class);
+        assertThat(this.completed.get()).isFalse();
+        assertThat(written.get()).isEqualTo(2);
+        assertThat(read.get()).isLessThan(50);
+    }
+}
@@ -7,7 +7,10 @@ package io.liveoak.container.codec.json;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.liveoak.common.DefaultResourceParams;
+import io.liveoak.common.codec.ResourceCodec;
 import io.liveoak.common.codec.driver.StateEncodingDriver;
+import io.liveoak.common.codec.json.JSONDecoder;
 import io.liveoak.common.codec.json.JSONEncoder;
 import io.liveoak.common.codec.DefaultResourceState;
 import io.liveoak.common.codec.driver.EncodingDriver;
@@ -20,6 +23,7 @@ import org.junit.Test;
 import java.net.URI;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -241,4 +245,36 @@ public class JSONEncoderTest {
         assertThat( feet.get( "left" ).asText() ).isEqualTo( "brown" );
         assertThat( feet.get( "right" ).asText() ).isEqualTo( "missing" );
     }
+
+    @Test
+    public void testCompactByDefault() throws Exception {
+        DefaultResourceState state = new DefaultResourceState("bob");
+        state.putProperty("name", "Bob McWhirter");
+
+        String encoded = encode(state).toString(Charset.defaultCharset());
+
+        assertThat(encoded).isEqualTo("{\"id\":\"bob\",\"name\":\"Bob McWhirter\"}");
+    }
+
+    @Test
+    public void testPrettyParam() throws Exception {
+        DefaultResourceState state = new DefaultResourceState("bob");
+        state.putProperty("name", "Bob McWhirter");
+
+        ResourceCodec codec = new ResourceCodec(JSONEncoder.class, new JSONDecoder());
+        RequestContext ctx = new RequestContext.Builder()
+                .resourceParams(DefaultResourceParams.instance(Collections.singletonMap("pretty", Collections.singletonList("true"))))
+                .build();
+        String encoded = codec.encode(ctx, state).toString(Charset.defaultCharset());
+
+        assertThat(encoded).contains("\n");
+        assertThat(new ObjectMapper().readTree(encoded).get("name").asText()).isEqualTo("Bob McWhirter");
+
+        // decoding closes the parser, so the next decode on this thread starts with recycled buffers
+        JSONDecoder decoder = new JSONDecoder();
+        for (int i = 0; i < 3; ++i) {
+            ResourceState decoded = decoder.decode(Unpooled.copiedBuffer(encoded, Charset.defaultCharset()));
+            assertThat(decoded.getProperty("name")).isEqualTo("Bob McWhirter");
+        }
+    }
 }
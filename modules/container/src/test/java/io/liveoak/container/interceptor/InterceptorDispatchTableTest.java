@@ -0,0 +1,70 @@
+package io.liveoak.container.interceptor;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import io.liveoak.common.DefaultResourceRequest;
+import io.liveoak.container.interceptor.extension.InterceptorConfigEntry;
+import io.liveoak.container.interceptor.extension.InterceptorsConfig;
+import io.liveoak.spi.RequestType;
+import io.liveoak.spi.ResourcePath;
+import io.liveoak.spi.ResourceRequest;
+import io.liveoak.spi.container.interceptor.Interceptor;
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class InterceptorDispatchTableTest {
+
+    @Test
+    public void testMatching() throws Exception {
+        Map<String, Interceptor> interceptors = new HashMap<>();
+        MockInterceptor all = register(interceptors, "all");
+        MockInterceptor storage = register(interceptors, "storage");
+        MockInterceptor todosRead = register(interceptors, "todos-read");
+        MockInterceptor app = register(interceptors, "app");
+        MockInterceptor other = register(interceptors, "other");
+
+        InterceptorsConfig config = new InterceptorsConfig();
+        config.addChainConfig("http", Arrays.asList(
+                entry("all", null, null),
+                entry("storage", "/app/storage", null),
+                entry("todos-read", "/app/storage/todos", "READ"),
+                entry("missing", null, null),
+                entry("app", "/app", "*"),
+                entry("other", "/other", null)));
+
+        InterceptorDispatchTable table = InterceptorDispatchTable.compile(config, interceptors);
+
+        assertThat(table.interceptors("http", request(RequestType.READ, "/app/storage/todos/1"))).containsExactly(all, storage, todosRead, app);
+        assertThat(table.interceptors("http", request(RequestType.CREATE, "/app/storage/todos/1"))).containsExactly(all, storage, app);
+        assertThat(table.interceptors("http", request(RequestType.READ, "/app/storage/chat"))).containsExactly(all, storage, app);
+        assertThat(table.interceptors("http", request(RequestType.READ, "/app/stor"))).containsExactly(all, app);
+        assertThat(table.interceptors("http", request(RequestType.READ, "/"))).containsExactly(all);
+        assertThat(table.interceptors("http", null)).containsExactly(all, storage, todosRead, app, other);
+        assertThat(table.interceptors("local", request(RequestType.READ, "/app"))).isEmpty();
+
+        // Lookups return the precomputed lists
+        assertThat(table.interceptors("http", request(RequestType.READ, "/app/storage/todos/1")))
+                .isSameAs(table.interceptors("http", request(RequestType.READ, "/app/storage/todos/2")));
+    }
+
+    private MockInterceptor register(Map<String, Interceptor> interceptors, String name) {
+        MockInterceptor interceptor = new MockInterceptor();
+        interceptors.put(name, interceptor);
+        return interceptor;
+    }
+
+    private InterceptorConfigEntry entry(String name, String path, String requestType) {
+        InterceptorConfigEntry entry = new InterceptorConfigEntry();
+        entry.setInterceptorName(name);
+        entry.setResourcePathMapping(path);
+        entry.setRequestType(requestType);
+        return entry;
+    }
+
+    private ResourceRequest request(RequestType type, String path) {
+        return new DefaultResourceRequest.Builder(type, new ResourcePath(path)).build();
+    }
+}
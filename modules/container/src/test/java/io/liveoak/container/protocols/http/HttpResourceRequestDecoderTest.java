@@ -61,6 +61,19 @@ public class HttpResourceRequestDecoderTest {
         assertThat(decoded.state()).isNull();
     }
 
+    @Test
+    public void testDecodeGetWithAfter() throws Exception {
+        DefaultResourceRequest decoded = decode(HttpMethod.GET, "/memory/people?limit=10&after=abc123");
+
+        assertThat(decoded.requestContext().pagination().limit()).isEqualTo(10);
+        assertThat(decoded.requestContext().pagination().offset()).isEqualTo(0);
+        assertThat(decoded.requestContext().pagination().after()).isEqualTo("abc123");
+
+        decoded = decode(HttpMethod.GET, "/memory/people?offset=20");
+        assertThat(decoded.requestContext().pagination().offset()).isEqualTo(20);
+        assertThat(decoded.requestContext().pagination().after()).isNull();
+    }
+
     @Test
     public void testDecodeDelete() throws Exception {
         DefaultResourceRequest decoded = decode(HttpMethod.DELETE, "/memory/people/bob");
@@ -138,15 +151,36 @@ public class HttpResourceRequestDecoderTest {
         assertThat(state.getProperty("longPos")).isEqualTo(2147483648L);
     }
 
+    @Test
+    public void testDecodePatch() throws Exception {
+        DefaultResourceRequest decoded = decode(HttpMethod.PATCH, "/memory/people/bob", "application/merge-patch+json", "{ name: 'bob', dog: null, address: { city: 'Raleigh' } }");
+
+        assertThat(decoded.requestType()).isEqualTo(RequestType.PATCH);
+
+        assertThat(decoded.resourcePath().segments()).hasSize(3);
+        assertThat(decoded.resourcePath().segments().get(2).name()).isEqualTo("bob");
+
+        ResourceState state = decoded.state();
+        assertThat(state).isNotNull();
+        assertThat(state.getProperty("name")).isEqualTo("bob");
+        assertThat(state.getPropertyNames()).contains("dog");
+        assertThat(state.getProperty("dog")).isNull();
+        assertThat(((ResourceState) state.getProperty("address")).getProperty("city")).isEqualTo("Raleigh");
+    }
+
     protected DefaultResourceRequest decode(HttpMethod method, String uri) {
-        FullHttpRequest httpRequest = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, method, "/memory/people/bob");
+        FullHttpRequest httpRequest = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, method, uri);
         channel.writeInbound(httpRequest);
         return (DefaultResourceRequest) channel.readInbound();
     }
 
     protected DefaultResourceRequest decode(HttpMethod method, String uri, String body) {
-        FullHttpRequest httpRequest = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, method, "/memory/people/bob");
-        httpRequest.headers().add(HttpHeaders.Names.CONTENT_TYPE, "application/json");
+        return decode(method, uri, "application/json", body);
+    }
+
+    protected DefaultResourceRequest decode(HttpMethod method, String uri, String contentType, String body) {
+        FullHttpRequest httpRequest = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, method, uri);
+        httpRequest.headers().add(HttpHeaders.Names.CONTENT_TYPE, contentType);
         httpRequest.content().writeBytes(body.getBytes());
         channel.writeInbound(httpRequest);
         return (DefaultResourceRequest) channel.readInbound();
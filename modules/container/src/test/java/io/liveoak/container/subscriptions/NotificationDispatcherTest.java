@@ -0,0 +1,133 @@
+package io.liveoak.container.subscriptions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class NotificationDispatcherTest {
+
+    private List<Runnable> tasks = new ArrayList<>();
+    private List<String> delivered = new ArrayList<>();
+
+    private void runTasks() {
+        while (!tasks.isEmpty()) {
+            tasks.remove(0).run();
+        }
+    }
+
+    private void dispatch(NotificationDispatcher dispatcher, String queue, String resource, String label) {
+        dispatcher.dispatch(queue, resource, () -> delivered.add(label));
+    }
+
+    @Test
+    public void testDeliversInOrder() throws Exception {
+        NotificationDispatcher dispatcher = new NotificationDispatcher(tasks::add, 10, NotificationDispatcher.OverflowPolicy.DROP_OLDEST);
+
+        dispatch(dispatcher, "a", "/r/1", "one");
+        dispatch(dispatcher, "a", "/r/2", "two");
+        dispatch(dispatcher, "a", "/r/3", "three");
+
+        // a single drain task per queue
+        assertThat(tasks).hasSize(1);
+        assertThat(dispatcher.queued()).isEqualTo(3);
+        assertThat(dispatcher.maxQueueDepth()).isEqualTo(3);
+
+        runTasks();
+
+        assertThat(delivered).containsExactly("one", "two", "three");
+        assertThat(dispatcher.queued()).isEqualTo(0);
+        assertThat(dispatcher.activeQueues()).isEqualTo(0);
+    }
+
+    @Test
+    public void testDropOldest() throws Exception {
+        NotificationDispatcher dispatcher = new NotificationDispatcher(tasks::add, 2, NotificationDispatcher.OverflowPolicy.DROP_OLDEST);
+
+        dispatch(dispatcher, "a", "/r/1", "one");
+        dispatch(dispatcher, "a", "/r/2", "two");
+        dispatch(dispatcher, "a", "/r/3", "three");
+
+        runTasks();
+
+        assertThat(delivered).containsExactly("two", "three");
+        assertThat(dispatcher.dropped()).isEqualTo(1);
+    }
+
+    @Test
+    public void testCoalesce() throws Exception {
+        NotificationDispatcher dispatcher = new NotificationDispatcher(tasks::add, 2, NotificationDispatcher.OverflowPolicy.COALESCE);
+
+        dispatch(dispatcher, "a", "/r/1", "one");
+        dispatch(dispatcher, "a", "/r/2", "two");
+        dispatch(dispatcher, "a", "/r/1", "one-again");
+
+        runTasks();
+
+        assertThat(delivered).containsExactly("two", "one-again");
+        assertThat(dispatcher.coalesced()).isEqualTo(1);
+        assertThat(dispatcher.dropped()).isEqualTo(0);
+    }
+
+    @Test
+    public void testDisconnect() throws Exception {
+        NotificationDispatcher dispatcher = new NotificationDispatcher(tasks::add, 2, NotificationDispatcher.OverflowPolicy.DISCONNECT);
+        List<String> disconnected = new ArrayList<>();
+        dispatcher.onDisconnect(disconnected::add);
+
+        dispatch(dispatcher, "a", "/r/1", "one");
+        dispatch(dispatcher, "b", "/r/1", "other");
+        dispatch(dispatcher, "a", "/r/2", "two");
+        dispatch(dispatcher, "a", "/r/3", "three");
+
+        runTasks();
+
+        assertThat(disconnected).containsExactly("a");
+        assertThat(delivered).containsExactly("other");
+        assertThat(dispatcher.disconnected()).isEqualTo(1);
+        assertThat(dispatcher.dropped()).isEqualTo(3);
+    }
+
+    @Test
+    public void testWaitsForWritableOutlet() throws Exception {
+        NotificationDispatcher dispatcher = new NotificationDispatcher(tasks::add, 2, NotificationDispatcher.OverflowPolicy.DROP_OLDEST);
+        List<Runnable> onWritable = new ArrayList<>();
+        boolean[] writable = {false};
+        NotificationDispatcher.Outlet outlet = new NotificationDispatcher.Outlet() {
+            @Override
+            public boolean isWritable() {
+                return writable[0];
+            }
+
+            @Override
+            public void onWritable(Runnable action) {
+                onWritable.add(action);
+            }
+        };
+
+        dispatcher.dispatch("a", "/r/1", outlet, () -> delivered.add("one"));
+        dispatcher.dispatch("a", "/r/2", outlet, () -> delivered.add("two"));
+        runTasks();
+
+        // nothing is handed to a connection which isn't writable, deliveries stay queued
+        assertThat(delivered).isEmpty();
+        assertThat(dispatcher.queued()).isEqualTo(2);
+        assertThat(onWritable).hasSize(1);
+
+        // and are subject to the overflow policy meanwhile
+        dispatcher.dispatch("a", "/r/3", outlet, () -> delivered.add("three"));
+        assertThat(tasks).isEmpty();
+        assertThat(dispatcher.dropped()).isEqualTo(1);
+
+        writable[0] = true;
+        onWritable.remove(0).run();
+        runTasks();
+
+        assertThat(delivered).containsExactly("two", "three");
+        assertThat(dispatcher.queued()).isEqualTo(0);
+        assertThat(dispatcher.activeQueues()).isEqualTo(0);
+    }
+
+}
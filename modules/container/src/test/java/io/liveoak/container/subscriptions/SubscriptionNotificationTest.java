@@ -0,0 +1,105 @@
+package io.liveoak.container.subscriptions;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.liveoak.common.DefaultResourceResponse;
+import io.liveoak.common.codec.DefaultResourceState;
+import io.liveoak.common.codec.ResourceCodec;
+import io.liveoak.common.codec.json.JSONDecoder;
+import io.liveoak.common.codec.json.JSONEncoder;
+import io.liveoak.spi.ResourceResponse;
+import io.netty.buffer.ByteBuf;
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class SubscriptionNotificationTest {
+
+    @Test
+    public void testEncodesOncePerCodec() throws Exception {
+        ResourceCodec json = new ResourceCodec(JSONEncoder.class, new JSONDecoder());
+        ResourceCodec other = new ResourceCodec(JSONEncoder.class, new JSONDecoder());
+
+        DefaultResourceState state = new DefaultResourceState("bob");
+        state.putProperty("name", "Bob McWhirter");
+
+        DefaultResourceResponse response = new DefaultResourceResponse(null, ResourceResponse.ResponseType.UPDATED);
+        response.setState(state);
+
+        DefaultSubscriptionManager.EncodingStats stats = new DefaultSubscriptionManager.EncodingStats();
+        SubscriptionNotification notification = new SubscriptionNotification(response, stats);
+        // held by the fan-out
+        notification.retain();
+
+        ByteBuf first = notification.encode(json);
+        ByteBuf second = notification.encode(json);
+        ByteBuf third = notification.encode(other);
+
+        assertThat(stats.encodes()).isEqualTo(2);
+        assertThat(stats.encodesSaved()).isEqualTo(1);
+
+        String firstContent = first.toString(Charset.forName("UTF-8"));
+        assertThat(firstContent).contains("Bob McWhirter");
+        assertThat(second.toString(Charset.forName("UTF-8"))).isEqualTo(firstContent);
+
+        // each subscriber owns one reference on top of the shared one
+        assertThat(first.refCnt()).isEqualTo(3);
+        first.release();
+        second.release();
+        assertThat(first.refCnt()).isEqualTo(1);
+        assertThat(third.refCnt()).isEqualTo(2);
+
+        // done with the notification, only the last subscriber keeps its buffer
+        notification.release();
+        assertThat(first.refCnt()).isEqualTo(0);
+        assertThat(third.refCnt()).isEqualTo(1);
+        third.release();
+        assertThat(third.refCnt()).isEqualTo(0);
+    }
+
+    @Test
+    public void testReleasedOnceDeliveriesAreDone() throws Exception {
+        ResourceCodec json = new ResourceCodec(JSONEncoder.class, new JSONDecoder());
+        DefaultResourceResponse response = new DefaultResourceResponse(null, ResourceResponse.ResponseType.UPDATED);
+        response.setState(new DefaultResourceState("bob"));
+
+        DefaultSubscriptionManager.EncodingStats stats = new DefaultSubscriptionManager.EncodingStats();
+        SubscriptionNotification notification = new SubscriptionNotification(response, stats);
+        List<Runnable> tasks = new ArrayList<>();
+        NotificationDispatcher dispatcher = new NotificationDispatcher(tasks::add, 1, NotificationDispatcher.OverflowPolicy.DROP_OLDEST);
+        List<ByteBuf> written = new ArrayList<>();
+
+        // the fan-out holds the notification, each delivery holds it until it's made or discarded
+        notification.retain();
+        for (String queue : new String[]{"a", "b", "b"}) {
+            notification.retain();
+            dispatcher.dispatch(queue, "/r", null, () -> {
+                try {
+                    written.add(notification.encode(json));
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                } finally {
+                    notification.release();
+                }
+            }, notification::release);
+        }
+        notification.release();
+
+        assertThat(dispatcher.dropped()).isEqualTo(1);
+        while (!tasks.isEmpty()) {
+            tasks.remove(0).run();
+        }
+
+        assertThat(written).hasSize(2);
+        assertThat(stats.encodes()).isEqualTo(1);
+        // the shared buffer is gone, the writers own what's left
+        assertThat(written.get(0).refCnt()).isEqualTo(2);
+        for (ByteBuf each : written) {
+            each.release();
+        }
+        assertThat(written.get(0).refCnt()).isEqualTo(0);
+    }
+
+}
@@ -38,4 +38,15 @@ public class TraversalPlanTest {
         assertThat( plan.steps().get(2)).isInstanceOf( ReadStep.class );
         assertThat( plan.steps().get(3)).isInstanceOf( DeleteStep.class );
     }
+
+    @Test
+    public void testSimplePatch() {
+        TraversalPlan plan = new TraversalPlan( RequestType.PATCH, new ResourcePath("/foo/bar/baz" ) );
+
+        assertThat( plan.steps() ).hasSize( 4 );
+        assertThat( plan.steps().get(0)).isInstanceOf(ReadStep.class);
+        assertThat( plan.steps().get(1)).isInstanceOf(ReadStep.class);
+        assertThat( plan.steps().get(2)).isInstanceOf( ReadStep.class );
+        assertThat( plan.steps().get(3)).isInstanceOf( PatchStep.class );
+    }
 }
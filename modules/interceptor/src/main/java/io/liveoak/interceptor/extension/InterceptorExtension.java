@@ -1,9 +1,12 @@
 package io.liveoak.interceptor.extension;
 
+import io.liveoak.common.util.SlowRequestLog;
+import io.liveoak.interceptor.metrics.MetricsInterceptor;
+import io.liveoak.interceptor.metrics.MetricsRegistry;
 import io.liveoak.interceptor.service.InterceptorRegistrationHelper;
 import io.liveoak.interceptor.service.InterceptorSystemResourceService;
-import io.liveoak.interceptor.timing.TimingInterceptor;
 import io.liveoak.spi.LiveOak;
+import io.liveoak.spi.container.WorkerPool;
 import io.liveoak.spi.container.interceptor.InterceptorManager;
 import io.liveoak.spi.extension.ApplicationExtensionContext;
 import io.liveoak.spi.extension.Extension;
@@ -19,16 +22,19 @@ public class InterceptorExtension implements Extension {
     public void extend(SystemExtensionContext context) throws Exception {
         ServiceTarget target = context.target();
 
-        InterceptorSystemResourceService interceptorSystemResourceService = new InterceptorSystemResourceService(context.id());
+        MetricsRegistry metricsRegistry = new MetricsRegistry();
+        InterceptorSystemResourceService interceptorSystemResourceService = new InterceptorSystemResourceService(context.id(), metricsRegistry);
 
         target.addService(LiveOak.systemResource(context.id()), interceptorSystemResourceService)
                 .addDependency(LiveOak.INTERCEPTOR_MANAGER, InterceptorManager.class, interceptorSystemResourceService.interceptorManagerInjector())
+                .addDependency(LiveOak.WORKER_POOL, WorkerPool.class, interceptorSystemResourceService.workerPoolInjector())
+                .addDependency(LiveOak.SLOW_REQUEST_LOG, SlowRequestLog.class, interceptorSystemResourceService.slowRequestLogInjector())
                 .install();
 
         context.mountPrivate(LiveOak.systemResource(context.id()));
 
-        InterceptorRegistrationHelper.installInterceptor(target, "timing-http", new TimingInterceptor("HTTP"));
-        InterceptorRegistrationHelper.installInterceptor(target, "timing-local", new TimingInterceptor("Local"));
+        InterceptorRegistrationHelper.installInterceptor(target, "metrics-http", new MetricsInterceptor("http", metricsRegistry));
+        InterceptorRegistrationHelper.installInterceptor(target, "metrics-local", new MetricsInterceptor("local", metricsRegistry));
     }
 
     @Override
@@ -0,0 +1,77 @@
+package io.liveoak.interceptor.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.liveoak.spi.RequestAttributes;
+import io.liveoak.spi.ResourceErrorResponse;
+import io.liveoak.spi.ResourceRequest;
+import io.liveoak.spi.ResourceResponse;
+import io.liveoak.spi.container.interceptor.DefaultInterceptor;
+import io.liveoak.spi.container.interceptor.InboundInterceptorContext;
+import io.liveoak.spi.container.interceptor.OutboundInterceptorContext;
+
+/**
+ * Records latency, errors and in-flight requests of a chain into a {@link MetricsRegistry}.
+ *
+ * <p>The start of a request is kept in its attributes, so it goes away with the request even when no
+ * response is ever sent. It is removed once the request completes, which ends the request being in flight.</p>
+ */
+public class MetricsInterceptor extends DefaultInterceptor {
+
+    static final String START_ATTRIBUTE = MetricsInterceptor.class.getName() + ".start.";
+
+    public MetricsInterceptor(String chainName, MetricsRegistry registry) {
+        this.chainName = chainName;
+        this.registry = registry;
+        this.inFlight = registry.inFlight(chainName);
+        // a request may go through more than one chain
+        this.startAttribute = START_ATTRIBUTE + chainName;
+    }
+
+    @Override
+    public void onInbound(InboundInterceptorContext context) throws Exception {
+        RequestAttributes attributes = context.request().requestContext().requestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(this.startAttribute, System.nanoTime());
+            this.inFlight.incrementAndGet();
+        }
+        super.onInbound(context);
+    }
+
+    @Override
+    public void onOutbound(OutboundInterceptorContext context) throws Exception {
+        ResourceRequest request = context.request();
+        RequestAttributes attributes = request.requestContext().requestAttributes();
+        Long start = attributes != null ? (Long) attributes.getAttribute(this.startAttribute) : null;
+        if (start != null) {
+            long elapsed = System.nanoTime() - start;
+
+            RequestMetrics metrics = this.registry.metrics(this.chainName, request.resourcePath(), request.requestType());
+            metrics.latency().record(elapsed);
+            ResourceResponse response = context.response();
+            if (response instanceof ResourceErrorResponse) {
+                metrics.recordError(((ResourceErrorResponse) response).errorType());
+            }
+        }
+        super.onOutbound(context);
+    }
+
+    @Override
+    public void onComplete(ResourceRequest request) {
+        // the request is in flight until its response has been sent, which may be well after the outbound chain ran
+        RequestAttributes attributes = request.requestContext().requestAttributes();
+        if (attributes != null && attributes.removeAttribute(this.startAttribute) != null) {
+            this.inFlight.decrementAndGet();
+        }
+    }
+
+    @Override
+    public boolean supportsStreamedMembers(ResourceRequest request) {
+        return true;
+    }
+
+    private final String chainName;
+    private final MetricsRegistry registry;
+    private final AtomicLong inFlight;
+    private final String startAttribute;
+}
@@ -0,0 +1,188 @@
+package io.liveoak.interceptor.metrics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.liveoak.common.util.LatencyHistogram;
+import io.liveoak.spi.RequestType;
+import io.liveoak.spi.ResourceErrorResponse;
+import io.liveoak.spi.ResourcePath;
+
+/**
+ * Request metrics of all interceptor chains, broken down by chain, application, resource and request type.
+ *
+ * <p>The application is the first segment of the request path and the resource the first two segments,
+ * so that member ids don't end up in labels. Recording is lock-free once a series exists. The number of
+ * series is bounded, requests which would exceed the bound are recorded under the {@link #OTHER} resource.</p>
+ */
+public class MetricsRegistry {
+
+    public static final String MAX_SERIES_PROPERTY = "io.liveoak.metrics.max-series";
+    public static final int DEFAULT_MAX_SERIES = 1000;
+
+    public static final String OTHER = "_other";
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    public MetricsRegistry() {
+        this(Integer.getInteger(MAX_SERIES_PROPERTY, DEFAULT_MAX_SERIES));
+    }
+
+    public MetricsRegistry(int maxSeries) {
+        this.maxSeries = maxSeries;
+    }
+
+    public RequestMetrics metrics(String chain, ResourcePath path, RequestType requestType) {
+        List<ResourcePath.Segment> segments = path.segments();
+        String application = segments.size() > 0 ? segments.get(0).name() : "";
+        String resource = segments.size() > 1 ? application + "/" + segments.get(1).name() : application;
+        return metrics(chain, application, resource, requestType);
+    }
+
+    public RequestMetrics metrics(String chain, String application, String resource, RequestType requestType) {
+        Key key = new Key(chain, resource, requestType);
+        RequestMetrics metrics = this.series.get(key);
+        if (metrics != null) {
+            return metrics;
+        }
+        if (this.series.size() >= this.maxSeries) {
+            key = new Key(chain, OTHER, requestType);
+            application = OTHER;
+            resource = OTHER;
+        }
+        String app = application;
+        String res = resource;
+        return this.series.computeIfAbsent(key, (k) -> new RequestMetrics(chain, app, res, requestType));
+    }
+
+    public AtomicLong inFlight(String chain) {
+        AtomicLong inFlight = this.inFlight.get(chain);
+        if (inFlight == null) {
+            inFlight = this.inFlight.computeIfAbsent(chain, (c) -> new AtomicLong());
+        }
+        return inFlight;
+    }
+
+    public Map<String, AtomicLong> inFlight() {
+        return this.inFlight;
+    }
+
+    public Collection<RequestMetrics> series() {
+        return this.series.values();
+    }
+
+    public void reset() {
+        this.series.clear();
+    }
+
+    /**
+     * Render all metrics in the Prometheus text exposition format.
+     */
+    public void writePrometheus(StringBuilder out) {
+        List<RequestMetrics> all = new ArrayList<>(this.series.values());
+
+        out.append("# HELP liveoak_request_duration_seconds Duration of requests.\n");
+        out.append("# TYPE liveoak_request_duration_seconds summary\n");
+        for (RequestMetrics metrics : all) {
+            LatencyHistogram latency = metrics.latency();
+            for (double quantile : QUANTILES) {
+                out.append("liveoak_request_duration_seconds{");
+                labels(out, metrics);
+                out.append(",quantile=\"").append(quantile).append("\"} ")
+                        .append(seconds(latency.percentileNanos(quantile))).append('\n');
+            }
+            out.append("liveoak_request_duration_seconds_sum{");
+            labels(out, metrics);
+            out.append("} ").append(seconds(latency.totalNanos())).append('\n');
+            out.append("liveoak_request_duration_seconds_count{");
+            labels(out, metrics);
+            out.append("} ").append(latency.count()).append('\n');
+        }
+
+        out.append("# HELP liveoak_request_errors_total Requests which ended with an error.\n");
+        out.append("# TYPE liveoak_request_errors_total counter\n");
+        for (RequestMetrics metrics : all) {
+            for (ResourceErrorResponse.ErrorType errorType : ResourceErrorResponse.ErrorType.values()) {
+                long count = metrics.errors(errorType);
+                if (count > 0) {
+                    out.append("liveoak_request_errors_total{");
+                    labels(out, metrics);
+                    out.append(",error=\"").append(errorType.toString().toLowerCase(Locale.ENGLISH)).append("\"} ")
+                            .append(count).append('\n');
+                }
+            }
+        }
+
+        out.append("# HELP liveoak_requests_in_flight Requests currently being processed.\n");
+        out.append("# TYPE liveoak_requests_in_flight gauge\n");
+        this.inFlight.forEach((chain, count) -> {
+            out.append("liveoak_requests_in_flight{chain=\"");
+            escape(out, chain);
+            out.append("\"} ").append(count.get()).append('\n');
+        });
+    }
+
+    private static void labels(StringBuilder out, RequestMetrics metrics) {
+        out.append("chain=\"");
+        escape(out, metrics.chain());
+        out.append("\",application=\"");
+        escape(out, metrics.application());
+        out.append("\",resource=\"");
+        escape(out, metrics.resource());
+        out.append("\",type=\"").append(metrics.requestType().toString().toLowerCase(Locale.ENGLISH)).append('"');
+    }
+
+    static void escape(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"') {
+                out.append('\\').append(c);
+            } else if (c == '\n') {
+                out.append("\\n");
+            } else {
+                out.append(c);
+            }
+        }
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / 1e9;
+    }
+
+    private static class Key {
+
+        Key(String chain, String resource, RequestType requestType) {
+            this.chain = chain;
+            this.resource = resource;
+            this.requestType = requestType;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return this.requestType == other.requestType && this.chain.equals(other.chain) && this.resource.equals(other.resource);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.chain, this.resource, this.requestType);
+        }
+
+        private final String chain;
+        private final String resource;
+        private final RequestType requestType;
+    }
+
+    private final int maxSeries;
+    private final Map<Key, RequestMetrics> series = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> inFlight = new ConcurrentHashMap<>();
+}
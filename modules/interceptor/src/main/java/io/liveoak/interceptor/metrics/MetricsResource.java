@@ -0,0 +1,70 @@
+package io.liveoak.interceptor.metrics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.liveoak.spi.RequestContext;
+import io.liveoak.spi.container.WorkerPool;
+import io.liveoak.spi.resource.async.PropertySink;
+import io.liveoak.spi.resource.async.Resource;
+import io.liveoak.spi.resource.async.ResourceSink;
+import io.liveoak.spi.resource.async.Responder;
+
+/**
+ * Request metrics of all chains and the state of the worker pool.
+ * The {@link PrometheusResource} member exposes the same data for scraping.
+ */
+public class MetricsResource implements Resource {
+
+    static final String ID = "metrics";
+
+    public MetricsResource(Resource parent, MetricsRegistry registry, WorkerPool workerPool) {
+        this.parent = parent;
+        this.registry = registry;
+        this.workerPool = workerPool;
+    }
+
+    @Override
+    public Resource parent() {
+        return this.parent;
+    }
+
+    @Override
+    public String id() {
+        return ID;
+    }
+
+    @Override
+    public void readProperties(RequestContext ctx, PropertySink sink) throws Exception {
+        Map<String, Object> inFlight = new LinkedHashMap<>();
+        this.registry.inFlight().forEach((chain, count) -> inFlight.put(chain, count.get()));
+        sink.accept("in-flight", inFlight);
+
+        List<Map<String, Object>> requests = new ArrayList<>();
+        for (RequestMetrics metrics : this.registry.series()) {
+            requests.add(metrics.summary());
+        }
+        sink.accept("requests", requests);
+        sink.accept("worker-pool", this.workerPool.metrics());
+        sink.close();
+    }
+
+    @Override
+    public void readMembers(RequestContext ctx, ResourceSink sink) throws Exception {
+        sink.accept(new PrometheusResource(this, this.registry, this.workerPool));
+        sink.close();
+    }
+
+    @Override
+    public void delete(RequestContext ctx, Responder responder) throws Exception {
+        // Deleting the metrics resets them
+        this.registry.reset();
+        responder.resourceDeleted(this);
+    }
+
+    private final Resource parent;
+    private final MetricsRegistry registry;
+    private final WorkerPool workerPool;
+}
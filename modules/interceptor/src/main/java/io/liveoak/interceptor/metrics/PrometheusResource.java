@@ -0,0 +1,114 @@
+package io.liveoak.interceptor.metrics;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import io.liveoak.spi.MediaType;
+import io.liveoak.spi.RequestContext;
+import io.liveoak.spi.container.WorkerPool;
+import io.liveoak.spi.resource.async.BinaryContentSink;
+import io.liveoak.spi.resource.async.BinaryResource;
+import io.liveoak.spi.resource.async.Resource;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Snapshot of the metrics in the Prometheus text format, taken when the resource is read. Listing the
+ * members of the {@link MetricsResource} doesn't render it.
+ */
+public class PrometheusResource implements BinaryResource {
+
+    static final String ID = "prometheus";
+
+    public PrometheusResource(MetricsResource parent, MetricsRegistry registry, WorkerPool workerPool) {
+        this.parent = parent;
+        this.registry = registry;
+        this.workerPool = workerPool;
+    }
+
+    @Override
+    public Resource parent() {
+        return this.parent;
+    }
+
+    @Override
+    public String id() {
+        return ID;
+    }
+
+    @Override
+    public MediaType mediaType() {
+        return MediaType.TEXT;
+    }
+
+    @Override
+    public long contentLength() {
+        return content().readableBytes();
+    }
+
+    @Override
+    public void readContent(RequestContext ctx, BinaryContentSink sink) throws Exception {
+        sink.accept(content());
+        sink.close();
+    }
+
+    private synchronized ByteBuf content() {
+        if (this.content == null) {
+            StringBuilder out = new StringBuilder();
+            this.registry.writePrometheus(out);
+            writeWorkerPool(out, this.workerPool.metrics());
+            this.content = Unpooled.wrappedBuffer(out.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        return this.content;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writeWorkerPool(StringBuilder out, Map<String, Object> metrics) {
+        metric(out, "liveoak_worker_pool_threads", "gauge", "Threads of the worker pool.", metrics.get("pool-size"));
+        metric(out, "liveoak_worker_pool_active", "gauge", "Threads running a task.", metrics.get("active"));
+        metric(out, "liveoak_worker_pool_queued", "gauge", "Tasks waiting for a thread.", metrics.get("queued"));
+        metric(out, "liveoak_worker_pool_completed_total", "counter", "Tasks completed by the worker pool.", metrics.get("completed"));
+        metric(out, "liveoak_worker_pool_rejected_total", "counter", "Tasks rejected by the worker pool or a bulkhead.", metrics.get("rejected"));
+        metric(out, "liveoak_worker_pool_exhausted_total", "counter", "Tasks rejected as the worker pool was exhausted.", metrics.get("pool-rejected"));
+
+        Map<String, Map<String, Object>> bulkheads = (Map<String, Map<String, Object>>) metrics.get("bulkheads");
+        if (bulkheads == null) {
+            return;
+        }
+        out.append("# HELP liveoak_worker_pool_bulkhead_in_flight Running and queued tasks of a bulkhead.\n");
+        out.append("# TYPE liveoak_worker_pool_bulkhead_in_flight gauge\n");
+        bulkheads.forEach((name, state) -> {
+            out.append("liveoak_worker_pool_bulkhead_in_flight{bulkhead=\"");
+            MetricsRegistry.escape(out, name);
+            out.append("\"} ").append(state.get("in-flight")).append('\n');
+        });
+        out.append("# HELP liveoak_worker_pool_bulkhead_rejected_total Tasks rejected by a bulkhead.\n");
+        out.append("# TYPE liveoak_worker_pool_bulkhead_rejected_total counter\n");
+        bulkheads.forEach((name, state) -> {
+            out.append("liveoak_worker_pool_bulkhead_rejected_total{bulkhead=\"");
+            MetricsRegistry.escape(out, name);
+            out.append("\"} ").append(state.get("rejected")).append('\n');
+        });
+        out.append("# HELP liveoak_worker_pool_bulkhead_exhausted_total Tasks of a bulkhead rejected as the worker pool was exhausted.\n");
+        out.append("# TYPE liveoak_worker_pool_bulkhead_exhausted_total counter\n");
+        bulkheads.forEach((name, state) -> {
+            out.append("liveoak_worker_pool_bulkhead_exhausted_total{bulkhead=\"");
+            MetricsRegistry.escape(out, name);
+            out.append("\"} ").append(state.get("pool-rejected")).append('\n');
+        });
+    }
+
+    private static void metric(StringBuilder out, String name, String type, String help, Object value) {
+        if (value == null) {
+            return;
+        }
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private final MetricsResource parent;
+    private final MetricsRegistry registry;
+    private final WorkerPool workerPool;
+    private ByteBuf content;
+}
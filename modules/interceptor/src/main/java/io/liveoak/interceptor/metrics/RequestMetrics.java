@@ -0,0 +1,90 @@
+package io.liveoak.interceptor.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import io.liveoak.common.util.LatencyHistogram;
+import io.liveoak.spi.RequestType;
+import io.liveoak.spi.ResourceErrorResponse;
+
+/**
+ * Latency and errors of requests which share chain, application, resource and request type.
+ */
+public class RequestMetrics {
+
+    private static final ResourceErrorResponse.ErrorType[] ERROR_TYPES = ResourceErrorResponse.ErrorType.values();
+
+    RequestMetrics(String chain, String application, String resource, RequestType requestType) {
+        this.chain = chain;
+        this.application = application;
+        this.resource = resource;
+        this.requestType = requestType;
+    }
+
+    public String chain() {
+        return this.chain;
+    }
+
+    public String application() {
+        return this.application;
+    }
+
+    public String resource() {
+        return this.resource;
+    }
+
+    public RequestType requestType() {
+        return this.requestType;
+    }
+
+    public LatencyHistogram latency() {
+        return this.latency;
+    }
+
+    public void recordError(ResourceErrorResponse.ErrorType errorType) {
+        this.errors.incrementAndGet(errorType.ordinal());
+    }
+
+    public long errors(ResourceErrorResponse.ErrorType errorType) {
+        return this.errors.get(errorType.ordinal());
+    }
+
+    public long errors() {
+        long total = 0;
+        for (int i = 0; i < ERROR_TYPES.length; ++i) {
+            total += this.errors.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * @return labels, latency summary and non-zero error counts, suitable for exposing as resource properties.
+     */
+    public Map<String, Object> summary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("chain", this.chain);
+        summary.put("application", this.application);
+        summary.put("resource", this.resource);
+        summary.put("request-type", this.requestType.toString());
+        summary.put("latency", this.latency.summary());
+
+        Map<String, Object> errors = new LinkedHashMap<>();
+        for (ResourceErrorResponse.ErrorType errorType : ERROR_TYPES) {
+            long count = errors(errorType);
+            if (count > 0) {
+                errors.put(errorType.toString(), count);
+            }
+        }
+        summary.put("errors", errors);
+        return summary;
+    }
+
+    private final String chain;
+    private final String application;
+    private final String resource;
+    private final RequestType requestType;
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final AtomicLongArray errors = new AtomicLongArray(ERROR_TYPES.length);
+}
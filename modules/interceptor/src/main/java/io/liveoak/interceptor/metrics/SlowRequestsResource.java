@@ -0,0 +1,49 @@
+package io.liveoak.interceptor.metrics;
+
+import io.liveoak.common.util.SlowRequestLog;
+import io.liveoak.spi.RequestContext;
+import io.liveoak.spi.RequestTrace;
+import io.liveoak.spi.resource.async.PropertySink;
+import io.liveoak.spi.resource.async.Resource;
+import io.liveoak.spi.resource.async.Responder;
+
+/**
+ * The slowest traced requests along with the time they spent in each stage.
+ * Requests are only traced when the {@link RequestTrace#ENABLED_PROPERTY} system property is set.
+ */
+public class SlowRequestsResource implements Resource {
+
+    static final String ID = "slow-requests";
+
+    public SlowRequestsResource(Resource parent, SlowRequestLog log) {
+        this.parent = parent;
+        this.log = log;
+    }
+
+    @Override
+    public Resource parent() {
+        return this.parent;
+    }
+
+    @Override
+    public String id() {
+        return ID;
+    }
+
+    @Override
+    public void readProperties(RequestContext ctx, PropertySink sink) throws Exception {
+        sink.accept("enabled", RequestTrace.start().isEnabled());
+        sink.accept("requests", this.log.slowest());
+        sink.close();
+    }
+
+    @Override
+    public void delete(RequestContext ctx, Responder responder) throws Exception {
+        // Deleting the resource forgets the retained requests
+        this.log.reset();
+        responder.resourceDeleted(this);
+    }
+
+    private final Resource parent;
+    private final SlowRequestLog log;
+}
@@ -3,11 +3,17 @@ package io.liveoak.interceptor.service;
 import java.util.List;
 
 import io.liveoak.common.util.ResourceConversionUtils;
+import io.liveoak.common.util.SlowRequestLog;
+import io.liveoak.interceptor.metrics.MetricsRegistry;
+import io.liveoak.interceptor.metrics.MetricsResource;
+import io.liveoak.interceptor.metrics.SlowRequestsResource;
 import io.liveoak.spi.RequestContext;
+import io.liveoak.spi.container.WorkerPool;
 import io.liveoak.spi.container.interceptor.InterceptorManager;
 import io.liveoak.spi.resource.RootResource;
 import io.liveoak.spi.resource.async.PropertySink;
 import io.liveoak.spi.resource.async.Resource;
+import io.liveoak.spi.resource.async.ResourceSink;
 import io.liveoak.spi.resource.async.Responder;
 import io.liveoak.spi.state.ResourceState;
 
@@ -18,11 +24,15 @@ public class InterceptorSystemResource implements RootResource {
 
     private final String id;
     private final InterceptorManager interceptorManager;
+    private final MetricsResource metrics;
+    private final SlowRequestsResource slowRequests;
     private Resource parent;
 
-    public InterceptorSystemResource(String id, InterceptorManager interceptorManager) {
+    public InterceptorSystemResource(String id, InterceptorManager interceptorManager, MetricsRegistry metricsRegistry, WorkerPool workerPool, SlowRequestLog slowRequestLog) {
         this.id = id;
         this.interceptorManager = interceptorManager;
+        this.metrics = new MetricsResource(this, metricsRegistry, workerPool);
+        this.slowRequests = new SlowRequestsResource(this, slowRequestLog);
     }
 
     @Override
@@ -54,6 +64,13 @@ public class InterceptorSystemResource implements RootResource {
         sink.close();
     }
 
+    @Override
+    public void readMembers(RequestContext ctx, ResourceSink sink) throws Exception {
+        sink.accept(this.metrics);
+        sink.accept(this.slowRequests);
+        sink.close();
+    }
+
     @Override
     public void updateProperties(RequestContext ctx, ResourceState state, Responder responder) throws Exception {
         this.interceptorManager.setInterceptorsConfig(state);
@@ -1,5 +1,8 @@
 package io.liveoak.interceptor.service;
 
+import io.liveoak.common.util.SlowRequestLog;
+import io.liveoak.interceptor.metrics.MetricsRegistry;
+import io.liveoak.spi.container.WorkerPool;
 import io.liveoak.spi.container.interceptor.InterceptorManager;
 import org.jboss.msc.inject.Injector;
 import org.jboss.msc.service.Service;
@@ -14,16 +17,20 @@ import org.jboss.msc.value.InjectedValue;
 public class InterceptorSystemResourceService implements Service<InterceptorSystemResource> {
 
     private final String id;
+    private final MetricsRegistry metricsRegistry;
     private InterceptorSystemResource resource;
     private InjectedValue<InterceptorManager> interceptorManagerInjector = new InjectedValue<>();
+    private InjectedValue<WorkerPool> workerPoolInjector = new InjectedValue<>();
+    private InjectedValue<SlowRequestLog> slowRequestLogInjector = new InjectedValue<>();
 
-    public InterceptorSystemResourceService(String id) {
+    public InterceptorSystemResourceService(String id, MetricsRegistry metricsRegistry) {
         this.id = id;
+        this.metricsRegistry = metricsRegistry;
     }
 
     @Override
     public void start(StartContext context) throws StartException {
-        this.resource = new InterceptorSystemResource(this.id, interceptorManagerInjector.getValue());
+        this.resource = new InterceptorSystemResource(this.id, interceptorManagerInjector.getValue(), this.metricsRegistry, this.workerPoolInjector.getValue(), this.slowRequestLogInjector.getValue());
     }
 
     @Override
@@ -39,4 +46,12 @@ public class InterceptorSystemResourceService implements Service<InterceptorSyst
     public Injector<InterceptorManager> interceptorManagerInjector() {
         return this.interceptorManagerInjector;
     }
+
+    public Injector<WorkerPool> workerPoolInjector() {
+        return this.workerPoolInjector;
+    }
+
+    public Injector<SlowRequestLog> slowRequestLogInjector() {
+        return this.slowRequestLogInjector;
+    }
 }
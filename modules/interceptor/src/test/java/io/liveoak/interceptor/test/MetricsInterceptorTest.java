@@ -0,0 +1,86 @@
+package io.liveoak.interceptor.test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.liveoak.common.DefaultResourceRequest;
+import io.liveoak.common.DefaultResourceResponse;
+import io.liveoak.interceptor.metrics.MetricsInterceptor;
+import io.liveoak.interceptor.metrics.MetricsRegistry;
+import io.liveoak.spi.RequestType;
+import io.liveoak.spi.ResourcePath;
+import io.liveoak.spi.ResourceRequest;
+import io.liveoak.spi.ResourceResponse;
+import io.liveoak.spi.container.interceptor.InboundInterceptorContext;
+import io.liveoak.spi.container.interceptor.OutboundInterceptorContext;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MetricsInterceptorTest {
+
+    @Test
+    public void testInFlightUntilComplete() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        MetricsInterceptor interceptor = new MetricsInterceptor("http", registry);
+        AtomicLong inFlight = registry.inFlight("http");
+
+        ResourceRequest request = new DefaultResourceRequest.Builder(RequestType.READ, new ResourcePath("/testApp/storage")).build();
+        interceptor.onInbound(inbound(request));
+        Assert.assertEquals(1, inFlight.get());
+
+        // the response is still being sent, e.g. streamed members
+        interceptor.onOutbound(outbound(new DefaultResourceResponse(request, ResourceResponse.ResponseType.READ)));
+        Assert.assertEquals(1, inFlight.get());
+        Assert.assertEquals(1, registry.metrics("http", request.resourcePath(), RequestType.READ).latency().count());
+
+        interceptor.onComplete(request);
+        Assert.assertEquals(0, inFlight.get());
+
+        // completing twice, or a request which never went inbound, doesn't take the count below zero
+        interceptor.onComplete(request);
+        interceptor.onComplete(new DefaultResourceRequest.Builder(RequestType.READ, new ResourcePath("/testApp")).build());
+        Assert.assertEquals(0, inFlight.get());
+    }
+
+    private static InboundInterceptorContext inbound(ResourceRequest request) {
+        return new InboundInterceptorContext() {
+            @Override
+            public ResourceRequest request() {
+                return request;
+            }
+
+            @Override
+            public void forward() {
+            }
+
+            @Override
+            public void forward(ResourceRequest request) {
+            }
+
+            @Override
+            public void replyWith(ResourceResponse response) {
+            }
+        };
+    }
+
+    private static OutboundInterceptorContext outbound(ResourceResponse response) {
+        return new OutboundInterceptorContext() {
+            @Override
+            public void forward() {
+            }
+
+            @Override
+            public void forward(ResourceResponse response) {
+            }
+
+            @Override
+            public ResourceRequest request() {
+                return response.inReplyTo();
+            }
+
+            @Override
+            public ResourceResponse response() {
+                return response;
+            }
+        };
+    }
+}
@@ -0,0 +1,55 @@
+package io.liveoak.interceptor.test;
+
+import java.util.concurrent.TimeUnit;
+
+import io.liveoak.interceptor.metrics.MetricsRegistry;
+import io.liveoak.interceptor.metrics.RequestMetrics;
+import io.liveoak.spi.RequestType;
+import io.liveoak.spi.ResourceErrorResponse;
+import io.liveoak.spi.ResourcePath;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MetricsRegistryTest {
+
+    @Test
+    public void testSeries() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry(3);
+
+        RequestMetrics todos = registry.metrics("http", new ResourcePath("/testApp/storage/todos/1"), RequestType.READ);
+        Assert.assertSame(todos, registry.metrics("http", new ResourcePath("/testApp/storage/todos/2"), RequestType.READ));
+        Assert.assertEquals("testApp", todos.application());
+        Assert.assertEquals("testApp/storage", todos.resource());
+
+        RequestMetrics create = registry.metrics("http", new ResourcePath("/testApp/storage/todos"), RequestType.CREATE);
+        Assert.assertNotSame(todos, create);
+
+        // Series over the limit are folded into one
+        registry.metrics("local", new ResourcePath("/testApp"), RequestType.READ);
+        RequestMetrics other = registry.metrics("local", new ResourcePath("/otherApp/chat"), RequestType.READ);
+        Assert.assertEquals(MetricsRegistry.OTHER, other.resource());
+        Assert.assertSame(other, registry.metrics("local", new ResourcePath("/thirdApp/chat"), RequestType.READ));
+        Assert.assertEquals(4, registry.series().size());
+    }
+
+    @Test
+    public void testPrometheus() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        RequestMetrics metrics = registry.metrics("http", new ResourcePath("/testApp/storage"), RequestType.READ);
+        metrics.latency().record(TimeUnit.MILLISECONDS.toNanos(20));
+        metrics.latency().record(TimeUnit.MILLISECONDS.toNanos(30));
+        metrics.recordError(ResourceErrorResponse.ErrorType.NOT_AUTHORIZED);
+        registry.inFlight("http").incrementAndGet();
+
+        StringBuilder out = new StringBuilder();
+        registry.writePrometheus(out);
+        String text = out.toString();
+
+        String labels = "{chain=\"http\",application=\"testApp\",resource=\"testApp/storage\",type=\"read\"";
+        Assert.assertTrue(text, text.contains("liveoak_request_duration_seconds_count" + labels + "} 2\n"));
+        Assert.assertTrue(text, text.contains("liveoak_request_duration_seconds_sum" + labels + "} 0.05\n"));
+        Assert.assertTrue(text, text.contains("liveoak_request_duration_seconds" + labels + ",quantile=\"0.5\"}"));
+        Assert.assertTrue(text, text.contains("liveoak_request_errors_total" + labels + ",error=\"not_authorized\"} 1\n"));
+        Assert.assertTrue(text, text.contains("liveoak_requests_in_flight{chain=\"http\"} 1\n"));
+    }
+}
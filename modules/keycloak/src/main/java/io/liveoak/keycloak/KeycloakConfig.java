@@ -3,6 +3,7 @@ package io.liveoak.keycloak;
 import java.security.PublicKey;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.http.HttpHeaders;
 import org.apache.http.client.methods.CloseableHttpResponse;
@@ -30,12 +31,20 @@ public class KeycloakConfig {
     private Map<String, String> publicKeyPems = new HashMap<>();
     private Map<String, PublicKey> publicKeys = new HashMap<>();
 
+    // Incremented whenever the source of public keys changes, so that verified tokens can be invalidated
+    private final AtomicLong version = new AtomicLong();
+
+    public long getVersion() {
+        return version.get();
+    }
+
     public String getBaseUrl() {
         return baseUrl;
     }
 
     public void setBaseUrl(String baseUrl) {
         this.baseUrl = baseUrl;
+        keysChanged();
     }
 
     public boolean isLoadKeys() {
@@ -44,6 +53,7 @@ public class KeycloakConfig {
 
     public void setLoadKeys(boolean loadKeys) {
         this.loadKeys = loadKeys;
+        keysChanged();
     }
 
     public Map<String, String> getPublicKeyPems() {
@@ -52,6 +62,12 @@ public class KeycloakConfig {
 
     public void setPublicKeyPems(Map<String, String> publicKeyPems) {
         this.publicKeyPems = publicKeyPems;
+        keysChanged();
+    }
+
+    private void keysChanged() {
+        publicKeys = new HashMap<>();
+        version.incrementAndGet();
     }
 
     public PublicKey getPublicKey(String realm) throws Exception {
@@ -49,6 +49,9 @@ public class TokenResource implements Resource {
             sink.accept("realm", token.getAudience());
             sink.accept("subject", token.getSubject());
             sink.accept("issued-at", new Date(token.getIssuedAt()));
+            if (token.getExpiration() != 0) {
+                sink.accept("expires-at", new Date(token.getExpiration() * 1000L));
+            }
 
             Set<String> roles = new HashSet<>();
 
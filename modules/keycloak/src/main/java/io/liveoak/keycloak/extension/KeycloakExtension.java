@@ -42,6 +42,7 @@ public class KeycloakExtension implements Extension {
         AuthInterceptorService authInterceptor = new AuthInterceptorService();
         ServiceController<AuthInterceptor> authController = target.addService(LiveOak.interceptor("auth"), authInterceptor)
                 .addDependency(LiveOak.CLIENT, Client.class, authInterceptor.clientInjector())
+                .addDependency(KeycloakServices.address(), KeycloakConfig.class, authInterceptor.configInjector())
                 .install();
         InterceptorRegistrationHelper.installInterceptor(target, authController);
     }
@@ -13,6 +13,7 @@ import java.util.function.Consumer;
 
 import io.liveoak.common.DefaultResourceErrorResponse;
 import io.liveoak.common.DefaultSecurityContext;
+import io.liveoak.keycloak.KeycloakConfig;
 import io.liveoak.spi.RequestContext;
 import io.liveoak.spi.ResourceErrorResponse;
 import io.liveoak.spi.ResourcePath;
@@ -34,9 +35,16 @@ public class AuthInterceptor extends DefaultInterceptor {
     private static final Logger log = Logger.getLogger(AuthInterceptor.class);
 
     private Client client;
+    private KeycloakConfig config;
+    private final TokenCache tokenCache = new TokenCache();
 
-    public AuthInterceptor(Client client) {
+    public AuthInterceptor(Client client, KeycloakConfig config) {
         this.client = client;
+        this.config = config;
+    }
+
+    public TokenCache tokenCache() {
+        return tokenCache;
     }
 
     @Override
@@ -52,6 +60,11 @@ public class AuthInterceptor extends DefaultInterceptor {
         }
     }
 
+    @Override
+    public boolean supportsStreamedMembers(ResourceRequest request) {
+        return true;
+    }
+
     private String getPrefix(ResourcePath path) {
         String prefix = "/" + path.head().name();
         return prefix;
@@ -60,6 +73,15 @@ public class AuthInterceptor extends DefaultInterceptor {
     private void initSecurityContext(final InboundInterceptorContext context, final ResourceRequest req, final DefaultSecurityContext securityContext, String token) {
         final RequestContext tokenRequestContext = new RequestContext.Builder().build();
         String prefix = getPrefix(req.resourcePath());
+        final long configVersion = config.getVersion();
+
+        TokenCache.VerifiedToken verified = tokenCache.get(prefix, token, configVersion);
+        if (verified != null) {
+            setSecurityContext(securityContext, token, verified);
+            context.forward();
+            return;
+        }
+
         try {
             client.read(tokenRequestContext, prefix + "/auth/token-info/" + token, new Consumer<ClientResourceResponse>() {
                 @Override
@@ -73,15 +95,17 @@ public class AuthInterceptor extends DefaultInterceptor {
                             log.warn("Authentication failed. Request: " + req + ", error: " + state.getProperty("error"));
                             context.replyWith(new DefaultResourceErrorResponse(req, ResourceErrorResponse.ErrorType.NOT_AUTHORIZED));
                         } else {
-                            securityContext.setOriginal(token);
-
-                            securityContext.setRealm((String) state.getProperty("realm"));
-                            securityContext.setSubject((String) state.getProperty("subject"));
-                            securityContext.setLastVerified(((Date) state.getProperty("issued-at")).getTime());
-
                             Set<String> roles = new HashSet<>();
                             roles.addAll((Collection<? extends String>) state.getProperty("roles"));
-                            securityContext.setRoles(roles);
+                            Date expiresAt = (Date) state.getProperty("expires-at");
+
+                            TokenCache.VerifiedToken verified = tokenCache.put(prefix, token, configVersion,
+                                    (String) state.getProperty("realm"),
+                                    (String) state.getProperty("subject"),
+                                    ((Date) state.getProperty("issued-at")).getTime(),
+                                    roles,
+                                    expiresAt != null ? expiresAt.getTime() : 0);
+                            setSecurityContext(securityContext, token, verified);
                             context.forward();
                         }
                     } catch (Throwable t) {
@@ -96,6 +120,14 @@ public class AuthInterceptor extends DefaultInterceptor {
         }
     }
 
+    private void setSecurityContext(DefaultSecurityContext securityContext, String token, TokenCache.VerifiedToken verified) {
+        securityContext.setOriginal(token);
+        securityContext.setRealm(verified.getRealm());
+        securityContext.setSubject(verified.getSubject());
+        securityContext.setLastVerified(verified.getIssuedAt());
+        securityContext.setRoles(new HashSet<>(verified.getRoles()));
+    }
+
     private String getBearerToken(RequestContext requestContext) {
         String auth = requestContext.requestAttributes().getAttribute(HttpHeaders.Names.AUTHORIZATION, String.class);
         if (auth != null) {
@@ -1,5 +1,6 @@
 package io.liveoak.keycloak.interceptor;
 
+import io.liveoak.keycloak.KeycloakConfig;
 import io.liveoak.spi.client.Client;
 import org.jboss.msc.inject.Injector;
 import org.jboss.msc.service.Service;
@@ -14,11 +15,12 @@ import org.jboss.msc.value.InjectedValue;
 public class AuthInterceptorService implements Service<AuthInterceptor> {
 
     private InjectedValue<Client> clientInjector = new InjectedValue<>();
+    private InjectedValue<KeycloakConfig> configInjector = new InjectedValue<>();
     private AuthInterceptor authInterceptor;
 
     @Override
     public void start(StartContext context) throws StartException {
-        authInterceptor = new AuthInterceptor(clientInjector.getValue());
+        authInterceptor = new AuthInterceptor(clientInjector.getValue(), configInjector.getValue());
     }
 
     @Override
@@ -34,4 +36,8 @@ public class AuthInterceptorService implements Service<AuthInterceptor> {
     public Injector<Client> clientInjector() {
         return clientInjector;
     }
+
+    public Injector<KeycloakConfig> configInjector() {
+        return configInjector;
+    }
 }
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2014 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package io.liveoak.keycloak.interceptor;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded cache of verified bearer tokens, so that the signature of a token is checked once
+ * rather than on every request carrying it.
+ *
+ * <p>Entries are keyed on application and a hash of the token, and stay valid until the token
+ * expires, at most for the configured time to live. All entries are dropped whenever the
+ * keycloak configuration version, and with it the public keys, changes.</p>
+ */
+public class TokenCache {
+
+    public static final String MAX_SIZE_PROPERTY = "io.liveoak.keycloak.token-cache.size";
+    public static final String MAX_TTL_PROPERTY = "io.liveoak.keycloak.token-cache.max-ttl-ms";
+
+    public static final int DEFAULT_MAX_SIZE = 1000;
+    public static final long DEFAULT_MAX_TTL = TimeUnit.MINUTES.toMillis(5);
+
+    public TokenCache() {
+        this(Integer.getInteger(MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE), Long.getLong(MAX_TTL_PROPERTY, DEFAULT_MAX_TTL));
+    }
+
+    public TokenCache(int maxSize, long maxTtlMillis) {
+        this.maxSize = maxSize;
+        this.maxTtlMillis = maxTtlMillis;
+        this.entries = new LinkedHashMap<String, VerifiedToken>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+                return size() > TokenCache.this.maxSize;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return this.maxSize > 0 && this.maxTtlMillis > 0;
+    }
+
+    /**
+     * @return verified token, or null if the token was not verified yet or the entry is not valid anymore
+     */
+    public VerifiedToken get(String prefix, String token, long configVersion) {
+        if (!isEnabled()) {
+            return null;
+        }
+        String key = key(prefix, token);
+        synchronized (this.entries) {
+            purgeIfChanged(configVersion);
+            VerifiedToken verified = this.entries.get(key);
+            if (verified != null && verified.validUntil <= System.currentTimeMillis()) {
+                this.entries.remove(key);
+                verified = null;
+            }
+            return verified;
+        }
+    }
+
+    /**
+     * @param expiresAt expiration of the token in milliseconds, or 0 if the token doesn't expire
+     */
+    public VerifiedToken put(String prefix, String token, long configVersion, String realm, String subject, long issuedAt, Set<String> roles, long expiresAt) {
+        long validUntil = System.currentTimeMillis() + this.maxTtlMillis;
+        if (expiresAt > 0) {
+            validUntil = Math.min(validUntil, expiresAt);
+        }
+        VerifiedToken verified = new VerifiedToken(realm, subject, issuedAt, roles, validUntil);
+        if (isEnabled()) {
+            String key = key(prefix, token);
+            synchronized (this.entries) {
+                purgeIfChanged(configVersion);
+                if (configVersion == this.configVersion) {
+                    this.entries.put(key, verified);
+                }
+            }
+        }
+        return verified;
+    }
+
+    public void clear() {
+        synchronized (this.entries) {
+            this.entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (this.entries) {
+            return this.entries.size();
+        }
+    }
+
+    private void purgeIfChanged(long configVersion) {
+        if (configVersion > this.configVersion) {
+            this.entries.clear();
+            this.configVersion = configVersion;
+        }
+    }
+
+    private static String key(String prefix, String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            StringBuilder key = new StringBuilder(prefix.length() + 1 + digest.length * 2);
+            key.append(prefix).append(':');
+            for (byte b : digest) {
+                key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static class VerifiedToken {
+
+        VerifiedToken(String realm, String subject, long issuedAt, Set<String> roles, long validUntil) {
+            this.realm = realm;
+            this.subject = subject;
+            this.issuedAt = issuedAt;
+            this.roles = Collections.unmodifiableSet(new HashSet<>(roles));
+            this.validUntil = validUntil;
+        }
+
+        public String getRealm() {
+            return realm;
+        }
+
+        public String getSubject() {
+            return subject;
+        }
+
+        public long getIssuedAt() {
+            return issuedAt;
+        }
+
+        public Set<String> getRoles() {
+            return roles;
+        }
+
+        private final String realm;
+        private final String subject;
+        private final long issuedAt;
+        private final Set<String> roles;
+        private final long validUntil;
+    }
+
+    private final int maxSize;
+    private final long maxTtlMillis;
+    private final LinkedHashMap<String, VerifiedToken> entries;
+    private long configVersion;
+}
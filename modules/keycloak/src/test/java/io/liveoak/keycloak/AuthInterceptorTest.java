@@ -9,6 +9,7 @@ import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.liveoak.interceptor.extension.InterceptorExtension;
 import io.liveoak.keycloak.extension.KeycloakExtension;
+import io.liveoak.keycloak.interceptor.AuthInterceptor;
 import io.liveoak.spi.LiveOak;
 import io.liveoak.spi.RequestContext;
 import io.liveoak.spi.SecurityContext;
@@ -98,6 +99,41 @@ public class AuthInterceptorTest extends AbstractKeycloakTest {
         Assert.assertEquals(token.getIssuedAt(), context.lastVerified());
     }
 
+    @Test(timeout = 10000)
+    public void testAuthCached() throws Exception {
+        AuthInterceptor interceptor = (AuthInterceptor) this.system.service(LiveOak.interceptor("auth"));
+        KeycloakConfig config = (KeycloakConfig) this.system.service(KeycloakServices.address());
+        interceptor.tokenCache().clear();
+
+        AccessToken token = tokenUtil.createToken();
+        String tokenString = tokenUtil.toString(token);
+
+        for (int i = 0; i < 3; i++) {
+            HttpRequestBase httpMethod = createHttpMethod("GET", "http://localhost:8080/testApp/auth-test");
+            httpMethod.addHeader(new BasicHeader("Authorization", "bearer " + tokenString));
+            sendRequestAndCheckStatus(httpMethod, HttpStatus.SC_OK);
+
+            SecurityContext context = mock.pollRequest(10, TimeUnit.SECONDS).securityContext();
+            Assert.assertTrue(context.isAuthenticated());
+            Assert.assertEquals("user-id", context.getSubject());
+            Assert.assertEquals(3, context.getRoles().size());
+            Assert.assertEquals(1, interceptor.tokenCache().size());
+        }
+
+        // Invalid tokens are never cached
+        HttpRequestBase invalid = createHttpMethod("GET", "http://localhost:8080/testApp/auth-test");
+        invalid.addHeader(new BasicHeader("Authorization", "bearer invalid-token"));
+        sendRequestAndCheckStatus(invalid, HttpStatus.SC_UNAUTHORIZED);
+        Assert.assertEquals(1, interceptor.tokenCache().size());
+
+        // Changing the public keys purges verified tokens
+        config.setPublicKeyPems(config.getPublicKeyPems());
+        HttpRequestBase httpMethod = createHttpMethod("GET", "http://localhost:8080/testApp/auth-test");
+        httpMethod.addHeader(new BasicHeader("Authorization", "bearer invalid-token"));
+        sendRequestAndCheckStatus(httpMethod, HttpStatus.SC_UNAUTHORIZED);
+        Assert.assertEquals(0, interceptor.tokenCache().size());
+    }
+
     @Test(timeout = 10000)
     public void testAuthExpired() throws Exception {
         AccessToken token = tokenUtil.createToken();
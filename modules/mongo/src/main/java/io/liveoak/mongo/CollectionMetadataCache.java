@@ -0,0 +1,200 @@
+/*
+ * Copyright 2014 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package io.liveoak.mongo;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DB;
+import com.mongodb.DBObject;
+import org.jboss.logging.Logger;
+
+/**
+ * Metadata of the collections of a database, so that traversing a collection doesn't cost a round trip.
+ *
+ * <p>Collections are looked up on first use. Once an entry is older than the time to live it's still
+ * returned, and reloaded in the background. Collections that don't exist aren't cached, so collections
+ * created outside of LiveOak are found right away, while collections dropped outside of LiveOak are seen
+ * once their entry has been reloaded.</p>
+ *
+ * <p>The count is approximate: it's kept up to date with members created and deleted through LiveOak,
+ * and corrected by the reloads.</p>
+ */
+class CollectionMetadataCache {
+
+    public static final String TTL_PROPERTY = "io.liveoak.mongo.metadata-ttl-ms";
+    public static final long DEFAULT_TTL = 5000;
+
+    private static final Logger log = Logger.getLogger(CollectionMetadataCache.class);
+
+    CollectionMetadataCache() {
+        this(Long.getLong(TTL_PROPERTY, DEFAULT_TTL));
+    }
+
+    CollectionMetadataCache(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+        this.refresher = Executors.newSingleThreadExecutor((r) -> {
+            Thread thread = new Thread(r, "liveoak-mongo-metadata");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return The metadata of the collection, or <code>null</code> if there is no such collection.
+     */
+    Metadata get(DB db, String name) {
+        Map<String, Metadata> entries = entries(db);
+        Metadata metadata = entries.get(name);
+        if (metadata == null) {
+            metadata = load(db, name);
+            if (metadata != null) {
+                entries.put(name, metadata);
+            }
+        } else if (System.currentTimeMillis() - metadata.loaded > this.ttlMillis) {
+            refresh(db, entries, name, metadata);
+        }
+        return metadata;
+    }
+
+    boolean exists(DB db, String name) {
+        return get(db, name) != null;
+    }
+
+    /**
+     * Drop the entry of a collection created, renamed or dropped by LiveOak.
+     */
+    void invalidate(String name) {
+        this.entries.remove(name);
+    }
+
+    void adjustCount(String name, long delta) {
+        Metadata metadata = this.entries.get(name);
+        if (metadata != null) {
+            metadata.count.addAndGet(delta);
+        }
+    }
+
+    void shutdown() {
+        this.refresher.shutdownNow();
+    }
+
+    private synchronized Map<String, Metadata> entries(DB db) {
+        // the database changes when the configuration is updated
+        if (this.db != db) {
+            this.entries.clear();
+            this.db = db;
+        }
+        return this.entries;
+    }
+
+    private void refresh(DB db, Map<String, Metadata> entries, String name, Metadata stale) {
+        if (!stale.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            this.refresher.execute(() -> {
+                try {
+                    Metadata fresh = load(db, name);
+                    if (fresh == null) {
+                        entries.remove(name, stale);
+                    } else {
+                        entries.replace(name, stale, fresh);
+                    }
+                } catch (Exception e) {
+                    log.debug("Could not reload metadata of collection " + name, e);
+                } finally {
+                    stale.refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            stale.refreshing.set(false);
+        }
+    }
+
+    private static Metadata load(DB db, String name) {
+        DBObject namespace = db.getCollection("system").getCollection("namespaces").findOne(new BasicDBObject("name", db.getName() + "." + name));
+        if (namespace == null) {
+            // servers which don't keep system.namespaces
+            if (!db.collectionExists(name)) {
+                return null;
+            }
+            namespace = new BasicDBObject();
+        }
+
+        DBObject options = (DBObject) namespace.get("options");
+        boolean capped = false;
+        Object max = null;
+        Object size = null;
+        if (options != null) {
+            capped = isTrue(options.get("capped"));
+            max = options.get("max");
+            size = options.get("size");
+        }
+        return new Metadata(options != null, capped, max, size, db.getCollection(name).getCount());
+    }
+
+    private static boolean isTrue(Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).intValue() != 0;
+        }
+        return value != null && Boolean.parseBoolean(value.toString());
+    }
+
+    static class Metadata {
+
+        Metadata(boolean hasOptions, boolean capped, Object max, Object size, long count) {
+            this.hasOptions = hasOptions;
+            this.capped = capped;
+            this.max = max;
+            this.size = size;
+            this.count = new AtomicLong(count);
+            this.loaded = System.currentTimeMillis();
+        }
+
+        boolean hasOptions() {
+            return this.hasOptions;
+        }
+
+        boolean capped() {
+            return this.capped;
+        }
+
+        Object max() {
+            return this.max;
+        }
+
+        Object size() {
+            return this.size;
+        }
+
+        long count() {
+            return Math.max(this.count.get(), 0);
+        }
+
+        private final boolean hasOptions;
+        private final boolean capped;
+        private final Object max;
+        private final Object size;
+        private final AtomicLong count;
+        private final long loaded;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+    }
+
+    private final long ttlMillis;
+    private final ExecutorService refresher;
+    private final Map<String, Metadata> entries = new ConcurrentHashMap<>();
+    private DB db;
+}
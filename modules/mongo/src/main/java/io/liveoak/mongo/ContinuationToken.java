@@ -0,0 +1,169 @@
+/*
+ * Copyright 2014 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package io.liveoak.mongo;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import com.mongodb.util.JSON;
+import io.liveoak.spi.ResourceProcessingException;
+import io.liveoak.spi.Sorting;
+
+/**
+ * Position in a sorted collection, right after a given document.
+ *
+ * <p>The token holds the sort keys of the document, ending with its <code>_id</code> which makes the
+ * order total. It turns into a range condition on those keys, so that the next page is found through
+ * the index instead of skipping all documents before it.</p>
+ *
+ * <p>Tokens are bound to the sort order they were created for. As with any range query in Mongo,
+ * comparisons only match values of the same type, so sort keys should hold a single type.</p>
+ */
+class ContinuationToken {
+
+    private static final String SORT_FIELD = "s";
+    private static final String KEYS_FIELD = "k";
+
+    private ContinuationToken(List<Sorting.Spec> specs, List<Object> keys) {
+        this.specs = specs;
+        this.keys = keys;
+    }
+
+    /**
+     * The sort order used for pages, the given one with <code>_id</code> appended unless it's already in it.
+     */
+    static List<Sorting.Spec> sortSpecs(Sorting sorting) {
+        List<Sorting.Spec> specs = new ArrayList<>();
+        boolean hasId = false;
+        if (sorting != null) {
+            for (Sorting.Spec spec : sorting) {
+                specs.add(spec);
+                hasId |= MongoResource.MONGO_ID_FIELD.equals(spec.name());
+            }
+        }
+        if (!hasId) {
+            specs.add(new Sorting.Spec(MongoResource.MONGO_ID_FIELD, true));
+        }
+        return specs;
+    }
+
+    static DBObject sortObject(List<Sorting.Spec> specs) {
+        BasicDBObject sortObject = new BasicDBObject();
+        for (Sorting.Spec spec : specs) {
+            sortObject.append(spec.name(), spec.ascending() ? 1 : -1);
+        }
+        return sortObject;
+    }
+
+    static DBObject keysObject(List<Sorting.Spec> specs) {
+        BasicDBObject keysObject = new BasicDBObject();
+        for (Sorting.Spec spec : specs) {
+            keysObject.append(spec.name(), 1);
+        }
+        return keysObject;
+    }
+
+    /**
+     * Create the token to continue after the given document, which must hold the sort keys.
+     */
+    static String encode(List<Sorting.Spec> specs, DBObject last) {
+        BasicDBList keys = new BasicDBList();
+        for (Sorting.Spec spec : specs) {
+            keys.add(value(last, spec.name()));
+        }
+        DBObject token = new BasicDBObject(SORT_FIELD, signature(specs)).append(KEYS_FIELD, keys);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(JSON.serialize(token).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static ContinuationToken decode(List<Sorting.Spec> specs, String token) throws ResourceProcessingException {
+        DBObject decoded;
+        try {
+            decoded = (DBObject) JSON.parse(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            throw new ResourceProcessingException("Invalid value for the 'after' parameter", e);
+        }
+
+        if (decoded == null || !signature(specs).equals(decoded.get(SORT_FIELD)) || !(decoded.get(KEYS_FIELD) instanceof List)) {
+            throw new ResourceProcessingException("The 'after' parameter doesn't match the requested sort order");
+        }
+        List<Object> keys = new ArrayList<>((List<?>) decoded.get(KEYS_FIELD));
+        if (keys.size() != specs.size()) {
+            throw new ResourceProcessingException("The 'after' parameter doesn't match the requested sort order");
+        }
+        return new ContinuationToken(specs, keys);
+    }
+
+    /**
+     * The condition matching documents sorted after the one of this token.
+     *
+     * <p>For keys k1..kn, a document comes after if k1 is past the token's value, or k1 is equal and k2 is
+     * past, and so on down to the <code>_id</code>.</p>
+     */
+    DBObject condition() {
+        BasicDBList alternatives = new BasicDBList();
+        for (int i = 0; i < this.specs.size(); ++i) {
+            Sorting.Spec spec = this.specs.get(i);
+            Object value = this.keys.get(i);
+
+            Object past;
+            if (value != null) {
+                past = new BasicDBObject(spec.ascending() ? "$gt" : "$lt", value);
+            } else if (spec.ascending()) {
+                past = new BasicDBObject("$ne", null);
+            } else {
+                // nothing sorts before null
+                past = null;
+            }
+
+            if (past != null) {
+                BasicDBObject alternative = new BasicDBObject();
+                for (int j = 0; j < i; ++j) {
+                    alternative.append(this.specs.get(j).name(), this.keys.get(j));
+                }
+                alternative.append(spec.name(), past);
+                alternatives.add(alternative);
+            }
+        }
+
+        if (alternatives.size() == 1) {
+            return (DBObject) alternatives.get(0);
+        }
+        return new BasicDBObject("$or", alternatives);
+    }
+
+    private static String signature(List<Sorting.Spec> specs) {
+        StringBuilder signature = new StringBuilder();
+        for (Sorting.Spec spec : specs) {
+            if (signature.length() > 0) {
+                signature.append(',');
+            }
+            if (!spec.ascending()) {
+                signature.append('-');
+            }
+            signature.append(spec.name());
+        }
+        return signature.toString();
+    }
+
+    private static Object value(DBObject object, String path) {
+        Object current = object;
+        for (String segment : path.split("\\.")) {
+            if (!(current instanceof DBObject)) {
+                return null;
+            }
+            current = ((DBObject) current).get(segment);
+        }
+        return current;
+    }
+
+    private final List<Sorting.Spec> specs;
+    private final List<Object> keys;
+}
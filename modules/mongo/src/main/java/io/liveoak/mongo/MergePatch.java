@@ -0,0 +1,201 @@
+/*
+ * Copyright 2014 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package io.liveoak.mongo;
+
+import java.util.Collection;
+
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import com.mongodb.DBRef;
+import io.liveoak.spi.ResourceProcessingException;
+import io.liveoak.spi.state.ResourceState;
+
+/**
+ * A JSON merge patch (RFC 7396) translated into a single Mongo update.
+ *
+ * <p>Properties set to <code>null</code> become an <code>$unset</code>, and everything else, lists included,
+ * becomes a <code>$set</code>. A nested object is merged field by field using dotted paths when the property
+ * holds an object, otherwise it replaces the property, without its <code>null</code> properties. So
+ * <code>{ "a": {} }</code> leaves an object in <code>a</code> as it is, and sets an empty object anywhere else.
+ * An object holding only <code>$inc</code>, such as <code>{ "views": { "$inc": 1 } }</code>, becomes an
+ * <code>$inc</code> so that counters don't need to be read first.</p>
+ *
+ * <p>Whether a nested object is merged or replaces the property depends on the document, so such patches are
+ * planned {@link #against(DBObject) against} the current document. The query then only matches while the
+ * properties still have the same kind of value. A property holding a DBRef is neither merged into nor replaced
+ * by an object, as that would change the DBRef itself.</p>
+ */
+class MergePatch {
+
+    private static final String SET = "$set";
+    private static final String UNSET = "$unset";
+    private static final String INC = "$inc";
+    private static final String DBREF = "$dbref";
+    private static final int OBJECT_TYPE = 3;
+
+    MergePatch(MongoResource resource, ResourceState patch) throws Exception {
+        this(resource, patch, null);
+    }
+
+    private MergePatch(MongoResource resource, ResourceState patch, DBObject document) throws Exception {
+        this.resource = resource;
+        this.patch = patch;
+        this.planned = document != null;
+        merge("", patch, document);
+    }
+
+    /**
+     * @return Whether the patch holds nested objects, which must be planned against the current document.
+     */
+    boolean needsDocument() {
+        return !this.planned && this.merges;
+    }
+
+    /**
+     * @return The patch to apply to the given document.
+     * @throws ResourceProcessingException If an object is patched into a DBRef.
+     */
+    MergePatch against(DBObject document) throws Exception {
+        return new MergePatch(this.resource, this.patch, document);
+    }
+
+    /**
+     * @return Whether the patch changes nothing, in which case the update must not be run as it would replace the document.
+     */
+    boolean isEmpty() {
+        return this.set.isEmpty() && this.unset.isEmpty() && this.inc.isEmpty();
+    }
+
+    DBObject query(DBObject idQuery) {
+        BasicDBObject query = new BasicDBObject(MongoResource.MONGO_ID_FIELD, idQuery.get(MongoResource.MONGO_ID_FIELD));
+        for (String path : this.condition.keySet()) {
+            query.append(path, this.condition.get(path));
+        }
+        return query;
+    }
+
+    DBObject update() {
+        BasicDBObject update = new BasicDBObject();
+        if (!this.set.isEmpty()) {
+            update.append(SET, this.set);
+        }
+        if (!this.unset.isEmpty()) {
+            update.append(UNSET, this.unset);
+        }
+        if (!this.inc.isEmpty()) {
+            update.append(INC, this.inc);
+        }
+        return update;
+    }
+
+    /**
+     * @param target The object merged into, <code>null</code> if it isn't known.
+     */
+    private void merge(String prefix, ResourceState patch, DBObject target) throws Exception {
+        for (String name : patch.getPropertyNames()) {
+            if (prefix.isEmpty() && isId(name)) {
+                // the id of the document is in the URI and can't change
+                continue;
+            }
+            String field = field(name);
+            String path = prefix + field;
+            Object value = patch.getProperty(name);
+            if (value == null) {
+                this.unset.append(path, "");
+            } else if (value instanceof ResourceState) {
+                ResourceState nested = (ResourceState) value;
+                if (nested.getProperty(DBREF) != null) {
+                    this.set.append(path, this.resource.getDBRef((String) nested.getProperty(DBREF)));
+                } else if (isIncrement(nested)) {
+                    this.inc.append(path, increment(path, nested));
+                } else if (target == null) {
+                    // the kind of value of the property is only known once planned against the document
+                    this.merges = true;
+                    merge(path + ".", nested, null);
+                } else {
+                    Object current = target.get(field);
+                    if (current instanceof DBRef || (current instanceof DBObject && ((DBObject) current).containsField("$ref"))) {
+                        throw new ResourceProcessingException("Cannot update a DBRef directly");
+                    }
+                    if (current instanceof DBObject && !(current instanceof BasicDBList)) {
+                        this.condition.append(path, new BasicDBObject("$type", OBJECT_TYPE));
+                        merge(path + ".", nested, (DBObject) current);
+                    } else {
+                        this.condition.append(path, new BasicDBObject("$not", new BasicDBObject("$type", OBJECT_TYPE)));
+                        this.set.append(path, replacement(path + ".", nested));
+                    }
+                }
+            } else if (value instanceof Collection) {
+                this.set.append(path, this.resource.createObjectList((Collection) value));
+            } else {
+                this.set.append(path, value);
+            }
+        }
+    }
+
+    /**
+     * The object replacing a property which doesn't hold one, the patch merged into an empty object.
+     */
+    private BasicDBObject replacement(String prefix, ResourceState patch) throws Exception {
+        BasicDBObject object = new BasicDBObject();
+        for (String name : patch.getPropertyNames()) {
+            String field = field(name);
+            Object value = patch.getProperty(name);
+            if (value instanceof ResourceState) {
+                ResourceState nested = (ResourceState) value;
+                if (nested.getProperty(DBREF) != null) {
+                    object.append(field, this.resource.getDBRef((String) nested.getProperty(DBREF)));
+                } else if (isIncrement(nested)) {
+                    // incrementing a missing number starts from 0
+                    object.append(field, increment(prefix + field, nested));
+                } else {
+                    object.append(field, replacement(prefix + field + ".", nested));
+                }
+            } else if (value instanceof Collection) {
+                object.append(field, this.resource.createObjectList((Collection) value));
+            } else if (value != null) {
+                object.append(field, value);
+            }
+        }
+        return object;
+    }
+
+    private static boolean isId(String name) {
+        return name.equals(MongoResource.MBAAS_ID_FIELD) || name.equals(MongoResource.MONGO_ID_FIELD);
+    }
+
+    private static String field(String name) throws ResourceProcessingException {
+        if (isId(name)) {
+            return MongoResource.MONGO_ID_FIELD;
+        }
+        if (name.isEmpty() || name.contains(".") || name.startsWith("$")) {
+            throw new ResourceProcessingException("Invalid property name: '" + name + "'");
+        }
+        return name;
+    }
+
+    private static boolean isIncrement(ResourceState nested) {
+        return nested.getPropertyNames().size() == 1 && nested.getPropertyNames().contains(INC);
+    }
+
+    private static Object increment(String path, ResourceState nested) throws ResourceProcessingException {
+        Object delta = nested.getProperty(INC);
+        if (!(delta instanceof Number)) {
+            throw new ResourceProcessingException("The '$inc' of property '" + path + "' must be a number");
+        }
+        return delta;
+    }
+
+    private final MongoResource resource;
+    private final ResourceState patch;
+    private final boolean planned;
+    private boolean merges;
+    private final BasicDBObject set = new BasicDBObject();
+    private final BasicDBObject unset = new BasicDBObject();
+    private final BasicDBObject inc = new BasicDBObject();
+    private final BasicDBObject condition = new BasicDBObject();
+}
@@ -7,8 +7,10 @@ package io.liveoak.mongo;
 
 import com.mongodb.BasicDBList;
 import com.mongodb.BasicDBObject;
+import com.mongodb.CommandFailureException;
 import com.mongodb.DBObject;
 import com.mongodb.DBRef;
+import com.mongodb.MongoException;
 import io.liveoak.spi.RequestContext;
 import io.liveoak.spi.ResourceProcessingException;
 import io.liveoak.spi.ReturnFields;
@@ -146,6 +148,43 @@ public class MongoBaseObjectResource extends MongoObjectResource {
         responder.resourceUpdated(this);
     }
 
+    @Override
+    public void patchProperties(RequestContext ctx, ResourceState state, Responder responder) {
+        MergePatch patch;
+        try {
+            patch = new MergePatch(this, state);
+        } catch (Exception e) {
+            responder.invalidRequest(e.getMessage(), e);
+            return;
+        }
+
+        DBObject patched;
+        try {
+            patched = getParent().patchChild(ctx, this.id(), patch);
+        } catch (CommandFailureException e) {
+            // the patch doesn't fit the document, such as incrementing a string
+            responder.invalidRequest(e.getMessage(), e);
+            return;
+        } catch (MongoException e) {
+            log.error("", e);
+            responder.internalError(e);
+            return;
+        } catch (Exception e) {
+            // such as patching an object into a DBRef
+            responder.invalidRequest(e.getMessage(), e);
+            return;
+        }
+
+        if (patched == null) {
+            responder.noSuchResource(this.id());
+            return;
+        }
+
+        // subscribers are notified with the merged document
+        this.dbObject = patched;
+        responder.resourceUpdated(this);
+    }
+
     @Override
     public void delete(RequestContext ctx, Responder responder) {
         if (getParent().getDBCollection().isCapped()) {
@@ -0,0 +1,698 @@
+/*
+ * Copyright 2014 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package io.liveoak.mongo;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteError;
+import com.mongodb.BulkWriteException;
+import com.mongodb.BulkWriteOperation;
+import com.mongodb.BulkWriteResult;
+import com.mongodb.BulkWriteUpsert;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import com.mongodb.MongoException;
+import com.mongodb.WriteConcern;
+import io.liveoak.common.DefaultRequestAttributes;
+import io.liveoak.common.DefaultResourceErrorResponse;
+import io.liveoak.common.DefaultResourceRequest;
+import io.liveoak.common.DefaultResourceResponse;
+import io.liveoak.common.codec.driver.RootEncodingDriver;
+import io.liveoak.common.codec.state.ResourceStateEncoder;
+import io.liveoak.spi.RequestAttributes;
+import io.liveoak.spi.RequestContext;
+import io.liveoak.spi.RequestType;
+import io.liveoak.spi.ResourceErrorResponse;
+import io.liveoak.spi.ResourcePath;
+import io.liveoak.spi.ResourceProcessingException;
+import io.liveoak.spi.ResourceRequest;
+import io.liveoak.spi.ResourceResponse;
+import io.liveoak.spi.container.WorkerPool;
+import io.liveoak.spi.container.interceptor.InterceptorManager;
+import io.liveoak.spi.resource.async.Notifier;
+import io.liveoak.spi.resource.async.PropertySink;
+import io.liveoak.spi.resource.async.Responder;
+import io.liveoak.spi.state.ResourceState;
+import org.bson.types.ObjectId;
+
+/**
+ * Creates, updates and deletes many documents of a collection with a single Mongo bulk write.
+ *
+ * <p>The state posted holds a list of <code>operations</code>, each an object with a single
+ * <code>create</code>, <code>update</code> or <code>delete</code> property holding the document.
+ * Updates replace the document, creating it if needed, as PUT does; updates and deletes need the
+ * <code>id</code> of the document.</p>
+ *
+ * <pre>
+ * { "ordered": false,
+ *   "operations": [
+ *     { "create": { "id": "bob", "name": "Bob" } },
+ *     { "update": { "id": "jim", "name": "Jim" } },
+ *     { "delete": { "id": "sue" } } ] }
+ * </pre>
+ *
+ * <p>Every operation goes through the interceptors of the chain the bulk write came through as a request
+ * of its own, a create on the collection or an update or delete of the document, so it is authorized
+ * and scripted as such. Only the operations the interceptors let through are written.</p>
+ *
+ * <p>Ordered bulk writes, the default, stop at the first failure and skip the operations after it.
+ * Unordered ones carry on with the rest. The response reports the outcome of every operation. Only
+ * outcomes confirmed by Mongo are reported as such, and notified to subscriptions together once the
+ * bulk write is done; those of unacknowledged writes are <code>unknown</code>.</p>
+ */
+public class MongoBulkResource extends MongoResource {
+
+    public static final String MAX_OPERATIONS_PROPERTY = "io.liveoak.mongo.bulk-max-operations";
+    public static final int DEFAULT_MAX_OPERATIONS = 10000;
+
+    public static final String ID = "_bulk";
+
+    private static final String CREATE = "create";
+    private static final String UPDATE = "update";
+    private static final String DELETE = "delete";
+
+    private static final String CREATED = "created";
+    private static final String UPDATED = "updated";
+    private static final String DELETED = "deleted";
+    private static final String FAILED = "failed";
+    private static final String SKIPPED = "skipped";
+    private static final String UNKNOWN = "unknown";
+
+    private static final int MAX_OPERATIONS = Integer.getInteger(MAX_OPERATIONS_PROPERTY, DEFAULT_MAX_OPERATIONS);
+
+    MongoBulkResource(MongoCollectionResource parent) {
+        this(parent, null);
+    }
+
+    private MongoBulkResource(MongoCollectionResource parent, Report report) {
+        super(parent);
+        this.report = report;
+    }
+
+    @Override
+    public MongoCollectionResource parent() {
+        return (MongoCollectionResource) super.parent();
+    }
+
+    @Override
+    public String id() {
+        return ID;
+    }
+
+    @Override
+    public void createMember(RequestContext ctx, ResourceState state, Responder responder) {
+        List<Operation> operations;
+        boolean ordered;
+        WriteConcern writeConcern;
+        try {
+            operations = operations(state);
+            ordered = !Boolean.FALSE.equals(state.getProperty("ordered"));
+            writeConcern = writeConcern(ctx);
+        } catch (Exception e) {
+            responder.invalidRequest(e.getMessage(), e);
+            return;
+        }
+
+        String chainName = ctx.requestAttributes() != null ? ctx.requestAttributes().getAttribute(InterceptorManager.ATTR_CHAIN_NAME, String.class) : null;
+        InterceptorManager interceptors = parent().root().interceptorManager();
+        WorkerPool workers = parent().root().workerPool();
+        if (chainName == null || interceptors == null || workers == null) {
+            // the operations would escape the checks made on single requests
+            responder.internalError("The operations of the bulk write can't be authorized");
+            return;
+        }
+
+        new BulkWrite(ctx, operations, ordered, writeConcern, chainName, interceptors, workers, responder).start();
+    }
+
+    @Override
+    public void readProperties(RequestContext ctx, PropertySink sink) throws Exception {
+        if (this.report != null) {
+            sink.accept("ordered", this.report.ordered);
+            sink.accept("acknowledged", this.report.acknowledged);
+            if (this.report.writeConcernError != null) {
+                sink.accept("writeConcernError", this.report.writeConcernError);
+            }
+            if (this.report.acknowledged) {
+                sink.accept("created", this.report.created);
+                sink.accept("updated", this.report.updated);
+                sink.accept("deleted", this.report.deleted);
+            }
+            sink.accept("failed", this.report.failed);
+            sink.accept("results", this.report.results);
+        }
+        sink.close();
+    }
+
+    protected List<Operation> operations(ResourceState state) throws ResourceProcessingException {
+        Object value = state.getProperty("operations");
+        if (!(value instanceof List)) {
+            throw new ResourceProcessingException("A bulk write needs a list of 'operations'");
+        }
+        List<?> list = (List<?>) value;
+        if (list.size() > MAX_OPERATIONS) {
+            throw new ResourceProcessingException("A bulk write may hold at most " + MAX_OPERATIONS + " operations");
+        }
+
+        List<Operation> operations = new ArrayList<>(list.size());
+        for (int i = 0; i < list.size(); ++i) {
+            operations.add(operation(i, list.get(i)));
+        }
+        return operations;
+    }
+
+    protected Operation operation(int index, Object value) {
+        if (!(value instanceof ResourceState) || ((ResourceState) value).getPropertyNames().size() != 1) {
+            return new Operation(index, null, null, null).fail("An operation must hold a single 'create', 'update' or 'delete'");
+        }
+        ResourceState state = (ResourceState) value;
+        String type = state.getPropertyNames().iterator().next();
+        Object document = state.getProperty(type);
+        if (!(document instanceof ResourceState)) {
+            return new Operation(index, type, null, null).fail("The '" + type + "' operation must hold an object");
+        }
+
+        Operation operation = new Operation(index, type, ((ResourceState) document).id(), (ResourceState) document);
+        switch (type) {
+            case CREATE:
+                break;
+            case UPDATE:
+            case DELETE:
+                if (operation.id == null) {
+                    return operation.fail("The '" + type + "' operation needs the id of the document");
+                }
+                break;
+            default:
+                return operation.fail("Unknown operation: '" + type + "'");
+        }
+        if (ID.equals(operation.id)) {
+            return operation.fail("'" + ID + "' is reserved and can't be the id of a document");
+        }
+        return operation;
+    }
+
+    public String toString() {
+        return "[MongoBulkResource: for id:" + parent().id() + "]";
+    }
+
+    /**
+     * One bulk write, from the operations going through the interceptors to the response.
+     */
+    private class BulkWrite {
+
+        BulkWrite(RequestContext ctx, List<Operation> operations, boolean ordered, WriteConcern writeConcern,
+                  String chainName, InterceptorManager interceptors, WorkerPool workers, Responder responder) {
+            this.ctx = ctx;
+            this.operations = operations;
+            this.ordered = ordered;
+            this.writeConcern = writeConcern;
+            this.chainName = chainName;
+            this.interceptors = interceptors;
+            this.workers = workers;
+            this.responder = responder;
+            this.report = new Report(ordered);
+        }
+
+        void start() {
+            try {
+                findMissing();
+            } catch (MongoException e) {
+                logger().error("", e);
+                this.responder.internalError(e);
+                return;
+            }
+
+            List<Operation> inbound = new ArrayList<>();
+            for (Operation operation : this.operations) {
+                if (operation.error != null) {
+                    if (this.ordered) {
+                        break;
+                    }
+                    continue;
+                }
+                operation.request = request(operation);
+                inbound.add(operation);
+            }
+
+            this.pending.set(inbound.size() + 1);
+            for (Operation operation : inbound) {
+                this.interceptors.fireInbound(this.chainName, operation.request, (forwarded) -> {
+                    operation.request = forwarded;
+                    arrive(this::write, false);
+                }, (reply) -> {
+                    operation.fail(message(reply));
+                    operation.request = null;
+                    this.interceptors.fireComplete(this.chainName, reply.inReplyTo());
+                    arrive(this::write, false);
+                });
+            }
+            arrive(this::write, true);
+        }
+
+        /**
+         * Deletes of documents which don't exist fail as single deletes do, rather than being written.
+         */
+        private void findMissing() {
+            Map<Object, Operation> deletes = new LinkedHashMap<>();
+            for (Operation operation : this.operations) {
+                if (DELETE.equals(operation.type) && operation.error == null) {
+                    deletes.put(getMongoID(operation.id).get(MONGO_ID_FIELD), operation);
+                }
+            }
+            if (deletes.isEmpty()) {
+                return;
+            }
+
+            Set<Object> found = new HashSet<>();
+            DBObject query = new BasicDBObject(MONGO_ID_FIELD, new BasicDBObject("$in", new ArrayList<>(deletes.keySet())));
+            DBCursor cursor = parent().getDBCollection().find(query, new BasicDBObject(MONGO_ID_FIELD, 1));
+            try {
+                while (cursor.hasNext()) {
+                    found.add(cursor.next().get(MONGO_ID_FIELD));
+                }
+            } finally {
+                cursor.close();
+            }
+            for (Map.Entry<Object, Operation> delete : deletes.entrySet()) {
+                if (!found.contains(delete.getKey())) {
+                    delete.getValue().fail("No such resource: " + delete.getValue().id);
+                }
+            }
+        }
+
+        private ResourceRequest request(Operation operation) {
+            ResourcePath path = new ResourcePath(this.ctx.resourcePath());
+            // the bulk write itself
+            path.segments().remove(path.segments().size() - 1);
+            RequestType requestType = RequestType.CREATE;
+            if (!CREATE.equals(operation.type)) {
+                path.appendSegment(operation.id);
+                requestType = UPDATE.equals(operation.type) ? RequestType.UPDATE : RequestType.DELETE;
+            }
+
+            RequestAttributes attributes = new DefaultRequestAttributes();
+            RequestAttributes bulkAttributes = this.ctx.requestAttributes();
+            if (bulkAttributes.getAttributeNames() != null) {
+                for (String name : bulkAttributes.getAttributeNames()) {
+                    attributes.setAttribute(name, bulkAttributes.getAttribute(name));
+                }
+            }
+            RequestContext requestContext = new RequestContext.Builder()
+                    .application(this.ctx.application())
+                    .securityContext(this.ctx.securityContext())
+                    .resourceParams(this.ctx.resourceParams())
+                    .requestAttributes(attributes)
+                    .resourcePath(path)
+                    .requestType(requestType)
+                    .build();
+            return new DefaultResourceRequest.Builder(requestType, path)
+                    .resourceState(DELETE.equals(operation.type) ? null : operation.state)
+                    .requestContext(requestContext)
+                    .build();
+        }
+
+        private void arrive(Runnable next, boolean inline) {
+            if (this.pending.decrementAndGet() != 0) {
+                return;
+            }
+            if (inline) {
+                next.run();
+                return;
+            }
+            // interceptors complete on their own threads, writing to Mongo blocks
+            try {
+                this.workers.execute(WorkerPool.bulkhead(this.ctx.resourcePath()), next);
+            } catch (RejectedExecutionException e) {
+                // nothing was written, the client may retry once the load is lower
+                fail(ResourceErrorResponse.ErrorType.SERVICE_UNAVAILABLE, e.getMessage(), () -> this.responder.serviceUnavailable(e.getMessage()));
+            }
+        }
+
+        private void write() {
+            BulkWriteOperation bulk = this.ordered
+                    ? parent().getDBCollection().initializeOrderedBulkOperation()
+                    : parent().getDBCollection().initializeUnorderedBulkOperation();
+
+            // operations which are invalid, or which the interceptors rejected, fail right away
+            List<Operation> queued = new ArrayList<>();
+            for (Operation operation : this.operations) {
+                if (operation.error == null) {
+                    try {
+                        operation.document(MongoBulkResource.this);
+                    } catch (Exception e) {
+                        operation.fail(e.getMessage());
+                    }
+                }
+                if (operation.error != null) {
+                    operation.status = FAILED;
+                    if (this.ordered) {
+                        break;
+                    }
+                } else {
+                    operation.queue(bulk);
+                    queued.add(operation);
+                }
+            }
+
+            if (!queued.isEmpty()) {
+                try {
+                    execute(bulk, queued);
+                } catch (MongoException e) {
+                    logger().error("", e);
+                    fail(ResourceErrorResponse.ErrorType.INTERNAL_ERROR, e.getMessage(), () -> this.responder.internalError(e));
+                    return;
+                }
+            }
+
+            for (Operation operation : this.operations) {
+                if (operation.status == null) {
+                    operation.status = SKIPPED;
+                }
+            }
+
+            outbound();
+        }
+
+        private void execute(BulkWriteOperation bulk, List<Operation> queued) {
+            BulkWriteResult result;
+            List<BulkWriteError> errors = new ArrayList<>();
+            try {
+                result = this.writeConcern != null ? bulk.execute(this.writeConcern) : bulk.execute();
+            } catch (BulkWriteException e) {
+                result = e.getWriteResult();
+                errors = e.getWriteErrors();
+                if (e.getWriteConcernError() != null) {
+                    this.report.writeConcernError = e.getWriteConcernError().getMessage();
+                }
+            }
+            this.report.acknowledged = result.isAcknowledged();
+
+            // operations of an ordered bulk write after its first error aren't executed
+            int executed = queued.size();
+            for (BulkWriteError error : errors) {
+                Operation operation = queued.get(error.getIndex());
+                operation.status = FAILED;
+                operation.error = error.getMessage();
+                operation.code = error.getCode();
+                if (this.ordered) {
+                    executed = Math.min(executed, error.getIndex());
+                }
+            }
+
+            if (!result.isAcknowledged()) {
+                for (int i = 0; i < executed; ++i) {
+                    queued.get(i).status = UNKNOWN;
+                }
+                // not known, the cached count is corrected when next reloaded
+                parent().root().collectionMetadataCache().invalidate(parent().id());
+                return;
+            }
+
+            for (BulkWriteUpsert upsert : result.getUpserts()) {
+                queued.get(upsert.getIndex()).status = CREATED;
+            }
+            int deletes = 0;
+            for (int i = 0; i < executed; ++i) {
+                Operation operation = queued.get(i);
+                if (operation.status == null) {
+                    operation.status = operation.done();
+                    if (DELETED.equals(operation.status)) {
+                        ++deletes;
+                    }
+                }
+            }
+            if (deletes != result.getRemovedCount()) {
+                // documents deleted meanwhile, which of the deletes matched nothing isn't known
+                for (int i = 0; i < executed; ++i) {
+                    if (DELETED.equals(queued.get(i).status)) {
+                        queued.get(i).status = UNKNOWN;
+                    }
+                }
+            }
+
+            this.report.created = result.getInsertedCount() + result.getUpserts().size();
+            this.report.updated = result.getMatchedCount();
+            this.report.deleted = result.getRemovedCount();
+            parent().root().collectionMetadataCache().adjustCount(parent().id(), this.report.created - this.report.deleted);
+        }
+
+        /**
+         * Every operation which went through the inbound interceptors goes through the outbound ones, with the
+         * response a single request would have had.
+         */
+        private void outbound() {
+            List<ResourceResponse> changes = new ArrayList<>();
+            List<Operation> outbound = new ArrayList<>();
+            for (Operation operation : this.operations) {
+                if (operation.request == null) {
+                    continue;
+                }
+                ResourceResponse.ResponseType responseType = operation.responseType();
+                if (responseType != null) {
+                    operation.response = new DefaultResourceResponse(operation.request, responseType, new MongoBaseObjectResource(parent(), operation.document));
+                    encode(operation.response);
+                    changes.add(operation.response);
+                } else {
+                    operation.response = new DefaultResourceErrorResponse(operation.request, operation.errorType(), operation.message());
+                }
+                outbound.add(operation);
+            }
+
+            Notifier notifier = parent().root().notifier();
+            if (notifier != null && !changes.isEmpty()) {
+                notifier.resourcesChanged(changes);
+            }
+
+            this.pending.set(outbound.size() + 1);
+            for (Operation operation : outbound) {
+                this.interceptors.fireOutbound(this.chainName, operation.response, (response) -> {
+                    if (response instanceof ResourceErrorResponse && operation.error == null) {
+                        // e.g. a script failing after the document was written
+                        operation.error = message(response);
+                    }
+                    this.interceptors.fireComplete(this.chainName, response.inReplyTo());
+                    arrive(this::respond, true);
+                });
+            }
+            arrive(this::respond, true);
+        }
+
+        /**
+         * The bulk write fails as a whole. The operations which went through the inbound interceptors still go
+         * through the outbound ones, with the error, before the bulk write is responded to.
+         */
+        private void fail(ResourceErrorResponse.ErrorType errorType, String message, Runnable respond) {
+            List<ResourceResponse> outbound = new ArrayList<>();
+            for (Operation operation : this.operations) {
+                if (operation.request != null) {
+                    outbound.add(new DefaultResourceErrorResponse(operation.request, errorType, message));
+                }
+            }
+
+            this.pending.set(outbound.size() + 1);
+            for (ResourceResponse response : outbound) {
+                this.interceptors.fireOutbound(this.chainName, response, (forwarded) -> {
+                    this.interceptors.fireComplete(this.chainName, forwarded.inReplyTo());
+                    arrive(respond, true);
+                });
+            }
+            arrive(respond, true);
+        }
+
+        private void encode(ResourceResponse response) {
+            ResourceStateEncoder encoder = new ResourceStateEncoder();
+            RootEncodingDriver driver = new RootEncodingDriver(response.inReplyTo().requestContext(), encoder, response.resource(), () -> {
+                response.setState(encoder.root());
+            });
+            try {
+                driver.encode();
+            } catch (Exception e) {
+                logger().error("", e);
+            }
+        }
+
+        private void respond() {
+            for (Operation operation : this.operations) {
+                this.report.add(operation);
+            }
+            // the bulk write creates nothing of its own, reading the report keeps it out of the notifications
+            this.responder.resourceRead(new MongoBulkResource(parent(), this.report));
+        }
+
+        private String message(ResourceResponse response) {
+            if (response instanceof ResourceErrorResponse) {
+                ResourceErrorResponse error = (ResourceErrorResponse) response;
+                return error.message() != null ? error.message() : error.errorType().toString();
+            }
+            return response.responseType().toString();
+        }
+
+        private final RequestContext ctx;
+        private final List<Operation> operations;
+        private final boolean ordered;
+        private final WriteConcern writeConcern;
+        private final String chainName;
+        private final InterceptorManager interceptors;
+        private final WorkerPool workers;
+        private final Responder responder;
+        private final Report report;
+        private final AtomicInteger pending = new AtomicInteger();
+    }
+
+    protected static class Operation {
+
+        Operation(int index, String type, String id, ResourceState state) {
+            this.index = index;
+            this.type = type;
+            this.id = id;
+            this.state = state;
+        }
+
+        Operation fail(String error) {
+            this.error = error;
+            return this;
+        }
+
+        /**
+         * Builds the document from the state of the request, as the interceptors left it.
+         */
+        void document(MongoResource resource) throws Exception {
+            ResourceState state = this.request.state();
+            switch (this.type) {
+                case CREATE:
+                    this.document = resource.createObject(state);
+                    if (this.document.get(MONGO_ID_FIELD) == null) {
+                        // known before the write, for the report and the notifications
+                        this.document.put(MONGO_ID_FIELD, new ObjectId());
+                    }
+                    this.id = resource.getResourceID(this.document);
+                    if (ID.equals(this.id)) {
+                        throw new ResourceProcessingException("'" + ID + "' is reserved and can't be the id of a document");
+                    }
+                    break;
+                case UPDATE:
+                    this.document = resource.createObject(state);
+                    this.document.put(MONGO_ID_FIELD, resource.getMongoID(this.id).get(MONGO_ID_FIELD));
+                    break;
+                case DELETE:
+                    this.document = resource.getMongoID(this.id);
+                    break;
+            }
+        }
+
+        void queue(BulkWriteOperation bulk) {
+            switch (this.type) {
+                case CREATE:
+                    bulk.insert(this.document);
+                    break;
+                case UPDATE:
+                    bulk.find(new BasicDBObject(MONGO_ID_FIELD, this.document.get(MONGO_ID_FIELD))).upsert().replaceOne(this.document);
+                    break;
+                case DELETE:
+                    bulk.find(this.document).removeOne();
+                    break;
+            }
+        }
+
+        String done() {
+            switch (this.type) {
+                case CREATE:
+                    return CREATED;
+                case UPDATE:
+                    return UPDATED;
+                default:
+                    return DELETED;
+            }
+        }
+
+        ResourceResponse.ResponseType responseType() {
+            if (CREATED.equals(this.status)) {
+                return ResourceResponse.ResponseType.CREATED;
+            } else if (UPDATED.equals(this.status)) {
+                return ResourceResponse.ResponseType.UPDATED;
+            } else if (DELETED.equals(this.status)) {
+                return ResourceResponse.ResponseType.DELETED;
+            }
+            return null;
+        }
+
+        String message() {
+            if (this.error != null) {
+                return this.error;
+            } else if (UNKNOWN.equals(this.status)) {
+                return "The outcome of the write is unknown";
+            }
+            return "Skipped after an earlier failure";
+        }
+
+        ResourceErrorResponse.ErrorType errorType() {
+            if (UNKNOWN.equals(this.status)) {
+                return ResourceErrorResponse.ErrorType.INTERNAL_ERROR;
+            }
+            if (this.code == 11000 || this.code == 11001) {
+                return ResourceErrorResponse.ErrorType.RESOURCE_ALREADY_EXISTS;
+            }
+            return ResourceErrorResponse.ErrorType.NOT_ACCEPTABLE;
+        }
+
+        final int index;
+        final String type;
+        final ResourceState state;
+        String id;
+        ResourceRequest request;
+        ResourceResponse response;
+        DBObject document;
+        String status;
+        String error;
+        int code;
+    }
+
+    private static class Report {
+
+        Report(boolean ordered) {
+            this.ordered = ordered;
+        }
+
+        void add(Operation operation) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("index", operation.index);
+            if (operation.type != null) {
+                result.put("operation", operation.type);
+            }
+            if (operation.id != null) {
+                result.put("id", operation.id);
+            }
+            if (operation.status == null) {
+                operation.status = operation.error != null ? FAILED : SKIPPED;
+            }
+            result.put("status", operation.status);
+            if (operation.error != null) {
+                result.put("error", operation.error);
+                ++this.failed;
+            }
+            this.results.add(result);
+        }
+
+        final boolean ordered;
+        boolean acknowledged = true;
+        String writeConcernError;
+        long created;
+        long updated;
+        long deleted;
+        int failed;
+        final List<Map<String, Object>> results = new ArrayList<>();
+    }
+
+    private final Report report;
+}
@@ -5,14 +5,26 @@
  */
 package io.liveoak.mongo;
 
+import java.net.URLEncoder;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import com.mongodb.BasicDBList;
 import com.mongodb.BasicDBObject;
 import com.mongodb.DBCollection;
 import com.mongodb.DBCursor;
 import com.mongodb.DBObject;
+import com.mongodb.DuplicateKeyException;
+import com.mongodb.MongoException;
+import com.mongodb.WriteConcern;
 import com.mongodb.WriteResult;
 import com.mongodb.util.JSON;
 
+import io.liveoak.spi.Pagination;
 import io.liveoak.spi.RequestContext;
+import io.liveoak.spi.RequestType;
 import io.liveoak.spi.ResourceParams;
 import io.liveoak.spi.ResourceProcessingException;
 import io.liveoak.spi.Sorting;
@@ -26,6 +38,8 @@ import io.liveoak.spi.state.ResourceState;
  */
 public class MongoCollectionResource extends MongoResource {
 
+    private static final int PATCH_ATTEMPTS = 3;
+
     DBCollection dbCollection;
     String collectionName;
 
@@ -47,6 +61,17 @@ public class MongoCollectionResource extends MongoResource {
             return;
         }
 
+        if (MongoBulkResource.ID.equals(childId)) {
+            responder.resourceRead(new MongoBulkResource(this));
+            return;
+        }
+
+        if (ctx.requestType() == RequestType.PATCH) {
+            // the patch finds the document itself, a missing one is reported then
+            responder.resourceRead(new MongoBaseObjectResource(this, childId));
+            return;
+        }
+
         DBObject object = dbCollection.findOne(getMongoID(childId));
 
         if (object == null) {
@@ -64,12 +89,14 @@ public class MongoCollectionResource extends MongoResource {
     @Override
     public void delete(RequestContext ctx, Responder responder) {
         getDBCollection().drop();
+        root().collectionMetadataCache().invalidate(id());
         responder.resourceDeleted(this);
     }
 
     protected WriteResult deleteChild(RequestContext ctx, String childId) {
         WriteResult wResult = null;
         wResult = getDBCollection().remove(getMongoID(childId));
+        root().collectionMetadataCache().adjustCount(id(), -wResult.getN());
         return wResult;
     }
 
@@ -83,30 +110,109 @@ public class MongoCollectionResource extends MongoResource {
         }
     }
 
+    /**
+     * Apply a merge patch to a child with a single atomic update.
+     *
+     * <p>A patch holding nested objects is planned against the child as read first. Should the child change
+     * meanwhile so that the update no longer applies, it's read and planned again.</p>
+     *
+     * @return The patched child, or <code>null</code> if there is no such child.
+     * @throws ResourceProcessingException If the patch can't apply to the child.
+     */
+    protected DBObject patchChild(RequestContext ctx, String childId, MergePatch patch) throws Exception {
+        DBObject idQuery = getMongoID(childId);
+        if (!patch.needsDocument()) {
+            if (patch.isEmpty()) {
+                return getDBCollection().findOne(idQuery);
+            }
+            return getDBCollection().findAndModify(patch.query(idQuery), null, null, false, patch.update(), true, false);
+        }
+
+        for (int attempt = 0; attempt < PATCH_ATTEMPTS; ++attempt) {
+            DBObject child = getDBCollection().findOne(idQuery);
+            if (child == null) {
+                return null;
+            }
+            MergePatch planned = patch.against(child);
+            if (planned.isEmpty()) {
+                return child;
+            }
+            DBObject patched = getDBCollection().findAndModify(planned.query(idQuery), null, null, false, planned.update(), true, false);
+            if (patched != null) {
+                return patched;
+            }
+        }
+        throw new MongoException("The document '" + childId + "' kept changing while it was patched");
+    }
+
     @Override
     public void readMembers(RequestContext ctx, ResourceSink sink) throws Exception {
-        DBObject queryObject = new BasicDBObject();
-
-        ResourceParams resourceParams = ctx.resourceParams();
-        if (resourceParams != null) {
-            if (resourceParams.contains("q")) {
-                String queryString = ctx.resourceParams().value("q");
-                try {
-                    queryObject = (DBObject) JSON.parse(queryString);
-                } catch (Exception e) {
-                    throw new ResourceProcessingException("Invalid JSON format for the 'query' parameter", e);
-                }
+        if (explain(ctx)) {
+            DBCursor dbCursor = cursor(ctx, returnFields(ctx));
+            if (ctx.pagination() != null) {
+                dbCursor.limit(ctx.pagination().limit());
+                dbCursor.skip(ctx.pagination().offset());
             }
+            sink.accept(new MongoEmbeddedObjectResource(this, dbCursor.explain()));
+            sink.close();
+            return;
+        }
+
+        DBCursor dbCursor = cursor(ctx, returnFields(ctx));
+        if (ctx.pagination() != null) {
+            dbCursor.skip(ctx.pagination().offset());
+        }
+        if (paged(ctx)) {
+            dbCursor.limit(ctx.pagination().limit());
+        }
+
+        try {
+            dbCursor.hasNext();
+        } catch (Exception e) {
+            dbCursor.close();
+            throw new ResourceProcessingException("Exception encountered trying to fetch data from the Mongo Database", e);
         }
 
+        try {
+            // the sink throws once the members can't be used anymore, such as when the client went away
+            dbCursor.forEach((dbObject) -> {
+                sink.accept(new MongoBaseObjectResource(this, dbObject));
+            });
+        } finally {
+            dbCursor.close();
+        }
+
+        try {
+            sink.close();
+        } catch (Exception e) {
+            logger().error("", e);  //TODO: properly handle errors
+        }
+    }
+
+    private boolean explain(RequestContext ctx) {
+        ResourceParams resourceParams = ctx.resourceParams();
+        return resourceParams != null && resourceParams.contains("explain") && resourceParams.value("explain").equalsIgnoreCase("true");
+    }
+
+    private boolean paged(RequestContext ctx) {
+        return ctx.pagination() != null && ctx.pagination().limit() > 0;
+    }
+
+    private DBObject returnFields(RequestContext ctx) {
         DBObject returnFields = new BasicDBObject();
         if (ctx.returnFields() != null && !ctx.returnFields().isAll()) {
             ctx.returnFields().forEach((fieldName) -> {
                 returnFields.put(fieldName, true);
             });
         }
+        return returnFields;
+    }
 
-        DBCursor dbCursor = dbCollection.find(queryObject, returnFields);
+    /**
+     * The sorted members matching the query, with the requested hint. Neither skipped nor limited.
+     */
+    private DBCursor cursor(RequestContext ctx, DBObject returnFields) throws Exception {
+        DBCursor dbCursor = getDBCollection().find(query(ctx), returnFields);
 
         if (ctx.resourceParams() != null && ctx.resourceParams().contains("hint")) {
             String hint = ctx.resourceParams().value( "hint" );
@@ -122,64 +228,131 @@ public class MongoCollectionResource extends MongoResource {
             }
         }
 
-        if (resourceParams != null && ctx.resourceParams().contains("explain")) {
-            if (ctx.resourceParams().value("explain").equalsIgnoreCase("true")) {
-                sink.accept( new MongoEmbeddedObjectResource(this, dbCursor.explain()));
-                sink.close();
-                return;
-            }
-        }
+        return dbCursor.sort(ContinuationToken.sortObject(ContinuationToken.sortSpecs(ctx.sorting())));
+    }
+
+    /**
+     * The query for the members of a page, the 'q' parameter limited to documents after the 'after' token.
+     */
+    protected DBObject query(RequestContext ctx) throws ResourceProcessingException {
+        DBObject queryObject = new BasicDBObject();
 
-        Sorting sorting = ctx.sorting();
-        if (sorting != null) {
-            BasicDBObject sortingObject = new BasicDBObject();
-            for (Sorting.Spec spec : sorting) {
-                sortingObject.append(spec.name(), spec.ascending() ? 1 : -1);
+        ResourceParams resourceParams = ctx.resourceParams();
+        if (resourceParams != null) {
+            if (resourceParams.contains("q")) {
+                String queryString = ctx.resourceParams().value("q");
+                try {
+                    queryObject = (DBObject) JSON.parse(queryString);
+                } catch (Exception e) {
+                    throw new ResourceProcessingException("Invalid JSON format for the 'query' parameter", e);
+                }
             }
-            dbCursor = dbCursor.sort(sortingObject);
         }
 
-        if (ctx.pagination() != null) {
-            dbCursor.limit(ctx.pagination().limit());
-            dbCursor.skip(ctx.pagination().offset());
+        String after = ctx.pagination() != null ? ctx.pagination().after() : null;
+        if (after != null) {
+            DBObject afterObject = ContinuationToken.decode(ContinuationToken.sortSpecs(ctx.sorting()), after).condition();
+            if (queryObject == null || queryObject.keySet().isEmpty()) {
+                queryObject = afterObject;
+            } else {
+                BasicDBList conditions = new BasicDBList();
+                conditions.add(queryObject);
+                conditions.add(afterObject);
+                queryObject = new BasicDBObject("$and", conditions);
+            }
         }
+        return queryObject;
+    }
 
+    /**
+     * The link to the page after the requested one, or null if it's the last page.
+     *
+     * <p>The properties are encoded before the members are read, so the link can't be taken from the members.
+     * Only the sort keys of the page are scanned instead, one past the limit, keeping the document the page
+     * ends with, which holds no more than the continuation token needs.</p>
+     */
+    private String nextPageUri(RequestContext ctx) throws Exception {
+        Pagination pagination = ctx.pagination();
+        List<Sorting.Spec> specs = ContinuationToken.sortSpecs(ctx.sorting());
+
+        DBCursor dbCursor = cursor(ctx, ContinuationToken.keysObject(specs))
+                .skip(pagination.offset())
+                .limit(Math.min(pagination.limit(), Integer.MAX_VALUE - 1) + 1);
+        DBObject last = null;
+        int count = 0;
         try {
-            dbCursor.hasNext();
+            while (dbCursor.hasNext()) {
+                DBObject keys = dbCursor.next();
+                if (++count == pagination.limit()) {
+                    last = keys;
+                }
+            }
         } catch (Exception e) {
             throw new ResourceProcessingException("Exception encountered trying to fetch data from the Mongo Database", e);
+        } finally {
+            dbCursor.close();
         }
 
-        dbCursor.forEach((dbObject) -> {
-            sink.accept(new MongoBaseObjectResource(this, dbObject));
-        });
+        return count > pagination.limit() ? nextPageUri(ctx, specs, last) : null;
+    }
 
-        try {
-            sink.close();
-        } catch (Exception e) {
-            logger().error("", e);  //TODO: properly handle errors
+    /**
+     * The link to the page following the one ending with the given document.
+     */
+    private String nextPageUri(RequestContext ctx, List<Sorting.Spec> specs, DBObject last) throws Exception {
+        StringBuilder uri = new StringBuilder(uri().toString()).append("?after=").append(ContinuationToken.encode(specs, last));
+        ResourceParams resourceParams = ctx.resourceParams();
+        if (resourceParams != null) {
+            for (String name : resourceParams.names()) {
+                if ("after".equals(name) || "offset".equals(name) || resourceParams.values(name) == null) {
+                    continue;
+                }
+                for (String value : resourceParams.values(name)) {
+                    uri.append('&').append(URLEncoder.encode(name, "UTF-8")).append('=').append(URLEncoder.encode(value, "UTF-8"));
+                }
+            }
         }
+        return uri.toString();
     }
 
     @Override
     public void createMember(RequestContext ctx, ResourceState state, Responder responder) {
-        BasicDBObject basicDBObject = null;
+        if (MongoBulkResource.ID.equals(state.id())) {
+            // the document could never be read, updated or deleted
+            responder.invalidRequest("'" + MongoBulkResource.ID + "' is reserved and can't be the id of a document");
+            return;
+        }
+
+        BasicDBObject basicDBObject;
+        WriteConcern writeConcern;
         try {
-            basicDBObject = (BasicDBObject) createObject(state);
-            Object key = basicDBObject.get( MONGO_ID_FIELD );
-            if (key != null) {
-                if (getDBCollection().findOne (new BasicDBObject( MONGO_ID_FIELD, key )) != null) {
-                    responder.resourceAlreadyExists( key.toString() );
-                    return;
-                }
-            }
-            WriteResult wResult = getDBCollection().insert(basicDBObject);
+            basicDBObject = createObject(state);
+            writeConcern = writeConcern(ctx);
         } catch (Exception e) {
+            responder.invalidRequest(e.getMessage(), e);
+            return;
+        }
+
+        // a single insert, an existing _id is reported by the server. With an unacknowledged write concern
+        // the error doesn't come back, and the existing document is kept.
+        try {
+            if (writeConcern != null) {
+                getDBCollection().insert(basicDBObject, writeConcern);
+            } else {
+                getDBCollection().insert(basicDBObject);
+            }
+        } catch (DuplicateKeyException e) {
+            responder.resourceAlreadyExists(getResourceID(basicDBObject));
+            return;
+        } catch (MongoException e) {
             logger().error("", e);
+            responder.internalError(e);
+            return;
         }
+        root().collectionMetadataCache().adjustCount(id(), 1);
 
-        DBObject newDBObject = getDBCollection().findOne( new BasicDBObject( MONGO_ID_FIELD, basicDBObject.get( MONGO_ID_FIELD ) ) );
-        responder.resourceCreated(new MongoBaseObjectResource(this, newDBObject));
+        // the driver sets the _id of the inserted object, it holds all there is to the new document
+        responder.resourceCreated(new MongoBaseObjectResource(this, basicDBObject));
     }
 
     public String toString() {
@@ -188,16 +361,27 @@ public class MongoCollectionResource extends MongoResource {
 
     @Override
     public void readProperties(RequestContext ctx, PropertySink sink) throws Exception {
+        CollectionMetadataCache.Metadata metadata = root().collectionMetadata(id());
+
         sink.accept("type", "collection");
-        sink.accept("count", dbCollection.getCount());
-        sink.accept( "capped", dbCollection.isCapped());
+        sink.accept("count", metadata != null ? metadata.count() : 0L);
+        sink.accept("capped", metadata != null && metadata.capped());
 
-        DBObject collectionDBObject = getDBCollection().getDB().getCollection( "system" ).getCollection( "namespaces" ).findOne( new BasicDBObject ( "name", this.getDBCollection().getFullName()));
+        if (metadata != null && metadata.hasOptions()) {
+            sink.accept("max", metadata.max());
+            sink.accept("size", metadata.size());
+        }
 
-        if (collectionDBObject != null && collectionDBObject.get("options") != null) {
-            DBObject collectionOptions = (DBObject) collectionDBObject.get( "options" );
-            sink.accept("max", collectionOptions.get( "max" ));
-            sink.accept("size", collectionOptions.get("size"));
+        if (paged(ctx) && !explain(ctx) && (ctx.returnFields() == null || ctx.returnFields().included("members"))) {
+            String next = nextPageUri(ctx);
+            if (next != null) {
+                List<Map<String, String>> links = new LinkedList<>();
+                Map<String, String> link = new LinkedHashMap<>();
+                link.put("rel", "next");
+                link.put("href", next);
+                links.add(link);
+                sink.accept("links", links);
+            }
         }
 
         sink.close();
@@ -211,12 +395,15 @@ public class MongoCollectionResource extends MongoResource {
             // if the current state id does not match the current id, then rename the collection.
             if ( state.id()!= null && !state.id().equals( this.id() ) ) {
                 // if there already exists a collection by this name, then throw an error
-                if ( getDBCollection().getDB().collectionExists( state.id() ) ) {
+                if ( root().collectionMetadataCache().exists( getDBCollection().getDB(), state.id() ) ) {
                     responder.resourceAlreadyExists( state.id() );
                     return;
                 }
 
+                String oldId = this.id();
                 this.dbCollection = getDBCollection().rename( state.id() );
+                root().collectionMetadataCache().invalidate( oldId );
+                root().collectionMetadataCache().invalidate( state.id() );
             }
 
             responder.resourceUpdated( this );
@@ -232,9 +419,13 @@ public class MongoCollectionResource extends MongoResource {
         return getDBCollection().findOne(getMongoID(id));
     }
 
+    protected RootMongoResource root() {
+        return (RootMongoResource) parent();
+    }
+
     protected DBCollection getDBCollection() {
         if (dbCollection == null) {
-            this.dbCollection = ((RootMongoResource) parent()).db().getCollection(collectionName);
+            this.dbCollection = root().db().getCollection(collectionName);
         }
 
         return this.dbCollection;
@@ -12,6 +12,9 @@ import com.mongodb.BasicDBList;
 import com.mongodb.BasicDBObject;
 import com.mongodb.DBObject;
 import com.mongodb.DBRef;
+import com.mongodb.WriteConcern;
+import io.liveoak.spi.RequestContext;
+import io.liveoak.spi.ResourceParams;
 import io.liveoak.spi.ResourceProcessingException;
 import io.liveoak.spi.resource.BlockingResource;
 import io.liveoak.spi.resource.async.Resource;
@@ -33,6 +36,11 @@ public abstract class MongoResource implements Resource, BlockingResource {
     protected static final String MBAAS_MONGO_OBJECT_ID_PREFIX = "ObjectId(\"";
     protected static final String MBAAS_MONGO_OBJECT_ID_SUFFIX = "\")";
 
+    /**
+     * Request parameter selecting the write concern by name, for instance 'unacknowledged' or 'journaled'.
+     */
+    public static final String WRITE_CONCERN_PARAM = "writeConcern";
+
     protected static final Logger log = Logger.getLogger("io.liveoak.mongo");
 
     public MongoResource(MongoResource parent) {
@@ -71,6 +79,23 @@ public abstract class MongoResource implements Resource, BlockingResource {
         }
     }
 
+    /**
+     * @return The write concern requested, or <code>null</code> to use the one configured for the client.
+     * @throws ResourceProcessingException If the requested write concern isn't known.
+     */
+    protected WriteConcern writeConcern(RequestContext ctx) throws ResourceProcessingException {
+        ResourceParams resourceParams = ctx.resourceParams();
+        if (resourceParams == null || !resourceParams.contains(WRITE_CONCERN_PARAM)) {
+            return null;
+        }
+        String name = resourceParams.value(WRITE_CONCERN_PARAM);
+        WriteConcern writeConcern = name != null ? WriteConcern.valueOf(name) : null;
+        if (writeConcern == null) {
+            throw new ResourceProcessingException("Invalid value for the '" + WRITE_CONCERN_PARAM + "' parameter: " + name);
+        }
+        return writeConcern;
+    }
+
     protected MongoObjectResource getResource(DBRef dbRef, boolean byReference) throws ResourceProcessingException {
         return parent.getResource(dbRef, byReference);
     }
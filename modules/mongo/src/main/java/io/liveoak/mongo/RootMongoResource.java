@@ -18,12 +18,17 @@ import io.liveoak.mongo.config.RootMongoConfigResource;
 import io.liveoak.spi.Pagination;
 import io.liveoak.spi.RequestContext;
 import io.liveoak.spi.ResourceProcessingException;
+import io.liveoak.spi.container.WorkerPool;
+import io.liveoak.spi.container.interceptor.InterceptorManager;
 import io.liveoak.spi.resource.RootResource;
+import io.liveoak.spi.resource.async.Notifier;
 import io.liveoak.spi.resource.async.PropertySink;
 import io.liveoak.spi.resource.async.Resource;
 import io.liveoak.spi.resource.async.ResourceSink;
 import io.liveoak.spi.resource.async.Responder;
 import io.liveoak.spi.state.ResourceState;
+import org.jboss.msc.inject.Injector;
+import org.jboss.msc.value.InjectedValue;
 
 /**
  * @author <a href="mailto:nscavell@redhat.com">Nick Scavelli</a>
@@ -34,6 +39,10 @@ public class RootMongoResource extends MongoResource implements RootResource {
     private Resource parent;
     private RootMongoConfigResource mongoConfigResource;
     private String id;
+    private final CollectionMetadataCache collectionMetadata = new CollectionMetadataCache();
+    private final InjectedValue<Notifier> notifier = new InjectedValue<>();
+    private final InjectedValue<InterceptorManager> interceptorManager = new InjectedValue<>();
+    private final InjectedValue<WorkerPool> workerPool = new InjectedValue<>();
 
     public RootMongoResource(String id) {
         super(null);
@@ -68,7 +77,52 @@ public class RootMongoResource extends MongoResource implements RootResource {
         return this.id;
     }
 
+    /**
+     * @return The cached metadata of a collection, or <code>null</code> if there is no such collection.
+     */
+    CollectionMetadataCache.Metadata collectionMetadata(String name) {
+        return this.collectionMetadata.get(db(), name);
+    }
+
+    CollectionMetadataCache collectionMetadataCache() {
+        return this.collectionMetadata;
+    }
+
+    public Injector<Notifier> notifierInjector() {
+        return this.notifier;
+    }
+
+    /**
+     * @return The notifier for changes made outside of a single resource response, or <code>null</code> if there is none.
+     */
+    Notifier notifier() {
+        return this.notifier.getOptionalValue();
+    }
+
+    public Injector<InterceptorManager> interceptorManagerInjector() {
+        return this.interceptorManager;
+    }
+
+    /**
+     * @return The manager running the operations of bulk writes through the interceptors, or <code>null</code> if there is none.
+     */
+    InterceptorManager interceptorManager() {
+        return this.interceptorManager.getOptionalValue();
+    }
+
+    public Injector<WorkerPool> workerPoolInjector() {
+        return this.workerPool;
+    }
+
+    /**
+     * @return The pool bulk writes continue on once their operations went through the interceptors, or <code>null</code> if there is none.
+     */
+    WorkerPool workerPool() {
+        return this.workerPool.getOptionalValue();
+    }
+
     public void destroy() {
+        this.collectionMetadata.shutdown();
         if (client() != null) {
             client().close();
         }
@@ -76,7 +130,7 @@ public class RootMongoResource extends MongoResource implements RootResource {
 
     @Override
     public void readMember(RequestContext ctx, String id, Responder responder) {
-        if (db().collectionExists(id)) {
+        if (this.collectionMetadata.exists(db(), id)) {
             responder.resourceRead(new MongoCollectionResource(this, db().getCollection(id)));
         } else {
             responder.noSuchResource(id);
@@ -106,7 +160,7 @@ public class RootMongoResource extends MongoResource implements RootResource {
 
         String id = state.id();
 
-        if (id == null || !db().collectionExists(id)) {
+        if (id == null || !this.collectionMetadata.exists(db(), id)) {
 
             if (id == null) {
                 id = UUID.randomUUID().toString();
@@ -135,6 +189,7 @@ public class RootMongoResource extends MongoResource implements RootResource {
             }
 
             DBCollection collection = db().createCollection(id, options); // send an empty DBOBject instead of null, since setting null will not actually create the collection until a write
+            this.collectionMetadata.invalidate(id);
 
             responder.resourceCreated(new MongoCollectionResource(this, collection));
         } else {
@@ -164,7 +219,7 @@ public class RootMongoResource extends MongoResource implements RootResource {
             }
 
             String collectionName = dbRef.getRef();
-            if (!db().collectionExists(collectionName)) {
+            if (!this.collectionMetadata.exists(db(), collectionName)) {
                 throw new ResourceProcessingException("Cannot find collection specified in a reference. No collection named '" + collectionName + "' found");
             }
 
@@ -4,10 +4,14 @@ import io.liveoak.mongo.RootMongoResource;
 import io.liveoak.mongo.config.RootMongoConfigResource;
 import io.liveoak.mongo.internal.InternalMongoService;
 import io.liveoak.spi.LiveOak;
+import io.liveoak.spi.container.WorkerPool;
+import io.liveoak.spi.container.interceptor.InterceptorManager;
 import io.liveoak.spi.extension.ApplicationExtensionContext;
 import io.liveoak.spi.extension.Extension;
 import io.liveoak.spi.extension.SystemExtensionContext;
 import io.liveoak.spi.resource.RootResource;
+import io.liveoak.spi.resource.async.Notifier;
+import org.jboss.msc.service.Service;
 import org.jboss.msc.service.ServiceName;
 import org.jboss.msc.service.ValueService;
 import org.jboss.msc.value.ImmediateValue;
@@ -43,6 +47,13 @@ public class MongoExtension implements Extension {
         RootMongoResource publicResource = new RootMongoResource(context.resourceId());
         RootMongoConfigResource privateResource = publicResource.configuration();
 
+        // the operations of bulk writes go through the interceptors, and are notified, outside of the response
+        context.target().addService(LiveOak.resource(context.application().id(), context.resourceId()).append("bulk"), Service.NULL)
+                .addDependency(LiveOak.NOTIFIER, Notifier.class, publicResource.notifierInjector())
+                .addDependency(LiveOak.INTERCEPTOR_MANAGER, InterceptorManager.class, publicResource.interceptorManagerInjector())
+                .addDependency(LiveOak.WORKER_POOL, WorkerPool.class, publicResource.workerPoolInjector())
+                .install();
+
         context.mountPublic(publicResource);
         context.mountPrivate(privateResource);
     }
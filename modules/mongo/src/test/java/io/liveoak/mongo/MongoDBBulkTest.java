@@ -0,0 +1,254 @@
+/*
+ * Copyright 2014 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.liveoak.mongo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.mongodb.BasicDBObject;
+import io.liveoak.common.DefaultResourceErrorResponse;
+import io.liveoak.common.codec.DefaultResourceState;
+import io.liveoak.spi.LiveOak;
+import io.liveoak.spi.NotAcceptableException;
+import io.liveoak.spi.RequestContext;
+import io.liveoak.spi.RequestType;
+import io.liveoak.spi.ResourceErrorResponse;
+import io.liveoak.spi.ResourceRequest;
+import io.liveoak.spi.container.interceptor.DefaultInterceptor;
+import io.liveoak.spi.container.interceptor.InboundInterceptorContext;
+import io.liveoak.spi.container.interceptor.Interceptor;
+import io.liveoak.spi.container.interceptor.InterceptorManager;
+import io.liveoak.spi.state.ResourceState;
+import org.fest.assertions.Fail;
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class MongoDBBulkTest extends BaseMongoDBTest {
+
+    @Test
+    public void testOrderedBulk() throws Exception {
+        String methodName = "testOrderedBulk";
+        db.getCollection(methodName).insert(new BasicDBObject("_id", "jim").append("name", "Jim"));
+        db.getCollection(methodName).insert(new BasicDBObject("_id", "sue").append("name", "Sue"));
+
+        ResourceState result = bulk(methodName, null,
+                operation("create", document("bob", "Bob")),
+                operation("create", document(null, "Anonymous")),
+                operation("update", document("jim", "James")),
+                operation("update", document("ann", "Ann")),
+                operation("delete", document("sue", null)));
+
+        assertThat(result.getProperty("ordered")).isEqualTo(true);
+        assertThat(result.getProperty("created")).isEqualTo(3L);
+        assertThat(result.getProperty("updated")).isEqualTo(1L);
+        assertThat(result.getProperty("deleted")).isEqualTo(1L);
+        assertThat(result.getProperty("failed")).isEqualTo(0);
+
+        List<ResourceState> results = results(result);
+        assertThat(results).hasSize(5);
+        assertThat(results.get(0).getProperty("id")).isEqualTo("bob");
+        assertThat(results.get(0).getProperty("status")).isEqualTo("created");
+        // the generated id is reported
+        assertThat(results.get(1).getProperty("id")).isNotNull();
+        assertThat(results.get(1).getProperty("status")).isEqualTo("created");
+        assertThat(results.get(2).getProperty("status")).isEqualTo("updated");
+        // updates of missing documents create them
+        assertThat(results.get(3).getProperty("status")).isEqualTo("created");
+        assertThat(results.get(4).getProperty("status")).isEqualTo("deleted");
+
+        // verify db content
+        assertThat(db.getCollection(methodName).getCount()).isEqualTo(4);
+        assertThat(db.getCollection(methodName).findOne(new BasicDBObject("_id", "jim")).get("name")).isEqualTo("James");
+        assertThat(db.getCollection(methodName).findOne(new BasicDBObject("_id", "ann")).get("name")).isEqualTo("Ann");
+        assertThat(db.getCollection(methodName).findOne(new BasicDBObject("_id", "sue"))).isNull();
+    }
+
+    @Test
+    public void testOrderedBulkStopsAtFailure() throws Exception {
+        String methodName = "testOrderedBulkStopsAtFailure";
+        db.getCollection(methodName).insert(new BasicDBObject("_id", "bob").append("name", "Bob"));
+
+        ResourceState result = bulk(methodName, true,
+                operation("create", document("jim", "Jim")),
+                operation("create", document("bob", "Robert")),
+                operation("create", document("sue", "Sue")));
+
+        assertThat(result.getProperty("failed")).isEqualTo(1);
+
+        List<ResourceState> results = results(result);
+        assertThat(results.get(0).getProperty("status")).isEqualTo("created");
+        assertThat(results.get(1).getProperty("status")).isEqualTo("failed");
+        assertThat(results.get(1).getProperty("error")).isNotNull();
+        assertThat(results.get(2).getProperty("status")).isEqualTo("skipped");
+
+        assertThat(db.getCollection(methodName).getCount()).isEqualTo(2);
+        assertThat(db.getCollection(methodName).findOne(new BasicDBObject("_id", "bob")).get("name")).isEqualTo("Bob");
+        assertThat(db.getCollection(methodName).findOne(new BasicDBObject("_id", "sue"))).isNull();
+    }
+
+    @Test
+    public void testUnorderedBulkContinuesAfterFailure() throws Exception {
+        String methodName = "testUnorderedBulkContinuesAfterFailure";
+        db.getCollection(methodName).insert(new BasicDBObject("_id", "bob").append("name", "Bob"));
+
+        ResourceState result = bulk(methodName, false,
+                operation("create", document("bob", "Robert")),
+                operation("delete", new DefaultResourceState()),
+                operation("create", document("sue", "Sue")));
+
+        assertThat(result.getProperty("ordered")).isEqualTo(false);
+        assertThat(result.getProperty("created")).isEqualTo(1L);
+        assertThat(result.getProperty("failed")).isEqualTo(2);
+
+        List<ResourceState> results = results(result);
+        assertThat(results.get(0).getProperty("status")).isEqualTo("failed");
+        // a delete without an id is refused before the bulk write
+        assertThat(results.get(1).getProperty("status")).isEqualTo("failed");
+        assertThat(results.get(1).getProperty("error")).isNotNull();
+        assertThat(results.get(2).getProperty("status")).isEqualTo("created");
+
+        assertThat(db.getCollection(methodName).getCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testDeleteMissingDocument() throws Exception {
+        String methodName = "testDeleteMissingDocument";
+        db.getCollection(methodName).insert(new BasicDBObject("_id", "bob").append("name", "Bob"));
+
+        ResourceState result = bulk(methodName, false,
+                operation("delete", document("jim", null)),
+                operation("delete", document("bob", null)));
+
+        assertThat(result.getProperty("deleted")).isEqualTo(1L);
+        assertThat(result.getProperty("failed")).isEqualTo(1);
+
+        List<ResourceState> results = results(result);
+        // nothing matched, so nothing is reported as deleted
+        assertThat(results.get(0).getProperty("status")).isEqualTo("failed");
+        assertThat(results.get(0).getProperty("error")).isNotNull();
+        assertThat(results.get(1).getProperty("status")).isEqualTo("deleted");
+
+        assertThat(db.getCollection(methodName).getCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testOperationsGoThroughInterceptors() throws Exception {
+        String methodName = "testOperationsGoThroughInterceptors";
+        db.getCollection(methodName).insert(new BasicDBObject("_id", "bob").append("name", "Bob"));
+
+        // refuses deletes, as a policy denying them would
+        Interceptor interceptor = new DefaultInterceptor() {
+            @Override
+            public void onInbound(InboundInterceptorContext context) throws Exception {
+                ResourceRequest request = context.request();
+                if (request.requestType() == RequestType.DELETE) {
+                    context.replyWith(new DefaultResourceErrorResponse(request, ResourceErrorResponse.ErrorType.FORBIDDEN));
+                } else {
+                    context.forward();
+                }
+            }
+        };
+        InterceptorManager interceptorManager = (InterceptorManager) this.system.service(LiveOak.INTERCEPTOR_MANAGER);
+        ResourceState interceptorsConfig = interceptorManager.getInterceptorsConfig();
+        ResourceState entry = new DefaultResourceState();
+        entry.putProperty("interceptor-name", "deny-deletes");
+        ResourceState config = new DefaultResourceState();
+        config.putProperty("local", Arrays.asList(entry));
+        interceptorManager.register("deny-deletes", interceptor);
+        interceptorManager.setInterceptorsConfig(config);
+
+        ResourceState result;
+        try {
+            result = bulk(methodName, false,
+                    operation("create", document("jim", "Jim")),
+                    operation("delete", document("bob", null)));
+        } finally {
+            interceptorManager.setInterceptorsConfig(interceptorsConfig);
+            interceptorManager.unregister(interceptor);
+        }
+
+        List<ResourceState> results = results(result);
+        assertThat(results.get(0).getProperty("status")).isEqualTo("created");
+        assertThat(results.get(1).getProperty("status")).isEqualTo("failed");
+
+        assertThat(db.getCollection(methodName).findOne(new BasicDBObject("_id", "bob"))).isNotNull();
+        assertThat(db.getCollection(methodName).getCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testReservedId() throws Exception {
+        String methodName = "testReservedId";
+        db.createCollection(methodName, new BasicDBObject());
+
+        try {
+            client.create(new RequestContext.Builder().build(), "/testApp/" + BASEPATH + "/" + methodName, document(MongoBulkResource.ID, "Bulk"));
+            Fail.fail();
+        } catch (NotAcceptableException e) {
+            // expected
+        }
+
+        ResourceState result = bulk(methodName, false,
+                operation("create", document(MongoBulkResource.ID, "Bulk")),
+                operation("update", document(MongoBulkResource.ID, "Bulk")));
+
+        List<ResourceState> results = results(result);
+        assertThat(results.get(0).getProperty("status")).isEqualTo("failed");
+        assertThat(results.get(1).getProperty("status")).isEqualTo("failed");
+
+        assertThat(db.getCollection(methodName).getCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testInvalidBulk() throws Exception {
+        String methodName = "testInvalidBulk";
+        db.createCollection(methodName, new BasicDBObject());
+
+        ResourceState state = new DefaultResourceState();
+        state.putProperty("operations", "create");
+
+        try {
+            client.create(new RequestContext.Builder().build(), "/testApp/" + BASEPATH + "/" + methodName + "/_bulk", state);
+            Fail.fail();
+        } catch (NotAcceptableException e) {
+            // expected
+        }
+        assertThat(db.getCollection(methodName).getCount()).isEqualTo(0);
+    }
+
+    protected ResourceState bulk(String collection, Boolean ordered, ResourceState... operations) throws Exception {
+        ResourceState state = new DefaultResourceState();
+        if (ordered != null) {
+            state.putProperty("ordered", ordered);
+        }
+        state.putProperty("operations", Arrays.asList(operations));
+        return client.create(new RequestContext.Builder().build(), "/testApp/" + BASEPATH + "/" + collection + "/_bulk", state);
+    }
+
+    protected ResourceState operation(String type, ResourceState document) {
+        ResourceState operation = new DefaultResourceState();
+        operation.putProperty(type, document);
+        return operation;
+    }
+
+    protected ResourceState document(String id, String name) {
+        ResourceState document = new DefaultResourceState(id);
+        if (name != null) {
+            document.putProperty("name", name);
+        }
+        return document;
+    }
+
+    protected List<ResourceState> results(ResourceState result) {
+        List<ResourceState> results = new ArrayList<>();
+        for (Object each : (List<?>) result.getProperty("results")) {
+            results.add((ResourceState) each);
+        }
+        return results;
+    }
+}
@@ -10,10 +10,13 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.fail;
 
+import java.net.URLDecoder;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import io.liveoak.common.DefaultReturnFields;
+import io.liveoak.common.codec.DefaultResourceState;
 import org.fest.assertions.Fail;
 import org.junit.Test;
 
@@ -489,6 +492,115 @@ public class MongoDBCollectionReadTest extends BaseMongoDBTest {
         assertThat(identity.getProperty("id")).isInstanceOf(String.class);
     }
 
+    @Test
+    public void testGetStorageCollectionsKeysetPagination() throws Exception {
+
+        DBCollection collection = db.getCollection("testKeysetCollection");
+        if (collection != null) {
+            collection.drop();
+        }
+        collection = db.createCollection("testKeysetCollection", new BasicDBObject("count", 0));
+
+        // insert data records for the test
+        setupPeopleData(collection);
+        assertThat(collection.count()).isEqualTo(6);
+
+        // pages of 2 ordered by lastName, the two Does are ordered by their _id
+        List<String> names = new LinkedList<>();
+        String after = null;
+        int pages = 0;
+        do {
+            RequestContext requestContext = new RequestContext.Builder()
+                    .returnFields(new DefaultReturnFields("*").withExpand("members"))
+                    .sorting(new Sorting("lastName"))
+                    .pagination(new SimplePagination(0, 2, after))
+                    .resourceParams(new SimpleResourceParams()).build();
+            ResourceState result = client.read(requestContext, "/testApp/" + BASEPATH + "/testKeysetCollection");
+
+            assertThat(result.members().size()).isEqualTo(2);
+            for (String name : getNames(result)) {
+                names.add(name);
+            }
+
+            after = getNextAfter(result);
+            ++pages;
+        } while (after != null && pages < 10);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(names).containsExactly("Jacqueline", "John", "Jane", "Hans", "Francois", "Helga");
+
+        // a token doesn't apply to another sort order
+        RequestContext requestContext = new RequestContext.Builder()
+                .returnFields(new DefaultReturnFields("*").withExpand("members"))
+                .sorting(new Sorting("lastName"))
+                .pagination(new SimplePagination(0, 2, null))
+                .resourceParams(new SimpleResourceParams()).build();
+        String token = getNextAfter(client.read(requestContext, "/testApp/" + BASEPATH + "/testKeysetCollection"));
+        assertThat(token).isNotNull();
+
+        try {
+            requestContext = new RequestContext.Builder()
+                    .returnFields(new DefaultReturnFields("*").withExpand("members"))
+                    .sorting(new Sorting("-lastName"))
+                    .pagination(new SimplePagination(0, 2, token))
+                    .resourceParams(new SimpleResourceParams()).build();
+            client.read(requestContext, "/testApp/" + BASEPATH + "/testKeysetCollection");
+            Fail.fail();
+        } catch (Exception e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testCollectionMetadataFollowsWrites() throws Exception {
+        String path = "/testApp/" + BASEPATH + "/testMetadataCollection";
+        client.create(new RequestContext.Builder().build(), "/testApp/" + BASEPATH, new DefaultResourceState("testMetadataCollection"));
+
+        ResourceState result = client.read(new RequestContext.Builder().build(), path);
+        assertThat(result.getProperty("count")).isEqualTo(0L);
+
+        // members created and deleted through LiveOak are counted without reloading the metadata
+        client.create(new RequestContext.Builder().build(), path, new DefaultResourceState("first"));
+        client.create(new RequestContext.Builder().build(), path, new DefaultResourceState("second"));
+        client.delete(new RequestContext.Builder().build(), path + "/first");
+        result = client.read(new RequestContext.Builder().build(), path);
+        assertThat(result.getProperty("count")).isEqualTo(1L);
+
+        // dropping the collection through LiveOak is seen right away
+        client.delete(new RequestContext.Builder().build(), path);
+        try {
+            client.read(new RequestContext.Builder().build(), path);
+            Fail.fail();
+        } catch (ResourceNotFoundException e) {
+            // expected
+        }
+
+        // as is a collection created outside of LiveOak
+        db.createCollection("testMetadataCollection", new BasicDBObject());
+        result = client.read(new RequestContext.Builder().build(), path);
+        assertThat(result.getProperty("count")).isEqualTo(0L);
+    }
+
+    private String getNextAfter(ResourceState result) throws Exception {
+        List links = (List) result.getProperty("links");
+        if (links == null) {
+            return null;
+        }
+        for (Object link : links) {
+            Object rel = link instanceof ResourceState ? ((ResourceState) link).getProperty("rel") : ((Map) link).get("rel");
+            Object href = link instanceof ResourceState ? ((ResourceState) link).getProperty("href") : ((Map) link).get("href");
+            if ("next".equals(rel)) {
+                String query = href.toString().substring(href.toString().indexOf('?') + 1);
+                for (String param : query.split("&")) {
+                    if (param.startsWith("after=")) {
+                        return URLDecoder.decode(param.substring("after=".length()), "UTF-8");
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
     private String[] getNames(ResourceState result) {
         List<String> ret = new LinkedList<>();
         for (ResourceState item : result.members()) {
@@ -501,10 +613,16 @@ public class MongoDBCollectionReadTest extends BaseMongoDBTest {
 
         int offset;
         int limit;
+        String after;
 
         public SimplePagination(int offset, int limit) {
+            this(offset, limit, null);
+        }
+
+        public SimplePagination(int offset, int limit, String after) {
             this.offset = offset;
             this.limit = limit;
+            this.after = after;
         }
 
         @Override
@@ -516,5 +634,10 @@ public class MongoDBCollectionReadTest extends BaseMongoDBTest {
         public int limit() {
             return limit;
         }
+
+        @Override
+        public String after() {
+            return after;
+        }
     }
 }
@@ -10,6 +10,7 @@ import com.mongodb.BasicDBList;
 import com.mongodb.BasicDBObject;
 import com.mongodb.DBObject;
 import io.liveoak.common.codec.DefaultResourceState;
+import io.liveoak.spi.NotAcceptableException;
 import io.liveoak.spi.RequestContext;
 import io.liveoak.spi.ResourceAlreadyExistsException;
 import io.liveoak.spi.state.ResourceState;
@@ -93,6 +94,61 @@ public class MongoDBResourceCreateTest extends BaseMongoDBTest {
         }
     }
 
+    @Test
+    public void testCreateWithWriteConcern() throws Exception {
+        String methodName = "testCreateWithWriteConcern";
+        assertFalse(db.collectionExists(methodName));
+        db.createCollection(methodName, new BasicDBObject());
+
+        SimpleResourceParams resourceParams = new SimpleResourceParams();
+        resourceParams.put(MongoResource.WRITE_CONCERN_PARAM, "fsynced");
+        RequestContext requestContext = new RequestContext.Builder().resourceParams(resourceParams).build();
+
+        ResourceState state = new DefaultResourceState("helloworld");
+        state.putProperty("foo", "bar");
+        ResourceState result = client.create(requestContext, "/testApp/" + BASEPATH + "/" + methodName, state);
+
+        // verify response
+        assertThat(result).isNotNull();
+        assertThat(result.id()).isEqualTo("helloworld");
+        assertThat(result.getProperty("foo")).isEqualTo("bar");
+
+        // verify what is stored in the mongo db
+        DBObject dbObject = db.getCollection(methodName).findOne(new BasicDBObject("_id", "helloworld"));
+        assertThat(dbObject.get("foo")).isEqualTo("bar");
+
+        // a duplicate is still reported with an explicit write concern
+        try {
+            client.create(requestContext, "/testApp/" + BASEPATH + "/" + methodName, state);
+            fail();
+        } catch (ResourceAlreadyExistsException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testCreateWithInvalidWriteConcern() throws Exception {
+        String methodName = "testCreateWithInvalidWriteConcern";
+        assertFalse(db.collectionExists(methodName));
+        db.createCollection(methodName, new BasicDBObject());
+
+        SimpleResourceParams resourceParams = new SimpleResourceParams();
+        resourceParams.put(MongoResource.WRITE_CONCERN_PARAM, "whenever");
+        RequestContext requestContext = new RequestContext.Builder().resourceParams(resourceParams).build();
+
+        ResourceState state = new DefaultResourceState();
+        state.putProperty("foo", "bar");
+
+        try {
+            client.create(requestContext, "/testApp/" + BASEPATH + "/" + methodName, state);
+            fail();
+        } catch (NotAcceptableException e) {
+            // expected
+        }
+
+        assertThat(db.getCollection(methodName).getCount()).isEqualTo(0);
+    }
+
     @Test
     public void testCreateWithArrays() throws Exception {
         String methodName = "testCreateWithArrays";
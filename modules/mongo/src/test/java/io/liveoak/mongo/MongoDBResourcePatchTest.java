@@ -0,0 +1,151 @@
+/*
+ * Copyright 2014 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.liveoak.mongo;
+
+import java.util.Arrays;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import io.liveoak.common.codec.DefaultResourceState;
+import io.liveoak.spi.NotAcceptableException;
+import io.liveoak.spi.RequestContext;
+import io.liveoak.spi.ResourceNotFoundException;
+import io.liveoak.spi.state.ResourceState;
+import org.fest.assertions.Fail;
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class MongoDBResourcePatchTest extends BaseMongoDBTest {
+
+    @Test
+    public void testSimplePatch() throws Exception {
+        String methodName = "testSimplePatch";
+        db.getCollection(methodName).insert(new BasicDBObject("_id", "bob")
+                .append("name", "Bob")
+                .append("email", "bob@example.com")
+                .append("dog", "Moses")
+                .append("address", new BasicDBObject("street", "100 East Davie Street").append("city", "Durham")));
+
+        ResourceState address = new DefaultResourceState();
+        address.putProperty("city", "Raleigh");
+
+        ResourceState patch = new DefaultResourceState();
+        patch.putProperty("name", "Bob McWhirter");
+        patch.putProperty("dog", null);
+        patch.putProperty("address", address);
+        patch.putProperty("tags", Arrays.asList("admin", "developer"));
+
+        ResourceState result = client.patch(new RequestContext.Builder().build(), "/testApp/" + BASEPATH + "/" + methodName + "/bob", patch);
+
+        // the response holds the merged document
+        assertThat(result).isNotNull();
+        assertThat(result.id()).isEqualTo("bob");
+        assertThat(result.getProperty("name")).isEqualTo("Bob McWhirter");
+        assertThat(result.getProperty("email")).isEqualTo("bob@example.com");
+        assertThat(result.getPropertyNames()).excludes("dog");
+        assertThat(((ResourceState) result.getProperty("address")).getProperty("street")).isEqualTo("100 East Davie Street");
+        assertThat(((ResourceState) result.getProperty("address")).getProperty("city")).isEqualTo("Raleigh");
+
+        // verify db content
+        DBObject dbObject = db.getCollection(methodName).findOne(new BasicDBObject("_id", "bob"));
+        assertThat(dbObject.get("name")).isEqualTo("Bob McWhirter");
+        assertThat(dbObject.get("email")).isEqualTo("bob@example.com");
+        assertThat(dbObject.containsField("dog")).isFalse();
+        assertThat(((DBObject) dbObject.get("address")).get("street")).isEqualTo("100 East Davie Street");
+        assertThat(((DBObject) dbObject.get("address")).get("city")).isEqualTo("Raleigh");
+        assertThat(dbObject.get("tags").toString()).isEqualTo("[ \"admin\" , \"developer\"]");
+    }
+
+    @Test
+    public void testPatchIncrement() throws Exception {
+        String methodName = "testPatchIncrement";
+        db.getCollection(methodName).insert(new BasicDBObject("_id", "page").append("views", 41));
+
+        ResourceState increment = new DefaultResourceState();
+        increment.putProperty("$inc", 1);
+        ResourceState patch = new DefaultResourceState();
+        patch.putProperty("views", increment);
+
+        ResourceState result = client.patch(new RequestContext.Builder().build(), "/testApp/" + BASEPATH + "/" + methodName + "/page", patch);
+        assertThat(result.getProperty("views")).isEqualTo(42);
+
+        client.patch(new RequestContext.Builder().build(), "/testApp/" + BASEPATH + "/" + methodName + "/page", patch);
+        assertThat(db.getCollection(methodName).findOne().get("views")).isEqualTo(43);
+    }
+
+    @Test
+    public void testPatchReplacesNonObjects() throws Exception {
+        String methodName = "testPatchReplacesNonObjects";
+        db.getCollection(methodName).insert(new BasicDBObject("_id", "page")
+                .append("views", 41)
+                .append("tags", Arrays.asList("news"))
+                .append("address", new BasicDBObject("street", "100 East Davie Street")));
+
+        ResourceState views = new DefaultResourceState();
+        views.putProperty("today", 3);
+        views.putProperty("yesterday", null);
+        ResourceState tags = new DefaultResourceState();
+        tags.putProperty("first", "news");
+
+        ResourceState patch = new DefaultResourceState();
+        patch.putProperty("views", views);
+        patch.putProperty("tags", tags);
+        patch.putProperty("author", new DefaultResourceState());
+        patch.putProperty("address", new DefaultResourceState());
+
+        ResourceState result = client.patch(new RequestContext.Builder().build(), "/testApp/" + BASEPATH + "/" + methodName + "/page", patch);
+        assertThat(((ResourceState) result.getProperty("views")).getProperty("today")).isEqualTo(3);
+
+        DBObject dbObject = db.getCollection(methodName).findOne(new BasicDBObject("_id", "page"));
+        // an object replaces a number or a list, without its null properties
+        assertThat(((DBObject) dbObject.get("views")).keySet()).containsOnly("today");
+        assertThat(((DBObject) dbObject.get("views")).get("today")).isEqualTo(3);
+        assertThat(((DBObject) dbObject.get("tags")).get("first")).isEqualTo("news");
+        // an empty object sets one where there was none, and leaves an existing one as it is
+        assertThat(((DBObject) dbObject.get("author")).keySet()).isEmpty();
+        assertThat(((DBObject) dbObject.get("address")).get("street")).isEqualTo("100 East Davie Street");
+    }
+
+    @Test
+    public void testPatchMissing() throws Exception {
+        String methodName = "testPatchMissing";
+        db.getCollection(methodName).insert(new BasicDBObject("_id", "bob"));
+
+        ResourceState patch = new DefaultResourceState();
+        patch.putProperty("name", "Bob");
+
+        // unlike update, patch doesn't create
+        try {
+            client.patch(new RequestContext.Builder().build(), "/testApp/" + BASEPATH + "/" + methodName + "/jim", patch);
+            Fail.fail();
+        } catch (ResourceNotFoundException e) {
+            // expected
+        }
+        assertThat(db.getCollection(methodName).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testInvalidPatch() throws Exception {
+        String methodName = "testInvalidPatch";
+        db.getCollection(methodName).insert(new BasicDBObject("_id", "page").append("views", 41));
+
+        ResourceState text = new DefaultResourceState();
+        text.putProperty("$inc", "one");
+        ResourceState patch = new DefaultResourceState();
+        patch.putProperty("views", text);
+
+        try {
+            client.patch(new RequestContext.Builder().build(), "/testApp/" + BASEPATH + "/" + methodName + "/page", patch);
+            Fail.fail();
+        } catch (NotAcceptableException e) {
+            // expected
+        }
+
+        assertThat(db.getCollection(methodName).findOne().get("views")).isEqualTo(41);
+    }
+}
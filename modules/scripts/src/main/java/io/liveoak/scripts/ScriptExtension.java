@@ -82,6 +82,7 @@ public class ScriptExtension implements Extension {
         context.target().addService(RESOURCE_SCRIPTS_SERVICE_NAME, resourceScriptsService)
                 .addDependency(RESOURCE_SCRIPT_MAP_SERVICE_NAME, ScriptMap.class, resourceScriptsService.scriptMapInjector)
                 .addDependency(LiveOak.VERTX, Vertx.class, resourceScriptsService.vertxInjector)
+                .addDependency(SCRIPT_INTERCEPTOR_SERVICE_NAME, ScriptInterceptor.class, resourceScriptsService.interceptorInjector)
                 .install();
 
 
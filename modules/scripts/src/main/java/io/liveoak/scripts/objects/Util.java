@@ -21,7 +21,6 @@ import io.liveoak.spi.ResourceAlreadyExistsException;
 import io.liveoak.spi.ResourceErrorResponse;
 import io.liveoak.spi.ResourceNotFoundException;
 import io.liveoak.spi.ResourceRequest;
-import io.liveoak.spi.ResourceResponse;
 import io.liveoak.spi.ReturnFields;
 import io.liveoak.spi.UpdateNotSupportedException;
 import io.liveoak.spi.ResourceException;
@@ -92,7 +91,7 @@ public class Util {
         return builder.toString();
     }
 
-    public static ResourceResponse getErrorResponse(ResourceRequest request, LiveOakException exception) {
+    public static ResourceErrorResponse getErrorResponse(ResourceRequest request, LiveOakException exception) {
         String message = exception.getMessage();
         ResourceErrorResponse.ErrorType errorType =  ResourceErrorResponse.ErrorType.INTERNAL_ERROR;
         if (exception instanceof LiveOakResourceAlreadyExistsException) {
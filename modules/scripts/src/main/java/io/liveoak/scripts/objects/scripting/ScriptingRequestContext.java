@@ -5,6 +5,7 @@ import io.liveoak.spi.Pagination;
 import io.liveoak.spi.RequestAttributes;
 import io.liveoak.spi.RequestContext;
 import io.liveoak.spi.RequestType;
+import io.liveoak.spi.RequestTrace;
 import io.liveoak.spi.ResourceParams;
 import io.liveoak.spi.ResourcePath;
 import io.liveoak.spi.ReturnFields;
@@ -91,6 +92,11 @@ public class ScriptingRequestContext implements RequestContext {
         this.sorting = sorting;
     }
 
+    @Override
+    public RequestTrace trace() {
+        return original.trace();
+    }
+
     @Override
     public void dispose() {
        original.dispose();
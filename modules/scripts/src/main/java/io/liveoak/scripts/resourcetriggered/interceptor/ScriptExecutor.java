@@ -0,0 +1,239 @@
+package io.liveoak.scripts.resourcetriggered.interceptor;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+import io.liveoak.common.util.LatencyHistogram;
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+/**
+ * Bounded pool which runs resource-triggered scripts off the I/O threads.
+ *
+ * <p>Every execution is given a wall-clock budget. Once it is exceeded the caller is
+ * completed with a {@link TimeoutException} and the worker is interrupted. Scripts
+ * which ignore the interrupt, such as a DynJS loop, keep their thread until they return,
+ * but their result is discarded. The pool is grown by a thread for each of them so that
+ * they don't take its capacity away, up to as many extra threads as the pool has.</p>
+ */
+public class ScriptExecutor {
+
+    public static final String THREADS_PROPERTY = "io.liveoak.scripts.threads";
+    public static final String QUEUE_SIZE_PROPERTY = "io.liveoak.scripts.queue-size";
+    public static final String TIMEOUT_PROPERTY = "io.liveoak.scripts.timeout-ms";
+
+    public static final int DEFAULT_QUEUE_SIZE = 1000;
+    public static final long DEFAULT_TIMEOUT = 5000;
+
+    public ScriptExecutor(int threads, int queueSize, long timeout, TimeUnit unit) {
+        this.threads = threads;
+        this.pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                new DefaultThreadFactory("liveoak-scripts", true),
+                new ThreadPoolExecutor.AbortPolicy());
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, new DefaultThreadFactory("liveoak-scripts-timer", true));
+        timer.setRemoveOnCancelPolicy(true);
+        this.timer = timer;
+        this.timeoutNanos = unit.toNanos(timeout);
+    }
+
+    /**
+     * Run the task and hand its result, or the failure, to the callback exactly once.
+     *
+     * <p>The callback receives a {@link RejectedExecutionException} if the pool is
+     * saturated, and a {@link TimeoutException} if the task ran over its budget.</p>
+     */
+    public <T> void execute(Callable<T> task, BiConsumer<T, Throwable> callback) {
+        Execution<T> execution = new Execution<>(task, callback);
+        try {
+            execution.future = this.pool.submit(execution);
+        } catch (RejectedExecutionException e) {
+            this.rejected.incrementAndGet();
+            execution.complete(null, e);
+            return;
+        }
+        if (this.timeoutNanos > 0) {
+            execution.timeout = this.timer.schedule(execution::timedOut, this.timeoutNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * @return true if the calling thread runs an execution which has run over its budget already.
+     */
+    public static boolean isTimedOut() {
+        Execution<?> execution = CURRENT.get();
+        return execution != null && execution.state.get() == ABANDONED;
+    }
+
+    public void shutdown() {
+        this.pool.shutdownNow();
+        this.timer.shutdownNow();
+    }
+
+    public int threads() {
+        return this.threads;
+    }
+
+    /**
+     * @return the number of timed out executions which still hold on to their thread.
+     */
+    public int stuck() {
+        return this.stuck.get();
+    }
+
+    public int queued() {
+        return this.pool.getQueue().size();
+    }
+
+    public int active() {
+        return this.pool.getActiveCount();
+    }
+
+    public long rejected() {
+        return this.rejected.get();
+    }
+
+    public long timedOut() {
+        return this.timedOut.get();
+    }
+
+    public long timeoutMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(this.timeoutNanos);
+    }
+
+    public LatencyHistogram queueWaitTimes() {
+        return this.queueWait;
+    }
+
+    public LatencyHistogram runTimes() {
+        return this.runTime;
+    }
+
+    private class Execution<T> implements Runnable {
+
+        Execution(Callable<T> task, BiConsumer<T, Throwable> callback) {
+            this.task = task;
+            this.callback = callback;
+        }
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            queueWait.record(start - this.submitted);
+            if (!this.state.compareAndSet(QUEUED, RUNNING)) {
+                // timed out while still waiting in the queue
+                return;
+            }
+
+            T result = null;
+            Throwable failure = null;
+            CURRENT.set(this);
+            try {
+                result = this.task.call();
+            } catch (Throwable t) {
+                failure = t;
+            } finally {
+                CURRENT.remove();
+                runTime.recordSince(start);
+                if (!this.state.compareAndSet(RUNNING, DONE)) {
+                    // the thread was replaced when the execution timed out, give it back
+                    stuck.decrementAndGet();
+                    resize();
+                }
+            }
+            complete(result, failure);
+        }
+
+        void timedOut() {
+            if (!claim()) {
+                return;
+            }
+            timedOut.incrementAndGet();
+            if (this.state.compareAndSet(RUNNING, ABANDONED)) {
+                stuck.incrementAndGet();
+                resize();
+            } else {
+                this.state.compareAndSet(QUEUED, DONE);
+            }
+            Future<?> future = this.future;
+            if (future != null) {
+                future.cancel(true);
+            }
+            this.callback.accept(null, new TimeoutException("Script execution exceeded " + timeoutMillis() + "ms"));
+        }
+
+        void complete(T result, Throwable failure) {
+            if (claim()) {
+                this.callback.accept(result, failure);
+            }
+        }
+
+        /**
+         * @return true if the calling thread is the one to complete the execution.
+         */
+        private boolean claim() {
+            if (!this.completed.compareAndSet(false, true)) {
+                return false;
+            }
+            ScheduledFuture<?> timeout = this.timeout;
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+            return true;
+        }
+
+        private final Callable<T> task;
+        private final BiConsumer<T, Throwable> callback;
+        private final long submitted = System.nanoTime();
+        private final AtomicBoolean completed = new AtomicBoolean();
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+        volatile Future<?> future;
+        volatile ScheduledFuture<?> timeout;
+    }
+
+    /**
+     * Size the pool for the executions which hold on to their thread after timing out, the excess
+     * threads go away once they're idle.
+     */
+    private void resize() {
+        synchronized (this.pool) {
+            int size = this.threads + Math.min(this.stuck.get(), this.threads);
+            if (size > this.pool.getMaximumPoolSize()) {
+                this.pool.setMaximumPoolSize(size);
+                this.pool.setCorePoolSize(size);
+            } else if (size < this.pool.getMaximumPoolSize()) {
+                this.pool.setCorePoolSize(size);
+                this.pool.setMaximumPoolSize(size);
+            }
+        }
+    }
+
+    private static final int QUEUED = 0;
+    private static final int RUNNING = 1;
+    private static final int DONE = 2;
+    private static final int ABANDONED = 3;
+
+    private static final ThreadLocal<Execution<?>> CURRENT = new ThreadLocal<>();
+
+    private final int threads;
+    private final ThreadPoolExecutor pool;
+    private final ScheduledExecutorService timer;
+    private final long timeoutNanos;
+
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final LatencyHistogram runTime = new LatencyHistogram();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicInteger stuck = new AtomicInteger();
+}
@@ -1,14 +1,19 @@
 package io.liveoak.scripts.resourcetriggered.interceptor;
 
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 
 import io.liveoak.common.DefaultResourceErrorResponse;
 import io.liveoak.scripts.objects.Util;
 import io.liveoak.scripts.objects.impl.exception.LiveOakException;
 import io.liveoak.scripts.resourcetriggered.manager.ResourceScriptManager;
+import io.liveoak.scripts.resourcetriggered.resource.Script;
 import io.liveoak.spi.Application;
 import io.liveoak.spi.ResourceErrorResponse;
 import io.liveoak.spi.ResourcePath;
@@ -18,6 +23,7 @@ import io.liveoak.spi.container.interceptor.DefaultInterceptor;
 import io.liveoak.spi.container.interceptor.InboundInterceptorContext;
 import io.liveoak.spi.container.interceptor.OutboundInterceptorContext;
 import org.dynjs.exception.ThrowException;
+import org.jboss.logging.Logger;
 
 /**
  * @author <a href="mailto:mwringe@redhat.com">Matt Wringe</a>
@@ -26,89 +32,92 @@ public class ScriptInterceptor extends DefaultInterceptor {
 
     Map<String, ResourceScriptManager> managers;
 
+    private final ScriptExecutor executor;
+
     private static final String DYNJS_ERROR_PREFIX = "Error: ";
 
-    public ScriptInterceptor() {
-        managers = new HashMap<>();
+    public ScriptInterceptor(ScriptExecutor executor) {
+        managers = new ConcurrentHashMap<>();
+        this.executor = executor;
+    }
+
+    public ScriptExecutor executor() {
+        return this.executor;
     }
 
     @Override
     public void onInbound(InboundInterceptorContext context) throws Exception {
+        String applicationName = getApplicationName(context.request());
+        ResourceScriptManager manager = managers.get(applicationName);
 
-        try {
-            String applicationName = getApplicationName(context.request());
-
-            ResourceScriptManager manager = managers.get(applicationName);
-
-            if (manager != null) {
-                Object reply = manager.executeScripts(context.request());
-                if (reply instanceof ResourceRequest) {
-                    context.forward((ResourceRequest) reply);
-                } else if (reply instanceof ResourceResponse) {
-                    context.replyWith((ResourceResponse) reply);
-                } else {
-                    context.forward();
-                }
-            }  else {
-                context.forward();
-            }
+        Set<Script> scripts = manager != null ? manager.scriptsFor(context.request()) : Collections.emptySet();
+        if (scripts.isEmpty()) {
+            context.forward();
+            return;
+        }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            String message = "Error processing request";
-            if (e.getMessage() != null && !e.getMessage().equals(DYNJS_ERROR_PREFIX)) {
-                message = e.getMessage();
-                if (message.startsWith(DYNJS_ERROR_PREFIX)) {
-                    message = message.substring(DYNJS_ERROR_PREFIX.length());
-                    context.replyWith(new DefaultResourceErrorResponse(context.request(), ResourceErrorResponse.ErrorType.INTERNAL_ERROR, message));
-                    return;
-                }
-            } else if (e instanceof ThrowException) {
-                Object value = ((ThrowException)e).getValue();
-                if (value instanceof LiveOakException) {
-                    context.replyWith(Util.getErrorResponse(context.request(), (LiveOakException)value));
-                    return;
-                }
+        // scripts may be slow, don't hold up the I/O thread while they run
+        executor.execute(() -> manager.executeScripts(context.request(), scripts), (reply, failure) -> {
+            if (failure != null) {
+                context.replyWith(errorResponse(context.request(), failure, "Error processing request"));
+            } else if (reply instanceof ResourceRequest) {
+                context.forward((ResourceRequest) reply);
+            } else if (reply instanceof ResourceResponse) {
+                context.replyWith((ResourceResponse) reply);
+            } else {
+                context.forward();
             }
-                context.replyWith(new DefaultResourceErrorResponse(context.request(), ResourceErrorResponse.ErrorType.INTERNAL_ERROR, message));
-
-        }
+        });
     }
 
     @Override
     public void onOutbound(OutboundInterceptorContext context) throws Exception {
+        String applicationName = getApplicationName(context.response().inReplyTo());
+        ResourceScriptManager manager = managers.get(applicationName);
+
+        Set<Script> scripts = manager != null ? manager.scriptsFor(context.response()) : Collections.emptySet();
+        if (scripts.isEmpty()) {
+            context.forward();
+            return;
+        }
 
-        try {
-            String applicationName = getApplicationName(context.response().inReplyTo());
-            ResourceScriptManager manager = managers.get(applicationName);
-            if (manager != null) {
-                Object reply = manager.executeScripts(context.response());
-                if (reply instanceof ResourceResponse) {
-                    context.forward((ResourceResponse) reply);
-                } else {
-                    context.forward();
-                }
+        executor.execute(() -> manager.executeScripts(context.response(), scripts), (reply, failure) -> {
+            if (failure != null) {
+                context.forward(errorResponse(context.response().inReplyTo(), failure, "Error processing response"));
+            } else if (reply instanceof ResourceResponse) {
+                context.forward((ResourceResponse) reply);
             } else {
                 context.forward();
             }
-        } catch (Exception e) {
-            e.printStackTrace();
-            String message = "Error processing response";
-            //TODO: remove the "Error: " check here, its because DynJS for some reason uses a crappy empty error message.
-            if (e.getMessage() != null && !e.getMessage().equals(DYNJS_ERROR_PREFIX)) {
-                message = e.getMessage();
-                if (message.startsWith(DYNJS_ERROR_PREFIX)) {
-                    message = message.substring(DYNJS_ERROR_PREFIX.length());
-                }
-            } else if (e instanceof ThrowException) {
-                Object value = ((ThrowException)e).getValue();
-                if (value instanceof LiveOakException) {
-                    context.forward(Util.getErrorResponse(context.response().inReplyTo(), (LiveOakException)value));
-                    return;
-                }
+        });
+    }
+
+    protected ResourceErrorResponse errorResponse(ResourceRequest request, Throwable t, String defaultMessage) {
+        if (t instanceof RejectedExecutionException) {
+            log.warn("Script execution rejected, the script pool is saturated: " + request.resourcePath());
+            return new DefaultResourceErrorResponse(request, ResourceErrorResponse.ErrorType.SERVICE_UNAVAILABLE, "Too many scripts pending execution");
+        }
+        if (t instanceof TimeoutException) {
+            // the script may well succeed once the load is lower, like a saturated pool this is temporary
+            log.warn("Script execution timed out: " + request.resourcePath());
+            return new DefaultResourceErrorResponse(request, ResourceErrorResponse.ErrorType.SERVICE_UNAVAILABLE, t.getMessage());
+        }
+
+        log.error("Error running script", t);
+        String message = defaultMessage;
+        //TODO: remove the "Error: " check here, its because DynJS for some reason uses a crappy empty error message.
+        if (t.getMessage() != null && !t.getMessage().equals(DYNJS_ERROR_PREFIX)) {
+            message = t.getMessage();
+            if (message.startsWith(DYNJS_ERROR_PREFIX)) {
+                message = message.substring(DYNJS_ERROR_PREFIX.length());
+            }
+        } else if (t instanceof ThrowException) {
+            Object value = ((ThrowException) t).getValue();
+            if (value instanceof LiveOakException) {
+                return Util.getErrorResponse(request, (LiveOakException) value);
             }
-            context.forward(new DefaultResourceErrorResponse(context.response().inReplyTo(), ResourceErrorResponse.ErrorType.INTERNAL_ERROR, message));
         }
+        return new DefaultResourceErrorResponse(request, ResourceErrorResponse.ErrorType.INTERNAL_ERROR, message);
     }
 
     @Override
@@ -116,6 +125,12 @@ public class ScriptInterceptor extends DefaultInterceptor {
         //currently do nothing.
     }
 
+    @Override
+    public boolean supportsStreamedMembers(ResourceRequest request) {
+        ResourceScriptManager manager = managers.get(getApplicationName(request));
+        return manager == null || !manager.hasScripts(request, ResourceResponse.ResponseType.READ);
+    }
+
     private String getApplicationName(ResourceRequest request) {
         //TODO: once we have the application actually being added to the requestContext remove getting the name from the ResourcePath
         List<ResourcePath.Segment> resourcePaths = request.resourcePath().segments();
@@ -140,4 +155,6 @@ public class ScriptInterceptor extends DefaultInterceptor {
     public void removeManager(String applicationName) {
         managers.remove(applicationName);
     }
+
+    private static final Logger log = Logger.getLogger(ScriptInterceptor.class);
 }
@@ -1,5 +1,7 @@
 package io.liveoak.scripts.resourcetriggered.interceptor;
 
+import java.util.concurrent.TimeUnit;
+
 import org.jboss.msc.service.Service;
 import org.jboss.msc.service.StartContext;
 import org.jboss.msc.service.StartException;
@@ -11,14 +13,22 @@ import org.jboss.msc.service.StopContext;
 public class ScriptInterceptorService implements Service<ScriptInterceptor> {
 
     private ScriptInterceptor serverScriptInterceptor;
+    private ScriptExecutor executor;
 
     @Override
     public void start(StartContext startContext) throws StartException {
-        this.serverScriptInterceptor = new ScriptInterceptor();
+        int threads = Integer.getInteger(ScriptExecutor.THREADS_PROPERTY, Runtime.getRuntime().availableProcessors());
+        int queueSize = Integer.getInteger(ScriptExecutor.QUEUE_SIZE_PROPERTY, ScriptExecutor.DEFAULT_QUEUE_SIZE);
+        long timeout = Long.getLong(ScriptExecutor.TIMEOUT_PROPERTY, ScriptExecutor.DEFAULT_TIMEOUT);
+
+        this.executor = new ScriptExecutor(threads, queueSize, timeout, TimeUnit.MILLISECONDS);
+        this.serverScriptInterceptor = new ScriptInterceptor(this.executor);
     }
 
     @Override
     public void stop(StopContext stopContext) {
+        this.executor.shutdown();
+        this.executor = null;
         this.serverScriptInterceptor = null;
     }
 
@@ -1,8 +1,10 @@
 package io.liveoak.scripts.resourcetriggered.manager;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
 
 import io.liveoak.common.DefaultResourceErrorResponse;
 import io.liveoak.scripts.libraries.manager.LibraryManager;
@@ -19,24 +21,46 @@ import io.liveoak.scripts.objects.impl.exception.LiveOakResourceAlreadyExistsExc
 import io.liveoak.scripts.objects.impl.exception.LiveOakResourceNotFoundException;
 import io.liveoak.scripts.objects.impl.exception.LiveOakUpdateNotSupportedException;
 import io.liveoak.scripts.objects.scripting.ScriptingResourceRequest;
+import io.liveoak.scripts.resourcetriggered.interceptor.ScriptExecutor;
 import io.liveoak.scripts.resourcetriggered.resource.Script;
 import io.liveoak.scripts.resourcetriggered.resource.ScriptMap;
 import io.liveoak.spi.RequestType;
 import io.liveoak.spi.ResourceErrorResponse;
 import io.liveoak.spi.ResourceRequest;
 import io.liveoak.spi.ResourceResponse;
-import org.dynjs.Config;
-import org.dynjs.runtime.DynJS;
-import org.dynjs.runtime.GlobalObject;
-import org.dynjs.runtime.Runner;
 
 /**
  * @author <a href="mailto:mwringe@redhat.com">Matt Wringe</a>
  */
 public class ResourceScriptManager {
 
+    public static final String MAX_IDLE_RUNTIMES_PROPERTY = "io.liveoak.scripts.max-idle-runtimes";
+
+    private static final int MAX_IDLE_RUNTIMES = Integer.getInteger(MAX_IDLE_RUNTIMES_PROPERTY, Runtime.getRuntime().availableProcessors() * 2);
+
+    //TODO: move this to a more common ScriptManager to be used by the Endpoint and Scheduled Scripts
+    private static final Map<String, Class> LIVEOAK_OBJECTS;
+
+    static {
+        Map<String, Class> liveoakMap = new HashMap<String, Class>();
+        liveoakMap.put("Resource", LiveOakResource.class);
+        liveoakMap.put("Error", LiveOakException.class);
+        liveoakMap.put("NotAcceptableError", LiveOakNotAcceptableException.class);
+        liveoakMap.put("ResourceAlreadyExistsError", LiveOakResourceAlreadyExistsException.class);
+        liveoakMap.put("UpdateNotSupportedError", LiveOakUpdateNotSupportedException.class);
+        liveoakMap.put("ReadNotSupportedError", LiveOakReadNotSupportedException.class);
+        liveoakMap.put("ResourceNotFoundError", LiveOakResourceNotFoundException.class);
+        liveoakMap.put("NotAuthorizedError", LiveOakNotAuthorizedException.class);
+        liveoakMap.put("DeleteNotSupportedError", LiveOakDeleteNotSupportedException.class);
+        liveoakMap.put("CreateNotSupportedError", LiveOakCreateNotSupportedException.class);
+        LIVEOAK_OBJECTS = Collections.unmodifiableMap(liveoakMap);
+    }
+
     private ScriptMap scriptMap;
 
+    // runtimes are cached per script instance; replaced scripts drop out on their own
+    private final Map<Script, ScriptRuntimePool> runtimePools = new WeakHashMap<>();
+
     LibraryManager libraryManager;
 
 
@@ -46,23 +70,19 @@ public class ResourceScriptManager {
     }
 
     public Object executeScripts(ResourceRequest request) {
+        return executeScripts(request, scriptsFor(request));
+    }
 
-        ScriptingResourceRequest scriptingRequest = new ScriptingResourceRequest(request);
-        String resourcePath = scriptingRequest.resourcePath().toString();
-        RequestType type = scriptingRequest.requestType();
+    public Object executeScripts(ResourceResponse response) throws Exception {
+        return executeScripts(response, scriptsFor(response));
+    }
 
-        Script.FUNCTIONS resourceFunction = Script.FUNCTIONS.PREREAD;
-        switch (type) {
-            case CREATE:
-                resourceFunction = Script.FUNCTIONS.PRECREATE;
-                break;
-            case UPDATE:
-                resourceFunction = Script.FUNCTIONS.PREUPDATE;
-                break;
-            case DELETE:
-                resourceFunction = Script.FUNCTIONS.PREDELETE;
-                break;
-        }
+    /**
+     * @return the scripts which are triggered by the request, highest priority first.
+     */
+    public Set<Script> scriptsFor(ResourceRequest request) {
+        String resourcePath = request.resourcePath().toString();
+        Script.FUNCTIONS resourceFunction = functionFor(request.requestType());
 
         Set<Script> scripts = scriptMap.getByTarget(resourcePath, resourceFunction, true);
 
@@ -71,39 +91,15 @@ public class ResourceScriptManager {
             scripts.addAll(scriptMap.getByPath(resourcePath + "/*")) ;
         }
 
-        for (Script script : scripts) {
-            Object reply = runScript(resourceFunction.getFunctionName(), script, scriptingRequest);
-            if (reply != null) {
-                return reply;
-            }
-        }
-
-        return scriptingRequest;
+        return scripts;
     }
 
-    public Object executeScripts(ResourceResponse response) throws Exception {
-
+    /**
+     * @return the scripts which are triggered by the response, highest priority first.
+     */
+    public Set<Script> scriptsFor(ResourceResponse response) {
         String resourcePath = response.inReplyTo().resourcePath().toString();
-        ResourceResponse.ResponseType type = response.responseType();
-
-        Script.FUNCTIONS resourceFunction = Script.FUNCTIONS.POSTREAD;
-        switch (type) {
-            case CREATED:
-                resourceFunction = Script.FUNCTIONS.POSTCREATE;
-                break;
-            case READ:
-                resourceFunction = Script.FUNCTIONS.POSTREAD;
-                break;
-            case UPDATED:
-                resourceFunction = Script.FUNCTIONS.POSTUPDATE;
-                break;
-            case DELETED:
-                resourceFunction = Script.FUNCTIONS.POSTDELETE;
-                break;
-            case ERROR:
-                resourceFunction = Script.FUNCTIONS.ONERROR;
-                break;
-        }
+        Script.FUNCTIONS resourceFunction = functionFor(response.responseType());
 
         Set<Script> scripts = scriptMap.getByTarget(resourcePath, resourceFunction, true);
 
@@ -112,103 +108,121 @@ public class ResourceScriptManager {
             scripts.addAll(scriptMap.getByPath(resourcePath + "/*")) ;
         }
 
+        return scripts;
+    }
+
+    /**
+     * @return true if there are scripts which would be triggered by a response of the type to the request.
+     */
+    public boolean hasScripts(ResourceRequest request, ResourceResponse.ResponseType responseType) {
+        return !scriptMap.getByTarget(request.resourcePath().toString(), functionFor(responseType), true).isEmpty();
+    }
+
+    public Object executeScripts(ResourceRequest request, Set<Script> scripts) {
+        ScriptingResourceRequest scriptingRequest = new ScriptingResourceRequest(request);
+        Script.FUNCTIONS resourceFunction = functionFor(scriptingRequest.requestType());
+
         for (Script script : scripts) {
-            Object reply = runScript(resourceFunction.getFunctionName(), script, response);
+            Object reply = runScript(resourceFunction.getFunctionName(), script, scriptingRequest);
             if (reply != null) {
                 return reply;
             }
         }
 
-        return null;
+        return scriptingRequest;
     }
 
-    protected Object runScript(String functionName, Script script, ResourceResponse resourceResponse) {
+    public Object executeScripts(ResourceResponse response, Set<Script> scripts) throws Exception {
+        Script.FUNCTIONS resourceFunction = functionFor(response.responseType());
 
-        Map<String, Object> library = new HashMap<>();
-
-        for (String libraryName : script.getLibraries()) {
-            library.put(libraryName, libraryManager.getLibrary(libraryName).object());
+        for (Script script : scripts) {
+            Object reply = runScript(resourceFunction.getFunctionName(), script, response);
+            if (reply != null) {
+                return reply;
+            }
         }
 
-        Config config = new Config();
-        config.setCompileMode(Config.CompileMode.OFF); //TODO: probably shouldn't be needed, check with a newer version of DynJS
-
-        DynJS dynJS = new DynJS(config);
-
-        GlobalObject globalObject = dynJS.getExecutionContext().getGlobalObject();
-        configureGlobalObject(globalObject);
-
-        dynJS.evaluate(script.getScriptBufferAsString());
+        return null;
+    }
 
-        String source = configureFunction(globalObject, functionName, new LiveOakResourceResponse(resourceResponse), library);
+    protected Script.FUNCTIONS functionFor(RequestType type) {
+        switch (type) {
+            case CREATE:
+                return Script.FUNCTIONS.PRECREATE;
+            case UPDATE:
+            case PATCH:
+                return Script.FUNCTIONS.PREUPDATE;
+            case DELETE:
+                return Script.FUNCTIONS.PREDELETE;
+        }
+        return Script.FUNCTIONS.PREREAD;
+    }
 
-        Runner runner = dynJS.newRunner();
-        runner.withSource(source);
+    protected Script.FUNCTIONS functionFor(ResourceResponse.ResponseType type) {
+        switch (type) {
+            case CREATED:
+                return Script.FUNCTIONS.POSTCREATE;
+            case READ:
+                return Script.FUNCTIONS.POSTREAD;
+            case UPDATED:
+                return Script.FUNCTIONS.POSTUPDATE;
+            case DELETED:
+                return Script.FUNCTIONS.POSTDELETE;
+            case ERROR:
+                return Script.FUNCTIONS.ONERROR;
+        }
+        return Script.FUNCTIONS.POSTREAD;
+    }
 
-        Object response = runner.evaluate();
+    protected Object runScript(String functionName, Script script, ResourceResponse resourceResponse) {
+        Object response = invoke(script, functionName, new LiveOakResourceResponse(resourceResponse), libraries(script));
         ScriptingResourceRequest request = new ScriptingResourceRequest(resourceResponse.inReplyTo());
         return handleResponse(response, request);
     }
 
     protected Object runScript(String functionName, Script script, ScriptingResourceRequest resourceRequest) {
+        Object response = invoke(script, functionName, new LiveOakResourceRequest(resourceRequest), libraries(script));
+        return handleResponse(response, resourceRequest);
+    }
+
+    protected Map<String, Object> libraries(Script script) {
         Map<String, Object> library = new HashMap<>();
 
-        for (String libraryName : script.getLibraries()) {
-            library.put(libraryName, libraryManager.getLibrary(libraryName).object());
+        if (script.getLibraries() != null) {
+            for (String libraryName : script.getLibraries()) {
+                library.put(libraryName, libraryManager.getLibrary(libraryName).object());
+            }
         }
 
-        Config config = new Config();
-        config.setCompileMode(Config.CompileMode.OFF); //TODO: probably shouldn't be needed, check with a newer version of DynJS
-
-        DynJS dynJS = new DynJS(config);
-
-        GlobalObject globalObject = dynJS.getExecutionContext().getGlobalObject();
-        configureGlobalObject(globalObject);
-
-        dynJS.evaluate(script.getScriptBufferAsString());
-
-        String source = configureFunction(globalObject, functionName, new LiveOakResourceRequest(resourceRequest), library);
-
-        Runner runner = dynJS.newRunner();
-        runner.withSource(source);
-
-        Object response = runner.evaluate();
-        return handleResponse(response, resourceRequest);
+        return library;
     }
 
-    protected String configureFunction(GlobalObject globalObject, String functionName, Object... args) {
-        //TODO: figure out the right approach to adding parameters to functions
-        String prefix = "__liveoak_" + functionName;
-
-        String source = functionName + "(" ;
-        for (int i = 0; i< args.length; i++) {
-            String argString = prefix + "_" + i;
-            globalObject.put(argString, args[i]);
+    protected Object invoke(Script script, String functionName, Object... args) {
+        ScriptRuntimePool pool = runtimePool(script);
 
-            source += argString;
-            if (i + 1 < args.length) {
-                source += ", ";
+        long start = System.nanoTime();
+        ScriptRuntimePool.ScriptRuntime runtime = pool.borrow();
+        try {
+            Object response = runtime.call(functionName, args);
+            // only runtimes which completed normally and in time are reused, anything else may have left the globals half-way
+            if (!ScriptExecutor.isTimedOut()) {
+                pool.release(runtime);
             }
+            return response;
+        } finally {
+            script.getExecutionTimes().recordSince(start);
         }
-
-        return source + ")";
     }
 
-    //TODO: move this to a more common ScriptManager to be used by the Endpoint and Scheduled Scripts
-    protected void configureGlobalObject(GlobalObject globalObject) {
-        Map<String, Class> liveoakMap = new HashMap<String, Class>();
-        liveoakMap.put("Resource", LiveOakResource.class);
-        liveoakMap.put("Error", LiveOakException.class);
-        liveoakMap.put("NotAcceptableError", LiveOakNotAcceptableException.class);
-        liveoakMap.put("ResourceAlreadyExistsError", LiveOakResourceAlreadyExistsException.class);
-        liveoakMap.put("UpdateNotSupportedError", LiveOakUpdateNotSupportedException.class);
-        liveoakMap.put("ReadNotSupportedError", LiveOakReadNotSupportedException.class);
-        liveoakMap.put("ResourceNotFoundError", LiveOakResourceNotFoundException.class);
-        liveoakMap.put("NotAuthorizedError", LiveOakNotAuthorizedException.class);
-        liveoakMap.put("DeleteNotSupportedError", LiveOakDeleteNotSupportedException.class);
-        liveoakMap.put("CreateNotSupportedError", LiveOakCreateNotSupportedException.class);
-
-        globalObject.put("liveoak", liveoakMap);
+    protected ScriptRuntimePool runtimePool(Script script) {
+        synchronized (this.runtimePools) {
+            ScriptRuntimePool pool = this.runtimePools.get(script);
+            if (pool == null || !pool.isCurrentFor(script)) {
+                pool = new ScriptRuntimePool(script, LIVEOAK_OBJECTS, MAX_IDLE_RUNTIMES);
+                this.runtimePools.put(script, pool);
+            }
+            return pool;
+        }
     }
 
     //TODO: move this to a util class or a more common ScriptManager class
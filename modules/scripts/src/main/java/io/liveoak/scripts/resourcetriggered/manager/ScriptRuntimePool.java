@@ -0,0 +1,180 @@
+package io.liveoak.scripts.resourcetriggered.manager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.liveoak.scripts.resourcetriggered.resource.Script;
+import org.dynjs.Config;
+import org.dynjs.runtime.DynJS;
+import org.dynjs.runtime.ExecutionContext;
+import org.dynjs.runtime.GlobalObject;
+import org.dynjs.runtime.JSFunction;
+import org.dynjs.runtime.PropertyDescriptor;
+import org.dynjs.runtime.Types;
+
+/**
+ * Pool of DynJS runtimes which have already evaluated a single script.
+ *
+ * <p>A runtime is only ever used by one thread at a time. Its globals are put back the way
+ * the script left them when it is released, so that a call doesn't see what an earlier one
+ * assigned to them. A pool is bound to the
+ * version of the script it was created from and has to be replaced once the script
+ * has been changed. It deliberately keeps no reference to the script itself so that
+ * it can be cached against it weakly.</p>
+ */
+public class ScriptRuntimePool {
+
+    public ScriptRuntimePool(Script script, Map<String, Class> liveoakObjects, int maxIdle) {
+        this.version = script.getVersion();
+        this.source = script.getScriptBufferAsString();
+        this.liveoakObjects = liveoakObjects;
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * @return true if the script has not been changed since this pool was created.
+     */
+    public boolean isCurrentFor(Script script) {
+        return this.version == script.getVersion();
+    }
+
+    public ScriptRuntime borrow() {
+        ScriptRuntime runtime = this.idle.poll();
+        if (runtime != null) {
+            this.idleCount.decrementAndGet();
+            return runtime;
+        }
+        this.created.incrementAndGet();
+        return new ScriptRuntime();
+    }
+
+    /**
+     * Hand a runtime back once a call completed normally. Runtimes which threw
+     * should simply be dropped since their global state is unknown.
+     */
+    public void release(ScriptRuntime runtime) {
+        if (!runtime.reset()) {
+            return;
+        }
+        if (this.idleCount.incrementAndGet() <= this.maxIdle) {
+            this.idle.offer(runtime);
+        } else {
+            this.idleCount.decrementAndGet();
+        }
+    }
+
+    public int idle() {
+        return this.idleCount.get();
+    }
+
+    public int created() {
+        return this.created.get();
+    }
+
+    public class ScriptRuntime {
+
+        ScriptRuntime() {
+            Config config = new Config();
+            config.setCompileMode(Config.CompileMode.OFF); //TODO: probably shouldn't be needed, check with a newer version of DynJS
+
+            this.dynJS = new DynJS(config);
+
+            GlobalObject globalObject = this.dynJS.getExecutionContext().getGlobalObject();
+            globalObject.put("liveoak", liveoakObjects);
+
+            this.dynJS.evaluate(source);
+
+            ExecutionContext context = this.dynJS.getExecutionContext();
+            for (String name : globalObject.getOwnPropertyNames().toList()) {
+                Object property = globalObject.getOwnProperty(context, name);
+                if (property instanceof PropertyDescriptor) {
+                    this.globals.put(name, copy((PropertyDescriptor) property));
+                }
+            }
+        }
+
+        /**
+         * Invoke a top-level function defined by the script.
+         *
+         * @return the function's return value, or null if the script does not define it
+         */
+        public Object call(String functionName, Object... args) {
+            ExecutionContext context = this.dynJS.getExecutionContext();
+            Object function = context.getGlobalObject().get(context, functionName);
+            if (!(function instanceof JSFunction)) {
+                return null;
+            }
+            return context.call((JSFunction) function, Types.UNDEFINED, args);
+        }
+
+        /**
+         * Remove the globals a call added and restore those it changed or deleted. Objects held by the
+         * globals are not copied, changes made to their members are kept.
+         *
+         * @return false if the globals could not be restored, the runtime must not be reused then
+         */
+        boolean reset() {
+            ExecutionContext context = this.dynJS.getExecutionContext();
+            GlobalObject globalObject = context.getGlobalObject();
+            for (String name : globalObject.getOwnPropertyNames().toList()) {
+                if (!this.globals.containsKey(name) && !globalObject.delete(context, name, false)) {
+                    return false;
+                }
+            }
+            for (Map.Entry<String, PropertyDescriptor> global : this.globals.entrySet()) {
+                String name = global.getKey();
+                PropertyDescriptor saved = global.getValue();
+                Object current = globalObject.getOwnProperty(context, name);
+                if (!(current instanceof PropertyDescriptor)) {
+                    if (!globalObject.defineOwnProperty(context, name, copy(saved), false)) {
+                        return false;
+                    }
+                } else if (saved.isDataDescriptor() && ((PropertyDescriptor) current).getValue() != saved.getValue()) {
+                    globalObject.put(context, name, saved.getValue(), false);
+                    if (((PropertyDescriptor) globalObject.getOwnProperty(context, name)).getValue() != saved.getValue()) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        private final DynJS dynJS;
+        // the globals as they were once the script was evaluated
+        private final Map<String, PropertyDescriptor> globals = new HashMap<>();
+    }
+
+    private static PropertyDescriptor copy(PropertyDescriptor descriptor) {
+        PropertyDescriptor copy = new PropertyDescriptor();
+        if (descriptor.hasValue()) {
+            copy.setValue(descriptor.getValue());
+        }
+        if (descriptor.hasWritable()) {
+            copy.setWritable(descriptor.isWritable());
+        }
+        if (descriptor.getGetter() instanceof JSFunction) {
+            copy.setGetter((JSFunction) descriptor.getGetter());
+        }
+        if (descriptor.getSetter() instanceof JSFunction) {
+            copy.setSetter((JSFunction) descriptor.getSetter());
+        }
+        if (descriptor.hasEnumerable()) {
+            copy.setEnumerable(descriptor.isEnumerable());
+        }
+        if (descriptor.hasConfigurable()) {
+            copy.setConfigurable(descriptor.isConfigurable());
+        }
+        return copy;
+    }
+
+    private final int version;
+    private final String source;
+    private final Map<String, Class> liveoakObjects;
+    private final int maxIdle;
+
+    private final ConcurrentLinkedQueue<ScriptRuntime> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final AtomicInteger created = new AtomicInteger();
+}
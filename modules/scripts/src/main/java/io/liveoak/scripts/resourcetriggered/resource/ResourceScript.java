@@ -29,6 +29,9 @@ public class ResourceScript implements Resource {
     protected static final String TARGET_PATH = "target-path";
     protected static final String PRIORITY = "priority";
 
+    // Read-only properties
+    protected static final String EXECUTION_TIMES = "execution-times";
+
     private ResourceScripts parent;
 
     // The script which this resource represents
@@ -131,6 +134,7 @@ public class ResourceScript implements Resource {
         sink.accept(TARGET_PATH, script.getTarget());
         sink.accept(PRIORITY, script.getPriority());
         sink.accept(LIBRARIES, script.getLibraries());
+        sink.accept(EXECUTION_TIMES, script.getExecutionTimes().summary());
         sink.close();
     }
 
@@ -1,5 +1,6 @@
 package io.liveoak.scripts.resourcetriggered.resource;
 
+import io.liveoak.scripts.resourcetriggered.interceptor.ScriptInterceptor;
 import org.jboss.msc.service.Service;
 import org.jboss.msc.service.StartContext;
 import org.jboss.msc.service.StartException;
@@ -16,7 +17,7 @@ public class ResourceScriptService implements Service<ResourceScripts> {
 
     @Override
     public void start(StartContext startContext) throws StartException {
-        this.resourceScripts = new ResourceScripts(scriptMapInjector.getValue(), vertxInjector.getValue());
+        this.resourceScripts = new ResourceScripts(scriptMapInjector.getValue(), vertxInjector.getValue(), interceptorInjector.getValue().executor());
     }
 
     @Override
@@ -33,4 +34,6 @@ public class ResourceScriptService implements Service<ResourceScripts> {
     public InjectedValue<ScriptMap> scriptMapInjector = new InjectedValue<>();
 
     public InjectedValue<Vertx> vertxInjector = new InjectedValue<>();
+
+    public InjectedValue<ScriptInterceptor> interceptorInjector = new InjectedValue<>();
 }
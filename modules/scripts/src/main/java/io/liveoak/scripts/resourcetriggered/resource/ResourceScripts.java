@@ -2,11 +2,14 @@ package io.liveoak.scripts.resourcetriggered.resource;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.liveoak.common.util.ConversionUtils;
 import io.liveoak.common.util.ObjectMapperFactory;
 import io.liveoak.scripts.resource.ScriptsRootResource;
+import io.liveoak.scripts.resourcetriggered.interceptor.ScriptExecutor;
 import io.liveoak.spi.InvalidPropertyTypeException;
 import io.liveoak.spi.RequestContext;
 import io.liveoak.spi.ResourceParams;
@@ -40,9 +43,12 @@ public class ResourceScripts implements Resource {
 
     File resourceDirectory;
 
-    public ResourceScripts(ScriptMap scriptMap, Vertx vertx) {
+    private ScriptExecutor executor;
+
+    public ResourceScripts(ScriptMap scriptMap, Vertx vertx, ScriptExecutor executor) {
         this.scripts = scriptMap;
         this.vertx = vertx;
+        this.executor = executor;
     }
 
     public void parent(ScriptsRootResource parent) {
@@ -126,6 +132,21 @@ public class ResourceScripts implements Resource {
         } else {
             sink.accept("count", scripts.size());
         }
+
+        // the executor is shared by every application
+        if (executor != null) {
+            Map<String, Object> execution = new LinkedHashMap<>();
+            execution.put("threads", executor.threads());
+            execution.put("active", executor.active());
+            execution.put("queued", executor.queued());
+            execution.put("rejected", executor.rejected());
+            execution.put("timeout-ms", executor.timeoutMillis());
+            execution.put("timed-out", executor.timedOut());
+            execution.put("stuck", executor.stuck());
+            execution.put("queue-wait", executor.queueWaitTimes().summary());
+            execution.put("run-time", executor.runTimes().summary());
+            sink.accept("execution", execution);
+        }
         sink.close();
     }
 
@@ -8,6 +8,7 @@ import java.util.List;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineFactory;
 
+import io.liveoak.common.util.LatencyHistogram;
 import io.netty.buffer.ByteBuf;
 import jdk.nashorn.api.scripting.NashornScriptEngineFactory;
 
@@ -26,7 +27,10 @@ public class Script{
 
     private ByteBuf scriptBuffer;   // the buffer which contains the script itself
 
-    private List<FUNCTIONS> provides; //List of functions the script provides.
+    private volatile List<FUNCTIONS> provides; //List of functions the script provides.
+
+    private volatile int version;   // bumped whenever the script source changes, invalidating cached runtimes
+    private final LatencyHistogram executionTimes = new LatencyHistogram();
 
     public static enum FUNCTIONS {
         PRECREATE("preCreate"),
@@ -164,7 +168,16 @@ public class Script{
 
     public void setScriptBuffer(ByteBuf scriptBuffer) {
         this.scriptBuffer = scriptBuffer;
-        analyseProvides();
+        this.provides = scriptBuffer != null ? analyseProvides() : new ArrayList<>();
+        this.version++;
+    }
+
+    public int getVersion() {
+        return this.version;
+    }
+
+    public LatencyHistogram getExecutionTimes() {
+        return this.executionTimes;
     }
 
     public int getPriority() {
@@ -179,7 +192,8 @@ public class Script{
         return this.provides;
     }
 
-    private void analyseProvides() {
+    private List<FUNCTIONS> analyseProvides() {
+        List<FUNCTIONS> provides = new ArrayList<>();
         ScriptEngineFactory nsef = new NashornScriptEngineFactory();
         ScriptEngine engine = nsef.getScriptEngine();
 
@@ -200,6 +214,7 @@ public class Script{
         } catch (Exception e) {
             e.printStackTrace();
         }
+        return provides;
     }
 
     private String generateCheck(String functionName) {
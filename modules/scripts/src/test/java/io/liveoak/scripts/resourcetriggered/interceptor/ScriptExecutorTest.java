@@ -0,0 +1,100 @@
+package io.liveoak.scripts.resourcetriggered.interceptor;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.fest.assertions.Fail.fail;
+
+public class ScriptExecutorTest {
+
+    @Test
+    public void testRunawayScriptDoesNotBlockTheNextOne() throws Exception {
+        ScriptExecutor executor = new ScriptExecutor(1, 10, 200, TimeUnit.MILLISECONDS);
+        AtomicBoolean stop = new AtomicBoolean();
+        CompletableFuture<Boolean> timedOut = new CompletableFuture<>();
+        try {
+            // like a DynJS loop, it doesn't notice the interrupt
+            CompletableFuture<Object> runaway = execute(executor, () -> {
+                while (!stop.get()) {
+                }
+                timedOut.complete(ScriptExecutor.isTimedOut());
+                return "late";
+            });
+            try {
+                runaway.get(5, TimeUnit.SECONDS);
+                fail("The script should have timed out");
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(TimeoutException.class);
+            }
+            assertThat(executor.stuck()).isEqualTo(1);
+
+            // the only thread is still taken, the next script runs on the one replacing it
+            assertThat(execute(executor, () -> "done").get(5, TimeUnit.SECONDS)).isEqualTo("done");
+
+            stop.set(true);
+            assertThat(timedOut.get(5, TimeUnit.SECONDS)).isTrue();
+            long deadline = System.currentTimeMillis() + 5000;
+            while (executor.stuck() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(executor.stuck()).isEqualTo(0);
+            assertThat(executor.timedOut()).isEqualTo(1L);
+        } finally {
+            stop.set(true);
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testStuckThreadsAreBounded() throws Exception {
+        ScriptExecutor executor = new ScriptExecutor(1, 10, 100, TimeUnit.MILLISECONDS);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            for (int i = 0; i < 3; ++i) {
+                try {
+                    execute(executor, () -> awaitUninterruptibly(release)).get(5, TimeUnit.SECONDS);
+                    fail("The script should have timed out");
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(TimeoutException.class);
+                }
+            }
+            // the first one got a replacement, the others waited for a thread until they timed out
+            assertThat(executor.stuck()).isEqualTo(2);
+            assertThat(executor.timedOut()).isEqualTo(3L);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private static CompletableFuture<Object> execute(ScriptExecutor executor, Callable<Object> task) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        executor.execute(task, (result, failure) -> {
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else {
+                future.complete(result);
+            }
+        });
+        return future;
+    }
+
+    private static Object awaitUninterruptibly(CountDownLatch latch) {
+        while (true) {
+            try {
+                latch.await();
+                return null;
+            } catch (InterruptedException e) {
+                // keep the thread, like a script would
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package io.liveoak.scripts.resourcetriggered.manager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+
+import io.liveoak.scripts.resourcetriggered.resource.Script;
+import io.netty.buffer.Unpooled;
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ScriptRuntimePoolTest {
+
+    private static final String SOURCE = "var calls = 0;\n" +
+            "function count() { calls = calls + 1; return calls; }\n" +
+            "function leak() { leaked = 'secret'; return typeof leaked; }\n" +
+            "function peek() { return typeof leaked; }\n" +
+            "shared = 'initial';\n" +
+            "function drop() { delete shared; return typeof shared; }\n" +
+            "function read() { return typeof shared; }\n";
+
+    @Test
+    public void testGlobalsDoNotLeakBetweenCalls() throws Exception {
+        Script script = new Script.Builder("test", "/testApp/storage")
+                .setScriptBuffer(Unpooled.copiedBuffer(SOURCE, StandardCharsets.UTF_8))
+                .build();
+        ScriptRuntimePool pool = new ScriptRuntimePool(script, new HashMap<>(), 1);
+
+        ScriptRuntimePool.ScriptRuntime runtime = pool.borrow();
+        assertThat(runtime.call("leak")).isEqualTo("string");
+        assertThat(((Number) runtime.call("count")).intValue()).isEqualTo(1);
+        pool.release(runtime);
+
+        // the same runtime, as the script left it
+        runtime = pool.borrow();
+        assertThat(pool.created()).isEqualTo(1);
+        assertThat(runtime.call("peek")).isEqualTo("undefined");
+        assertThat(((Number) runtime.call("count")).intValue()).isEqualTo(1);
+        assertThat(runtime.call("drop")).isEqualTo("undefined");
+        pool.release(runtime);
+
+        runtime = pool.borrow();
+        assertThat(pool.created()).isEqualTo(1);
+        assertThat(runtime.call("read")).isEqualTo("string");
+        pool.release(runtime);
+    }
+}
@@ -1,5 +1,6 @@
 package io.liveoak.security.policy.acl.extension;
 
+import io.liveoak.common.security.AuthzPolicyVersion;
 import io.liveoak.interceptor.service.InterceptorRegistrationHelper;
 import io.liveoak.mongo.internal.InternalStorage;
 import io.liveoak.mongo.internal.InternalStorageFactory;
@@ -50,6 +51,7 @@ public class SecurityACLPolicyExtension implements Extension {
         AclPolicyService policy = new AclPolicyService();
         target.addService(SecurityACLPolicyServices.policy(appId, context.resourceId()), policy)
                 .addDependency(mongoStorageServiceName, InternalStorage.class, policy.mongoStorageInjector())
+                .addDependency(LiveOak.authzPolicyVersion(appId), AuthzPolicyVersion.class, policy.policyVersionInjector())
                 .install();
 
         AclPolicyRootResourceService resource = new AclPolicyRootResourceService(context.resourceId());
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2014 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.liveoak.security.policy.acl.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.mongodb.DBObject;
+import io.liveoak.spi.RequestContext;
+import io.liveoak.spi.SecurityContext;
+
+/**
+ * In-memory copy of the ACL collection, indexed by resource path. Lists of entries for a single path are
+ * immutable and replaced on every change, so lookups don't need any locking.
+ */
+public class AceIndex {
+
+    private volatile Map<String, List<Ace>> aces = new ConcurrentHashMap<>();
+
+    public List<Ace> get(String resourcePath) {
+        List<Ace> result = this.aces.get(resourcePath);
+        return result != null ? result : Collections.emptyList();
+    }
+
+    /**
+     * Add an ACE, replacing the one with the same id if there's one already
+     */
+    public void add(DBObject dbObject) {
+        Ace ace = new Ace(dbObject);
+        this.aces.compute(ace.resourcePath, (path, current) -> {
+            List<Ace> updated = current != null ? new ArrayList<>(current) : new ArrayList<>(1);
+            updated.removeIf((existing) -> ace.id != null && ace.id.equals(existing.id));
+            updated.add(ace);
+            return Collections.unmodifiableList(updated);
+        });
+    }
+
+    public void removePath(String resourcePath) {
+        this.aces.remove(resourcePath);
+    }
+
+    /**
+     * Remove a single ACE, added from the given object
+     */
+    public void remove(DBObject dbObject) {
+        Object id = dbObject.get("_id");
+        this.aces.computeIfPresent((String) dbObject.get(AclPolicy.ACE_RESOURCE_PATH), (path, current) -> {
+            List<Ace> updated = new ArrayList<>(current);
+            updated.removeIf((ace) -> id != null && id.equals(ace.id));
+            return updated.isEmpty() ? null : Collections.unmodifiableList(updated);
+        });
+    }
+
+    /**
+     * Replace whole content of the index
+     */
+    public void reset(Iterable<DBObject> dbObjects) {
+        Map<String, List<Ace>> loaded = new ConcurrentHashMap<>();
+        for (DBObject dbObject : dbObjects) {
+            Ace ace = new Ace(dbObject);
+            loaded.computeIfAbsent(ace.resourcePath, (path) -> new ArrayList<>(1)).add(ace);
+        }
+        loaded.replaceAll((path, list) -> Collections.unmodifiableList(list));
+        this.aces = loaded;
+    }
+
+    /**
+     * Replace whole content of the index with the content of another one
+     *
+     * @return true if the content differs from the one replaced
+     */
+    public boolean replace(AceIndex index) {
+        Map<String, List<Ace>> previous = this.aces;
+        this.aces = index.aces;
+        if (previous.size() != index.aces.size()) {
+            return true;
+        }
+        for (Map.Entry<String, List<Ace>> entry : previous.entrySet()) {
+            List<Ace> replacement = index.aces.get(entry.getKey());
+            // Order of the entries doesn't matter to the decisions
+            if (replacement == null || replacement.size() != entry.getValue().size() || !replacement.containsAll(entry.getValue())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return this.aces.values().stream().mapToInt(List::size).sum();
+    }
+
+    public static class Ace {
+
+        private final Object id;
+        private final String resourcePath;
+        private final String realm;
+        private final String userId;
+        private final String roleName;
+        private final Set<String> actions;
+        private final boolean permitted;
+
+        Ace(DBObject dbObject) {
+            this.id = dbObject.get("_id");
+            this.resourcePath = (String) dbObject.get(AclPolicy.ACE_RESOURCE_PATH);
+            this.realm = (String) dbObject.get(AclPolicy.ACE_REALM);
+            this.userId = (String) dbObject.get(AclPolicy.ACE_USER_ID);
+            this.roleName = (String) dbObject.get(AclPolicy.ACE_ROLE_NAME);
+            this.permitted = Boolean.TRUE.equals(dbObject.get(AclPolicy.ACE_PERMITTED));
+
+            Set<String> actions = new HashSet<>();
+            Object dbActions = dbObject.get(AclPolicy.ACE_ACTIONS);
+            if (dbActions instanceof Collection) {
+                for (Object action : (Collection) dbActions) {
+                    actions.add(String.valueOf(action));
+                }
+            } else if (dbActions instanceof Object[]) {
+                for (Object action : (Object[]) dbActions) {
+                    actions.add(String.valueOf(action));
+                }
+            }
+            this.actions = actions;
+        }
+
+        public boolean isPermitted() {
+            return permitted;
+        }
+
+        public boolean isApplicable(RequestContext req) {
+            SecurityContext securityContext = req.securityContext();
+            if (!Objects.equals(securityContext.getRealm(), this.realm)) {
+                return false;
+            }
+            if (!this.actions.contains(req.requestType().toString()) && !this.actions.contains(req.requestType().general().toString())) {
+                return false;
+            }
+            if (this.userId != null && this.userId.equals(securityContext.getSubject())) {
+                return true;
+            }
+            return this.roleName != null && securityContext.getRoles() != null && securityContext.getRoles().contains(this.roleName);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Ace)) {
+                return false;
+            }
+            Ace other = (Ace) obj;
+            return Objects.equals(this.id, other.id) && Objects.equals(this.resourcePath, other.resourcePath)
+                    && Objects.equals(this.realm, other.realm) && Objects.equals(this.userId, other.userId)
+                    && Objects.equals(this.roleName, other.roleName) && this.actions.equals(other.actions)
+                    && this.permitted == other.permitted;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.id, this.resourcePath, this.realm, this.userId, this.roleName, this.actions, this.permitted);
+        }
+
+        @Override
+        public String toString() {
+            return new StringBuilder("Ace [ ")
+                    .append("resourcePath=").append(resourcePath)
+                    .append(", realm=").append(realm)
+                    .append(", userId=").append(userId)
+                    .append(", roleName=").append(roleName)
+                    .append(", actions=").append(actions)
+                    .append(", permitted=").append(permitted)
+                    .append(" ]").toString();
+        }
+    }
+}
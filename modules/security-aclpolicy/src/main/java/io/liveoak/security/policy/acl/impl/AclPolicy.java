@@ -6,25 +6,39 @@
 
 package io.liveoak.security.policy.acl.impl;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 import com.mongodb.BasicDBObject;
 import com.mongodb.DBCollection;
-import com.mongodb.DBCursor;
 import com.mongodb.DBObject;
 import io.liveoak.common.codec.DefaultResourceState;
 import io.liveoak.common.security.AuthzDecision;
+import io.liveoak.common.security.AuthzPolicyVersion;
 import io.liveoak.spi.RequestContext;
-import io.liveoak.spi.RequestType;
 import io.liveoak.spi.ResourcePath;
 import io.liveoak.spi.ResourceResponse;
 import io.liveoak.spi.SecurityContext;
 import io.liveoak.spi.state.ResourceState;
+import org.bson.types.ObjectId;
 import org.jboss.logging.Logger;
 
 /**
+ * Authorization based on ACEs stored in mongo collection.
+ *
+ * <p>All ACEs are kept in memory in {@link AceIndex}, so checks don't query mongo. Changes are applied to the
+ * index immediately and written to the collection in batches by a background thread. When more nodes share
+ * the collection, the index can be periodically reloaded from it. Mongo is never queried or written to while
+ * the index is locked.</p>
+ *
+ * <p>Writes which fail are retried with an increasing delay. Once they failed too many times, they are
+ * given up on and taken back out of the index, so it doesn't grant more than the collection does.</p>
+ *
  * @author <a href="mailto:mposolda@redhat.com">Marek Posolda</a>
  */
 public class AclPolicy {
@@ -33,6 +47,37 @@ public class AclPolicy {
 
     private final AtomicReference<AclPolicyConfig> policyConfig = new AtomicReference<>();
     private DBCollection aclCollection;
+    private final AuthzPolicyVersion policyVersion;
+
+    public static final String FLUSH_INTERVAL_PROPERTY = "io.liveoak.security.acl.flush-interval-ms";
+    public static final String BATCH_SIZE_PROPERTY = "io.liveoak.security.acl.batch-size";
+    public static final String REFRESH_INTERVAL_PROPERTY = "io.liveoak.security.acl.refresh-interval-ms";
+    public static final String MAX_ATTEMPTS_PROPERTY = "io.liveoak.security.acl.max-write-attempts";
+
+    public static final long DEFAULT_FLUSH_INTERVAL = 50;
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    public static final long DEFAULT_REFRESH_INTERVAL = 0;
+    public static final int DEFAULT_MAX_ATTEMPTS = 5;
+
+    // Longest delay before failed writes are retried
+    private static final long MAX_RETRY_DELAY = 30000;
+
+    private final AceIndex index = new AceIndex();
+
+    // Writes not yet sent to mongo. Guarded by the index lock, so that they can be replayed on top of reloaded index
+    private final List<PendingWrite> pending = new LinkedList<>();
+    private final Object indexLock = new Object();
+
+    // Writes done while the index is reloaded, which may or may not be in what was loaded. Guarded by the index lock
+    private List<PendingWrite> sinceSnapshot;
+
+    private final long flushInterval;
+    private final int batchSize;
+    private final int maxAttempts = Math.max(Integer.getInteger(MAX_ATTEMPTS_PROPERTY, DEFAULT_MAX_ATTEMPTS), 1);
+    private final ScheduledExecutorService writer;
+
+    // Failed writes are not retried before this time. Guarded by this
+    private long retryAt;
 
     public static final String ACE_REALM = "realm";
     public static final String ACE_USER_ID = "userId";
@@ -42,7 +87,49 @@ public class AclPolicy {
     public static final String ACE_PERMITTED = "permitted";
 
     public AclPolicy(DBCollection aclCollection) {
+        this(aclCollection, new AuthzPolicyVersion());
+    }
+
+    /**
+     * @param policyVersion version of the application's policies, bumped whenever the ACEs change
+     */
+    public AclPolicy(DBCollection aclCollection, AuthzPolicyVersion policyVersion) {
+        this(aclCollection, policyVersion, Long.getLong(FLUSH_INTERVAL_PROPERTY, DEFAULT_FLUSH_INTERVAL), Integer.getInteger(BATCH_SIZE_PROPERTY, DEFAULT_BATCH_SIZE),
+                Long.getLong(REFRESH_INTERVAL_PROPERTY, DEFAULT_REFRESH_INTERVAL));
+    }
+
+    public AclPolicy(DBCollection aclCollection, long flushInterval, int batchSize, long refreshInterval) {
+        this(aclCollection, new AuthzPolicyVersion(), flushInterval, batchSize, refreshInterval);
+    }
+
+    /**
+     * @param flushInterval delay of writes to mongo in milliseconds. Writes are synchronous if it's not positive
+     * @param refreshInterval interval of reloading the index from mongo in milliseconds. Index is never reloaded if it's not positive
+     */
+    public AclPolicy(DBCollection aclCollection, AuthzPolicyVersion policyVersion, long flushInterval, int batchSize, long refreshInterval) {
         this.aclCollection = aclCollection;
+        this.policyVersion = policyVersion;
+        this.flushInterval = flushInterval;
+        this.batchSize = Math.max(batchSize, 1);
+
+        this.index.reset(this.aclCollection.find());
+        log.debugf("Loaded %d ACEs", this.index.size());
+
+        if (flushInterval > 0 || refreshInterval > 0) {
+            this.writer = Executors.newSingleThreadScheduledExecutor((r) -> {
+                Thread thread = new Thread(r, "acl-writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            if (flushInterval > 0) {
+                this.writer.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+            }
+            if (refreshInterval > 0) {
+                this.writer.scheduleWithFixedDelay(this::refresh, refreshInterval, refreshInterval, TimeUnit.MILLISECONDS);
+            }
+        } else {
+            this.writer = null;
+        }
     }
 
     public void setPolicyConfig(AclPolicyConfig policyConfig) {
@@ -74,9 +161,13 @@ public class AclPolicy {
         ResourcePath deletedResourcePath = deletedResourceResponse.inReplyTo().resourcePath();
 
         // Delete all ACE entries for this resource
-        DBObject query = new BasicDBObject();
-        query.put(ACE_RESOURCE_PATH, deletedResourcePath.toString());
-        this.aclCollection.remove(query);
+        String path = deletedResourcePath.toString();
+        synchronized (this.indexLock) {
+            this.index.removePath(path);
+            enqueue(new PendingWrite(null, path));
+        }
+        this.policyVersion.bump(path);
+        writeIfSynchronous();
 
         log.debugf("Deleted ACEs for path: %s", deletedResourcePath);
         return deletedEntries;
@@ -89,7 +180,15 @@ public class AclPolicy {
         dbObject.put(ACE_RESOURCE_PATH, createdResourceURI);
         dbObject.put(ACE_ACTIONS, autoRuleConfig.getAutoAddedOwnerPermissions().toArray());
         dbObject.put(ACE_PERMITTED, true);
-        this.aclCollection.insert(dbObject);
+        // Id is assigned here, as the entry may reach mongo only later
+        dbObject.put("_id", new ObjectId());
+        synchronized (this.indexLock) {
+            this.index.add(dbObject);
+            enqueue(new PendingWrite(dbObject, null));
+        }
+        // Only decisions about the created resource can change
+        this.policyVersion.bump(createdResourceURI);
+        writeIfSynchronous();
 
         log.debug("Created ACE: " + dbObject);
 
@@ -100,44 +199,231 @@ public class AclPolicy {
         return createdState;
     }
 
+    /**
+     * Authorize more requests at once.
+     *
+     * @return decisions in the same order as the requests
+     */
+    public List<AuthzDecision> isAuthorized(List<RequestContext> reqs) {
+        List<AuthzDecision> decisions = new ArrayList<>(reqs.size());
+        for (RequestContext req : reqs) {
+            decisions.add(isAuthorized(req));
+        }
+        return decisions;
+    }
+
     public AuthzDecision isAuthorized(RequestContext req) {
-        RequestType reqType = req.requestType();
-        ResourcePath resourcePath = req.resourcePath();
-        SecurityContext securityContext = req.securityContext();
-
-        BasicDBObject query = new BasicDBObject();
-        query.put(ACE_REALM, securityContext.getRealm());
-        query.put(ACE_RESOURCE_PATH, resourcePath.toString());
-        query.put(ACE_ACTIONS, reqType.toString());
-
-        // Pass if we find rule for either "userId" or some of his roles
-        List<DBObject> userRolesCondition = new LinkedList<>();
-        userRolesCondition.add(new BasicDBObject(ACE_USER_ID, securityContext.getSubject()));
-        if (securityContext.getRoles() != null) {
-            for (String role : securityContext.getRoles()) {
-                userRolesCondition.add(new BasicDBObject(ACE_ROLE_NAME, role));
+        AuthzDecision decision = AuthzDecision.IGNORE;
+        for (AceIndex.Ace ace : this.index.get(req.resourcePath().toString())) {
+            if (ace.isApplicable(req)) {
+                // For now, always merge. No rule priorities...
+                decision = decision.mergeDecision(ace.isPermitted() ? AuthzDecision.ACCEPT : AuthzDecision.REJECT);
+
+                if (log.isTraceEnabled()) {
+                    log.trace("Found ACE: " + ace);
+                }
             }
         }
-        query.put("$or", userRolesCondition);
+        return decision;
+    }
 
-        if (log.isTraceEnabled()) {
-            log.trace("Sending ACE query: " + query);
+    /**
+     * Send all pending writes to mongo and stop background writes
+     */
+    public void close() {
+        if (this.writer != null) {
+            this.writer.shutdown();
+            try {
+                this.writer.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
         }
+        synchronized (this) {
+            // Last chance for writes waiting to be retried
+            this.retryAt = 0;
+        }
+        flush();
+    }
 
-        DBCursor results = this.aclCollection.find(query);
+    // Must be called with indexLock held
+    private void enqueue(PendingWrite write) {
+        this.pending.add(write);
+        if (this.sinceSnapshot != null) {
+            this.sinceSnapshot.add(write);
+        }
+    }
 
-        AuthzDecision decision = AuthzDecision.IGNORE;
-        for (DBObject result : results) {
-            boolean currentDec = (Boolean) result.get(ACE_PERMITTED);
+    // Synchronous writes are done by the caller, once it released the index lock
+    private void writeIfSynchronous() {
+        if (this.flushInterval <= 0) {
+            flush();
+        }
+    }
+
+    synchronized void flush() {
+        List<PendingWrite> batch;
+        synchronized (this.indexLock) {
+            if (this.pending.isEmpty() || System.currentTimeMillis() < this.retryAt) {
+                return;
+            }
+            batch = new ArrayList<>(this.pending);
+            this.pending.clear();
+        }
+        List<PendingWrite> failed = apply(batch);
+        if (this.flushInterval <= 0) {
+            // Nothing would retry them. Only the write which failed is given up on, the ones after it are still done
+            while (!failed.isEmpty()) {
+                giveUp(failed.subList(0, 1));
+                failed = apply(failed.subList(1, failed.size()));
+            }
+            return;
+        }
+        if (failed.isEmpty()) {
+            this.retryAt = 0;
+            return;
+        }
 
-            // For now, always merge. No rule priorities...
-            AuthzDecision currentDecision = currentDec ? AuthzDecision.ACCEPT : AuthzDecision.REJECT;
-            decision = decision.mergeDecision(currentDecision);
+        PendingWrite first = failed.get(0);
+        if (++first.failures >= this.maxAttempts) {
+            // Only the write which failed is given up on, the ones after it are retried
+            giveUp(failed.subList(0, 1));
+            failed = failed.subList(1, failed.size());
+        } else {
+            this.retryAt = System.currentTimeMillis() + Math.min(this.flushInterval << Math.min(first.failures, 20), MAX_RETRY_DELAY);
+        }
+        synchronized (this.indexLock) {
+            this.pending.addAll(0, failed);
+        }
+    }
 
-            if (log.isTraceEnabled()) {
-                log.trace("Found result: " + result);
+    /**
+     * @return writes which were not done, starting with the one which failed
+     */
+    private List<PendingWrite> apply(List<PendingWrite> writes) {
+        // Consecutive inserts are sent together. Deletes keep their order relative to inserts
+        List<DBObject> inserts = new ArrayList<>();
+        int done = 0;
+        try {
+            for (int i = 0; i < writes.size(); ++i) {
+                PendingWrite write = writes.get(i);
+                if (write.insert != null && !write.save) {
+                    inserts.add(write.insert);
+                    if (inserts.size() >= this.batchSize) {
+                        insert(inserts);
+                        done = i + 1;
+                    }
+                } else {
+                    insert(inserts);
+                    done = i;
+                    if (write.insert != null) {
+                        // May have reached mongo before the failure, saving it again is harmless
+                        this.aclCollection.save(write.insert);
+                    } else {
+                        this.aclCollection.remove(new BasicDBObject(ACE_RESOURCE_PATH, write.deletedPath));
+                    }
+                    done = i + 1;
+                }
             }
+            insert(inserts);
+            done = writes.size();
+        } catch (Throwable t) {
+            log.error("Failed to write ACEs", t);
         }
-        return decision;
+
+        List<PendingWrite> failed = new ArrayList<>(writes.subList(done, writes.size()));
+        if (!failed.isEmpty()) {
+            // The batch which failed may have been partly inserted, its inserts are saved one by one from now on
+            for (int i = 0; i < failed.size() && failed.get(i).insert != null; ++i) {
+                failed.get(i).save = true;
+            }
+        }
+        return failed;
+    }
+
+    private void insert(List<DBObject> inserts) {
+        if (!inserts.isEmpty()) {
+            this.aclCollection.insert(inserts);
+            log.debugf("Inserted %d ACEs", inserts.size());
+            inserts.clear();
+        }
+    }
+
+    private void giveUp(List<PendingWrite> writes) {
+        List<String> changedPaths = new ArrayList<>();
+        synchronized (this.indexLock) {
+            for (PendingWrite write : writes) {
+                if (this.sinceSnapshot != null) {
+                    this.sinceSnapshot.remove(write);
+                }
+                if (write.insert != null) {
+                    // The collection doesn't grant it, neither does the index
+                    this.index.remove(write.insert);
+                    changedPaths.add((String) write.insert.get(ACE_RESOURCE_PATH));
+                    log.errorf("Gave up writing ACE, it's no longer applied: %s", write.insert);
+                } else {
+                    log.errorf("Gave up deleting ACEs of %s, they are applied again once the index is reloaded", write.deletedPath);
+                }
+            }
+        }
+        changedPaths.forEach(this.policyVersion::bump);
+    }
+
+    /**
+     * Reload the index from mongo, so that changes done by other nodes are visible.
+     */
+    void refresh() {
+        try {
+            // Writes done from now on are replayed, the ones before are in mongo once flushed, or still pending
+            synchronized (this.indexLock) {
+                this.sinceSnapshot = new ArrayList<>();
+            }
+            flush();
+            AceIndex loaded = new AceIndex();
+            loaded.reset(this.aclCollection.find());
+
+            boolean changed;
+            synchronized (this.indexLock) {
+                // Replay writes which are not in mongo yet, and the ones done while loading. Replaying a write
+                // which was loaded already is harmless
+                for (PendingWrite write : this.pending) {
+                    replay(loaded, write);
+                }
+                for (PendingWrite write : this.sinceSnapshot) {
+                    replay(loaded, write);
+                }
+                changed = this.index.replace(loaded);
+            }
+            if (changed) {
+                this.policyVersion.bump();
+            }
+        } catch (Throwable t) {
+            log.error("Failed to refresh ACEs", t);
+        } finally {
+            synchronized (this.indexLock) {
+                this.sinceSnapshot = null;
+            }
+        }
+    }
+
+    private static void replay(AceIndex index, PendingWrite write) {
+        if (write.insert != null) {
+            index.add(write.insert);
+        } else {
+            index.removePath(write.deletedPath);
+        }
+    }
+
+    private static class PendingWrite {
+
+        PendingWrite(DBObject insert, String deletedPath) {
+            this.insert = insert;
+            this.deletedPath = deletedPath;
+        }
+
+        final DBObject insert;
+        final String deletedPath;
+        boolean save;
+        int failures;
     }
 }
@@ -1,5 +1,8 @@
 package io.liveoak.security.policy.acl.integration;
 
+import java.util.List;
+
+import io.liveoak.common.security.AuthzBatch;
 import io.liveoak.common.security.AuthzConstants;
 import io.liveoak.common.security.AuthzDecision;
 import io.liveoak.security.policy.acl.impl.AclPolicy;
@@ -37,6 +40,12 @@ public class AclPolicyCheckResource implements Resource {
 
     @Override
     public void readProperties(RequestContext ctx, PropertySink sink) throws Exception {
+        List<RequestContext> reqCtxsToAuthorize = AuthzBatch.requestContexts(ctx);
+        if (reqCtxsToAuthorize != null) {
+            AuthzBatch.writePolicyResults(ctx, reqCtxsToAuthorize, policy != null ? (reqCtxs, respStates) -> policy.isAuthorized(reqCtxs) : null, sink);
+            return;
+        }
+
         AuthzDecision decision = null;
 
         try {
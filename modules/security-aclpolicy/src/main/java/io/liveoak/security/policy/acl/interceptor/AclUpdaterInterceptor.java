@@ -12,6 +12,7 @@ import io.liveoak.security.policy.acl.AclPolicyConstants;
 import io.liveoak.spi.RequestAttributes;
 import io.liveoak.spi.RequestContext;
 import io.liveoak.spi.ResourcePath;
+import io.liveoak.spi.ResourceRequest;
 import io.liveoak.spi.ResourceResponse;
 import io.liveoak.spi.client.Client;
 import io.liveoak.spi.client.ClientResourceResponse;
@@ -66,4 +67,9 @@ public class AclUpdaterInterceptor extends DefaultInterceptor {
         }
     }
 
+    @Override
+    public boolean supportsStreamedMembers(ResourceRequest request) {
+        // only created and deleted resources are looked at
+        return true;
+    }
 }
@@ -7,6 +7,7 @@
 package io.liveoak.security.policy.acl.service;
 
 import com.mongodb.DBCollection;
+import io.liveoak.common.security.AuthzPolicyVersion;
 import io.liveoak.mongo.internal.InternalStorage;
 import io.liveoak.security.policy.acl.impl.AclPolicy;
 import org.jboss.msc.inject.Injector;
@@ -23,16 +24,18 @@ public class AclPolicyService implements Service<AclPolicy> {
 
     private AclPolicy aclPolicy;
     private final InjectedValue<InternalStorage> mongoStorageInjector = new InjectedValue<>();
+    private final InjectedValue<AuthzPolicyVersion> policyVersionInjector = new InjectedValue<>();
 
     @Override
     public void start(StartContext context) throws StartException {
         InternalStorage mongoStorage = this.mongoStorageInjector.getValue();
         DBCollection aclCollection = mongoStorage.getCollection();
-        this.aclPolicy = new AclPolicy(aclCollection);
+        this.aclPolicy = new AclPolicy(aclCollection, this.policyVersionInjector.getValue());
     }
 
     @Override
     public void stop(StopContext context) {
+        this.aclPolicy.close();
         this.aclPolicy = null;
     }
 
@@ -44,4 +47,8 @@ public class AclPolicyService implements Service<AclPolicy> {
     public Injector<InternalStorage> mongoStorageInjector() {
         return this.mongoStorageInjector;
     }
+
+    public Injector<AuthzPolicyVersion> policyVersionInjector() {
+        return this.policyVersionInjector;
+    }
 }
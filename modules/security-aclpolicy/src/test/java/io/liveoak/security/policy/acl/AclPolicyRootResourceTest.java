@@ -112,6 +112,29 @@ public class AclPolicyRootResourceTest extends AbstractResourceTestCase {
         assertAuthzDecision(testReq, AuthzDecision.ACCEPT);
     }
 
+    @Test
+    public void testTodomvcBatch() throws Exception {
+        sendCreateRequest("/testApp/mock-storage/todos", "123", "john123");
+        sendCreateRequest("/testApp/mock-storage/todos", "456", "john123");
+        sendCreateRequest("/testApp/mock-storage/todos", "789", "peter123");
+
+        List<RequestContext> testReqs = Arrays.asList(
+                AclPolicyTestCase.createRequestContext("/testApp/mock-storage/todos/123", "john123", RequestType.READ),
+                AclPolicyTestCase.createRequestContext("/testApp/mock-storage/todos/123", "john123", RequestType.CREATE),
+                AclPolicyTestCase.createRequestContext("/testApp/mock-storage/todos/456", "peter123", RequestType.READ),
+                AclPolicyTestCase.createRequestContext("/testApp/mock-storage/todos/789", "john123", RequestType.READ),
+                AclPolicyTestCase.createRequestContext("/testApp/mock-storage/todos/789", "peter123", RequestType.READ),
+                AclPolicyTestCase.createRequestContext("/testApp/mock-storage/todos/unknown", "john123", RequestType.READ));
+
+        RequestAttributes attribs = new DefaultRequestAttributes();
+        attribs.setAttribute(AuthzConstants.ATTR_REQUEST_CONTEXTS, testReqs);
+        RequestContext reqCtx = new RequestContext.Builder().requestAttributes(attribs).build();
+        ResourceState state = client.read(reqCtx, "/testApp/acl-policy/authzCheck");
+
+        List<String> decisions = (List<String>) state.getProperty(AuthzConstants.ATTR_AUTHZ_POLICY_RESULTS);
+        Assert.assertEquals(Arrays.asList("ACCEPT", "IGNORE", "IGNORE", "IGNORE", "ACCEPT", "IGNORE"), decisions);
+    }
+
     @Test
     public void testTodomvcDelete() throws Exception {
         sendCreateRequest("/testApp/mock-storage/todos", "123", "john123");
@@ -11,6 +11,7 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 
+import com.mongodb.BasicDBObject;
 import com.mongodb.DB;
 import com.mongodb.MongoClient;
 import com.mongodb.WriteConcern;
@@ -18,6 +19,7 @@ import io.liveoak.common.DefaultResourceRequest;
 import io.liveoak.common.DefaultResourceResponse;
 import io.liveoak.common.DefaultSecurityContext;
 import io.liveoak.common.security.AuthzDecision;
+import io.liveoak.common.security.AuthzPolicyVersion;
 import io.liveoak.security.policy.acl.impl.AclPolicy;
 import io.liveoak.security.policy.acl.impl.AclPolicyConfig;
 import io.liveoak.security.policy.acl.impl.AclPolicyConfigurator;
@@ -44,6 +46,7 @@ public class AclPolicyTestCase extends AbstractTestCase {
     private final Logger log = Logger.getLogger(AclPolicyTestCase.class);
 
     private AclPolicy aclPolicy;
+    private AclPolicyConfig config;
     private MockAclTestStorageResource mockResource = new MockAclTestStorageResource("storage");
     private MongoClient mongoClient;
     private DB db;
@@ -60,7 +63,7 @@ public class AclPolicyTestCase extends AbstractTestCase {
         // User can read his own chat messages. No update or delete them
         autoRules.add(createRule("/storage/chat", RequestType.READ.toString()));
 
-        AclPolicyConfig config = new AclPolicyConfig();
+        config = new AclPolicyConfig();
         config.setAutoRules(autoRules);
         this.aclPolicy = new AclPolicy(db.getCollection("acl"));
         new AclPolicyConfigurator().configure(aclPolicy, config);
@@ -170,6 +173,103 @@ public class AclPolicyTestCase extends AbstractTestCase {
         Assert.assertEquals(AuthzDecision.ACCEPT, aclPolicy.isAuthorized(testReq));
     }
 
+    @Test
+    public void testSharedCollection() throws Exception {
+        aclPolicy.autocreateAce( createResourceResponse("/storage/todos", "123", "john123"));
+        aclPolicy.autocreateAce( createResourceResponse("/storage/todos", "456", "john123"));
+
+        // Entries are written in background, closing the policy flushes them
+        aclPolicy.close();
+        Assert.assertEquals(2, db.getCollection("acl").count());
+
+        // Another node sharing the collection loads existing entries and picks up later changes on refresh
+        AclPolicy otherNode = new AclPolicy(db.getCollection("acl"), 0, 10, 50);
+        new AclPolicyConfigurator().configure(otherNode, config);
+        try {
+            RequestContext testReq = createRequestContext("/storage/todos/123", "john123", RequestType.READ);
+            Assert.assertEquals(AuthzDecision.ACCEPT, otherNode.isAuthorized(testReq));
+
+            db.getCollection("acl").remove(new BasicDBObject(AclPolicy.ACE_RESOURCE_PATH, "/storage/todos/123"));
+            long timeout = System.currentTimeMillis() + 5000;
+            while (otherNode.isAuthorized(testReq) != AuthzDecision.IGNORE && System.currentTimeMillis() < timeout) {
+                Thread.sleep(20);
+            }
+            Assert.assertEquals(AuthzDecision.IGNORE, otherNode.isAuthorized(testReq));
+
+            testReq = createRequestContext("/storage/todos/456", "john123", RequestType.READ);
+            Assert.assertEquals(AuthzDecision.ACCEPT, otherNode.isAuthorized(testReq));
+
+            // Written synchronously with zero flush interval
+            otherNode.autocreateAce( createResourceResponse("/storage/todos", "789", "peter123"));
+            Assert.assertEquals(2, db.getCollection("acl").count());
+        } finally {
+            otherNode.close();
+        }
+    }
+
+    @Test
+    public void testPolicyVersion() throws Exception {
+        AuthzPolicyVersion policyVersion = new AuthzPolicyVersion();
+        AclPolicy otherNode = new AclPolicy(db.getCollection("acl"), policyVersion, 0, 10, 50);
+        new AclPolicyConfigurator().configure(otherNode, config);
+        try {
+            // A created entry only concerns its own resource
+            long version = policyVersion.current();
+            long pathVersion = policyVersion.current("/storage/todos/123");
+            otherNode.autocreateAce( createResourceResponse("/storage/todos", "123", "john123"));
+            Assert.assertEquals(version, policyVersion.current());
+            Assert.assertNotEquals(pathVersion, policyVersion.current("/storage/todos/123"));
+
+            // Reloading the same entries changes nothing
+            Thread.sleep(200);
+            Assert.assertEquals(version, policyVersion.current());
+
+            db.getCollection("acl").remove(new BasicDBObject(AclPolicy.ACE_RESOURCE_PATH, "/storage/todos/123"));
+            long timeout = System.currentTimeMillis() + 5000;
+            while (policyVersion.current() == version && System.currentTimeMillis() < timeout) {
+                Thread.sleep(20);
+            }
+            Assert.assertNotEquals(version, policyVersion.current());
+        } finally {
+            otherNode.close();
+        }
+    }
+
+    @Test
+    public void testFailedWrites() throws Exception {
+        // Entries of a resource already taken by john can't be written for anybody else
+        db.getCollection("acl").createIndex(new BasicDBObject(AclPolicy.ACE_RESOURCE_PATH, 1), new BasicDBObject("unique", true));
+        db.getCollection("acl").insert(new BasicDBObject(AclPolicy.ACE_RESOURCE_PATH, "/storage/todos/123")
+                .append(AclPolicy.ACE_REALM, "liveoak-apps")
+                .append(AclPolicy.ACE_USER_ID, "john123")
+                .append(AclPolicy.ACE_ACTIONS, Arrays.asList(RequestType.READ.toString()))
+                .append(AclPolicy.ACE_PERMITTED, true));
+
+        AclPolicy failingNode = new AclPolicy(db.getCollection("acl"), 10, 10, 0);
+        new AclPolicyConfigurator().configure(failingNode, config);
+        try {
+            failingNode.autocreateAce( createResourceResponse("/storage/todos", "456", "john123"));
+            failingNode.autocreateAce( createResourceResponse("/storage/todos", "123", "peter123"));
+
+            // Applied right away, until the write of the entry is given up on
+            RequestContext testReq = createRequestContext("/storage/todos/123", "peter123", RequestType.READ);
+            long timeout = System.currentTimeMillis() + 5000;
+            while (failingNode.isAuthorized(testReq) != AuthzDecision.IGNORE && System.currentTimeMillis() < timeout) {
+                Thread.sleep(20);
+            }
+            Assert.assertEquals(AuthzDecision.IGNORE, failingNode.isAuthorized(testReq));
+
+            // Other entries are not affected
+            testReq = createRequestContext("/storage/todos/123", "john123", RequestType.READ);
+            Assert.assertEquals(AuthzDecision.ACCEPT, failingNode.isAuthorized(testReq));
+            testReq = createRequestContext("/storage/todos/456", "john123", RequestType.READ);
+            Assert.assertEquals(AuthzDecision.ACCEPT, failingNode.isAuthorized(testReq));
+            Assert.assertEquals(2, db.getCollection("acl").count());
+        } finally {
+            failingNode.close();
+        }
+    }
+
     private ResourceResponse createResourceResponse(String parentResourcePath, String resourceId, String subject, String... roles) {
         RequestContext reqContext = createRequestContext(parentResourcePath, subject, RequestType.CREATE, roles);
 
@@ -1,17 +1,17 @@
 package io.liveoak.security.policy.drools.extension;
 
+import io.liveoak.common.security.AuthzPolicyVersion;
 import io.liveoak.security.policy.drools.DroolsPolicyServices;
 import io.liveoak.security.policy.drools.impl.DroolsPolicy;
 import io.liveoak.security.policy.drools.service.DroolsPolicyConfigResourceService;
 import io.liveoak.security.policy.drools.service.DroolsPolicyResourceService;
+import io.liveoak.security.policy.drools.service.DroolsPolicyService;
 import io.liveoak.spi.LiveOak;
 import io.liveoak.spi.extension.ApplicationExtensionContext;
 import io.liveoak.spi.extension.Extension;
 import io.liveoak.spi.extension.SystemExtensionContext;
 import io.liveoak.spi.resource.async.DefaultRootResource;
 import org.jboss.msc.service.ServiceTarget;
-import org.jboss.msc.service.ValueService;
-import org.jboss.msc.value.ImmediateValue;
 
 /**
  * @author Bob McWhirter
@@ -29,8 +29,9 @@ public class DroolsPolicyExtension implements Extension {
 
         ServiceTarget target = context.target();
 
-        DroolsPolicy policy = new DroolsPolicy();
-        target.addService(DroolsPolicyServices.policy(appId, context.resourceId()), new ValueService<>(new ImmediateValue<>(policy)))
+        DroolsPolicyService policy = new DroolsPolicyService();
+        target.addService(DroolsPolicyServices.policy(appId, context.resourceId()), policy)
+                .addDependency(LiveOak.authzPolicyVersion(appId), AuthzPolicyVersion.class, policy.policyVersionInjector())
                 .install();
 
         DroolsPolicyResourceService resource = new DroolsPolicyResourceService(context.resourceId());
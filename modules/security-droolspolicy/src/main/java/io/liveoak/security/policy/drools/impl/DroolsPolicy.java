@@ -5,18 +5,23 @@
  */
 package io.liveoak.security.policy.drools.impl;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
 
 import io.liveoak.common.codec.DefaultResourceState;
 import io.liveoak.common.security.AuthzDecision;
+import io.liveoak.common.security.AuthzPolicyVersion;
 import io.liveoak.spi.RequestContext;
 import io.liveoak.spi.state.ResourceState;
+import org.drools.FactHandle;
 import org.drools.RuleBase;
-import org.drools.WorkingMemory;
+import org.drools.StatefulSession;
 import org.jboss.logging.Logger;
 
 /**
- * Policy for authorization of resources based on drools engine
+ * Policy for authorization of resources based on drools engine. Sessions are pooled per rule base
+ * and replaced together with it.
  *
  * @author <a href="mailto:mposolda@redhat.com">Marek Posolda</a>
  */
@@ -24,14 +29,40 @@ public class DroolsPolicy {
 
     private static final Logger log = Logger.getLogger(DroolsPolicy.class);
 
-    private AtomicReference<RuleBase> ruleBase = new AtomicReference<>();
+    public static final String MAX_IDLE_SESSIONS_PROPERTY = "io.liveoak.security.drools.max-idle-sessions";
+
+    private final int maxIdleSessions = Integer.getInteger(MAX_IDLE_SESSIONS_PROPERTY, Runtime.getRuntime().availableProcessors() * 2);
+
+    private AtomicReference<DroolsSessionPool> sessionPool = new AtomicReference<>();
+
+    private final AuthzPolicyVersion policyVersion;
+
+    public DroolsPolicy() {
+        this(new AuthzPolicyVersion());
+    }
+
+    /**
+     * @param policyVersion version of the application's policies, bumped whenever the rules change
+     */
+    public DroolsPolicy(AuthzPolicyVersion policyVersion) {
+        this.policyVersion = policyVersion;
+    }
 
     public RuleBase getRuleBase() {
-        return ruleBase.get();
+        DroolsSessionPool pool = sessionPool.get();
+        return pool != null ? pool.getRuleBase() : null;
     }
 
     public void setRuleBase(RuleBase ruleBase) {
-        this.ruleBase.set(ruleBase);
+        DroolsSessionPool old = this.sessionPool.getAndSet(new DroolsSessionPool(ruleBase, maxIdleSessions));
+        if (old != null) {
+            old.close();
+        }
+        this.policyVersion.bump();
+    }
+
+    public DroolsSessionPool getSessionPool() {
+        return sessionPool.get();
     }
 
     public AuthzDecision isAuthorized(RequestContext reqContext) {
@@ -43,25 +74,26 @@ public class DroolsPolicy {
             log.trace("Start checking request: " + reqContext);
         }
 
-        WorkingMemory workingMemory = null;
+        DroolsSessionPool pool = sessionPool.get();
+        StatefulSession workingMemory = pool.borrow();
+        List<FactHandle> handles = new ArrayList<>();
+        boolean completed = false;
 
         try {
-            workingMemory = getRuleBase().newStatefulSession();
-
             RulesProcessingResult rulesProcessingResult = new RulesProcessingResult();
-            workingMemory.insert(rulesProcessingResult);
+            handles.add(workingMemory.insert(rulesProcessingResult));
 
             EndSemaphore endSemaphore = new EndSemaphore();
-            workingMemory.insert(endSemaphore);
+            handles.add(workingMemory.insert(endSemaphore));
 
-            URIMatcherCache cache = new URIMatcherCache();
-            workingMemory.insert(cache);
+            URIMatcherCache cache = pool.newURIMatcherCache();
+            handles.add(workingMemory.insert(cache));
 
             // TODO: Verify if it's better to first insert request or securityContext (Rules checking is triggered right after inserting, so it could affect performance)
             RequestContextDecorator reqContextDecorator = new RequestContextDecorator(reqContext);
-            workingMemory.insert(reqContextDecorator);
-            workingMemory.insert(reqContextDecorator.securityContext());
-            workingMemory.insert(reqContextDecorator.resourceParams());
+            handles.add(workingMemory.insert(reqContextDecorator));
+            handles.add(workingMemory.insert(reqContextDecorator.securityContext()));
+            handles.add(workingMemory.insert(reqContextDecorator.resourceParams()));
 
             // TODO: this is temporary. Actually we have either requestResource (in case of CREATE or UPDATE requests) or responseState (in case of outbound or subscription READ requests)
             ResourceState stateToInsert;
@@ -72,22 +104,22 @@ public class DroolsPolicy {
             } else {
                 stateToInsert = new DefaultResourceState();
             }
-            workingMemory.insert(stateToInsert);
+            handles.add(workingMemory.insert(stateToInsert));
 
             // Uncomment for drools debugging (TODO: should be somehow configurable...)
             //workingMemory.addEventListener(new DebugAgendaEventListener());
             //workingMemory.addEventListener( new DebugWorkingMemoryEventListener() );
 
             int numberOfFiredPolicies = workingMemory.fireAllRules();
+            completed = true;
 
             if (log.isTraceEnabled()) {
                 log.trace("Overall result for request: " + reqContext + ". Count of fired policies=" + numberOfFiredPolicies + ", Result=" + rulesProcessingResult.getDecision());
             }
             return rulesProcessingResult.getDecision();
         } finally {
-            if (workingMemory != null) {
-                workingMemory.dispose();
-            }
+            // Session is reused only if all facts of this request can be retracted again
+            pool.release(workingMemory, handles, completed);
         }
     }
 }
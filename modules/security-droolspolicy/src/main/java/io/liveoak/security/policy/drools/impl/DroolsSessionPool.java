@@ -0,0 +1,123 @@
+/*
+ * Copyright 2014 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package io.liveoak.security.policy.drools.impl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import org.drools.FactHandle;
+import org.drools.RuleBase;
+import org.drools.StatefulSession;
+import org.jboss.logging.Logger;
+
+/**
+ * Pool of stateful sessions created from a single rule base.
+ *
+ * <p>A session is used by one check at a time. All facts inserted for a check are retracted
+ * once it completes, which returns the session to its empty state so that it can be reused.
+ * Sessions which failed during a check are disposed rather than pooled.</p>
+ *
+ * <p>Compiled URI patterns are shared by all checks against the rule base as well.</p>
+ */
+public class DroolsSessionPool {
+
+    private static final Logger log = Logger.getLogger(DroolsSessionPool.class);
+
+    public DroolsSessionPool(RuleBase ruleBase, int maxIdle) {
+        this.ruleBase = ruleBase;
+        this.maxIdle = maxIdle;
+    }
+
+    public RuleBase getRuleBase() {
+        return ruleBase;
+    }
+
+    public StatefulSession borrow() {
+        StatefulSession session = idle.poll();
+        if (session != null) {
+            idleCount.decrementAndGet();
+            return session;
+        }
+        created.incrementAndGet();
+        return ruleBase.newStatefulSession();
+    }
+
+    /**
+     * Hand a session back after a check.
+     *
+     * @param handles facts inserted during the check
+     * @param reusable false if the check failed, so the state of the session is unknown
+     */
+    public void release(StatefulSession session, List<FactHandle> handles, boolean reusable) {
+        if (reusable && !closed && retractAll(session, handles)) {
+            if (idleCount.incrementAndGet() <= maxIdle) {
+                idle.offer(session);
+                if (closed && idle.remove(session)) {
+                    // Pool was closed meanwhile
+                    idleCount.decrementAndGet();
+                    session.dispose();
+                }
+                return;
+            }
+            idleCount.decrementAndGet();
+        }
+        session.dispose();
+    }
+
+    private boolean retractAll(StatefulSession session, List<FactHandle> handles) {
+        try {
+            for (FactHandle handle : handles) {
+                session.retract(handle);
+            }
+            // Rules may have inserted facts on their own, such session can't be reused
+            return !session.iterateFactHandles().hasNext();
+        } catch (Throwable t) {
+            log.debug("Failed to clean up drools session", t);
+            return false;
+        }
+    }
+
+    /**
+     * Dispose all idle sessions. Sessions still in use are disposed once released.
+     */
+    public void close() {
+        closed = true;
+        StatefulSession session;
+        while ((session = idle.poll()) != null) {
+            idleCount.decrementAndGet();
+            session.dispose();
+        }
+    }
+
+    /**
+     * @return cache of URI matchers for a single check, backed by the patterns of this rule base
+     */
+    public URIMatcherCache newURIMatcherCache() {
+        return new URIMatcherCache(patterns);
+    }
+
+    public int idle() {
+        return idleCount.get();
+    }
+
+    public int created() {
+        return created.get();
+    }
+
+    private final RuleBase ruleBase;
+    private final int maxIdle;
+    private volatile boolean closed;
+
+    private final ConcurrentLinkedQueue<StatefulSession> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final AtomicInteger created = new AtomicInteger();
+
+    private final Map<String, Pattern> patterns = new ConcurrentHashMap<>();
+}
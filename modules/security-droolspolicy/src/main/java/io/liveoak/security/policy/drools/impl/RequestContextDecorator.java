@@ -10,6 +10,7 @@ import io.liveoak.spi.Pagination;
 import io.liveoak.spi.RequestAttributes;
 import io.liveoak.spi.RequestContext;
 import io.liveoak.spi.RequestType;
+import io.liveoak.spi.RequestTrace;
 import io.liveoak.spi.ResourcePath;
 import io.liveoak.spi.ReturnFields;
 import io.liveoak.spi.SecurityContext;
@@ -76,6 +77,11 @@ public class RequestContextDecorator implements RequestContext {
         return delegate.sorting();
     }
 
+    @Override
+    public RequestTrace trace() {
+        return delegate.trace();
+    }
+
     @Override
     public void dispose() {
         delegate.dispose();
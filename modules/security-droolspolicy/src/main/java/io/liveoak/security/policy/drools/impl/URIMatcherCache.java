@@ -7,9 +7,11 @@ package io.liveoak.security.policy.drools.impl;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 
 /**
- * Holds info about all processed URIMatcher by all URIPolicyRule rules
+ * Holds info about all processed URIMatcher by all URIPolicyRule rules. Compiled URI patterns are shared
+ * with other caches created for the same rule base.
  *
  * @author <a href="mailto:mposolda@redhat.com">Marek Posolda</a>
  */
@@ -18,6 +20,19 @@ public class URIMatcherCache {
     // Key is name of drools rule. Value is URIMatcher coming from processing of this rule
     private Map<String, URIMatcher> cache = new ConcurrentHashMap<String, URIMatcher>();
 
+    // Patterns may contain the subject or other request specific values, so the shared map is bounded
+    private static final int MAX_PATTERNS = 1000;
+
+    private final Map<String, Pattern> patterns;
+
+    public URIMatcherCache() {
+        this(new ConcurrentHashMap<>());
+    }
+
+    public URIMatcherCache(Map<String, Pattern> patterns) {
+        this.patterns = patterns;
+    }
+
     /**
      * @return URIMatcher for given rule or create new URIMatcher if it not exists yet. Method never returns null
      */
@@ -29,4 +44,18 @@ public class URIMatcherCache {
         }
         return mi;
     }
+
+    /**
+     * @return compiled pattern for given regex, reused across requests when possible
+     */
+    public Pattern getPattern(String regex) {
+        Pattern pattern = patterns.get(regex);
+        if (pattern == null) {
+            pattern = Pattern.compile(regex);
+            if (patterns.size() < MAX_PATTERNS) {
+                patterns.put(regex, pattern);
+            }
+        }
+        return pattern;
+    }
 }
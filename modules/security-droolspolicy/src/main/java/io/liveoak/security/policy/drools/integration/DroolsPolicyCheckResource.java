@@ -6,6 +6,10 @@
 
 package io.liveoak.security.policy.drools.integration;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import io.liveoak.common.security.AuthzBatch;
 import io.liveoak.common.security.AuthzConstants;
 import io.liveoak.common.security.AuthzDecision;
 import io.liveoak.security.policy.drools.impl.DroolsPolicy;
@@ -44,6 +48,12 @@ public class DroolsPolicyCheckResource implements Resource {
 
     @Override
     public void readProperties(RequestContext ctx, PropertySink sink) throws Exception {
+        List<RequestContext> reqCtxsToAuthorize = AuthzBatch.requestContexts(ctx);
+        if (reqCtxsToAuthorize != null) {
+            AuthzBatch.writePolicyResults(ctx, reqCtxsToAuthorize, policy != null ? this::isAuthorized : null, sink);
+            return;
+        }
+
         AuthzDecision decision = null;
 
         try {
@@ -72,4 +82,13 @@ public class DroolsPolicyCheckResource implements Resource {
         sink.accept(AuthzConstants.ATTR_AUTHZ_POLICY_RESULT, decision.toString());
         sink.close();
     }
+
+    private List<AuthzDecision> isAuthorized(List<RequestContext> reqCtxsToAuthorize, List<ResourceState> respResourceStates) {
+        List<AuthzDecision> decisions = new ArrayList<>(reqCtxsToAuthorize.size());
+        for (int i = 0; i < reqCtxsToAuthorize.size(); i++) {
+            ResourceState respResourceState = respResourceStates != null ? respResourceStates.get(i) : null;
+            decisions.add(policy.isAuthorized(reqCtxsToAuthorize.get(i), null, respResourceState));
+        }
+        return decisions;
+    }
 }
@@ -0,0 +1,35 @@
+package io.liveoak.security.policy.drools.service;
+
+import io.liveoak.common.security.AuthzPolicyVersion;
+import io.liveoak.security.policy.drools.impl.DroolsPolicy;
+import org.jboss.msc.inject.Injector;
+import org.jboss.msc.service.Service;
+import org.jboss.msc.service.StartContext;
+import org.jboss.msc.service.StartException;
+import org.jboss.msc.service.StopContext;
+import org.jboss.msc.value.InjectedValue;
+
+public class DroolsPolicyService implements Service<DroolsPolicy> {
+
+    @Override
+    public void start(StartContext context) throws StartException {
+        this.policy = new DroolsPolicy(this.policyVersionInjector.getValue());
+    }
+
+    @Override
+    public void stop(StopContext context) {
+        this.policy = null;
+    }
+
+    @Override
+    public DroolsPolicy getValue() throws IllegalStateException, IllegalArgumentException {
+        return this.policy;
+    }
+
+    public Injector<AuthzPolicyVersion> policyVersionInjector() {
+        return this.policyVersionInjector;
+    }
+
+    private InjectedValue<AuthzPolicyVersion> policyVersionInjector = new InjectedValue<>();
+    private DroolsPolicy policy;
+}
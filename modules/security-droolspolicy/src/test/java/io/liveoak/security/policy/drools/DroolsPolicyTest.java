@@ -27,6 +27,11 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author <a href="mailto:mposolda@redhat.com">Marek Posolda</a>
@@ -226,4 +231,66 @@ public class DroolsPolicyTest {
         req13params.put("q", Arrays.asList(new String[]{"{\"completed\":true}"}));
         Assert.assertEquals(AuthzDecision.ACCEPT, droolsPolicy.isAuthorized(request13.securityContext(john)));
     }
+
+    @Test
+    public void testSessionReuse() {
+        DefaultSecurityContext john = new DefaultSecurityContext();
+        john.setRealm("myRealm");
+        john.setSubject("john");
+        john.setRoles(new HashSet<>(Arrays.asList("role1")));
+
+        RequestContext.Builder accepted = new RequestContext.Builder().requestType(RequestType.READ)
+                .resourcePath(new ResourcePath("/droolsTest/john")).resourceParams(ResourceParams.NONE).securityContext(john);
+        RequestContext.Builder ignored = new RequestContext.Builder().requestType(RequestType.READ)
+                .resourcePath(new ResourcePath("/droolsTest/mary")).resourceParams(ResourceParams.NONE).securityContext(john);
+
+        // Facts of previous checks must not leak into next checks on the same session
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(AuthzDecision.ACCEPT, droolsPolicy.isAuthorized(accepted));
+            Assert.assertEquals(AuthzDecision.IGNORE, droolsPolicy.isAuthorized(ignored));
+        }
+        Assert.assertEquals(1, droolsPolicy.getSessionPool().created());
+        Assert.assertEquals(1, droolsPolicy.getSessionPool().idle());
+
+        // Pool is replaced together with rule base
+        before();
+        Assert.assertEquals(0, droolsPolicy.getSessionPool().created());
+        Assert.assertEquals(AuthzDecision.ACCEPT, droolsPolicy.isAuthorized(accepted));
+    }
+
+    @Test
+    public void testConcurrentChecks() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String subject = "user" + t;
+            futures.add(executor.submit(() -> {
+                DefaultSecurityContext securityContext = new DefaultSecurityContext();
+                securityContext.setRealm("myRealm");
+                securityContext.setSubject(subject);
+                securityContext.setRoles(new HashSet<>(Arrays.asList("role1")));
+                RequestContext.Builder own = new RequestContext.Builder().requestType(RequestType.READ)
+                        .resourcePath(new ResourcePath("/droolsTest/" + subject)).resourceParams(ResourceParams.NONE).securityContext(securityContext);
+                RequestContext.Builder foreign = new RequestContext.Builder().requestType(RequestType.READ)
+                        .resourcePath(new ResourcePath("/droolsTest/someoneElse")).resourceParams(ResourceParams.NONE).securityContext(securityContext);
+                start.await();
+                for (int i = 0; i < 200; i++) {
+                    Assert.assertEquals(AuthzDecision.ACCEPT, droolsPolicy.isAuthorized(own));
+                    Assert.assertEquals(AuthzDecision.IGNORE, droolsPolicy.isAuthorized(foreign));
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        try {
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
 }
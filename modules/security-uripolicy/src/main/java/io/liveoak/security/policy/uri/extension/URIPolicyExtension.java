@@ -1,17 +1,17 @@
 package io.liveoak.security.policy.uri.extension;
 
+import io.liveoak.common.security.AuthzPolicyVersion;
 import io.liveoak.security.policy.uri.URIPolicyServices;
 import io.liveoak.security.policy.uri.impl.URIPolicy;
 import io.liveoak.security.policy.uri.service.URIPolicyConfigResourceService;
 import io.liveoak.security.policy.uri.service.URIPolicyRootResourceService;
+import io.liveoak.security.policy.uri.service.URIPolicyService;
 import io.liveoak.spi.LiveOak;
 import io.liveoak.spi.extension.ApplicationExtensionContext;
 import io.liveoak.spi.extension.Extension;
 import io.liveoak.spi.extension.SystemExtensionContext;
 import io.liveoak.spi.resource.async.DefaultRootResource;
 import org.jboss.msc.service.ServiceTarget;
-import org.jboss.msc.service.ValueService;
-import org.jboss.msc.value.ImmediateValue;
 
 /**
  * @author <a href="mailto:mposolda@redhat.com">Marek Posolda</a>
@@ -29,8 +29,9 @@ public class URIPolicyExtension implements Extension {
 
         ServiceTarget target = context.target();
 
-        URIPolicy policy = new URIPolicy();
-        target.addService(URIPolicyServices.policy(appId, context.resourceId()), new ValueService<>(new ImmediateValue<>(policy)))
+        URIPolicyService policy = new URIPolicyService();
+        target.addService(URIPolicyServices.policy(appId, context.resourceId()), policy)
+                .addDependency(LiveOak.authzPolicyVersion(appId), AuthzPolicyVersion.class, policy.policyVersionInjector())
                 .install();
 
         URIPolicyRootResourceService resource = new URIPolicyRootResourceService(context.resourceId());
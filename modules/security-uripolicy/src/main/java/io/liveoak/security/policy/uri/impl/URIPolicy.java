@@ -9,7 +9,8 @@ package io.liveoak.security.policy.uri.impl;
 import java.util.concurrent.atomic.AtomicReference;
 
 import io.liveoak.common.security.AuthzDecision;
-import io.liveoak.common.util.ObjectsTree;
+import io.liveoak.common.security.AuthzPolicyVersion;
+import io.liveoak.common.util.ResourcePathIndex;
 import io.liveoak.spi.RequestContext;
 import io.liveoak.spi.RequestType;
 import io.liveoak.spi.ResourcePath;
@@ -24,13 +25,26 @@ public class URIPolicy {
 
     private static final Logger log = Logger.getLogger(URIPolicy.class);
 
-    private final AtomicReference<ObjectsTree<URIPolicyRule>> rulesTree = new AtomicReference<>();
+    private final AtomicReference<ResourcePathIndex<URIPolicyRule>> rulesTree = new AtomicReference<>();
+
+    private final AuthzPolicyVersion policyVersion;
+
+    public URIPolicy() {
+        this(new AuthzPolicyVersion());
+    }
+
+    /**
+     * @param policyVersion version of the application's policies, bumped whenever the rules change
+     */
+    public URIPolicy(AuthzPolicyVersion policyVersion) {
+        this.policyVersion = policyVersion;
+    }
 
     public AuthzDecision isAuthorized(RequestContext req) {
         ResourcePath resourcePath = req.resourcePath();
         DecisionHolder decisionHolder = new DecisionHolder();
 
-        rulesTree.get().objects(resourcePath).forEach((uriPolicyRule) -> {
+        rulesTree.get().forEachMatch(resourcePath, (uriPolicyRule) -> {
             ResourcePath currentRuleResourcePath = uriPolicyRule.getResourcePath();
             if (decisionHolder.decision == null || currentRuleResourcePath.equals(decisionHolder.lastResourcePath)) {
                 AuthzDecision currentDecision = checkPermissions(uriPolicyRule, req);
@@ -51,8 +65,9 @@ public class URIPolicy {
         return decisionHolder.decision != null ? decisionHolder.decision : AuthzDecision.IGNORE;
     }
 
-    public void setRulesTree(ObjectsTree<URIPolicyRule> rulesTree) {
+    public void setRulesTree(ResourcePathIndex<URIPolicyRule> rulesTree) {
         this.rulesTree.set(rulesTree);
+        this.policyVersion.bump();
     }
 
     protected AuthzDecision checkPermissions(URIPolicyRule uriPolicyRule, RequestContext reqCtx) {
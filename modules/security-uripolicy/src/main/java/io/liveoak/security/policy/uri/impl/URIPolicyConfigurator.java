@@ -2,7 +2,7 @@ package io.liveoak.security.policy.uri.impl;
 
 import java.util.Collection;
 
-import io.liveoak.common.util.ObjectsTree;
+import io.liveoak.common.util.ResourcePathIndex;
 import io.liveoak.security.policy.uri.integration.URIPolicyConfig;
 import io.liveoak.security.policy.uri.integration.URIPolicyConfigRule;
 import io.liveoak.spi.ResourcePath;
@@ -14,10 +14,10 @@ import org.jboss.logging.Logger;
 public class URIPolicyConfigurator {
 
     private static final Logger log = Logger.getLogger(URIPolicyConfigurator.class);
-    private ObjectsTree<URIPolicyRule> rulesTree;
+    private ResourcePathIndex<URIPolicyRule> rulesTree;
 
     public void configure(URIPolicy policy, URIPolicyConfig uriPolicyConfig) {
-        this.rulesTree = new ObjectsTree<>();
+        this.rulesTree = new ResourcePathIndex<>();
 
         for (URIPolicyConfigRule cfgRule : uriPolicyConfig.getRules()) {
             addURIPolicyRule(new ResourcePath(cfgRule.getUriPattern()), cfgRule.getRequestTypes(),
@@ -38,7 +38,7 @@ public class URIPolicyConfigurator {
 
         // We want to support '/foo/bar*' which is mapped to both '/foo/bar' and '/foo/bar/*'
         String tailName = resourcePath.tail().name();
-        if (tailName.endsWith("*") && !tailName.equals("*")) {
+        if (tailName.endsWith("*") && !tailName.equals(ResourcePathIndex.WILDCARD) && !tailName.equals(ResourcePathIndex.DEEP_WILDCARD)) {
             String lastSegment = tailName.substring(0, tailName.length() - 1);
             resourcePath = resourcePath.parent();
             resourcePath.appendSegment(lastSegment);
@@ -1,11 +1,16 @@
 package io.liveoak.security.policy.uri.integration;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import io.liveoak.common.security.AuthzBatch;
 import io.liveoak.common.security.AuthzConstants;
 import io.liveoak.common.security.AuthzDecision;
 import io.liveoak.security.policy.uri.impl.URIPolicy;
 import io.liveoak.spi.RequestContext;
 import io.liveoak.spi.resource.async.PropertySink;
 import io.liveoak.spi.resource.async.Resource;
+import io.liveoak.spi.state.ResourceState;
 import org.jboss.logging.Logger;
 
 /**
@@ -37,6 +42,12 @@ public class URIPolicyCheckResource implements Resource {
 
     @Override
     public void readProperties(RequestContext ctx, PropertySink sink) throws Exception {
+        List<RequestContext> reqCtxsToAuthorize = AuthzBatch.requestContexts(ctx);
+        if (reqCtxsToAuthorize != null) {
+            AuthzBatch.writePolicyResults(ctx, reqCtxsToAuthorize, policy != null ? this::isAuthorized : null, sink);
+            return;
+        }
+
         AuthzDecision decision = null;
 
         try {
@@ -64,4 +75,11 @@ public class URIPolicyCheckResource implements Resource {
         sink.close();
     }
 
+    private List<AuthzDecision> isAuthorized(List<RequestContext> reqCtxsToAuthorize, List<ResourceState> respResourceStates) {
+        List<AuthzDecision> decisions = new ArrayList<>(reqCtxsToAuthorize.size());
+        for (RequestContext reqCtxToAuthorize : reqCtxsToAuthorize) {
+            decisions.add(policy.isAuthorized(reqCtxToAuthorize));
+        }
+        return decisions;
+    }
 }
@@ -1,5 +1,6 @@
 package io.liveoak.security.extension;
 
+import io.liveoak.common.security.AuthzPolicyVersion;
 import io.liveoak.interceptor.service.InterceptorRegistrationHelper;
 import io.liveoak.security.integration.AuthzServiceRootResource;
 import io.liveoak.security.interceptor.AuthzInterceptor;
@@ -41,6 +42,7 @@ public class SecurityExtension implements Extension {
         AuthzResourceService resource = new AuthzResourceService(context.resourceId());
         target.addService(LiveOak.resource(appId, context.resourceId()), resource)
                 .addDependency(LiveOak.CLIENT, Client.class, resource.clientInjector())
+                .addDependency(LiveOak.authzPolicyVersion(appId), AuthzPolicyVersion.class, resource.policyVersionInjector())
                 .install();
 
         AuthzConfigResourceService configResource = new AuthzConfigResourceService(context.resourceId());
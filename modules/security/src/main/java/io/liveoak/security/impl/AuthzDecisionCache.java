@@ -0,0 +1,222 @@
+/*
+ * Copyright 2014 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package io.liveoak.security.impl;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.liveoak.common.security.AuthzPolicyVersion;
+import io.liveoak.spi.RequestContext;
+import io.liveoak.spi.ResourceParams;
+import io.liveoak.spi.SecurityContext;
+
+/**
+ * Bounded cache of authorization results, keyed on subject, roles, resource path,
+ * request type and request parameters.
+ *
+ * <p>Entries expire after a fixed time, and are ignored as soon as the {@link AuthzPolicyVersion} of the
+ * application moved on from the version they were computed under for their resource path. Only checks which
+ * do not involve a request or response state should be cached, since policies may base their decision on it.</p>
+ */
+public class AuthzDecisionCache {
+
+    public static final String MAX_SIZE_PROPERTY = "io.liveoak.security.authz-cache.size";
+    public static final String TTL_PROPERTY = "io.liveoak.security.authz-cache.ttl-ms";
+
+    public static final int DEFAULT_MAX_SIZE = 10000;
+    public static final long DEFAULT_TTL = 60000;
+
+    public AuthzDecisionCache(AuthzPolicyVersion policyVersion) {
+        this(policyVersion, Integer.getInteger(MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE), Long.getLong(TTL_PROPERTY, DEFAULT_TTL), TimeUnit.MILLISECONDS);
+    }
+
+    public AuthzDecisionCache(AuthzPolicyVersion policyVersion, int maxSize, long ttl, TimeUnit unit) {
+        this.policyVersion = policyVersion;
+        this.maxSize = maxSize;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > AuthzDecisionCache.this.maxSize) {
+                    evicted.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public AuthzPolicyVersion policyVersion() {
+        return this.policyVersion;
+    }
+
+    /**
+     * @return the version of the policies a decision about the request is computed under
+     */
+    public long version(RequestContext ctx) {
+        return this.policyVersion.current(String.valueOf(ctx.resourcePath()));
+    }
+
+    public boolean isEnabled() {
+        return this.maxSize > 0 && this.ttlNanos > 0;
+    }
+
+    /**
+     * @return the cached result for the request, or null if there is no valid entry
+     */
+    public Boolean get(RequestContext ctx) {
+        if (!isEnabled()) {
+            return null;
+        }
+        Key key = new Key(ctx);
+        Entry entry;
+        synchronized (this.entries) {
+            entry = this.entries.get(key);
+            if (entry != null && !entry.isValid(System.nanoTime())) {
+                this.entries.remove(key);
+                this.expired.incrementAndGet();
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            this.misses.incrementAndGet();
+            return null;
+        }
+        this.hits.incrementAndGet();
+        return entry.authorized;
+    }
+
+    /**
+     * @param version value of {@link #version(RequestContext)} read before the policies were consulted
+     */
+    public void put(RequestContext ctx, long version, boolean authorized) {
+        if (!isEnabled()) {
+            return;
+        }
+        Key key = new Key(ctx);
+        if (version != this.policyVersion.current(key.resourcePath)) {
+            return;
+        }
+        Entry entry = new Entry(authorized, key.resourcePath, version, System.nanoTime() + this.ttlNanos);
+        synchronized (this.entries) {
+            this.entries.put(key, entry);
+        }
+    }
+
+    public void clear() {
+        synchronized (this.entries) {
+            this.entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (this.entries) {
+            return this.entries.size();
+        }
+    }
+
+    public int maxSize() {
+        return this.maxSize;
+    }
+
+    public long ttlMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(this.ttlNanos);
+    }
+
+    public long hits() {
+        return this.hits.get();
+    }
+
+    public long misses() {
+        return this.misses.get();
+    }
+
+    public long expired() {
+        return this.expired.get();
+    }
+
+    public long evicted() {
+        return this.evicted.get();
+    }
+
+    private class Entry {
+
+        Entry(boolean authorized, String resourcePath, long version, long expiresAt) {
+            this.authorized = authorized;
+            this.resourcePath = resourcePath;
+            this.version = version;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isValid(long now) {
+            return this.version == policyVersion.current(this.resourcePath) && now - this.expiresAt < 0;
+        }
+
+        final boolean authorized;
+        final String resourcePath;
+        final long version;
+        final long expiresAt;
+    }
+
+    private static class Key {
+
+        Key(RequestContext ctx) {
+            SecurityContext securityContext = ctx.securityContext();
+            String realm = null;
+            String subject = null;
+            Object roles = Collections.emptySet();
+            if (securityContext != null) {
+                realm = securityContext.getRealm();
+                subject = securityContext.getSubject();
+                if (securityContext.getRoles() != null) {
+                    roles = new TreeSet<>(securityContext.getRoles());
+                }
+            }
+
+            Map<String, Object> params = new TreeMap<>();
+            ResourceParams resourceParams = ctx.resourceParams();
+            if (resourceParams != null) {
+                for (String name : resourceParams.names()) {
+                    params.put(name, resourceParams.values(name));
+                }
+            }
+
+            this.resourcePath = String.valueOf(ctx.resourcePath());
+            this.values = new Object[]{realm, subject, roles, this.resourcePath, ctx.requestType(), params};
+            this.hash = Arrays.hashCode(this.values);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key && Arrays.equals(this.values, ((Key) obj).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        private final String resourcePath;
+        private final Object[] values;
+        private final int hash;
+    }
+
+    private final AuthzPolicyVersion policyVersion;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<Key, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+}
@@ -6,12 +6,16 @@
 
 package io.liveoak.security.integration;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
 import java.util.function.Consumer;
 
 import io.liveoak.common.DefaultRequestAttributes;
+import io.liveoak.common.security.AuthzBatch;
 import io.liveoak.common.security.AuthzConstants;
 import io.liveoak.common.security.AuthzDecision;
 import io.liveoak.security.spi.AuthzPolicyEntry;
@@ -54,6 +58,18 @@ public class AuthzCheckResource implements Resource {
 
     @Override
     public void readProperties(RequestContext ctx, PropertySink sink) throws Exception {
+        List<RequestContext> ctxsToAuthorize = AuthzBatch.requestContexts(ctx);
+        if (ctxsToAuthorize != null) {
+            List<ResourceState> respStatesToAuthorize = AuthzBatch.responseStates(ctx);
+            try {
+                new BatchPolicyHandler(ctxsToAuthorize, respStatesToAuthorize, sink).next();
+            } catch (Throwable t) {
+                log.error("Failed to authorize requests", t);
+                writeAuthzResponses(sink, Collections.nCopies(ctxsToAuthorize.size(), false));
+            }
+            return;
+        }
+
         try {
             RequestContext ctxToAuthorize = ctx.requestAttributes().getAttribute(AuthzConstants.ATTR_REQUEST_CONTEXT, RequestContext.class);
             ResourceState reqStateToAuthorize = ctx.requestAttributes().getAttribute(AuthzConstants.ATTR_REQUEST_RESOURCE_STATE, ResourceState.class);
@@ -66,20 +82,26 @@ public class AuthzCheckResource implements Resource {
                 return;
             }
 
-            if (ctxToAuthorize.securityContext() != null && ctxToAuthorize.securityContext().getRealm() != null) {
-                String realm = ctxToAuthorize.securityContext().getRealm();
-                if (realm.equals("liveoak-admin")) {
-                    boolean accepted = ctxToAuthorize.securityContext().getRoles().contains("admin");
-                    writeAuthzResponse(sink, accepted);
-                    return;
-                } else if (!realm.equals("liveoak-apps")) {
-                    log.error("Invalid realm " + realm);
-                    writeAuthzResponse(sink, false);
+            Boolean realmDecision = checkRealm(ctxToAuthorize);
+            if (realmDecision != null) {
+                writeAuthzResponse(sink, realmDecision);
+                return;
+            }
+
+            // Decisions which depend on the state of a resource can't be reused
+            boolean cacheable = reqStateToAuthorize == null && respStateToAuthorize == null;
+            if (cacheable) {
+                Boolean cached = parent.getDecisionCache().get(ctxToAuthorize);
+                if (cached != null) {
+                    if (log.isTraceEnabled()) {
+                        log.trace("Cached decision for " + ctxToAuthorize.hashCode() + ", result = " + cached);
+                    }
+                    writeAuthzResponse(sink, cached);
                     return;
                 }
             }
 
-            PolicyHandler handler = new PolicyHandler(ctxToAuthorize, reqStateToAuthorize, respStateToAuthorize, sink);
+            PolicyHandler handler = new PolicyHandler(ctxToAuthorize, reqStateToAuthorize, respStateToAuthorize, sink, cacheable);
             handler.next();
         } catch (Throwable t) {
             log.error("Failed to authorize request", t);
@@ -98,8 +120,14 @@ public class AuthzCheckResource implements Resource {
 
         private AuthzDecision decision = AuthzDecision.IGNORE;
 
-        public PolicyHandler(RequestContext ctxToAuthorize, ResourceState reqStateToAuthorize, ResourceState respStateToAuthorize, PropertySink sink) {
+        private boolean cacheable;
+        // Read before looking at the policies, so that changes made meanwhile invalidate the result
+        private final long policyVersion;
+
+        public PolicyHandler(RequestContext ctxToAuthorize, ResourceState reqStateToAuthorize, ResourceState respStateToAuthorize, PropertySink sink, boolean cacheable) {
+            this.policyVersion = parent.getDecisionCache().version(ctxToAuthorize);
             this.sink = sink;
+            this.cacheable = cacheable;
 
             this.ctxToAuthorize = ctxToAuthorize;
             this.reqStateToAuthorize = reqStateToAuthorize;
@@ -115,6 +143,7 @@ public class AuthzCheckResource implements Resource {
         public void accept(ClientResourceResponse response) {
             if (response.state() == null || response.state().getProperty(AuthzConstants.ATTR_AUTHZ_POLICY_RESULT) == null) {
                 log.warn("State or policy result not available in response: " + response + ", path: " + response.path());
+                cacheable = false;
                 authorized(false);
                 return;
             }
@@ -160,22 +189,190 @@ public class AuthzCheckResource implements Resource {
                 log.trace("Completed for " + ctxToAuthorize.hashCode() + ", merged = " + decision);
             }
 
+            if (cacheable) {
+                parent.getDecisionCache().put(ctxToAuthorize, policyVersion, accepted);
+            }
+
             writeAuthzResponse(sink, accepted);
         }
 
-        private Queue<AuthzPolicyEntry> getPolicies(ResourcePath resPath) {
-            Queue<AuthzPolicyEntry> l = new LinkedList<>();
-            List<AuthzPolicyEntry> policies = parent.getConfig().getPolicies();
-            if (policies != null) {
-                for (AuthzPolicyEntry policyEntry : policies) {
-                    if (policyEntry.isResourceMapped(resPath)) {
-                        l.add(policyEntry);
+    }
+
+    /**
+     * @return decision for requests from realms which aren't subject to application policies, or null
+     */
+    private Boolean checkRealm(RequestContext ctxToAuthorize) {
+        if (ctxToAuthorize.securityContext() != null && ctxToAuthorize.securityContext().getRealm() != null) {
+            String realm = ctxToAuthorize.securityContext().getRealm();
+            if (realm.equals("liveoak-admin")) {
+                return ctxToAuthorize.securityContext().getRoles().contains("admin");
+            } else if (!realm.equals("liveoak-apps")) {
+                log.error("Invalid realm " + realm);
+                return false;
+            }
+        }
+        return null;
+    }
+
+    private Queue<AuthzPolicyEntry> getPolicies(ResourcePath resPath) {
+        Queue<AuthzPolicyEntry> l = new LinkedList<>();
+        List<AuthzPolicyEntry> policies = parent.getConfig().getPolicies();
+        if (policies != null) {
+            for (AuthzPolicyEntry policyEntry : policies) {
+                if (policyEntry.isResourceMapped(resPath)) {
+                    l.add(policyEntry);
+                }
+            }
+        }
+        return l;
+    }
+
+    /**
+     * Authorizes a list of requests, asking every policy just once about all the requests mapped to it.
+     * Policies which don't understand batches are asked about each request separately.
+     */
+    private class BatchPolicyHandler implements Consumer<ClientResourceResponse> {
+
+        private final List<RequestContext> ctxsToAuthorize;
+        private final List<ResourceState> respStatesToAuthorize;
+        private final PropertySink sink;
+
+        private final AuthzDecision[] decisions;
+        // null while policies still need to be asked
+        private final Boolean[] results;
+        private final Iterator<AuthzPolicyEntry> policies;
+
+        private AuthzPolicyEntry currentPolicy;
+        private List<Integer> currentIndexes;
+        private int currentSingle = -1;
+
+        public BatchPolicyHandler(List<RequestContext> ctxsToAuthorize, List<ResourceState> respStatesToAuthorize, PropertySink sink) {
+            this.ctxsToAuthorize = ctxsToAuthorize;
+            this.respStatesToAuthorize = respStatesToAuthorize;
+            this.sink = sink;
+
+            int size = ctxsToAuthorize.size();
+            this.decisions = new AuthzDecision[size];
+            this.results = new Boolean[size];
+            for (int i = 0; i < size; i++) {
+                RequestContext ctxToAuthorize = ctxsToAuthorize.get(i);
+                if (ctxToAuthorize == null) {
+                    results[i] = false;
+                    continue;
+                }
+                results[i] = checkRealm(ctxToAuthorize);
+                decisions[i] = getPolicies(ctxToAuthorize.resourcePath()).isEmpty() ? AuthzDecision.ACCEPT : AuthzDecision.IGNORE;
+            }
+
+            List<AuthzPolicyEntry> configured = parent.getConfig().getPolicies();
+            this.policies = configured != null ? configured.iterator() : Collections.<AuthzPolicyEntry>emptyIterator();
+        }
+
+        public void next() {
+            while (policies.hasNext()) {
+                AuthzPolicyEntry policy = policies.next();
+                List<Integer> indexes = new ArrayList<>();
+                for (int i = 0; i < results.length; i++) {
+                    if (results[i] == null && policy.isResourceMapped(ctxsToAuthorize.get(i).resourcePath())) {
+                        indexes.add(i);
+                    }
+                }
+                if (!indexes.isEmpty()) {
+                    currentPolicy = policy;
+                    currentIndexes = indexes;
+                    currentSingle = -1;
+                    if (log.isTraceEnabled()) {
+                        log.trace("Invoking policy " + policy.getPolicyResourceEndpoint() + " for " + indexes.size() + " requests");
                     }
+                    client.read(createBatchPolicyReq(indexes), policy.getPolicyResourceEndpoint(), this);
+                    return;
                 }
             }
-            return l;
+
+            List<Boolean> authorized = new ArrayList<>(results.length);
+            for (int i = 0; i < results.length; i++) {
+                authorized.add(results[i] != null ? results[i] : decisions[i] == AuthzDecision.ACCEPT);
+            }
+            writeAuthzResponses(sink, authorized);
         }
 
+        @Override
+        public void accept(ClientResourceResponse response) {
+            try {
+                if (currentSingle >= 0) {
+                    merge(currentIndexes.get(currentSingle), policyResult(response));
+                    nextSingle();
+                    return;
+                }
+
+                ResourceState state = response.state();
+                if (state != null && state.getProperty(AuthzConstants.ATTR_AUTHZ_POLICY_RESULTS) == null && state.getProperty(AuthzConstants.ATTR_AUTHZ_POLICY_RESULT) != null) {
+                    // policy doesn't support batches
+                    nextSingle();
+                    return;
+                }
+                List<AuthzDecision> policyResults = AuthzBatch.policyResults(state, currentIndexes.size());
+                if (policyResults == null) {
+                    log.warn("Policy results not available in response: " + response + ", path: " + response.path());
+                    for (Integer index : currentIndexes) {
+                        results[index] = false;
+                    }
+                } else {
+                    for (int i = 0; i < policyResults.size(); i++) {
+                        merge(currentIndexes.get(i), policyResults.get(i));
+                    }
+                }
+                next();
+            } catch (Throwable t) {
+                log.error("Failed to authorize requests", t);
+                writeAuthzResponses(sink, Collections.nCopies(results.length, false));
+            }
+        }
+
+        private void nextSingle() {
+            ++currentSingle;
+            if (currentSingle < currentIndexes.size()) {
+                int index = currentIndexes.get(currentSingle);
+                RequestAttributes attribs = new DefaultRequestAttributes();
+                attribs.setAttribute(AuthzConstants.ATTR_REQUEST_CONTEXT, ctxsToAuthorize.get(index));
+                attribs.setAttribute(AuthzConstants.ATTR_RESPONSE_RESOURCE_STATE, respStateAt(index));
+                client.read(new RequestContext.Builder().requestAttributes(attribs).build(), currentPolicy.getPolicyResourceEndpoint(), this);
+            } else {
+                next();
+            }
+        }
+
+        private AuthzDecision policyResult(ClientResourceResponse response) {
+            if (response.state() == null || response.state().getProperty(AuthzConstants.ATTR_AUTHZ_POLICY_RESULT) == null) {
+                log.warn("State or policy result not available in response: " + response + ", path: " + response.path());
+                return AuthzDecision.REJECT;
+            }
+            return AuthzDecision.valueOf((String) response.state().getProperty(AuthzConstants.ATTR_AUTHZ_POLICY_RESULT));
+        }
+
+        private void merge(int index, AuthzDecision result) {
+            decisions[index] = decisions[index].mergeDecision(result);
+            if (decisions[index] == AuthzDecision.REJECT) {
+                results[index] = false;
+            }
+        }
+
+        private ResourceState respStateAt(int index) {
+            return respStatesToAuthorize != null ? respStatesToAuthorize.get(index) : null;
+        }
+
+        private RequestContext createBatchPolicyReq(List<Integer> indexes) {
+            List<RequestContext> ctxs = new ArrayList<>(indexes.size());
+            List<ResourceState> states = new ArrayList<>(indexes.size());
+            for (Integer index : indexes) {
+                ctxs.add(ctxsToAuthorize.get(index));
+                states.add(respStateAt(index));
+            }
+            RequestAttributes attribs = new DefaultRequestAttributes();
+            attribs.setAttribute(AuthzConstants.ATTR_REQUEST_CONTEXTS, ctxs);
+            attribs.setAttribute(AuthzConstants.ATTR_RESPONSE_RESOURCE_STATES, states);
+            return new RequestContext.Builder().requestAttributes(attribs).build();
+        }
     }
 
     private void writeAuthzResponse(PropertySink sink, boolean accepted) {
@@ -187,4 +384,13 @@ public class AuthzCheckResource implements Resource {
         }
     }
 
+    private void writeAuthzResponses(PropertySink sink, List<Boolean> accepted) {
+        sink.accept(AuthzConstants.ATTR_AUTHZ_RESULTS, accepted);
+        try {
+            sink.close();
+        } catch (Exception e) {
+            log.error("", e);
+        }
+    }
+
 }
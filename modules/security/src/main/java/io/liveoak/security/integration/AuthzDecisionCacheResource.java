@@ -0,0 +1,69 @@
+/*
+ * Copyright 2014 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.liveoak.security.integration;
+
+import io.liveoak.security.impl.AuthzDecisionCache;
+import io.liveoak.spi.RequestContext;
+import io.liveoak.spi.resource.async.PropertySink;
+import io.liveoak.spi.resource.async.Resource;
+import io.liveoak.spi.resource.async.Responder;
+
+/**
+ * Statistics of the authorization decision cache. Deleting the one under the admin resource clears the cache.
+ */
+public class AuthzDecisionCacheResource implements Resource {
+
+    private final String id;
+    private final Resource parent;
+    private final AuthzDecisionCache cache;
+    private final boolean clearable;
+
+    public AuthzDecisionCacheResource(Resource parent, String id, AuthzDecisionCache cache, boolean clearable) {
+        this.id = id;
+        this.parent = parent;
+        this.cache = cache;
+        this.clearable = clearable;
+    }
+
+    @Override
+    public Resource parent() {
+        return parent;
+    }
+
+    @Override
+    public String id() {
+        return id;
+    }
+
+    @Override
+    public void readProperties(RequestContext ctx, PropertySink sink) throws Exception {
+        long hits = cache.hits();
+        long misses = cache.misses();
+
+        sink.accept("enabled", cache.isEnabled());
+        sink.accept("size", cache.size());
+        sink.accept("max-size", cache.maxSize());
+        sink.accept("ttl-ms", cache.ttlMillis());
+        sink.accept("hits", hits);
+        sink.accept("misses", misses);
+        sink.accept("hit-ratio", hits + misses == 0 ? 0.0 : hits / (double) (hits + misses));
+        sink.accept("expired", cache.expired());
+        sink.accept("evicted", cache.evicted());
+        sink.accept("policy-version", cache.policyVersion().current());
+        sink.close();
+    }
+
+    @Override
+    public void delete(RequestContext ctx, Responder responder) throws Exception {
+        if (!clearable) {
+            responder.deleteNotSupported(this);
+            return;
+        }
+        cache.clear();
+        responder.resourceDeleted(this);
+    }
+}
@@ -6,12 +6,15 @@
 
 package io.liveoak.security.integration;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.liveoak.common.security.AuthzConstants;
 import io.liveoak.common.util.ConversionUtils;
 import io.liveoak.common.util.ObjectMapperFactory;
 import io.liveoak.common.util.ResourceConversionUtils;
@@ -30,11 +33,13 @@ public class AuthzServiceConfigResource implements RootResource, SynchronousReso
 
     private final String id;
     private final AuthzServiceRootResource authzRootResource;
+    private final AuthzDecisionCacheResource decisionCacheResource;
     private Resource parent;
 
     public AuthzServiceConfigResource(String id, AuthzServiceRootResource authzRootResource) {
         this.id = id;
         this.authzRootResource = authzRootResource;
+        this.decisionCacheResource = new AuthzDecisionCacheResource(this, AuthzConstants.AUTHZ_CACHE_RESOURCE_ID, authzRootResource.getDecisionCache(), true);
     }
 
     @Override
@@ -52,6 +57,16 @@ public class AuthzServiceConfigResource implements RootResource, SynchronousReso
         return id;
     }
 
+    @Override
+    public Collection<? extends Resource> members() {
+        return Collections.singletonList(decisionCacheResource);
+    }
+
+    @Override
+    public Resource member(String id) {
+        return decisionCacheResource.id().equals(id) ? decisionCacheResource : null;
+    }
+
     @Override
     public ResourceState properties() throws Exception {
         ObjectMapper om = ObjectMapperFactory.create();
@@ -3,6 +3,8 @@ package io.liveoak.security.integration;
 import java.util.concurrent.atomic.AtomicReference;
 
 import io.liveoak.common.security.AuthzConstants;
+import io.liveoak.common.security.AuthzPolicyVersion;
+import io.liveoak.security.impl.AuthzDecisionCache;
 import io.liveoak.security.spi.AuthzServiceConfig;
 import io.liveoak.spi.RequestContext;
 import io.liveoak.spi.client.Client;
@@ -27,15 +29,25 @@ public class AuthzServiceRootResource implements RootResource {
 
     private AuthzCheckResource authzCheckResource;
 
+    private AuthzDecisionCacheResource decisionCacheResource;
+
+    private final AuthzPolicyVersion policyVersion;
+
+    private final AuthzDecisionCache decisionCache;
+
     private final AtomicReference<AuthzServiceConfig> config = new AtomicReference<>();
 
-    public AuthzServiceRootResource(String id, Client client) {
+    public AuthzServiceRootResource(String id, Client client, AuthzPolicyVersion policyVersion) {
         this.id = id;
+        this.policyVersion = policyVersion;
+        this.decisionCache = new AuthzDecisionCache(policyVersion);
         this.authzCheckResource = new AuthzCheckResource(this, AuthzConstants.AUTHZ_CHECK_RESOURCE_ID, client);
+        this.decisionCacheResource = new AuthzDecisionCacheResource(this, AuthzConstants.AUTHZ_CACHE_RESOURCE_ID, this.decisionCache, false);
     }
 
     public void setConfig(AuthzServiceConfig config) {
         this.config.set(config);
+        this.policyVersion.bump();
         log.debug("Security configuration updated: " + config);
     }
 
@@ -43,6 +55,10 @@ public class AuthzServiceRootResource implements RootResource {
         return config.get();
     }
 
+    public AuthzDecisionCache getDecisionCache() {
+        return this.decisionCache;
+    }
+
     @Override
     public void parent(Resource parent) {
         this.parent = parent;
@@ -62,6 +78,8 @@ public class AuthzServiceRootResource implements RootResource {
     public void readMember(RequestContext ctx, String id, Responder responder) {
         if (id.equals(this.authzCheckResource.id())) {
             responder.resourceRead(authzCheckResource);
+        } else if (id.equals(this.decisionCacheResource.id())) {
+            responder.resourceRead(decisionCacheResource);
         } else {
             responder.noSuchResource(id);
         }
@@ -70,6 +88,7 @@ public class AuthzServiceRootResource implements RootResource {
     @Override
     public void readMembers(RequestContext ctx, ResourceSink sink) {
         sink.accept(authzCheckResource);
+        sink.accept(decisionCacheResource);
         sink.close();
     }
 }
@@ -6,12 +6,13 @@
 package io.liveoak.security.interceptor;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
 import io.liveoak.common.DefaultRequestAttributes;
 import io.liveoak.common.DefaultResourceErrorResponse;
+import io.liveoak.common.security.AuthzBatch;
 import io.liveoak.common.security.AuthzConstants;
 import io.liveoak.spi.RequestAttributes;
 import io.liveoak.spi.RequestContext;
@@ -120,80 +121,92 @@ public class AuthzInterceptor extends DefaultInterceptor {
     }
 
     protected void processMembers(ResourcePath currentResourcePath, ResourceState resourceState, SecurityContext securityContext, Consumer<ResourceState> callback) {
-        if (resourceState.members().isEmpty()) {
+        // Collect all expanded members on all levels, so that they can be authorized with single request
+        List<MemberToAuthorize> members = new ArrayList<>();
+        collectMembers(currentResourcePath, resourceState, members);
+        if (members.isEmpty()) {
             callback.accept(resourceState);
             return;
         }
 
-        // First check all, which are going to be counted
-        final AtomicInteger pendingRequests = new AtomicInteger(resourceState.members().size());
+        List<RequestContext> reqsToAuthorize = new ArrayList<>(members.size());
+        List<ResourceState> statesToAuthorize = new ArrayList<>(members.size());
+        for (MemberToAuthorize member : members) {
+            reqsToAuthorize.add(new RequestContext.Builder()
+                    .resourcePath(member.resourcePath)
+                    .requestType(RequestType.READ)
+                    .securityContext(securityContext));
+            // Use the state of the resource, which is going to be returned
+            statesToAuthorize.add(member.state);
+        }
+        RequestAttributes attribs = new DefaultRequestAttributes();
+        attribs.setAttribute(AuthzConstants.ATTR_REQUEST_CONTEXTS, reqsToAuthorize);
+        attribs.setAttribute(AuthzConstants.ATTR_RESPONSE_RESOURCE_STATES, statesToAuthorize);
+        RequestContext authzRequest = new RequestContext.Builder().requestAttributes(attribs).build();
+
+        client.read(authzRequest, getPrefix(currentResourcePath) + "/authz/authzCheck", new Consumer<ClientResourceResponse>() {
+
+            @Override
+            public void accept(ClientResourceResponse authzResponse) {
+                List<Boolean> results;
+                if (authzResponse.responseType() == ClientResourceResponse.ResponseType.NO_SUCH_RESOURCE) {
+                    results = Collections.nCopies(members.size(), true);
+                } else {
+                    results = AuthzBatch.authzResults(authzResponse.state(), members.size());
+                }
+                if (results == null) {
+                    resultsNotAvailable(authzResponse, members.size());
+                    results = Collections.nCopies(members.size(), false);
+                }
 
-        // Copy to avoid concurrent modification
-        List<ResourceState> childResourcesCopy = new ArrayList<>(resourceState.members());
+                for (int i = 0; i < members.size(); i++) {
+                    if (!results.get(i)) {
+                        MemberToAuthorize member = members.get(i);
+                        if (log.isTraceEnabled()) {
+                            log.tracef("Resource %s not authorized and removed from the response", member.resourcePath);
+                        }
+                        notAuthorized(member.parentState, member.state);
+                    }
+                }
+                callback.accept(resourceState);
+            }
+        });
+    }
 
-        for (ResourceState childState : childResourcesCopy) {
+    private void collectMembers(ResourcePath currentResourcePath, ResourceState resourceState, List<MemberToAuthorize> members) {
+        for (ResourceState childState : resourceState.members()) {
             if (!childState.getPropertyNames().isEmpty() || !childState.members().isEmpty()) {
-                // Send authz request now
                 ResourcePath childResourcePath = new ResourcePath(currentResourcePath);
                 childResourcePath.appendSegment(childState.id());
-                RequestContext reqToAuthorize = new RequestContext.Builder()
-                        .resourcePath(childResourcePath)
-                        .requestType(RequestType.READ)
-                        .securityContext(securityContext);
-                RequestAttributes attribs = new DefaultRequestAttributes();
-                attribs.setAttribute(AuthzConstants.ATTR_REQUEST_CONTEXT, reqToAuthorize);
-                // Use the state of the resource, which is going to be returned
-                attribs.setAttribute(AuthzConstants.ATTR_RESPONSE_RESOURCE_STATE, childState);
-                RequestContext authzRequest = new RequestContext.Builder().requestAttributes(attribs).build();
-
-                client.read(authzRequest, getPrefix(currentResourcePath) + "/authz/authzCheck", new Consumer<ClientResourceResponse>() {
-
-                    @Override
-                    public void accept(ClientResourceResponse authzResponse) {
-                        boolean authorized;
-                        if (authzResponse.responseType() == ClientResourceResponse.ResponseType.NO_SUCH_RESOURCE) {
-                            authorized = true;
-                        } else {
-                            ResourceState state = authzResponse.state();
-                            boolean authzResult = (Boolean) state.getProperty(AuthzConstants.ATTR_AUTHZ_RESULT);
-                            authorized = authzResult;
-                        }
-
-                        if (authorized) {
-                            // Recursive call to check members of this one
-                            processMembers(childResourcePath, childState, securityContext, new Consumer<ResourceState>() {
-
-                                @Override
-                                public void accept(ResourceState childState) {
-                                    checkAuthzFinished(pendingRequests, resourceState, callback);
-                                }
-
-                            });
-                        } else {
-                            if (log.isTraceEnabled()) {
-                                log.tracef("Resource %s not authorized and removed from the response", childResourcePath);
-                            }
-                            notAuthorized(resourceState, childState);
-                            checkAuthzFinished(pendingRequests, resourceState, callback);
-                        }
-                    }
-                });
-            } else {
-                checkAuthzFinished(pendingRequests, resourceState, callback);
+                members.add(new MemberToAuthorize(childResourcePath, childState, resourceState));
+                collectMembers(childResourcePath, childState, members);
             }
         }
-
     }
 
-    private void checkAuthzFinished(AtomicInteger pendingRequests, ResourceState resourceState, Consumer<ResourceState> callback) {
-        int current = pendingRequests.decrementAndGet();
-        if (current == 0) {
-            callback.accept(resourceState);
-        }
+    /**
+     * The authorization service didn't answer with a result for each member, so none of them is returned.
+     */
+    protected void resultsNotAvailable(ClientResourceResponse authzResponse, int members) {
+        log.errorf("Authorization results for %d members not available in response: %s, path: %s. Removing all of them from the response",
+                members, authzResponse, authzResponse.path());
     }
 
     protected void notAuthorized(ResourceState resourceState, ResourceState childState) {
         resourceState.members().remove(childState);
     }
 
+    private static class MemberToAuthorize {
+
+        MemberToAuthorize(ResourcePath resourcePath, ResourceState state, ResourceState parentState) {
+            this.resourcePath = resourcePath;
+            this.state = state;
+            this.parentState = parentState;
+        }
+
+        final ResourcePath resourcePath;
+        final ResourceState state;
+        final ResourceState parentState;
+    }
+
 }
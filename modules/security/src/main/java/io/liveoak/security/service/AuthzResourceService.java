@@ -1,5 +1,6 @@
 package io.liveoak.security.service;
 
+import io.liveoak.common.security.AuthzPolicyVersion;
 import io.liveoak.security.integration.AuthzServiceRootResource;
 import io.liveoak.spi.client.Client;
 import org.jboss.msc.inject.Injector;
@@ -22,7 +23,8 @@ public class AuthzResourceService implements Service<AuthzServiceRootResource> {
     public void start(StartContext context) throws StartException {
         this.resource = new AuthzServiceRootResource(
                 this.id,
-                this.clientInjector.getValue()
+                this.clientInjector.getValue(),
+                this.policyVersionInjector.getValue()
         );
     }
 
@@ -41,9 +43,15 @@ public class AuthzResourceService implements Service<AuthzServiceRootResource> {
         return this.clientInjector;
     }
 
+    public Injector<AuthzPolicyVersion> policyVersionInjector() {
+        return this.policyVersionInjector;
+    }
+
     private String id;
 
     private InjectedValue<Client> clientInjector = new InjectedValue<>();
 
+    private InjectedValue<AuthzPolicyVersion> policyVersionInjector = new InjectedValue<>();
+
     private AuthzServiceRootResource resource;
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2014 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package io.liveoak.security.impl;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import io.liveoak.common.DefaultSecurityContext;
+import io.liveoak.common.security.AuthzPolicyVersion;
+import io.liveoak.spi.RequestContext;
+import io.liveoak.spi.RequestType;
+import io.liveoak.spi.ResourcePath;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AuthzDecisionCacheTest {
+
+    @Test
+    public void testHitAndMiss() throws Exception {
+        AuthzDecisionCache cache = new AuthzDecisionCache(this.policyVersion, 10, 1, TimeUnit.MINUTES);
+
+        Assert.assertNull(cache.get(request("john", "user", RequestType.READ, "/testApp/storage/todos")));
+        cache.put(request("john", "user", RequestType.READ, "/testApp/storage/todos"), this.policyVersion.current(), true);
+
+        Assert.assertEquals(Boolean.TRUE, cache.get(request("john", "user", RequestType.READ, "/testApp/storage/todos")));
+        Assert.assertNull(cache.get(request("bob", "user", RequestType.READ, "/testApp/storage/todos")));
+        Assert.assertNull(cache.get(request("john", "admin", RequestType.READ, "/testApp/storage/todos")));
+        Assert.assertNull(cache.get(request("john", "user", RequestType.DELETE, "/testApp/storage/todos")));
+        Assert.assertNull(cache.get(request("john", "user", RequestType.READ, "/testApp/storage/todos/1")));
+
+        Assert.assertEquals(1, cache.hits());
+        Assert.assertEquals(5, cache.misses());
+    }
+
+    @Test
+    public void testPolicyChangeInvalidates() throws Exception {
+        AuthzDecisionCache cache = new AuthzDecisionCache(this.policyVersion, 10, 1, TimeUnit.MINUTES);
+        RequestContext req = request("john", "user", RequestType.READ, "/testApp/storage/todos");
+
+        long version = this.policyVersion.current();
+        cache.put(req, version, false);
+        Assert.assertEquals(Boolean.FALSE, cache.get(req));
+
+        this.policyVersion.bump();
+        Assert.assertNull(cache.get(req));
+        Assert.assertEquals(0, cache.size());
+
+        // decision computed under the old version is not stored
+        cache.put(req, version, true);
+        Assert.assertNull(cache.get(req));
+    }
+
+    @Test
+    public void testPathChangeKeepsOtherPaths() throws Exception {
+        AuthzDecisionCache cache = new AuthzDecisionCache(this.policyVersion, 10, 1, TimeUnit.MINUTES);
+        RequestContext created = request("john", "user", RequestType.READ, "/testApp/storage/todos/1");
+        RequestContext other = request("john", "user", RequestType.READ, "/testApp/storage/todos");
+
+        long version = cache.version(created);
+        cache.put(created, version, false);
+        cache.put(other, cache.version(other), true);
+
+        this.policyVersion.bump("/testApp/storage/todos/1");
+        Assert.assertNull(cache.get(created));
+        Assert.assertEquals(Boolean.TRUE, cache.get(other));
+
+        // decision computed before the path changed is not stored
+        cache.put(created, version, true);
+        Assert.assertNull(cache.get(created));
+    }
+
+    @Test
+    public void testOtherApplicationChangeKeeps() throws Exception {
+        AuthzPolicyVersion otherApp = new AuthzPolicyVersion();
+        AuthzDecisionCache cache = new AuthzDecisionCache(this.policyVersion, 10, 1, TimeUnit.MINUTES);
+        RequestContext req = request("john", "user", RequestType.READ, "/testApp/storage/todos");
+
+        cache.put(req, this.policyVersion.current(), true);
+        otherApp.bump();
+        Assert.assertEquals(Boolean.TRUE, cache.get(req));
+
+        this.policyVersion.bump();
+        Assert.assertNull(cache.get(req));
+    }
+
+    @Test
+    public void testExpiryAndBound() throws Exception {
+        AuthzDecisionCache cache = new AuthzDecisionCache(this.policyVersion, 2, 50, TimeUnit.MILLISECONDS);
+        long version = this.policyVersion.current();
+
+        cache.put(request("john", "user", RequestType.READ, "/a"), version, true);
+        cache.put(request("john", "user", RequestType.READ, "/b"), version, true);
+        cache.put(request("john", "user", RequestType.READ, "/c"), version, true);
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(1, cache.evicted());
+        Assert.assertNull(cache.get(request("john", "user", RequestType.READ, "/a")));
+
+        Thread.sleep(100);
+        Assert.assertNull(cache.get(request("john", "user", RequestType.READ, "/c")));
+        Assert.assertEquals(1, cache.expired());
+    }
+
+    private final AuthzPolicyVersion policyVersion = new AuthzPolicyVersion();
+
+    private RequestContext request(String subject, String role, RequestType type, String path) {
+        DefaultSecurityContext securityContext = new DefaultSecurityContext();
+        securityContext.setRealm("liveoak-apps");
+        securityContext.setSubject(subject);
+        securityContext.setRoles(Collections.singleton(role));
+        return new RequestContext.Builder().requestType(type).resourcePath(new ResourcePath(path)).securityContext(securityContext);
+    }
+}
@@ -12,6 +12,7 @@ import io.liveoak.common.DefaultRequestAttributes;
 import io.liveoak.common.DefaultSecurityContext;
 import io.liveoak.common.security.AuthzConstants;
 import io.liveoak.common.security.AuthzDecision;
+import io.liveoak.common.security.AuthzPolicyVersion;
 import io.liveoak.security.extension.SecurityExtension;
 import io.liveoak.security.integration.AuthzServiceConfigResource;
 import io.liveoak.security.integration.AuthzServiceRootResource;
@@ -56,6 +57,7 @@ public class AuthzServiceRootResourceTest extends AbstractResourceTestCase {
     public void before() throws Exception {
         this.authzService = (AuthzServiceRootResource) this.system.service(LiveOak.resource("testApp", "authz"));
         this.mockPolicy = (MockAuthzRootPolicyResource) this.system.service(LiveOak.resource("testApp", "mock-policy" ) );
+        this.mockPolicy.setPolicyVersion((AuthzPolicyVersion) this.system.service(LiveOak.authzPolicyVersion("testApp")));
     }
 
     @Test
@@ -2,6 +2,7 @@ package io.liveoak.security.impl;
 
 import io.liveoak.common.security.AuthzConstants;
 import io.liveoak.common.security.AuthzDecision;
+import io.liveoak.common.security.AuthzPolicyVersion;
 import io.liveoak.spi.RequestContext;
 import io.liveoak.spi.resource.RootResource;
 import io.liveoak.spi.resource.async.PropertySink;
@@ -17,6 +18,7 @@ import java.util.concurrent.TimeUnit;
 public class MockAuthzRootPolicyResource implements RootResource {
 
     private Resource parent;
+    private AuthzPolicyVersion policyVersion;
     private String id;
     private BlockingQueue<RequestContext> requests = new LinkedBlockingDeque<>();
     private AuthzDecision authzDecision = AuthzDecision.IGNORE;
@@ -42,6 +44,13 @@ public class MockAuthzRootPolicyResource implements RootResource {
 
     public void setAuthzDecision(AuthzDecision authzDecision) {
         this.authzDecision = authzDecision;
+        if (this.policyVersion != null) {
+            this.policyVersion.bump();
+        }
+    }
+
+    public void setPolicyVersion(AuthzPolicyVersion policyVersion) {
+        this.policyVersion = policyVersion;
     }
 
     public RequestContext pollRequest(long timeout, TimeUnit timeUnit) throws InterruptedException {
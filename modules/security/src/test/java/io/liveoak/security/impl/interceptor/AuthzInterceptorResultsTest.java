@@ -0,0 +1,181 @@
+/*
+ * Copyright 2014 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package io.liveoak.security.impl.interceptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import io.liveoak.common.DefaultSecurityContext;
+import io.liveoak.common.codec.DefaultResourceState;
+import io.liveoak.common.security.AuthzConstants;
+import io.liveoak.security.interceptor.AuthzInterceptor;
+import io.liveoak.spi.RequestContext;
+import io.liveoak.spi.ResourcePath;
+import io.liveoak.spi.client.Client;
+import io.liveoak.spi.client.ClientResourceResponse;
+import io.liveoak.spi.state.ResourceState;
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * Authorization of the members of a response, when the authorization service answers with unexpected results.
+ */
+public class AuthzInterceptorResultsTest {
+
+    @Test
+    public void testMissingResults() throws Exception {
+        TestAuthzInterceptor interceptor = new TestAuthzInterceptor(new DefaultResourceState());
+        ResourceState state = interceptor.process(collection(3));
+
+        assertThat(state.members()).isEmpty();
+        assertThat(interceptor.resultsNotAvailable).isEqualTo(3);
+    }
+
+    @Test
+    public void testMismatchedResults() throws Exception {
+        TestAuthzInterceptor interceptor = new TestAuthzInterceptor(results(Arrays.asList(true, true)));
+        ResourceState state = interceptor.process(collection(3));
+
+        assertThat(state.members()).isEmpty();
+        assertThat(interceptor.resultsNotAvailable).isEqualTo(3);
+    }
+
+    @Test
+    public void testInvalidResults() throws Exception {
+        TestAuthzInterceptor interceptor = new TestAuthzInterceptor(results(Arrays.asList(true, "true", null)));
+        ResourceState state = interceptor.process(collection(3));
+
+        assertThat(state.members()).isEmpty();
+        assertThat(interceptor.resultsNotAvailable).isEqualTo(3);
+    }
+
+    @Test
+    public void testResults() throws Exception {
+        TestAuthzInterceptor interceptor = new TestAuthzInterceptor(results(Arrays.asList(true, false, true)));
+        ResourceState state = interceptor.process(collection(3));
+
+        assertThat(state.members()).hasSize(2);
+        assertThat(state.members().get(0).id()).isEqualTo("member0");
+        assertThat(state.members().get(1).id()).isEqualTo("member2");
+        assertThat(interceptor.resultsNotAvailable).isEqualTo(0);
+    }
+
+    private static ResourceState collection(int members) {
+        ResourceState state = new DefaultResourceState("collection");
+        for (int i = 0; i < members; i++) {
+            ResourceState member = new DefaultResourceState("member" + i);
+            member.putProperty("name", "value" + i);
+            state.addMember(member);
+        }
+        return state;
+    }
+
+    private static ResourceState results(List<?> results) {
+        ResourceState state = new DefaultResourceState();
+        state.putProperty(AuthzConstants.ATTR_AUTHZ_RESULTS, new ArrayList<>(results));
+        return state;
+    }
+
+    private static class TestAuthzInterceptor extends AuthzInterceptor {
+
+        private int resultsNotAvailable;
+
+        TestAuthzInterceptor(ResourceState authzState) {
+            super(new AuthzClient(authzState));
+        }
+
+        ResourceState process(ResourceState resourceState) {
+            List<ResourceState> authorized = new ArrayList<>();
+            processMembers(new ResourcePath("/testApp/mock"), resourceState, new DefaultSecurityContext(), authorized::add);
+            assertThat(authorized).containsExactly(resourceState);
+            return resourceState;
+        }
+
+        @Override
+        protected void resultsNotAvailable(ClientResourceResponse authzResponse, int members) {
+            super.resultsNotAvailable(authzResponse, members);
+            this.resultsNotAvailable = members;
+        }
+    }
+
+    private static class AuthzClient implements Client {
+
+        private final ResourceState authzState;
+
+        AuthzClient(ResourceState authzState) {
+            this.authzState = authzState;
+        }
+
+        @Override
+        public void read(RequestContext context, String path, Consumer<ClientResourceResponse> handler) {
+            handler.accept(new ClientResourceResponse() {
+                @Override
+                public String path() {
+                    return path;
+                }
+
+                @Override
+                public ResponseType responseType() {
+                    return ResponseType.OK;
+                }
+
+                @Override
+                public ResourceState state() {
+                    return authzState;
+                }
+            });
+        }
+
+        @Override
+        public void create(RequestContext context, String path, ResourceState state, Consumer<ClientResourceResponse> handler) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ResourceState create(RequestContext context, String path, ResourceState state) throws Exception {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ResourceState read(RequestContext context, String path) throws Exception {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void update(RequestContext context, String path, ResourceState state, Consumer<ClientResourceResponse> handler) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ResourceState update(RequestContext context, String path, ResourceState state) throws Exception {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void patch(RequestContext context, String path, ResourceState state, Consumer<ClientResourceResponse> handler) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ResourceState patch(RequestContext context, String path, ResourceState state) throws Exception {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void delete(RequestContext context, String path, Consumer<ClientResourceResponse> handler) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ResourceState delete(RequestContext context, String path) throws Exception {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
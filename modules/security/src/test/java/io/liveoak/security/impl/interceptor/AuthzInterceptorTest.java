@@ -11,6 +11,7 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.liveoak.common.DefaultSecurityContext;
 import io.liveoak.common.security.AuthzConstants;
 import io.liveoak.common.security.AuthzDecision;
+import io.liveoak.common.security.AuthzPolicyVersion;
 import io.liveoak.common.DefaultReturnFields;
 import io.liveoak.interceptor.extension.InterceptorExtension;
 import io.liveoak.security.extension.SecurityExtension;
@@ -74,6 +75,7 @@ public class AuthzInterceptorTest extends AbstractResourceTestCase {
     public void before() throws Exception {
         AuthzServiceRootResource authzRootResource = (AuthzServiceRootResource) this.system.service(LiveOak.resource("testApp", "authz"));
         this.mockPolicy = (InterceptorTestAuthzResource) this.system.service(LiveOak.resource("testApp", "mock-policy" ) );
+        this.mockPolicy.setPolicyVersion((AuthzPolicyVersion) this.system.service(LiveOak.authzPolicyVersion("testApp")));
     }
 
     @Test
@@ -8,6 +8,7 @@ package io.liveoak.security.impl.interceptor;
 
 import io.liveoak.common.security.AuthzConstants;
 import io.liveoak.common.security.AuthzDecision;
+import io.liveoak.common.security.AuthzPolicyVersion;
 import io.liveoak.spi.RequestContext;
 import io.liveoak.spi.resource.RootResource;
 import io.liveoak.spi.resource.async.PropertySink;
@@ -19,6 +20,7 @@ import io.liveoak.spi.resource.async.Resource;
 public class InterceptorTestAuthzResource implements RootResource {
 
     private Resource parent;
+    private AuthzPolicyVersion policyVersion;
     private String id;
     private AuthzWorker worker;
 
@@ -43,6 +45,13 @@ public class InterceptorTestAuthzResource implements RootResource {
 
     public void setWorker(AuthzWorker worker) {
         this.worker = worker;
+        if (this.policyVersion != null) {
+            this.policyVersion.bump();
+        }
+    }
+
+    public void setPolicyVersion(AuthzPolicyVersion policyVersion) {
+        this.policyVersion = policyVersion;
     }
 
     @Override
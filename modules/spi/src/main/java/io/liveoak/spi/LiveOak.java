@@ -14,6 +14,8 @@ public class LiveOak {
     public static final ServiceName CODEC_MANAGER = LIVEOAK.append("codec-manager");
     public static final ServiceName PIPELINE_CONFIGURATOR = LIVEOAK.append("pipeline-configurator");
     public static final ServiceName WORKER_POOL = LIVEOAK.append("worker-pool");
+    public static final ServiceName SLOW_REQUEST_LOG = LIVEOAK.append("slow-request-log");
+    public static final ServiceName EVENT_LOOPS = LIVEOAK.append("event-loops");
 
     public static final ServiceName DEPLOYER = LIVEOAK.append("deployer");
     public static final ServiceName DIRECT_DEPLOYER = DEPLOYER.append("direct");
@@ -65,6 +67,10 @@ public class LiveOak {
         return LIVEOAK.append("application-admin", appId);
     }
 
+    public static ServiceName authzPolicyVersion(String appId) {
+        return LIVEOAK.append("authz-policy-version", appId);
+    }
+
     public static ServiceName resource(String appId, String resourceId) {
         return LIVEOAK.append("application-resource", appId, resourceId);
     }
@@ -23,6 +23,9 @@ public class MediaType {
     public static final MediaType JSON = new MediaType("application/json");
     public static final MediaType XML = new MediaType("text/xml");
 
+    // JSON merge patch (RFC 7396), decoded as JSON
+    public static final MediaType JSON_MERGE_PATCH = new MediaType("application/merge-patch+json");
+
     // Custom JSON media types
     public static final MediaType LOCAL_APP_JSON = new MediaType("application/liveoak-local-app+json");
 
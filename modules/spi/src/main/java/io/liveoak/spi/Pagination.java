@@ -49,4 +49,19 @@ public interface Pagination {
      */
     int limit();
 
+    /**
+     * Get the continuation token to start after.
+     *
+     * <p>
+     * Tokens are opaque, and handed out by collections in the link to their next page. Items are
+     * returned starting right after the last item of the page the token was created for, so that
+     * the offset isn't needed to reach deep pages. An offset is applied from there.
+     * </p>
+     *
+     * @return The token, or <code>null</code> to start at the beginning.
+     */
+    default String after() {
+        return null;
+    }
+
 }
@@ -29,6 +29,13 @@ public interface RequestContext {
 
     Sorting sorting();
 
+    /**
+     * @return Stages the request went through so far, {@link RequestTrace#NONE} if it's not traced.
+     */
+    default RequestTrace trace() {
+        return RequestTrace.NONE;
+    }
+
     void dispose();
 
     void onDispose(Runnable runnable);
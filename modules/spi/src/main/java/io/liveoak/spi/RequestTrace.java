@@ -0,0 +1,147 @@
+/*
+ * Copyright 2014 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package io.liveoak.spi;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Timestamps of the stages a request passes through on its way through the container.
+ *
+ * <p>Each {@link #mark(String)} starts a new stage, which lasts until the next mark or until the
+ * trace is finished. Stages may be marked from different threads, but never concurrently for the
+ * same request.</p>
+ *
+ * <p>Tracing is off unless the {@link #ENABLED_PROPERTY} system property is set. While it's off,
+ * {@link #start()} returns {@link #NONE}, whose marks cost nothing. Callers building stage names
+ * should check {@link #isEnabled()} first.</p>
+ */
+public class RequestTrace {
+
+    public static final String ENABLED_PROPERTY = "io.liveoak.trace.enabled";
+
+    public static final RequestTrace NONE = new RequestTrace(false);
+
+    private static final boolean ENABLED = Boolean.getBoolean(ENABLED_PROPERTY);
+
+    /**
+     * @return a new trace starting now, or {@link #NONE} if tracing is disabled.
+     */
+    public static RequestTrace start() {
+        return ENABLED ? new RequestTrace(true) : NONE;
+    }
+
+    protected RequestTrace(boolean enabled) {
+        this.enabled = enabled;
+        this.startNanos = System.nanoTime();
+        if (enabled) {
+            this.names = new String[8];
+            this.times = new long[8];
+        } else {
+            this.names = null;
+            this.times = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    public void mark(String stage) {
+        if (!this.enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        synchronized (this) {
+            if (this.endNanos != 0) {
+                return;
+            }
+            if (this.count == this.names.length) {
+                this.names = Arrays.copyOf(this.names, this.count * 2);
+                this.times = Arrays.copyOf(this.times, this.count * 2);
+            }
+            this.names[this.count] = stage;
+            this.times[this.count] = now;
+            ++this.count;
+        }
+    }
+
+    /**
+     * End the last stage.
+     *
+     * @return true if this call finished the trace, false if it was already finished or tracing is disabled.
+     */
+    public synchronized boolean finish() {
+        if (!this.enabled || this.endNanos != 0) {
+            return false;
+        }
+        this.endNanos = System.nanoTime();
+        return true;
+    }
+
+    /**
+     * @return time from the start until the trace was finished, or until now if it's not finished yet.
+     */
+    public synchronized long durationNanos() {
+        return (this.endNanos != 0 ? this.endNanos : System.nanoTime()) - this.startNanos;
+    }
+
+    public synchronized List<Stage> stages() {
+        if (!this.enabled) {
+            return Collections.emptyList();
+        }
+        long end = this.endNanos != 0 ? this.endNanos : System.nanoTime();
+        List<Stage> stages = new ArrayList<>(this.count);
+        for (int i = 0; i < this.count; ++i) {
+            long stageEnd = (i + 1 < this.count) ? this.times[i + 1] : end;
+            stages.add(new Stage(this.names[i], this.times[i] - this.startNanos, stageEnd - this.times[i]));
+        }
+        return stages;
+    }
+
+    public static class Stage {
+
+        Stage(String name, long offsetNanos, long durationNanos) {
+            this.name = name;
+            this.offsetNanos = offsetNanos;
+            this.durationNanos = durationNanos;
+        }
+
+        public String name() {
+            return this.name;
+        }
+
+        /**
+         * @return time from the start of the trace until this stage began.
+         */
+        public long offsetNanos() {
+            return this.offsetNanos;
+        }
+
+        public long durationNanos() {
+            return this.durationNanos;
+        }
+
+        @Override
+        public String toString() {
+            return this.name + "@" + this.offsetNanos + "+" + this.durationNanos;
+        }
+
+        private final String name;
+        private final long offsetNanos;
+        private final long durationNanos;
+    }
+
+    private final boolean enabled;
+    private final long startNanos;
+    private long endNanos;
+
+    private String[] names;
+    private long[] times;
+    private int count;
+}
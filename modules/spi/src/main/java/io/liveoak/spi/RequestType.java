@@ -12,9 +12,18 @@ public enum RequestType {
     CREATE,
     READ,
     UPDATE,
-    DELETE;
+    DELETE,
+    PATCH;
+
+    /**
+     * The type this one is a more specific form of, or itself. A PATCH is an UPDATE of part of a resource,
+     * so that interceptors and policies configured for UPDATE apply to it as well.
+     */
+    public RequestType general() {
+        return this == PATCH ? UPDATE : this;
+    }
 
     public boolean matches(String toMatch) {
-        return this.toString().equals(toMatch) || "*".equals(toMatch);
+        return this.toString().equals(toMatch) || "*".equals(toMatch) || (general() != this && general().matches(toMatch));
     }
 }
@@ -15,6 +15,7 @@ public interface ResourceErrorResponse extends ResourceResponse {
         READ_NOT_SUPPORTED,
         UPDATE_NOT_SUPPORTED,
         DELETE_NOT_SUPPORTED,
+        SERVICE_UNAVAILABLE,
         INTERNAL_ERROR
     }
 
@@ -25,6 +25,10 @@ public interface Client {
 
     ResourceState update(RequestContext context, String path, ResourceState state) throws Exception;
 
+    void patch(RequestContext context, String path, ResourceState state, Consumer<ClientResourceResponse> handler);
+
+    ResourceState patch(RequestContext context, String path, ResourceState state) throws Exception;
+
     void delete(RequestContext context, String path, Consumer<ClientResourceResponse> handler);
 
     ResourceState delete(RequestContext context, String path) throws Exception;
@@ -20,6 +20,7 @@ public interface ClientResourceResponse {
         READ_NOT_SUPPORTED,
         UPDATE_NOT_SUPPORTED,
         DELETE_NOT_SUPPORTED,
+        SERVICE_UNAVAILABLE,
         INTERNAL_ERROR,
     }
 
@@ -28,4 +29,11 @@ public interface ClientResourceResponse {
     ResponseType responseType();
 
     ResourceState state();
+
+    /**
+     * The message of an error response, if any.
+     */
+    default String message() {
+        return null;
+    }
 }
@@ -0,0 +1,44 @@
+package io.liveoak.spi.container;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import io.liveoak.spi.ResourcePath;
+import io.liveoak.spi.ResourceRequest;
+
+/**
+ * Bounded pool running blocking work, such as steps and encoding of {@link io.liveoak.spi.resource.BlockingResource}s.
+ *
+ * <p>Tasks may be submitted within a bulkhead, which limits how many of its tasks may be running or queued at once,
+ * so that one slow application can't take all of the pool.</p>
+ */
+public interface WorkerPool extends Executor {
+
+    /**
+     * Run the task within the bulkhead.
+     *
+     * @throws RejectedExecutionException if the pool or the bulkhead is full.
+     */
+    void execute(String bulkhead, Runnable task);
+
+    /**
+     * Run the task within the bulkhead of the application the request is addressed to.
+     *
+     * @throws RejectedExecutionException if the pool or the bulkhead is full.
+     */
+    default void execute(ResourceRequest request, Runnable task) {
+        execute(bulkhead(request.resourcePath()), task);
+    }
+
+    /**
+     * @return state of the pool and of its bulkheads, suitable for exposing as resource properties.
+     */
+    Map<String, Object> metrics();
+
+    static String bulkhead(ResourcePath path) {
+        List<ResourcePath.Segment> segments = path.segments();
+        return segments.isEmpty() ? "" : segments.get(0).name();
+    }
+}
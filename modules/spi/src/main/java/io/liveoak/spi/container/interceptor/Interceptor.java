@@ -2,6 +2,8 @@ package io.liveoak.spi.container.interceptor;
 
 import java.util.UUID;
 
+import io.liveoak.spi.ResourceRequest;
+
 /**
  * @author Bob McWhirter
  */
@@ -12,4 +14,22 @@ public interface Interceptor {
     void onOutbound(OutboundInterceptorContext context) throws Exception;
 
     void onComplete(UUID requestId);
+
+    /**
+     * Called once the response to the request has been sent. Interceptors which keep state in the attributes
+     * of the request override this one rather than {@link #onComplete(UUID)}.
+     */
+    default void onComplete(ResourceRequest request) {
+        onComplete(request.requestId());
+    }
+
+    /**
+     * Whether the interceptor can handle the response to a read whose members are streamed to the client after the
+     * outbound chain has run. The state of such a response holds the properties of the resource only.
+     *
+     * <p>Interceptors which inspect or rewrite the members of responses must return false, which is the default.</p>
+     */
+    default boolean supportsStreamedMembers(ResourceRequest request) {
+        return false;
+    }
 }
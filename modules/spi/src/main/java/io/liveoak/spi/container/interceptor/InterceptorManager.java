@@ -1,7 +1,7 @@
 package io.liveoak.spi.container.interceptor;
 
 import java.io.IOException;
-import java.util.UUID;
+import java.util.function.Consumer;
 
 import io.liveoak.spi.ResourceRequest;
 import io.liveoak.spi.ResourceResponse;
@@ -13,11 +13,29 @@ import io.netty.channel.ChannelHandlerContext;
  */
 public interface InterceptorManager {
 
+    // Attribute where the name of the chain a request goes through is saved
+    String ATTR_CHAIN_NAME = "ATTR_INTERCEPTOR_CHAIN_NAME";
+
     void fireInbound(String chainName, ChannelHandlerContext ctx, ResourceRequest request);
 
     void fireOutbound(String chainName, ChannelHandlerContext ctx, ResourceResponse response);
 
-    void fireComplete(String chainName, UUID requestId);
+    /**
+     * Run the inbound chain for a request which does not travel over a channel.
+     *
+     * @param onForward Receives the request if every interceptor forwarded it.
+     * @param onReply   Receives the response if an interceptor replied instead.
+     */
+    void fireInbound(String chainName, ResourceRequest request, Consumer<ResourceRequest> onForward, Consumer<ResourceResponse> onReply);
+
+    /**
+     * Run the outbound chain for a response which does not travel over a channel.
+     *
+     * @param onForward Receives the response once every interceptor has seen it.
+     */
+    void fireOutbound(String chainName, ResourceResponse response, Consumer<ResourceResponse> onForward);
+
+    void fireComplete(String chainName, ResourceRequest request);
 
     void register(String interceptorName, Interceptor interceptor);
 
@@ -52,6 +52,11 @@ public class DelegatingRootResource implements RootResource {
         this.delegate.updateProperties(ctx, state, responder);
     }
 
+    @Override
+    public void patchProperties(RequestContext ctx, ResourceState state, Responder responder) throws Exception {
+        this.delegate.patchProperties(ctx, state, responder);
+    }
+
     @Override
     public void createMember(RequestContext ctx, ResourceState state, Responder responder) throws Exception {
         this.delegate.createMember(ctx, state, responder);
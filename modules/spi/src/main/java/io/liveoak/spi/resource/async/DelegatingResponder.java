@@ -74,6 +74,11 @@ public class DelegatingResponder implements Responder {
         delegate.internalError(cause);
     }
 
+    @Override
+    public void serviceUnavailable(String message) {
+        delegate.serviceUnavailable(message);
+    }
+
     @Override
     public void invalidRequest(String message) {
         delegate.invalidRequest(message);
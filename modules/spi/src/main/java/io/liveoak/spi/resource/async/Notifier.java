@@ -1,5 +1,7 @@
 package io.liveoak.spi.resource.async;
 
+import java.util.List;
+
 import io.liveoak.spi.ResourceResponse;
 
 /**
@@ -32,4 +34,25 @@ public interface Notifier {
      */
     void resourceUpdated(ResourceResponse resourceResponse);
 
+    /**
+     * Notify the container of several changes made together, such as by a bulk write.
+     *
+     * @param resourceResponses The responses from the created, updated and deleted resources, in order.
+     */
+    default void resourcesChanged(List<ResourceResponse> resourceResponses) {
+        for (ResourceResponse each : resourceResponses) {
+            switch (each.responseType()) {
+                case CREATED:
+                    resourceCreated(each);
+                    break;
+                case UPDATED:
+                    resourceUpdated(each);
+                    break;
+                case DELETED:
+                    resourceDeleted(each);
+                    break;
+            }
+        }
+    }
+
 }
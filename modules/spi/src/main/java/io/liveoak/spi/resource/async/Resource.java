@@ -121,6 +121,20 @@ public interface Resource {
         responder.updateNotSupported(this);
     }
 
+    /**
+     * Update part of this object's state.
+     *
+     * <p>The state is a JSON merge patch (RFC 7396): properties it holds replace those of this object,
+     * properties holding <code>null</code> are removed, nested objects are merged in turn into properties
+     * holding an object and replace any other value, and properties it doesn't hold are left untouched.</p>
+     *
+     * @param state     The inbound representation of the changes.
+     * @param responder To respond to the action.
+     */
+    default void patchProperties(RequestContext ctx, ResourceState state, Responder responder) throws Exception {
+        responder.updateNotSupported(this);
+    }
+
     /**
      * Create a new child resource of this collection.
      *
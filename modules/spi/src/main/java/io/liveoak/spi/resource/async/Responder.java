@@ -96,6 +96,16 @@ public interface Responder {
 
     void internalError(Throwable cause);
 
+    /**
+     * Indicates the request can't be handled for now, e.g. as the worker pool is saturated.
+     * Unlike an internal error, the client may retry it later.
+     *
+     * @param message
+     */
+    default void serviceUnavailable(String message) {
+        internalError(message);
+    }
+
     /**
      * Indicates the request was invalid in some manner.
      * This can include things such as missing required parameters, passing parameters in an invalid format, etc.
@@ -5,7 +5,9 @@
  */
 package io.liveoak.stomp.server;
 
+import java.util.Queue;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import io.liveoak.stomp.StompMessage;
 import io.netty.channel.Channel;
@@ -20,6 +22,7 @@ public class StompConnection {
         this.login = login;
         this.passcode = passcode;
         this.connectionId = UUID.randomUUID().toString();
+        this.channel.closeFuture().addListener((f) -> writable());
     }
 
     public String getConnectionId() {
@@ -38,9 +41,42 @@ public class StompConnection {
         this.channel.writeAndFlush(message);
     }
 
+    /**
+     * Whether messages sent now go out without piling up in the outbound buffer.
+     * A closed connection counts as writable, what is sent to it is discarded.
+     */
+    public boolean isWritable() {
+        return this.channel.isWritable() || !this.channel.isActive();
+    }
+
+    /**
+     * Run an action once, as soon as the connection is writable.
+     */
+    public void onWritable(Runnable action) {
+        this.writableActions.add(action);
+        if (isWritable()) {
+            writable();
+        }
+    }
+
+    /**
+     * Called when the outbound buffer of the connection drained.
+     */
+    public void writable() {
+        Runnable action;
+        while ((action = this.writableActions.poll()) != null) {
+            action.run();
+        }
+    }
+
+    public void close() {
+        this.channel.close();
+    }
+
     private String connectionId;
     private final Channel channel;
     private final String login;
     private final String passcode;
+    private final Queue<Runnable> writableActions = new ConcurrentLinkedQueue<>();
 
 }
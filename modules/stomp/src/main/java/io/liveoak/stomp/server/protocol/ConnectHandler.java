@@ -53,6 +53,15 @@ public class ConnectHandler extends AbstractControlFrameHandler {
         ctx.writeAndFlush(connected);
     }
 
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        StompConnection stompConnection = ctx.channel().attr(CONNECTION).get();
+        if (stompConnection != null && ctx.channel().isWritable()) {
+            stompConnection.writable();
+        }
+        super.channelWritabilityChanged(ctx);
+    }
+
     private Heartbeat checkHeartbeat(StompFrame frame, Stomp.Version version) throws StompServerException {
         Heartbeat hb = null;
         String heartBeat = frame.headers().get(Headers.HEARTBEAT);